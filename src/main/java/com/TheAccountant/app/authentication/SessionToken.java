@@ -0,0 +1,51 @@
+package com.TheAccountant.app.authentication;
+
+/**
+ * Content of a signed session token, issued on login and sent back by the client with each request as
+ * "Authorization: Bearer token".
+ */
+public class SessionToken {
+
+    private final long sessionId;
+    private final long userId;
+    private final String username;
+    private final String ipAddress;
+    private final long expirationTime;
+
+    public SessionToken(long sessionId, long userId, String username, String ipAddress, long expirationTime) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.username = username;
+        this.ipAddress = ipAddress;
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * @return the id of the 'authenticated_session' row created on login, used to revoke the token
+     */
+    public long getSessionId() {
+        return sessionId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * @return the IP address of the login, the token being rejected when sent from another address
+     */
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    /**
+     * @return the expiration time of the session, in milliseconds since the epoch
+     */
+    public long getExpirationTime() {
+        return expirationTime;
+    }
+}
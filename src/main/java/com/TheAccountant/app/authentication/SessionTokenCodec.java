@@ -0,0 +1,87 @@
+package com.TheAccountant.app.authentication;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Encodes the session tokens as "payload.signature", the payload being the URL safe Base64 of
+ * "version:sessionId:userId:expirationTime:ipAddress:username" and the signature its HMAC-SHA256. The IP address
+ * is itself Base64 encoded, IPv6 addresses holding the field separator. A token is checked with the key only,
+ * without reading the database.
+ */
+public class SessionTokenCodec {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "2";
+    private static final char SEPARATOR = '.';
+    private static final String FIELD_SEPARATOR = ":";
+
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param key : the HMAC key, shared by all the nodes
+     */
+    public SessionTokenCodec(byte[] key) {
+
+        SecretKeySpec keySpec = new SecretKeySpec(key, HMAC_ALGORITHM);
+        mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac threadMac = Mac.getInstance(HMAC_ALGORITHM);
+                threadMac.init(keySpec);
+                return threadMac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    public String encode(SessionToken sessionToken) {
+
+        String payload = VERSION + FIELD_SEPARATOR + sessionToken.getSessionId() + FIELD_SEPARATOR
+                + sessionToken.getUserId() + FIELD_SEPARATOR + sessionToken.getExpirationTime() + FIELD_SEPARATOR
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(sessionToken.getIpAddress().getBytes(StandardCharsets.UTF_8))
+                + FIELD_SEPARATOR + sessionToken.getUsername();
+        String encodedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + SEPARATOR + Base64.getUrlEncoder().withoutPadding().encodeToString(sign(encodedPayload));
+    }
+
+    /**
+     * Check the signature of a token and read its content. The expiration and the revocation are not checked.
+     *
+     * @param token : the token, without the "Bearer" prefix
+     * @return the content of the token, or null if the token is malformed or its signature is not valid
+     */
+    public SessionToken decode(String token) {
+
+        int separatorIndex = token.indexOf(SEPARATOR);
+        if (separatorIndex <= 0) {
+            return null;
+        }
+        String encodedPayload = token.substring(0, separatorIndex);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(separatorIndex + 1));
+            if (!MessageDigest.isEqual(sign(encodedPayload), signature)) {
+                return null;
+            }
+            String payload = new String(Base64.getUrlDecoder().decode(encodedPayload), StandardCharsets.UTF_8);
+            String[] fields = payload.split(FIELD_SEPARATOR, 6);
+            if (fields.length != 6 || !VERSION.equals(fields[0])) {
+                return null;
+            }
+            String ipAddress = new String(Base64.getUrlDecoder().decode(fields[4]), StandardCharsets.UTF_8);
+            return new SessionToken(Long.parseLong(fields[1]), Long.parseLong(fields[2]), fields[5], ipAddress,
+                    Long.parseLong(fields[3]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return mac.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+}
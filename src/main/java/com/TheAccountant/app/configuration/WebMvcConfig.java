@@ -0,0 +1,46 @@
+package com.TheAccountant.app.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
+
+/**
+ * Asynchronous request processing, used by the streamed listings: the response bodies are written by a
+ * bounded pool of threads instead of a new thread per request, and a stream is cut after an explicit timeout.
+ */
+@Configuration
+public class WebMvcConfig extends WebMvcConfigurerAdapter {
+
+    @Value("${mvc.async.threads:8}")
+    private int asyncThreads;
+
+    /**
+     * Responses waiting for a thread, after which the new ones are rejected
+     */
+    @Value("${mvc.async.queueCapacity:50}")
+    private int asyncQueueCapacity;
+
+    @Value("${mvc.async.timeoutMillis:600000}")
+    private long asyncTimeoutMillis;
+
+    @Bean
+    public ThreadPoolTaskExecutor mvcAsyncTaskExecutor() {
+
+        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        taskExecutor.setCorePoolSize(asyncThreads);
+        taskExecutor.setMaxPoolSize(asyncThreads);
+        taskExecutor.setQueueCapacity(asyncQueueCapacity);
+        taskExecutor.setThreadNamePrefix("mvc-async-");
+        return taskExecutor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+
+        configurer.setTaskExecutor(mvcAsyncTaskExecutor());
+        configurer.setDefaultTimeout(asyncTimeoutMillis);
+    }
+}
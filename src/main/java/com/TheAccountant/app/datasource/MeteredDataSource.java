@@ -0,0 +1,46 @@
+package com.TheAccountant.app.datasource;
+
+import com.TheAccountant.util.LatencyHistogram;
+import org.apache.tomcat.jdbc.pool.DataSource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Tomcat JDBC connection pool that also records how long the callers had to wait
+ * in order to acquire a connection from the pool.
+ */
+public class MeteredDataSource extends DataSource {
+
+    private final LatencyHistogram acquireTimeHistogram = new LatencyHistogram();
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        long start = System.nanoTime();
+        try {
+            return super.getConnection();
+        } finally {
+            acquireTimeHistogram.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+
+        long start = System.nanoTime();
+        try {
+            return super.getConnection(username, password);
+        } finally {
+            acquireTimeHistogram.record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return the histogram of the connection acquire times
+     */
+    public LatencyHistogram getAcquireTimeHistogram() {
+
+        return acquireTimeHistogram;
+    }
+}
@@ -1,6 +1,7 @@
 package com.TheAccountant.app.filter;
 
 import com.TheAccountant.app.authentication.SessionAuthentication;
+import com.TheAccountant.app.authentication.SessionToken;
 import com.TheAccountant.service.SessionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,17 +28,34 @@ public class AuthenticationFilter implements Filter {
         }
         
         final String authorization = httpRequest.getHeader("Authorization");
-        String[] credentials = sessionService.extractUsernameAndPassword(authorization);
-        String loginUsername = credentials.length == 0 ? null : credentials[0];
         String clientIpAddress = extractClientIpAddress(httpRequest);
+        // a session token is checked locally; the Basic credentials are only decoded for the sessions opened
+        // before the tokens were issued, new logins not registering them
+        SessionToken sessionToken = null;
+        String loginUsername = null;
+        if (sessionService.isSessionToken(authorization)) {
+            sessionToken = sessionService.validateSessionToken(authorization, clientIpAddress);
+            loginUsername = sessionToken == null ? null : sessionToken.getUsername();
+        } else {
+            String[] credentials = sessionService.extractUsernameAndPassword(authorization);
+            loginUsername = credentials.length == 0 ? null : credentials[0];
+        }
+        // the logged user is loaded on first use and kept on this authentication until the end of the request
         SecurityContextHolder.getContext().setAuthentication(new SessionAuthentication(loginUsername, clientIpAddress));
         
-        if (isAllowedURL(httpRequest.getRequestURI())) {
-            chain.doFilter(request, response);
-        } else if ((authorization != null && sessionService.isAValidAuthenticationString(authorization, clientIpAddress))) {
-            chain.doFilter(request, response);
-        } else {
-            httpResponse.setStatus(401);
+        try {
+            if (isAllowedURL(httpRequest.getRequestURI())) {
+                chain.doFilter(request, response);
+            } else if (sessionToken != null) {
+                chain.doFilter(request, response);
+            } else if ((authorization != null && !sessionService.isSessionToken(authorization) && sessionService.isAValidAuthenticationString(authorization, clientIpAddress))) {
+                chain.doFilter(request, response);
+            } else {
+                httpResponse.setStatus(401);
+            }
+        } finally {
+            // do not leak the user loaded for this request to the next request served by the same thread
+            SecurityContextHolder.clearContext();
         }
     }
     
@@ -21,6 +21,7 @@ class CorsFilter implements Filter {
         response.setHeader("Access-Control-Allow-Methods", "POST, PUT, GET, OPTIONS, DELETE");
         response.setHeader("Access-Control-Allow-Headers", "x-requested-with, Content-Type, "
                 + "XSFR-TOKEN, X-CSRF-TOKEN, X-XSRF-TOKEN, Authorization, Access-Control-Allow-Origin");
+        response.setHeader("Access-Control-Expose-Headers", "X-Session-Token");
         response.setHeader("Access-Control-Max-Age", "3600");
         if (request.getMethod() != "OPTIONS") {
             chain.doFilter(req, res);
@@ -12,10 +12,10 @@ import com.TheAccountant.dto.user.AppUserDTO;
 import com.TheAccountant.dto.user.ChangePasswordDTO;
 import com.TheAccountant.dto.user.ForgotPasswordDTO;
 import com.TheAccountant.dto.user.RenewForgotPasswordDTO;
-import com.TheAccountant.model.session.AuthenticatedSession;
 import com.TheAccountant.model.user.AppUser;
 import com.TheAccountant.model.user.ForgotPassword;
 import com.TheAccountant.model.user.UserRegistration;
+import com.TheAccountant.service.CurrencyRepricingService;
 import com.TheAccountant.service.SessionService;
 import com.TheAccountant.util.ControllerUtil;
 import com.TheAccountant.util.EmailValidator;
@@ -23,11 +23,11 @@ import com.TheAccountant.util.PasswordEncrypt;
 import com.TheAccountant.util.UserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import javax.mail.MessagingException;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
 import java.sql.Timestamp;
@@ -41,6 +41,11 @@ import java.util.Currency;
 @RestController
 @RequestMapping(value = "/user")
 public class AppUserController {
+
+    /**
+     * Response header of the login, holding the session token to be sent as "Authorization: Bearer token"
+     */
+    public static final String SESSION_TOKEN_HEADER = "X-Session-Token";
     
     @Autowired
     private AppUserDao appUserDao;
@@ -65,6 +70,9 @@ public class AppUserController {
     
     @Autowired
     private SessionService sessionService;
+
+    @Autowired
+    private CurrencyRepricingService currencyRepricingService;
     
     @RequestMapping(value = "/add", method = RequestMethod.POST)
     @Transactional
@@ -82,8 +90,6 @@ public class AppUserController {
             return new ResponseEntity<>(appUserConverter.convertTo(createdAppUser), HttpStatus.OK);
         } catch (DataIntegrityViolationException dive) {
             throw new ConflictException(dive.getMostSpecificCause().getMessage());
-        } catch (MessagingException me) {
-            throw new BadRequestException(me.getMessage());
         }
     }
     
@@ -103,7 +109,11 @@ public class AppUserController {
         boolean removed = false;
         String clientIpAddress = ControllerUtil.getRequestClienIpAddress();
         if (clientIpAddress != null) {
-            removed = sessionService.removeAuthenticatedSession(authorization, clientIpAddress);
+            if (sessionService.isSessionToken(authorization)) {
+                removed = sessionService.revokeSessionToken(authorization, clientIpAddress);
+            } else {
+                removed = sessionService.removeAuthenticatedSession(authorization, clientIpAddress);
+            }
         }
         if (removed) {
             return new ResponseEntity<HttpStatus>(HttpStatus.OK);
@@ -149,10 +159,15 @@ public class AppUserController {
         if (!appUser.isActivated()) {
             throw new BadRequestException("User not activated");
         }
-        String passwordToLogin = passwordEncrypt.encryptPassword(authenticationPassword);
-        if (passwordToLogin.equals(appUser.getPassword())) {
-            handleSuccessfulLogin(appUser, authorization, clientIpAddress);
-            return new ResponseEntity<>(appUserConverter.convertTo(appUser), HttpStatus.OK);
+        if (passwordEncrypt.matches(authenticationPassword, appUser.getPassword())) {
+            if (passwordEncrypt.needsRehash(appUser.getPassword())) {
+                appUser.setPassword(passwordEncrypt.encryptPassword(authenticationPassword));
+                appUserDao.save(appUser);
+            }
+            String sessionToken = sessionService.openTokenSession(appUser.getUsername(), appUser.getUserId(), clientIpAddress);
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(SESSION_TOKEN_HEADER, sessionToken);
+            return new ResponseEntity<>(appUserConverter.convertTo(appUser), headers, HttpStatus.OK);
         } else {
             throw new BadRequestException("Incorrect password");
         }
@@ -169,10 +184,8 @@ public class AppUserController {
         } else if (np.length() < 8) {
             throw new BadRequestException("Password must have at least 8 characters!");
         }
-        String oldPassEncrypted = passwordEncrypt.encryptPassword(op);
-
         AppUser loggedUser = userUtil.extractLoggedAppUserFromDatabase();
-        if (!loggedUser.getPassword().equals(oldPassEncrypted)) {
+        if (!passwordEncrypt.matches(op, loggedUser.getPassword())) {
             throw new BadRequestException("Invalid parameters!");
         }
 
@@ -198,11 +211,7 @@ public class AppUserController {
             throw new BadRequestException("No user exists for this e-mail address!");
         }
 
-        try {
-            userUtil.generateForgotPassword(appUser);
-        } catch (MessagingException me) {
-            throw new BadRequestException(me.getMessage());
-        }
+        userUtil.generateForgotPassword(appUser);
 
         return new ResponseEntity<>(HttpStatus.OK);
     }
@@ -263,11 +272,18 @@ public class AppUserController {
             throw new BadRequestException("Default currency should not be null!");
         }
 
+        Currency defaultCurrency;
         try {
-            user.setDefaultCurrency(Currency.getInstance(defaultCurrencyValue));
+            defaultCurrency = Currency.getInstance(defaultCurrencyValue);
         } catch (Exception e) {
             throw new BadRequestException("Invalid currency!");
         }
+        if (!defaultCurrency.equals(user.getDefaultCurrency())) {
+            user.setDefaultCurrency(defaultCurrency);
+            appUserDao.save(user);
+            // amounts already registered are converted in background, after the new currency is committed
+            currencyRepricingService.requestRepricing(user.getUserId());
+        }
         return new ResponseEntity<DefaultCurrencyDTO>(HttpStatus.OK);
     }
 
@@ -299,19 +315,4 @@ public class AppUserController {
             return new ResponseEntity<>(appUserConverter.convertTo(user), HttpStatus.OK);
         }
     }
-    
-    /**
-     * Register session details for the current user logged.
-     *
-     * @param appUser : currently user logged.
-     * @param clientIpAddress
-     *      the HTTP request IP address
-     * @param authorizationString
-     *      the basic authentication string for the current user
-     */
-    private void handleSuccessfulLogin(AppUser appUser, String authorizationString, String clientIpAddress) {
-    
-        Timestamp expirationTime = sessionService.calculateExpirationTimeStartingFromNow();
-        sessionService.addAuthenticatedSession(new AuthenticatedSession(authorizationString, appUser.getUsername(), clientIpAddress, expirationTime));
-    }
 }
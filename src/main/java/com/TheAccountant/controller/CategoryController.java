@@ -10,6 +10,7 @@ import com.TheAccountant.dto.charge.ChargeDTO;
 import com.TheAccountant.model.category.Category;
 import com.TheAccountant.model.payment.PaymentType;
 import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.CategoryTotalService;
 import com.TheAccountant.service.PaymentService;
 import com.TheAccountant.service.exception.ServiceException;
 import com.TheAccountant.util.UserUtil;
@@ -45,6 +46,9 @@ public class CategoryController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
     @RequestMapping(value = "/add", method = RequestMethod.POST)
     @Transactional
     public ResponseEntity<CategoryDTO> createCategory(@RequestBody @Valid Category category) {
@@ -73,7 +77,7 @@ public class CategoryController {
     public ResponseEntity<CategoryDTO> getCategory(@PathVariable("id") long id) {
     
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        Category category = categoryDao.findOne(id);
+        Category category = categoryDao.fetchOne(id);
         if (category == null) {
             throw new NotFoundException("Category not found");
         } else if (category.getUser().getUserId() != user.getUserId()) {
@@ -87,12 +91,12 @@ public class CategoryController {
     public ResponseEntity<List<CategoryDTO>> getAllCategories() {
     
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        List<Category> categories = categoryDao.findByUsername(user.getUsername());
+        List<Category> categories = categoryDao.findByUserId(user.getUserId());
 
         if (categories == null || categories.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
-        return new ResponseEntity<>(getListOfCategoryDTOs(new HashSet<>(categories)), HttpStatus.OK);
+        return new ResponseEntity<>(categoryConverter.convertToList(categories), HttpStatus.OK);
     }
     
     @RequestMapping(value = "/update/{id}", method = RequestMethod.POST)
@@ -128,12 +132,13 @@ public class CategoryController {
     
         try {
             userUtil.extractLoggedAppUserFromDatabase();
-            Category category = categoryDao.findOne(id);
+            Category category = categoryDao.fetchOne(id);
             if(category == null){
                 throw new NotFoundException("Category not found");
             }
             categoryDao.delete(id);
             categoryDao.flush();
+            categoryTotalService.deleteCategoryTotals(id, category.getUser().getUserId());
         } catch (EmptyResultDataAccessException emptyResultDataAccessException) {
             throw new NotFoundException(emptyResultDataAccessException.getMessage());
         }
@@ -145,17 +150,9 @@ public class CategoryController {
     public ResponseEntity<String> deleteAll() {
     
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        categoryDao.deleteAllByUsername(user.getUsername());
+        categoryDao.deleteAllByUserId(user.getUserId());
         categoryDao.flush();
+        categoryTotalService.deleteUserTotals(user.getUserId());
         return new ResponseEntity<>("Categories deleted", HttpStatus.NO_CONTENT);
     }
-    
-    private List<CategoryDTO> getListOfCategoryDTOs(Set<Category> categories) {
-    
-        List<CategoryDTO> categoryDTOs = new ArrayList<CategoryDTO>();
-        categories.stream().forEach(category -> {
-            categoryDTOs.add(categoryConverter.convertTo(category));
-        });
-        return categoryDTOs;
-    }
 }
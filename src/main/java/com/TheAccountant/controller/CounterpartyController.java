@@ -19,7 +19,6 @@ import org.springframework.web.bind.annotation.*;
 import javax.transaction.Transactional;
 import javax.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Created by tudor.grigoriu on 3/17/2017.
@@ -52,14 +51,11 @@ public class CounterpartyController {
     @RequestMapping(method = RequestMethod.GET)
     @Transactional
     public ResponseEntity<List<CounterpartyDTO>> findAll() {
-        AppUser appUser = userUtil.extractLoggedAppUserFromDatabase();;
+        AppUser appUser = userUtil.extractLoggedAppUserFromDatabase();
         if (appUser == null) {
             throw new NotFoundException("User not found");
         }
-        List<CounterpartyDTO> result = counterpartyDao.fetchAll(appUser.getUsername())
-                .stream()
-                .map(counterparty -> counterpartyConverter.convertTo(counterparty))
-                .collect(Collectors.toList());
+        List<CounterpartyDTO> result = counterpartyConverter.convertToList(counterpartyDao.fetchAll(appUser.getUserId()));
         return new ResponseEntity<>(result, HttpStatus.OK);
     }
 
@@ -67,7 +63,7 @@ public class CounterpartyController {
     @Transactional
     public ResponseEntity<String> update(@PathVariable("id") Long id, @RequestBody @Valid Counterparty counterparty) {
 
-        Counterparty oldCounterparty = counterpartyDao.findOne(id);
+        Counterparty oldCounterparty = counterpartyDao.fetchOne(id);
         if (oldCounterparty == null) {
             throw new NotFoundException("Counterparty not found");
         }
@@ -86,12 +82,11 @@ public class CounterpartyController {
     public ResponseEntity<String> delete(@PathVariable("id") Long id) {
 
         try {
-            userUtil.extractLoggedAppUserFromDatabase();
-            Counterparty counterparty = counterpartyDao.findOne(id);
+            AppUser loggedUser = userUtil.extractLoggedAppUserFromDatabase();
+            Counterparty counterparty = counterpartyDao.fetchOne(id);
             if(counterparty == null){
                 throw new NotFoundException("Counterparty not found");
             }
-            AppUser loggedUser = userUtil.extractLoggedAppUserFromDatabase();
             if(loggedUser.getUserId() != counterparty.getUser().getUserId()){
                 throw new BadRequestException("Bad request!");
             }
@@ -8,26 +8,37 @@ import com.TheAccountant.converter.NotificationConverter;
 import com.TheAccountant.dao.CategoryDao;
 import com.TheAccountant.dao.ExpenseDao;
 import com.TheAccountant.dto.expense.ExpenseDTO;
+import com.TheAccountant.dto.expense.ExpenseReportDTO;
+import com.TheAccountant.dto.expense.ExpenseTotalDTO;
 import com.TheAccountant.dto.notification.NotificationEntityWrapperDTO;
+import com.TheAccountant.dto.page.CursorPageDTO;
 import com.TheAccountant.model.category.Category;
 import com.TheAccountant.model.expense.Expense;
 import com.TheAccountant.model.notification.Notification;
 import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.CategoryTotalService;
+import com.TheAccountant.service.JsonStreamService;
 import com.TheAccountant.service.NotificationService;
+import com.TheAccountant.util.ControllerUtil;
 import com.TheAccountant.util.CurrencyUtil;
+import com.TheAccountant.util.PageCursor;
 import com.TheAccountant.util.UserUtil;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.transaction.Transactional;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
 import java.sql.Timestamp;
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * REST controller for expense entity
@@ -38,6 +49,9 @@ import java.util.*;
 @RequestMapping(value = "/expense")
 public class ExpenseController extends CurrencyHolderController {
 
+    private static final String GROUP_BY_CATEGORY = "category";
+    private static final List<String> GROUP_BY_PERIODS = Arrays.asList("day", "week", "month");
+
     @Autowired
     private ExpenseDao expenseDao;
     
@@ -55,6 +69,12 @@ public class ExpenseController extends CurrencyHolderController {
 
     @Autowired
     private NotificationService notificationService;
+
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
+    @Autowired
+    private JsonStreamService jsonStreamService;
     
     @RequestMapping(value = "/add", method = RequestMethod.POST)
     @Transactional
@@ -64,25 +84,31 @@ public class ExpenseController extends CurrencyHolderController {
             if (expenses == null || expenses.length == 0) {
                 throw new BadRequestException("No expenses found in request!");
             } else {
-                List<ExpenseDTO> createdExpenseListDTO = new ArrayList<>();
-                int index = 0;
-                for (Expense expense : expenses) {
-                    if (CurrencyUtil.getCurrency(expense.getCurrency()) == null) {
-                        throw new BadRequestException("Wrong currency code for index [" + index + "] and Currency code [" + expense.getCurrency() + "]!");
-                    }
+                validateExpenses(expenses);
 
-                    AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-                    Category category = resolveCategory(user, expense.getCategory().getName());
-                    if (!user.getDefaultCurrency().getCurrencyCode().equals(expense.getCurrency())) {
-                        setDefaultCurrencyAmount(expense, user.getDefaultCurrency());
+                AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+                Map<String, Category> categories = new HashMap<>();
+                categoryDao.findUncachedByUserId(user.getUserId()).forEach(category -> categories.put(category.getName(), category));
+                List<Expense> expenseList = Arrays.asList(expenses);
+                for (Expense expense : expenseList) {
+                    String categoryName = expense.getCategory().getName();
+                    Category category = categories.get(categoryName);
+                    if (category == null) {
+                        category = createAndSaveCategory(categoryName, user);
+                        categories.put(categoryName, category);
                     }
                     expense.setCategory(category);
                     expense.setUser(user);
-
-                    ExpenseDTO createdExpenseDto = expenseConverter.convertTo(expenseDao.saveAndFlush(expense));
-                    createdExpenseListDTO.add(createdExpenseDto);
-                    index++;
                 }
+                setDefaultCurrencyAmounts(expenseList, user.getDefaultCurrency());
+
+                // a single flush, the inserts being sent in JDBC batches
+                List<Expense> createdExpenses = expenseDao.save(expenseList);
+                expenseDao.flush();
+                categoryTotalService.addExpenses(createdExpenses);
+
+                List<ExpenseDTO> createdExpenseListDTO = new ArrayList<>();
+                createdExpenses.forEach(expense -> createdExpenseListDTO.add(expenseConverter.convertTo(expense)));
                 Notification notification = notificationService.registerThresholdNotification(expenses[0].getCategory());
                 NotificationEntityWrapperDTO responseDTO = new NotificationEntityWrapperDTO(createdExpenseListDTO,
                         notificationConverter.convertTo(notification));
@@ -99,11 +125,22 @@ public class ExpenseController extends CurrencyHolderController {
     public ResponseEntity<List<ExpenseDTO>> listAllExpenses() {
 
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        Set<Expense> expenses = expenseDao.findByUsername(user.getUsername());
+        List<Expense> expenses = expenseDao.findByUserId(user.getUserId());
         if (expenses.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
-        return new ResponseEntity<>(createExpenseDTOs(expenses), HttpStatus.OK);
+        return new ResponseEntity<>(expenseConverter.convertToList(expenses), HttpStatus.OK);
+    }
+
+    /**
+     * All the expenses of the user, written while they are read from the database
+     */
+    @RequestMapping(value = "/find_all", params = "stream=true", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> streamAllExpenses() {
+
+        long userId = userUtil.extractLoggedAppUserFromDatabase().getUserId();
+        return ControllerUtil.jsonStream(outputStream -> jsonStreamService.writeArray(
+                () -> expenseDao.streamByUserId(userId), expenseConverter::convertTo, outputStream));
     }
 
     @RequestMapping(value = "/find/{id:.+}/{start_time_millis}/{end_time_millis}", method = RequestMethod.GET)
@@ -113,28 +150,128 @@ public class ExpenseController extends CurrencyHolderController {
             @PathVariable("end_time_millis") long endTimeMillis) {
 
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        Set<Expense> expenses;
+        List<Expense> expenses;
         if (id.equals("*")) {
-            expenses = expenseDao.findByTimeInterval(user.getUsername(), new Timestamp(startTimeMillis),
+            expenses = expenseDao.findByTimeInterval(user.getUserId(), new Timestamp(startTimeMillis),
                     new Timestamp(endTimeMillis));
         } else {
             validateIdIsNumber(id);
-            expenses = expenseDao.findByTimeIntervalAndCategory(user.getUsername(), Long.valueOf(id),
+            expenses = expenseDao.findByTimeIntervalAndCategory(user.getUserId(), Long.valueOf(id),
                     new Timestamp(startTimeMillis), new Timestamp(endTimeMillis));
         }
         if (expenses.isEmpty()) {
             return new ResponseEntity(HttpStatus.NO_CONTENT);
         }
-        convertExpensesToDefaultCurrency(expenses, user);
-        return new ResponseEntity(createExpenseDTOs(expenses), HttpStatus.OK);
+        return new ResponseEntity(expenseConverter.convertToList(expenses), HttpStatus.OK);
     }
 
+    /**
+     * The expenses of an interval, written while they are read from the database
+     */
+    @RequestMapping(value = "/find/{id:.+}/{start_time_millis}/{end_time_millis}", params = "stream=true", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> streamExpensesByCategoryAndTimeInterval(
+            @PathVariable("id") String id,
+            @PathVariable("start_time_millis") long startTimeMillis,
+            @PathVariable("end_time_millis") long endTimeMillis) {
+
+        long userId = userUtil.extractLoggedAppUserFromDatabase().getUserId();
+        Timestamp startDate = new Timestamp(startTimeMillis);
+        Timestamp endDate = new Timestamp(endTimeMillis);
+        Supplier<Stream<Expense>> query;
+        if (id.equals("*")) {
+            query = () -> expenseDao.streamByTimeInterval(userId, startDate, endDate);
+        } else {
+            validateIdIsNumber(id);
+            long categoryId = Long.valueOf(id);
+            query = () -> expenseDao.streamByTimeIntervalAndCategory(userId, categoryId, startDate, endDate);
+        }
+        return ControllerUtil.jsonStream(outputStream ->
+                jsonStreamService.writeArray(query, expenseConverter::convertTo, outputStream));
+    }
+
+    /**
+     * Page of the expenses of an interval, ordered by creation date and id. The next page is requested
+     * with the cursor of the current page, so reading a page does not depend on how many expenses come
+     * before it.
+     */
+    @RequestMapping(value = "/find/{id:.+}/{start_time_millis}/{end_time_millis}", params = "limit", method = RequestMethod.GET)
+    public ResponseEntity<CursorPageDTO<ExpenseDTO>> listExpensesPageByCategoryAndTimeInterval(
+            @PathVariable("id") String id,
+            @PathVariable("start_time_millis") long startTimeMillis,
+            @PathVariable("end_time_millis") long endTimeMillis,
+            @RequestParam("limit") int limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+
+        ControllerUtil.validatePageLimit(limit);
+        PageCursor pageCursor = ControllerUtil.readPageCursor(cursor);
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        // the first page starts at the beginning of the interval, the ids being positive
+        Timestamp afterDate = pageCursor != null ? pageCursor.getCreationDate() : new Timestamp(startTimeMillis);
+        long afterId = pageCursor != null ? pageCursor.getId() : 0;
+        PageRequest pageRequest = new PageRequest(0, limit);
+        List<Expense> expenses;
+        if (id.equals("*")) {
+            expenses = expenseDao.findByTimeIntervalAfter(user.getUserId(), new Timestamp(startTimeMillis),
+                    new Timestamp(endTimeMillis), afterDate, afterId, pageRequest);
+        } else {
+            validateIdIsNumber(id);
+            expenses = expenseDao.findByTimeIntervalAndCategoryAfter(user.getUserId(), Long.valueOf(id),
+                    new Timestamp(startTimeMillis), new Timestamp(endTimeMillis), afterDate, afterId, pageRequest);
+        }
+        if (expenses.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        String nextCursor = PageCursor.nextToken(expenses, limit, Expense::getCreationDate, Expense::getId);
+        return new ResponseEntity<>(new CursorPageDTO<>(expenseConverter.convertToList(expenses), nextCursor), HttpStatus.OK);
+    }
+
+    /**
+     * Totals of the expenses of an interval in the default currency of the user, computed by the
+     * database and grouped by category, day, week or month.
+     */
+    @RequestMapping(value = "/totals/{group_by}/{start_time_millis}/{end_time_millis}", method = RequestMethod.GET)
+    public ResponseEntity<ExpenseReportDTO> getExpenseTotals(
+            @PathVariable("group_by") String groupBy,
+            @PathVariable("start_time_millis") long startTimeMillis,
+            @PathVariable("end_time_millis") long endTimeMillis) {
+
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        Timestamp startDate = new Timestamp(startTimeMillis);
+        Timestamp endDate = new Timestamp(endTimeMillis);
+        List<ExpenseTotalDTO> totals = new ArrayList<>();
+        if (GROUP_BY_CATEGORY.equals(groupBy)) {
+            for (Object[] row : expenseDao.getTotalsByCategory(user.getUserId(), startDate, endDate)) {
+                ExpenseTotalDTO total = new ExpenseTotalDTO();
+                total.setCategoryId(((Number) row[0]).longValue());
+                total.setCategoryName((String) row[1]);
+                total.setTotal(((Number) row[2]).doubleValue());
+                total.setCount(((Number) row[3]).longValue());
+                totals.add(total);
+            }
+        } else if (GROUP_BY_PERIODS.contains(groupBy)) {
+            for (Object[] row : expenseDao.getTotalsByPeriod(user.getUserId(), startDate, endDate, groupBy)) {
+                ExpenseTotalDTO total = new ExpenseTotalDTO();
+                total.setPeriodStart((Timestamp) row[0]);
+                total.setTotal(((Number) row[1]).doubleValue());
+                total.setCount(((Number) row[2]).longValue());
+                totals.add(total);
+            }
+        } else {
+            throw new BadRequestException("Totals can be grouped only by category, day, week or month");
+        }
+
+        ExpenseReportDTO report = new ExpenseReportDTO();
+        report.setGroupBy(groupBy);
+        report.setCurrency(user.getDefaultCurrency().getCurrencyCode());
+        report.setTotals(totals);
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
 
     @RequestMapping(value = "/find/{id}", method = RequestMethod.GET)
     public ResponseEntity<ExpenseDTO> findExpense(@PathVariable("id") Long id) {
     
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        Expense expense = expenseDao.findOne(id);
+        Expense expense = expenseDao.fetchOne(id);
         if (expense == null) {
             throw new NotFoundException("Expense not found");
         }
@@ -149,7 +286,7 @@ public class ExpenseController extends CurrencyHolderController {
     public ResponseEntity<?> updateExpense(@PathVariable("id") Long id, @RequestBody @Valid Expense expense) {
     
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        Expense oldExpense = expenseDao.findOne(id);
+        Expense oldExpense = expenseDao.fetchOne(id);
         if (oldExpense == null) {
             throw new NotFoundException("Expense not found");
         }
@@ -170,7 +307,10 @@ public class ExpenseController extends CurrencyHolderController {
         if(shouldUpdateDefaultCurrencyAmount(expense, user, oldExpense)){
             setDefaultCurrencyAmount(expense,user.getDefaultCurrency());
         }
+        // the old values are read before the merge overwrites them
+        categoryTotalService.removeExpenses(Collections.singletonList(oldExpense));
         expense = expenseDao.saveAndFlush(expense);
+        categoryTotalService.addExpenses(Collections.singletonList(expense));
         Notification notification = notificationService.registerThresholdNotification(expense.getCategory());
         List<ExpenseDTO> expenseDTOList = new ArrayList<>();
         expenseDTOList.add(expenseConverter.convertTo(expense));
@@ -185,13 +325,14 @@ public class ExpenseController extends CurrencyHolderController {
     public ResponseEntity<String> deleteExpense(@PathVariable("id") Long id) {
         try {
             AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-            Expense expenseToBeDeleted = expenseDao.findOne(id);
+            Expense expenseToBeDeleted = expenseDao.fetchOne(id);
             if (expenseToBeDeleted == null) {
                 throw new EmptyResultDataAccessException("Expense not found", 1);
             }
             if (!(user.getUsername().equals(expenseToBeDeleted.getUser().getUsername()))) {
                 return new ResponseEntity<>("Unauthorized request", HttpStatus.BAD_REQUEST);
             }
+            categoryTotalService.removeExpenses(Collections.singletonList(expenseToBeDeleted));
             expenseDao.delete(id);
             expenseDao.flush();
         } catch (EmptyResultDataAccessException emptyResultDataAccessException) {
@@ -205,8 +346,9 @@ public class ExpenseController extends CurrencyHolderController {
     public ResponseEntity<String> deleteAll() {
     
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        expenseDao.deleteAllByUsername(user.getUsername());
+        expenseDao.deleteAllByUserId(user.getUserId());
         expenseDao.flush();
+        categoryTotalService.deleteUserTotals(user.getUserId());
         return new ResponseEntity<>("Expenses deleted", HttpStatus.NO_CONTENT);
     }
 
@@ -215,44 +357,54 @@ public class ExpenseController extends CurrencyHolderController {
     public ResponseEntity<String> deleteAllByCategory(@PathVariable("id") long categoryId) {
 
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        expenseDao.deleteAllByCategoryAndUsername(categoryId, user.getUsername());
+        expenseDao.deleteAllByCategoryAndUserId(categoryId, user.getUserId());
         expenseDao.flush();
+        categoryTotalService.deleteCategoryTotals(categoryId, user.getUserId());
         return new ResponseEntity<>("Expenses deleted", HttpStatus.NO_CONTENT);
     }
 
     private Category resolveCategory(AppUser user, String categoryName) {
-        Category category = categoryDao.findByNameAndUsername(categoryName, user.getUsername());
+        Category category = categoryDao.findByNameAndUserId(categoryName, user.getUserId());
         if (category == null) {
             category = createAndSaveCategory(categoryName, user);
         }
         return category;
     }
 
+    /**
+     * Validate all the expenses of a batch before any of them is saved.
+     */
+    private void validateExpenses(Expense[] expenses) {
+
+        for (int index = 0; index < expenses.length; index++) {
+            Expense expense = expenses[index];
+            if (expense == null) {
+                throw new BadRequestException("Missing expense for index [" + index + "]!");
+            }
+            if (CurrencyUtil.getCurrency(expense.getCurrency()) == null) {
+                throw new BadRequestException("Wrong currency code for index [" + index + "] and Currency code [" + expense.getCurrency() + "]!");
+            }
+            if (expense.getCategory() == null || expense.getCategory().getName() == null) {
+                throw new BadRequestException("Missing category for index [" + index + "]!");
+            }
+            if (expense.getCreationDate() == null) {
+                throw new BadRequestException("Missing creation date for index [" + index + "]!");
+            }
+        }
+    }
+
+    /**
+     * Save a new category without flushing, its id being taken from the sequence, so the categories created
+     * for a batch of expenses are inserted with the expenses
+     */
     private Category createAndSaveCategory(String categoryName, AppUser user) {
     
         Category category = new Category();
         category.setName(categoryName);
         category.setUser(user);
-        category = categoryDao.saveAndFlush(category);
-        return category;
+        return categoryDao.save(category);
     }
     
-    private List<ExpenseDTO> createExpenseDTOs(Set<Expense> expenses) {
-    
-        List<ExpenseDTO> expenseDTOs = new ArrayList<ExpenseDTO>();
-        expenses.stream().forEach(expense -> {
-            expenseDTOs.add(expenseConverter.convertTo(expense));
-        });
-        return expenseDTOs;
-    }
-
-    private void convertExpensesToDefaultCurrency(Set<Expense> expenses, AppUser user) {
-        expenses.stream().filter(expense -> shouldUpdateDefaultCurrencyAmount(expense, user)).forEach(expense -> {
-            setDefaultCurrencyAmount(expense, user.getDefaultCurrency());
-            expenseDao.saveAndFlush(expense);
-        });
-    }
-
     private void validateIdIsNumber(String id) {
         if(!StringUtils.isNumeric(id)){
             throw new BadRequestException("Id must be either * or a number");
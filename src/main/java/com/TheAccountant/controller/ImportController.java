@@ -0,0 +1,214 @@
+package com.TheAccountant.controller;
+
+import com.TheAccountant.controller.exception.BadRequestException;
+import com.TheAccountant.controller.exception.NotFoundException;
+import com.TheAccountant.converter.ImportJobConverter;
+import com.TheAccountant.dto.importjob.ImportJobDTO;
+import com.TheAccountant.model.importjob.ImportJob;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.StatementImportService;
+import com.TheAccountant.util.CurrencyUtil;
+import com.TheAccountant.util.UserUtil;
+import com.TheAccountant.util.statement.CsvStatementReader;
+import com.TheAccountant.util.statement.OfxStatementReader;
+import com.TheAccountant.util.statement.StatementReader;
+import com.TheAccountant.util.statement.StatementRowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * REST controller for the import of bank statements. The uploaded statement is copied to a temporary file,
+ * which is read by the import running in the background, so its size does not change the memory used.
+ * The size of the uploaded statements is bounded by import.maxUploadBytes.
+ */
+@RestController
+@RequestMapping(value = "/import")
+public class ImportController {
+
+    private static final Logger LOGGER = Logger.getLogger(ImportController.class.getName());
+
+    private static final String CSV_FORMAT = "csv";
+    private static final String OFX_FORMAT = "ofx";
+    private static final String OFX_DATE_FORMAT = "yyyyMMdd";
+
+    @Autowired
+    private UserUtil userUtil;
+
+    @Autowired
+    private StatementImportService statementImportService;
+
+    @Autowired
+    private ImportJobConverter importJobConverter;
+
+    private long maxUploadBytes;
+
+    /**
+     * Import a CSV or OFX statement sent as request body.
+     *
+     * @param columns
+     *      CSV only, the meaning of each column: date, name, description, amount, currency, category;
+     *      an empty name skips the column
+     * @param type
+     *      EXPENSE, INCOME or AUTO (negative amounts are expenses)
+     * @param decimalSeparator
+     *      '.' or ','; when missing it is inferred from each amount, and amounts such as 1,234 are rejected
+     * @return the started import job, whose progress is returned by {@link #getImportJob(long, int)}
+     */
+    @RequestMapping(value = "/{format}", method = RequestMethod.POST)
+    public ResponseEntity<ImportJobDTO> importStatement(@PathVariable("format") String format,
+                                                        @RequestParam(value = "type", defaultValue = "AUTO") String type,
+                                                        @RequestParam(value = "columns", defaultValue = "date,name,amount") String columns,
+                                                        @RequestParam(value = "delimiter", defaultValue = ",") String delimiter,
+                                                        @RequestParam(value = "header", defaultValue = "true") boolean header,
+                                                        @RequestParam(value = "date_format", defaultValue = "yyyy-MM-dd") String dateFormat,
+                                                        @RequestParam(value = "decimal_separator", required = false) String decimalSeparator,
+                                                        @RequestParam(value = "currency", required = false) String currency,
+                                                        @RequestParam(value = "category", defaultValue = "Imported") String category,
+                                                        InputStream body) {
+
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        StatementRowMapper.Type rowType;
+        try {
+            rowType = StatementRowMapper.Type.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Wrong import type [" + type + "]!");
+        }
+        String rowCurrency = currency == null ? user.getDefaultCurrency().getCurrencyCode() : currency.toUpperCase();
+        if (CurrencyUtil.getCurrency(rowCurrency) == null) {
+            throw new BadRequestException("Wrong currency code [" + currency + "]!");
+        }
+
+        String rowDateFormat = dateFormat;
+        List<String> csvColumns = null;
+        if (CSV_FORMAT.equalsIgnoreCase(format)) {
+            if (delimiter.length() != 1) {
+                throw new BadRequestException("The delimiter must be a single character!");
+            }
+            csvColumns = parseColumns(columns);
+        } else if (OFX_FORMAT.equalsIgnoreCase(format)) {
+            rowDateFormat = OFX_DATE_FORMAT;
+        } else {
+            throw new BadRequestException("Unsupported statement format [" + format + "]!");
+        }
+
+        Character rowDecimalSeparator = null;
+        if (decimalSeparator != null) {
+            if (!decimalSeparator.equals(".") && !decimalSeparator.equals(",")) {
+                throw new BadRequestException("The decimal separator must be '.' or ','!");
+            }
+            rowDecimalSeparator = decimalSeparator.charAt(0);
+        }
+
+        StatementRowMapper rowMapper;
+        try {
+            rowMapper = new StatementRowMapper(rowType, rowDateFormat, rowCurrency, category, rowDecimalSeparator);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Wrong date format [" + dateFormat + "]!");
+        }
+
+        BufferedReader statementFileReader = copyToTemporaryFile(body);
+        StatementReader statementReader = csvColumns != null
+                ? new CsvStatementReader(statementFileReader, delimiter.charAt(0), csvColumns, header)
+                : new OfxStatementReader(statementFileReader);
+        ImportJob importJob = statementImportService.startImport(user, statementReader, rowMapper, format.toLowerCase());
+        return new ResponseEntity<>(importJobConverter.convertTo(importJob, Collections.emptyList()), HttpStatus.ACCEPTED);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.GET)
+    public ResponseEntity<ImportJobDTO> getImportJob(@PathVariable("id") long id,
+                                                     @RequestParam(value = "limit", defaultValue = "100") int limit) {
+
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        ImportJob importJob = statementImportService.findImportJob(id, user);
+        if (importJob == null) {
+            throw new NotFoundException("Import job not found");
+        }
+        return new ResponseEntity<>(importJobConverter.convertTo(importJob,
+                statementImportService.findImportJobErrors(id, limit)), HttpStatus.OK);
+    }
+
+    @Value("${import.maxUploadBytes:52428800}")
+    public void setMaxUploadBytes(long maxUploadBytes) {
+        this.maxUploadBytes = maxUploadBytes;
+    }
+
+    /**
+     * Copy the request body to a temporary file, deleted when the returned reader is closed
+     *
+     * @throws BadRequestException if the body is larger than {@link #maxUploadBytes}
+     */
+    private BufferedReader copyToTemporaryFile(InputStream body) {
+
+        Path statementFile = null;
+        try {
+            statementFile = Files.createTempFile("statement-import-", ".tmp");
+            try (OutputStream statementOutput = Files.newOutputStream(statementFile)) {
+                byte[] buffer = new byte[8192];
+                long size = 0;
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxUploadBytes) {
+                        throw new BadRequestException("The statement is larger than " + maxUploadBytes + " bytes!");
+                    }
+                    statementOutput.write(buffer, 0, read);
+                }
+            }
+            return new BufferedReader(new InputStreamReader(
+                    Files.newInputStream(statementFile, StandardOpenOption.DELETE_ON_CLOSE), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            deleteStatementFile(statementFile);
+            throw new BadRequestException("Cannot read the statement: " + e.getMessage());
+        } catch (BadRequestException e) {
+            deleteStatementFile(statementFile);
+            throw e;
+        }
+    }
+
+    private void deleteStatementFile(Path statementFile) {
+
+        if (statementFile != null) {
+            try {
+                Files.deleteIfExists(statementFile);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Cannot delete the statement file " + statementFile + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private List<String> parseColumns(String columns) {
+
+        List<String> columnList = new ArrayList<>();
+        for (String column : columns.split(",", -1)) {
+            String columnName = column.trim().toLowerCase();
+            if (!columnName.isEmpty() && !columnName.equals(StatementRowMapper.DATE) && !columnName.equals(StatementRowMapper.NAME)
+                    && !columnName.equals(StatementRowMapper.DESCRIPTION) && !columnName.equals(StatementRowMapper.AMOUNT)
+                    && !columnName.equals(StatementRowMapper.CURRENCY) && !columnName.equals(StatementRowMapper.CATEGORY)) {
+                throw new BadRequestException("Unknown column [" + column + "]!");
+            }
+            columnList.add(columnName);
+        }
+        if (!columnList.contains(StatementRowMapper.DATE) || !columnList.contains(StatementRowMapper.AMOUNT)) {
+            throw new BadRequestException("The date and amount columns are required!");
+        }
+        return columnList;
+    }
+}
@@ -3,23 +3,33 @@ package com.TheAccountant.controller;
 import com.TheAccountant.controller.abstracts.CurrencyHolderController;
 import com.TheAccountant.converter.IncomeConverter;
 import com.TheAccountant.dao.IncomeDao;
+import com.TheAccountant.dto.batch.BatchRowResultDTO;
 import com.TheAccountant.dto.income.IncomeDTO;
+import com.TheAccountant.dto.page.CursorPageDTO;
 import com.TheAccountant.model.income.Income;
 import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.BatchInsertService;
+import com.TheAccountant.service.JsonStreamService;
+import com.TheAccountant.util.ControllerUtil;
 import com.TheAccountant.util.CurrencyUtil;
+import com.TheAccountant.util.PageCursor;
 import com.TheAccountant.util.UserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.transaction.Transactional;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,6 +51,12 @@ public class IncomeController extends CurrencyHolderController {
     @Autowired
     IncomeConverter incomeConverter;
 
+    @Autowired
+    private BatchInsertService batchInsertService;
+
+    @Autowired
+    private JsonStreamService jsonStreamService;
+
     private static final Logger log = Logger.getLogger(AppUserController.class.getName());
 
     @RequestMapping(value = "/add", method = RequestMethod.POST)
@@ -76,16 +92,65 @@ public class IncomeController extends CurrencyHolderController {
         }
     }
 
+    /**
+     * Bulk path for large numbers of incomes: invalid rows are rejected one by one instead of failing the
+     * whole request, and the valid ones are inserted in JDBC batches.
+     *
+     * @param incomes
+     * @return the result of each row, in the order of the request
+     */
+    @RequestMapping(value = "/import", method = RequestMethod.POST)
+    @Transactional
+    public ResponseEntity<?> importIncomes(@RequestBody Income[] incomes) {
+
+        if (incomes == null || incomes.length == 0) {
+            return new ResponseEntity<>("No incomes found in request!", HttpStatus.BAD_REQUEST);
+        }
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        Map<String, Boolean> validCurrencies = new HashMap<>();
+        List<Income> validIncomes = new ArrayList<>();
+        String[] errors = new String[incomes.length];
+        for (int index = 0; index < incomes.length; index++) {
+            Income income = incomes[index];
+            errors[index] = validateImportedIncome(income, validCurrencies);
+            if (errors[index] == null) {
+                income.setId(0);
+                income.setUser(user);
+                validIncomes.add(income);
+            }
+        }
+        setDefaultCurrencyAmounts(validIncomes, user.getDefaultCurrency());
+        batchInsertService.insertInBatches(validIncomes);
+
+        List<BatchRowResultDTO> results = new ArrayList<>(incomes.length);
+        for (int index = 0; index < incomes.length; index++) {
+            results.add(errors[index] != null ? BatchRowResultDTO.rejected(index, errors[index])
+                    : BatchRowResultDTO.created(index, incomes[index].getId()));
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+
     //TODO: AGAIN, WHY?
     @RequestMapping(value = "/find_all", method = RequestMethod.GET)
     public ResponseEntity<List<IncomeDTO>> listAllIncomes() {
 
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        List<Income> incomes = incomeDao.findByUsername(user.getUsername());
+        List<Income> incomes = incomeDao.findByUserId(user.getUserId());
         if (incomes.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
         }
-        return new ResponseEntity<>(createIncomeDTOs(incomes), HttpStatus.OK);
+        return new ResponseEntity<>(incomeConverter.convertToList(incomes), HttpStatus.OK);
+    }
+
+    /**
+     * All the incomes of the user, written while they are read from the database
+     */
+    @RequestMapping(value = "/find_all", params = "stream=true", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> streamAllIncomes() {
+
+        long userId = userUtil.extractLoggedAppUserFromDatabase().getUserId();
+        return ControllerUtil.jsonStream(outputStream -> jsonStreamService.writeArray(
+                () -> incomeDao.streamByUserId(userId), incomeConverter::convertTo, outputStream));
     }
 
     //TODO: WHY?
@@ -93,7 +158,7 @@ public class IncomeController extends CurrencyHolderController {
     public ResponseEntity<?> findIncome(@PathVariable("id") Long id) {
 
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        Income income = incomeDao.findOne(id);
+        Income income = incomeDao.fetchOne(id);
         if (income == null) {
             return new ResponseEntity<>("Income not found", HttpStatus.NOT_FOUND);
         }
@@ -108,7 +173,7 @@ public class IncomeController extends CurrencyHolderController {
     public ResponseEntity<String> updateIncome(@PathVariable("id") Long id, @RequestBody @Valid Income income) {
     
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        Income oldIncome = incomeDao.findOne(id);
+        Income oldIncome = incomeDao.fetchOne(id);
         if (oldIncome == null) {
             return new ResponseEntity<>("Income not found", HttpStatus.NOT_FOUND);
         }
@@ -132,7 +197,7 @@ public class IncomeController extends CurrencyHolderController {
     
         try {
             AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-            Income incomeToBeDeleted = incomeDao.findOne(id);
+            Income incomeToBeDeleted = incomeDao.fetchOne(id);
             if (incomeToBeDeleted == null) {
                 throw new EmptyResultDataAccessException("Income not found", 1);
             }
@@ -151,7 +216,7 @@ public class IncomeController extends CurrencyHolderController {
     public ResponseEntity<String> deleteAll() {
 
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        incomeDao.deleteAllByUsername(user.getUsername());
+        incomeDao.deleteAllByUserId(user.getUserId());
         incomeDao.flush();
         return new ResponseEntity<>("Incomes deleted", HttpStatus.NO_CONTENT);
     }
@@ -160,29 +225,72 @@ public class IncomeController extends CurrencyHolderController {
     public ResponseEntity<?> findByInterval(@PathVariable("startDate") long startDate,
                                             @PathVariable("endDate") long endDate){
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-        List<Income> incomes = incomeDao.findIncomesInTimeInterval(new Timestamp(startDate), new Timestamp(endDate), user.getUsername());
+        List<Income> incomes = incomeDao.findIncomesInTimeInterval(new Timestamp(startDate), new Timestamp(endDate), user.getUserId());
         if (incomes.isEmpty()) {
             return new ResponseEntity(HttpStatus.NO_CONTENT);
         }
-        convertIncomesToDefaultCurrency(incomes, user);
-        return new ResponseEntity<>(createIncomeDTOs(incomes), HttpStatus.OK);
+        return new ResponseEntity<>(incomeConverter.convertToList(incomes), HttpStatus.OK);
     }
 
-    private List<IncomeDTO> createIncomeDTOs(List<Income> incomes) {
-    
-        List<IncomeDTO> incomeDTOs = new ArrayList<IncomeDTO>();
-        incomes.stream().forEach(income -> {
-            incomeDTOs.add(incomeConverter.convertTo(income));
-        });
-        return incomeDTOs;
+    /**
+     * The incomes of an interval, written while they are read from the database
+     */
+    @RequestMapping(value ="/findByInterval/{startDate}/{endDate}", params = "stream=true", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> streamByInterval(@PathVariable("startDate") long startDate,
+                                                                  @PathVariable("endDate") long endDate) {
+
+        long userId = userUtil.extractLoggedAppUserFromDatabase().getUserId();
+        return ControllerUtil.jsonStream(outputStream -> jsonStreamService.writeArray(
+                () -> incomeDao.streamIncomesInTimeInterval(new Timestamp(startDate), new Timestamp(endDate), userId),
+                incomeConverter::convertTo, outputStream));
     }
 
+    /**
+     * Page of the incomes of an interval, ordered by creation date and id. The next page is requested
+     * with the cursor of the current page.
+     */
+    @RequestMapping(value ="/findByInterval/{startDate}/{endDate}", params = "limit", method = RequestMethod.GET)
+    public ResponseEntity<CursorPageDTO<IncomeDTO>> findPageByInterval(@PathVariable("startDate") long startDate,
+                                                                      @PathVariable("endDate") long endDate,
+                                                                      @RequestParam("limit") int limit,
+                                                                      @RequestParam(value = "cursor", required = false) String cursor) {
 
-    protected void convertIncomesToDefaultCurrency(List<Income> entityList, AppUser user) {
-        entityList.stream().filter(income -> shouldUpdateDefaultCurrencyAmount(income, user)).forEach(income -> {
-            setDefaultCurrencyAmount(income, user.getDefaultCurrency());
-            incomeDao.saveAndFlush(income);
-        });
+        ControllerUtil.validatePageLimit(limit);
+        PageCursor pageCursor = ControllerUtil.readPageCursor(cursor);
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        // the first page starts at the beginning of the interval, the ids being positive
+        Timestamp afterDate = pageCursor != null ? pageCursor.getCreationDate() : new Timestamp(startDate);
+        long afterId = pageCursor != null ? pageCursor.getId() : 0;
+        List<Income> incomes = incomeDao.findIncomesInTimeIntervalAfter(new Timestamp(startDate), new Timestamp(endDate),
+                user.getUserId(), afterDate, afterId, new PageRequest(0, limit));
+        if (incomes.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        String nextCursor = PageCursor.nextToken(incomes, limit, Income::getCreationDate, Income::getId);
+        return new ResponseEntity<>(new CursorPageDTO<>(incomeConverter.convertToList(incomes), nextCursor), HttpStatus.OK);
     }
 
+    /**
+     * @return the reason the income cannot be imported, or null if it is valid
+     */
+    private String validateImportedIncome(Income income, Map<String, Boolean> validCurrencies) {
+
+        if (income == null) {
+            return "Missing income";
+        }
+        if (income.getCurrency() == null
+                || !validCurrencies.computeIfAbsent(income.getCurrency(), currency -> CurrencyUtil.getCurrency(currency) != null)) {
+            return "Wrong currency code [" + income.getCurrency() + "]";
+        }
+        if (income.getName() == null) {
+            return "Missing name";
+        }
+        if (income.getAmount() == null || income.getAmount() < 0) {
+            return "Invalid amount [" + income.getAmount() + "]";
+        }
+        if (income.getCreationDate() == null) {
+            return "Missing creation date";
+        }
+        return null;
+    }
 }
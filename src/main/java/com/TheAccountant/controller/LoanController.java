@@ -9,15 +9,19 @@ import com.TheAccountant.dao.CounterpartyDao;
 import com.TheAccountant.dao.LoanDao;
 import com.TheAccountant.dto.charge.ChargeDTO;
 import com.TheAccountant.dto.loan.LoanDTO;
+import com.TheAccountant.dto.page.CursorPageDTO;
 import com.TheAccountant.model.loan.Loan;
 import com.TheAccountant.model.payment.PaymentType;
 import com.TheAccountant.model.user.AppUser;
 import com.TheAccountant.service.PaymentService;
 import com.TheAccountant.service.exception.ServiceException;
+import com.TheAccountant.util.ControllerUtil;
+import com.TheAccountant.util.PageCursor;
 import com.TheAccountant.util.UserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -83,11 +87,10 @@ public class LoanController extends CurrencyHolderController {
         if (appUser == null) {
             throw new NotFoundException("User not found");
         }
-        List<Loan> loans = loanDao.findByCounterparty(appUser.getUsername(), counterpartyId);
+        List<Loan> loans = loanDao.findByCounterparty(appUser.getUserId(), counterpartyId);
         if (loans == null || loans.isEmpty()) {
             return new ResponseEntity(HttpStatus.NO_CONTENT);
         }
-        convertLoansToDefaultCurrency(loans, appUser);
         return new ResponseEntity<>(loanConverter.convertToList(loans), HttpStatus.OK);
     }
 
@@ -97,21 +100,45 @@ public class LoanController extends CurrencyHolderController {
         if (appUser == null) {
             throw new NotFoundException("User not found");
         }
-        List<Loan> loans = loanDao.fetchAll(appUser.getUsername());
+        List<Loan> loans = loanDao.fetchAll(appUser.getUserId());
         if (loans == null || loans.isEmpty()) {
             return new ResponseEntity(HttpStatus.NO_CONTENT);
         }
-        convertLoansToDefaultCurrency(loans, appUser);
         return new ResponseEntity<>(loanConverter.convertToList(loans), HttpStatus.OK);
     }
 
+    /**
+     * Page of the loans of the user, newest first. The next page is requested with the cursor of the
+     * current page.
+     */
+    @RequestMapping(params = "limit", method = RequestMethod.GET)
+    public ResponseEntity<CursorPageDTO<LoanDTO>> findPage(@RequestParam("limit") int limit,
+                                                           @RequestParam(value = "cursor", required = false) String cursor) {
+
+        ControllerUtil.validatePageLimit(limit);
+        PageCursor pageCursor = ControllerUtil.readPageCursor(cursor);
+        AppUser appUser = userUtil.extractLoggedAppUserFromDatabase();
+        if (appUser == null) {
+            throw new NotFoundException("User not found");
+        }
+        PageRequest pageRequest = new PageRequest(0, limit);
+        List<Loan> loans = pageCursor == null
+                ? loanDao.fetchFirstPage(appUser.getUserId(), pageRequest)
+                : loanDao.fetchPageBefore(appUser.getUserId(), pageCursor.getCreationDate(), pageCursor.getId(), pageRequest);
+        if (loans.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        String nextCursor = PageCursor.nextToken(loans, limit, Loan::getCreationDate, Loan::getId);
+        return new ResponseEntity<>(new CursorPageDTO<>(loanConverter.convertToList(loans), nextCursor), HttpStatus.OK);
+    }
+
     @RequestMapping(value = "/findOne/{id}", method = RequestMethod.GET)
     public ResponseEntity<LoanDTO> findOne(@PathVariable("id") Long id) {
         AppUser appUser = userUtil.extractLoggedAppUserFromDatabase();
         if (appUser == null) {
             throw new NotFoundException("User not found");
         }
-        Loan loan = loanDao.findOne(id);
+        Loan loan = loanDao.fetchOne(id);
         if (loan == null || loan.getUser().getUserId() != appUser.getUserId()) {
             throw  new BadRequestException("Invalid Loan id [" + id + "]");
         }
@@ -132,7 +159,7 @@ public class LoanController extends CurrencyHolderController {
             throw new BadRequestException("Updating loans is available only to paid accounts!");
         }
 
-        Loan oldLoan = loanDao.findOne(id);
+        Loan oldLoan = loanDao.fetchOne(id);
         if (oldLoan == null) {
             throw new NotFoundException("Loan not found");
         }
@@ -162,12 +189,11 @@ public class LoanController extends CurrencyHolderController {
                 throw new BadRequestException("Deleting loans is available only to paid accounts!");
             }
 
-            userUtil.extractLoggedAppUserFromDatabase();
-            Loan loan = loanDao.findOne(id);
+            AppUser appUser = userUtil.extractLoggedAppUserFromDatabase();
+            Loan loan = loanDao.fetchOne(id);
             if(loan == null){
                 throw new NotFoundException("Loan not found");
             }
-            AppUser appUser = userUtil.extractLoggedAppUserFromDatabase();
             if(appUser.getUserId() != loan.getUser().getUserId()){
                 throw new BadRequestException("Bad request");
             }
@@ -180,11 +206,4 @@ public class LoanController extends CurrencyHolderController {
         }
         return new ResponseEntity<>("Loan deleted", HttpStatus.NO_CONTENT);
     }
-
-    private void convertLoansToDefaultCurrency(List<Loan> loans, AppUser user) {
-        loans.stream().filter(loan -> shouldUpdateDefaultCurrencyAmount(loan, user)).forEach(loan -> {
-            setDefaultCurrencyAmount(loan, user.getDefaultCurrency());
-            loanDao.saveAndFlush(loan);
-        });
-    }
 }
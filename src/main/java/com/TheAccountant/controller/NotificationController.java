@@ -6,14 +6,18 @@ import com.TheAccountant.converter.NotificationConverter;
 import com.TheAccountant.dao.NotificationDao;
 import com.TheAccountant.dto.charge.ChargeDTO;
 import com.TheAccountant.dto.notification.NotificationDTO;
+import com.TheAccountant.dto.page.CursorPageDTO;
 import com.TheAccountant.model.notification.Notification;
 import com.TheAccountant.model.payment.PaymentType;
 import com.TheAccountant.model.user.AppUser;
 import com.TheAccountant.service.PaymentService;
 import com.TheAccountant.service.exception.ServiceException;
+import com.TheAccountant.util.ControllerUtil;
+import com.TheAccountant.util.PageCursor;
 import com.TheAccountant.util.UserUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -46,15 +50,7 @@ public class NotificationController {
     @RequestMapping(params = {"limit", "offset"},method = RequestMethod.GET)
     public ResponseEntity<List<NotificationDTO>> findNotifications(@RequestParam("limit") Integer limit, @RequestParam("offset") Integer offset) {
 
-        ChargeDTO chargeResult = null;
-        try {
-            chargeResult = paymentService.getPaymentStatus(PaymentType.USER_LICENSE);
-        } catch (ServiceException e) {
-            throw new BadRequestException(e.getMessage());
-        }
-        if (chargeResult.getPaymentApproved() == false) {
-            throw new BadRequestException("Notifications are allowed only for paid accounts!");
-        }
+        validatePaidAccount();
 
         AppUser user = userUtil.extractLoggedAppUserFromDatabase();
         if (user == null) {
@@ -63,6 +59,30 @@ public class NotificationController {
         return new ResponseEntity<>(notificationConverter.convertList(notificationDao.fetchAll(user.getUserId(), limit, offset)), HttpStatus.OK);
     }
 
+    /**
+     * Page of the notifications of the user, newest first. The next page is requested with the cursor
+     * of the current page, so reading a page does not depend on how many notifications come before it.
+     */
+    @RequestMapping(params = {"limit", "!offset"}, method = RequestMethod.GET)
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> findNotificationsPage(@RequestParam("limit") int limit,
+                                                                               @RequestParam(value = "cursor", required = false) String cursor) {
+
+        ControllerUtil.validatePageLimit(limit);
+        PageCursor pageCursor = ControllerUtil.readPageCursor(cursor);
+        validatePaidAccount();
+
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        if (user == null) {
+            throw new BadRequestException("User not found");
+        }
+        PageRequest pageRequest = new PageRequest(0, limit);
+        List<Notification> notifications = pageCursor == null
+                ? notificationDao.fetchFirstPage(user.getUserId(), pageRequest)
+                : notificationDao.fetchPageBefore(user.getUserId(), pageCursor.getCreationDate(), pageCursor.getId(), pageRequest);
+        String nextCursor = PageCursor.nextToken(notifications, limit, Notification::getCreationDate, Notification::getId);
+        return new ResponseEntity<>(new CursorPageDTO<>(notificationConverter.convertList(notifications), nextCursor), HttpStatus.OK);
+    }
+
     @RequestMapping(value = "/getTotal", method = RequestMethod.GET)
     public ResponseEntity<Map<String, Long>> getTotalNotifications() {
 
@@ -83,7 +103,7 @@ public class NotificationController {
     public ResponseEntity<String> markNotificationAsSeen(@PathVariable("id") Long id) {
         try {
             AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-            Notification notification = notificationDao.findOne(id);
+            Notification notification = notificationDao.fetchOne(id);
             if (notification == null) {
                 throw new EmptyResultDataAccessException("Notification not found", 1);
             }
@@ -103,7 +123,7 @@ public class NotificationController {
     public ResponseEntity<String> deleteNotification(@PathVariable("id") Long id) {
         try {
             AppUser user = userUtil.extractLoggedAppUserFromDatabase();
-            Notification notificiation = notificationDao.findOne(id);
+            Notification notificiation = notificationDao.fetchOne(id);
             if (notificiation == null) {
                 throw new EmptyResultDataAccessException("Notification not found", 1);
             }
@@ -117,4 +137,17 @@ public class NotificationController {
         }
         return new ResponseEntity<>("Notification deleted", HttpStatus.NO_CONTENT);
     }
+
+    private void validatePaidAccount() {
+
+        ChargeDTO chargeResult = null;
+        try {
+            chargeResult = paymentService.getPaymentStatus(PaymentType.USER_LICENSE);
+        } catch (ServiceException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        if (chargeResult.getPaymentApproved() == false) {
+            throw new BadRequestException("Notifications are allowed only for paid accounts!");
+        }
+    }
 }
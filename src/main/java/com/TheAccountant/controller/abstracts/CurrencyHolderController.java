@@ -1,12 +1,12 @@
 package com.TheAccountant.controller.abstracts;
 
-import com.TheAccountant.controller.exception.BadRequestException;
 import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
 import com.TheAccountant.model.user.AppUser;
-import com.TheAccountant.util.CurrencyConverter;
+import com.TheAccountant.service.ExchangeRateService;
+import org.springframework.beans.factory.annotation.Autowired;
 
-import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.Collection;
 import java.util.Currency;
 
 /**
@@ -19,6 +19,9 @@ public abstract class CurrencyHolderController {
 
     protected static final long ONE_DAY = 24 * 60 * 60 * 1000;
 
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
     /**
      * Set default default currency and its value for the specified entity if the currency of the
      * entity is different than default currency
@@ -30,23 +33,29 @@ public abstract class CurrencyHolderController {
         String entityCurrency = entity.getCurrency();
         Double amount = entity.getAmount();
         String formatDate = new SimpleDateFormat("yyyy-MM-dd").format(entity.getCreationDate().getTime());
-        Double exchangeRateOnDay = null;
-        try {
-            if(entityCurrency.equals(defaultCurrency.getCurrencyCode())){
-                entity.setDefaultCurrencyAmount(null);
-                entity.setDefaultCurrency(null);
-                return;
-            }
-            exchangeRateOnDay = CurrencyConverter.getExchangeRateOnDay(entityCurrency, defaultCurrency, formatDate);
-            if(exchangeRateOnDay != null) {
-                entity.setDefaultCurrency(defaultCurrency.getCurrencyCode());
-                entity.setDefaultCurrencyAmount(amount * exchangeRateOnDay);
-            }
-        } catch (IOException e) {
-            throw new BadRequestException(e);
+        if(entityCurrency.equals(defaultCurrency.getCurrencyCode())){
+            entity.setDefaultCurrencyAmount(null);
+            entity.setDefaultCurrency(null);
+            return;
+        }
+        Double exchangeRateOnDay = exchangeRateService.getExchangeRateOnDay(entityCurrency, defaultCurrency, formatDate);
+        if(exchangeRateOnDay != null) {
+            entity.setDefaultCurrency(defaultCurrency.getCurrencyCode());
+            entity.setDefaultCurrencyAmount(amount * exchangeRateOnDay);
         }
     }
 
+    /**
+     * Set default currency and its value for a batch of entities, looking up the exchange rate of each
+     * distinct (currency, day) pair only once.
+     *
+     * @param entities
+     * @param defaultCurrency
+     */
+    protected void setDefaultCurrencyAmounts(Collection<? extends CurrencyHolderEntity> entities, Currency defaultCurrency) {
+        exchangeRateService.setDefaultCurrencyAmounts(entities, defaultCurrency);
+    }
+
     protected boolean shouldUpdateDefaultCurrencyAmount(CurrencyHolderEntity entity, AppUser user, CurrencyHolderEntity oldEntity) {
         boolean creationDateChanged = !entity.getCreationDate().equals(oldEntity.getCreationDate())
                 && (entity.getCreationDate().getTime() - oldEntity.getCreationDate().getTime() >= ONE_DAY
@@ -68,12 +77,4 @@ public abstract class CurrencyHolderController {
         }
         return false;
     }
-
-    protected boolean shouldUpdateDefaultCurrencyAmount(CurrencyHolderEntity entity, AppUser user) {
-        boolean entityWasOnOldDefaultCurrency = entity.getDefaultCurrency() == null &&
-                !entity.getCurrency().equals(user.getDefaultCurrency().getCurrencyCode());
-        boolean userChangedDefaultCurrency = entity.getDefaultCurrency() != null &&
-                !entity.getDefaultCurrency().equals(user.getDefaultCurrency().getCurrencyCode());
-        return entityWasOnOldDefaultCurrency || userChangedDefaultCurrency;
-    }
 }
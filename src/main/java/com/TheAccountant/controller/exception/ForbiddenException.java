@@ -0,0 +1,23 @@
+package com.TheAccountant.controller.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exception thrown when the logged user is not allowed to use a resource
+ */
+@ResponseStatus(value = HttpStatus.FORBIDDEN)
+public class ForbiddenException extends RuntimeException {
+
+    private static final long serialVersionUID = -2851563419270935217L;
+
+    private static final Logger log = Logger.getLogger(ForbiddenException.class.getName());
+
+    public ForbiddenException(String message) {
+        super(message);
+        log.log(Level.INFO, message);
+    }
+}
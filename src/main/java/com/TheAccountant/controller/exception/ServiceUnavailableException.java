@@ -0,0 +1,37 @@
+package com.TheAccountant.controller.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Exception thrown when the request cannot be handled now because of the load, and should be retried later
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+    
+    private static final long serialVersionUID = -4150377285093442046L;
+   
+    private static final Logger log = Logger.getLogger(ServiceUnavailableException.class.getName());
+
+    public ServiceUnavailableException() {
+        super();
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+        log.log(Level.INFO, message);
+    }
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+        log.log(Level.INFO, message);
+    }
+
+    public ServiceUnavailableException(Throwable cause) {
+        super(cause);
+        log.log(Level.INFO, cause.getMessage());
+    }
+}
@@ -0,0 +1,164 @@
+package com.TheAccountant.controller.monitoring;
+
+import com.TheAccountant.app.datasource.MeteredDataSource;
+import com.TheAccountant.controller.exception.ForbiddenException;
+import com.TheAccountant.dto.monitoring.CacheMetricsDTO;
+import com.TheAccountant.dao.OutboxEmailDao;
+import com.TheAccountant.dto.monitoring.DataSourceMetricsDTO;
+import com.TheAccountant.dto.monitoring.EmailMetricsDTO;
+import com.TheAccountant.model.email.OutboxEmailStatus;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.CategoryTotalService;
+import com.TheAccountant.service.ExchangeRateService;
+import com.TheAccountant.util.EmailSender;
+import com.TheAccountant.util.ExchangeRateCache;
+import com.TheAccountant.util.LatencyHistogram;
+import com.TheAccountant.util.UserUtil;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import net.sf.ehcache.statistics.StatisticsGateway;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Controller exposing runtime metrics used to size the application nodes, and the maintenance of the
+ * category totals. Only the users listed in the 'monitoring.administrators' property can call it, none when
+ * the property is not set.
+ */
+@RestController
+@RequestMapping(value = "/monitoring")
+public class MonitoringController {
+
+    @Autowired
+    private MeteredDataSource dataSource;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
+    @Autowired
+    private EmailSender emailSender;
+
+    @Autowired
+    private OutboxEmailDao outboxEmailDao;
+
+    @Autowired
+    private UserUtil userUtil;
+
+    private volatile Set<String> administratorUsernames = new HashSet<>();
+
+    /**
+     * @param administrators : comma separated usernames of the administrators
+     */
+    @Value("${monitoring.administrators:}")
+    public void setAdministrators(String administrators) {
+
+        Set<String> usernames = new HashSet<>();
+        Arrays.stream(administrators.split(","))
+                .map(String::trim)
+                .filter(username -> !username.isEmpty())
+                .forEach(usernames::add);
+        administratorUsernames = usernames;
+    }
+
+    @RequestMapping(value = "/datasource", method = RequestMethod.GET)
+    public ResponseEntity<DataSourceMetricsDTO> getDataSourceMetrics() {
+
+        checkAdministrator();
+        DataSourceMetricsDTO metricsDTO = new DataSourceMetricsDTO();
+        metricsDTO.setActive(dataSource.getActive());
+        metricsDTO.setIdle(dataSource.getIdle());
+        metricsDTO.setWaiting(dataSource.getWaitCount());
+        metricsDTO.setSize(dataSource.getSize());
+        metricsDTO.setMaxActive(dataSource.getMaxActive());
+
+        LatencyHistogram acquireTimeHistogram = dataSource.getAcquireTimeHistogram();
+        metricsDTO.setAcquireCount(acquireTimeHistogram.getCount());
+        metricsDTO.setAcquireTimeMeanMillis(acquireTimeHistogram.getMeanMillis());
+        metricsDTO.setAcquireTimeMaxMillis(acquireTimeHistogram.getMaxMillis());
+        metricsDTO.setAcquireTimeBuckets(acquireTimeHistogram.getBuckets());
+        return new ResponseEntity<>(metricsDTO, HttpStatus.OK);
+    }
+
+    @RequestMapping(value = "/exchange_rates", method = RequestMethod.GET)
+    public ResponseEntity<CacheMetricsDTO> getExchangeRateCacheMetrics() {
+
+        checkAdministrator();
+        ExchangeRateCache rateCache = exchangeRateService.getRateCache();
+        CacheMetricsDTO metricsDTO = new CacheMetricsDTO("exchange_rates", rateCache.getSize(),
+                rateCache.getMaxEntries(), rateCache.getHits(), rateCache.getMisses(), rateCache.getEvictions());
+        return new ResponseEntity<>(metricsDTO, HttpStatus.OK);
+    }
+
+    /**
+     * Usage of the Hibernate second level and query cache regions, configured in ehcache.xml
+     */
+    @RequestMapping(value = "/entity_caches", method = RequestMethod.GET)
+    public ResponseEntity<List<CacheMetricsDTO>> getEntityCacheMetrics() {
+
+        checkAdministrator();
+        CacheManager cacheManager = CacheManager.getInstance();
+        List<CacheMetricsDTO> metricsDTOs = new ArrayList<>();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Ehcache cache = cacheManager.getEhcache(cacheName);
+            StatisticsGateway statistics = cache.getStatistics();
+            metricsDTOs.add(new CacheMetricsDTO(cacheName, statistics.getSize(),
+                    cache.getCacheConfiguration().getMaxEntriesLocalHeap(), statistics.cacheHitCount(),
+                    statistics.cacheMissCount(), statistics.cacheEvictedCount()));
+        }
+        return new ResponseEntity<>(metricsDTOs, HttpStatus.OK);
+    }
+
+    /**
+     * Delivery times and failures of the emails sent through the pooled SMTP connections
+     */
+    @RequestMapping(value = "/email", method = RequestMethod.GET)
+    public ResponseEntity<EmailMetricsDTO> getEmailMetrics() {
+
+        checkAdministrator();
+        EmailMetricsDTO metricsDTO = new EmailMetricsDTO();
+        LatencyHistogram deliveryTimeHistogram = emailSender.getDeliveryTimeHistogram();
+        metricsDTO.setSentCount(deliveryTimeHistogram.getCount());
+        metricsDTO.setFailedCount(emailSender.getFailedDeliveries());
+        metricsDTO.setOpenedConnections(emailSender.getTransportPool().getOpenedConnections());
+        metricsDTO.setIdleConnections(emailSender.getTransportPool().getIdleCount());
+        metricsDTO.setPendingEmails(outboxEmailDao.countByStatus(OutboxEmailStatus.PENDING));
+        metricsDTO.setDeliveryTimeMeanMillis(deliveryTimeHistogram.getMeanMillis());
+        metricsDTO.setDeliveryTimeMaxMillis(deliveryTimeHistogram.getMaxMillis());
+        metricsDTO.setDeliveryTimeBuckets(deliveryTimeHistogram.getBuckets());
+        return new ResponseEntity<>(metricsDTO, HttpStatus.OK);
+    }
+
+    /**
+     * Recompute the monthly category totals from the 'expense' table, in case they drifted
+     */
+    @RequestMapping(value = "/category_totals/rebuild", method = RequestMethod.POST)
+    public ResponseEntity<Integer> rebuildCategoryTotals() {
+
+        checkAdministrator();        return new ResponseEntity<>(categoryTotalService.rebuildTotals(), HttpStatus.OK);
+    }
+
+    /**
+     * @throws ForbiddenException if the logged user is not an administrator
+     */
+    private void checkAdministrator() {
+
+        AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+        if (!administratorUsernames.contains(user.getUsername())) {
+            throw new ForbiddenException("Monitoring is allowed only for administrators!");
+        }
+    }
+}
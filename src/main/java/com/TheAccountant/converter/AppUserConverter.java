@@ -2,11 +2,10 @@ package com.TheAccountant.converter;
 
 import com.TheAccountant.dto.user.AppUserDTO;
 import com.TheAccountant.model.user.AppUser;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
+import com.TheAccountant.util.CurrencyUtil;
 
 /**
- * Dozer converter class between AppUser and AppUserDTO
+ * Converter class between AppUser and AppUserDTO
  * @author Floryn
  */
 public class AppUserConverter {
@@ -14,16 +13,26 @@ public class AppUserConverter {
     public AppUserDTO convertTo(AppUser appUser) {
 
         AppUserDTO destObject = new AppUserDTO();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(appUser, destObject);
+        destObject.setUserId(appUser.getUserId());
+        destObject.setFirstName(appUser.getFirstName());
+        destObject.setSurname(appUser.getSurname());
+        destObject.setUsername(appUser.getUsername());
+        if (appUser.getDefaultCurrency() != null) {
+            destObject.setDefaultCurrency(appUser.getDefaultCurrency().getCurrencyCode());
+        }
         return destObject;
     }
 
     public AppUser convertFrom(AppUserDTO appUserDTO) {
 
         AppUser destObject = new AppUser();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(appUserDTO, destObject);
+        destObject.setUserId(appUserDTO.getUserId());
+        destObject.setFirstName(appUserDTO.getFirstName());
+        destObject.setSurname(appUserDTO.getSurname());
+        destObject.setUsername(appUserDTO.getUsername());
+        if (appUserDTO.getDefaultCurrency() != null) {
+            destObject.setDefaultCurrency(CurrencyUtil.getCurrency(appUserDTO.getDefaultCurrency()));
+        }
         return destObject;
     }
 }
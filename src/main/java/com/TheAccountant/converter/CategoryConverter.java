@@ -2,30 +2,51 @@ package com.TheAccountant.converter;
 
 import com.TheAccountant.dto.category.CategoryDTO;
 import com.TheAccountant.model.category.Category;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Dozer converter between category and categoryDTO
+ * Converter between category and categoryDTO
  * 
  * @author Florin
  */
 public class CategoryConverter {
     
     public CategoryDTO convertTo(Category category) {
-    
+
+        if (category == null) {
+            return null;
+        }
         CategoryDTO categoryDTO = new CategoryDTO();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(category, categoryDTO);
+        categoryDTO.setId(category.getId());
+        categoryDTO.setName(category.getName());
+        categoryDTO.setColour(category.getColour());
+        if (category.getThreshold() != null) {
+            categoryDTO.setThreshold(category.getThreshold());
+        }
         return categoryDTO;
-        
+    }
+
+    public List<CategoryDTO> convertToList(List<Category> categories) {
+
+        List<CategoryDTO> categoryDTOs = new ArrayList<>(categories.size());
+        for (Category category : categories) {
+            categoryDTOs.add(convertTo(category));
+        }
+        return categoryDTOs;
     }
     
     public Category convertFrom(CategoryDTO categoryDTO) {
-    
+
+        if (categoryDTO == null) {
+            return null;
+        }
         Category category = new Category();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(categoryDTO, category);
+        category.setId(categoryDTO.getId());
+        category.setName(categoryDTO.getName());
+        category.setColour(categoryDTO.getColour());
+        category.setThreshold(categoryDTO.getThreshold());
         return category;
     }
 }
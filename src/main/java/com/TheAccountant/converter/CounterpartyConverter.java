@@ -3,11 +3,9 @@ package com.TheAccountant.converter;
 import com.TheAccountant.dto.counterparty.CounterpartyDTO;
 import com.TheAccountant.model.counterparty.Counterparty;
 import com.TheAccountant.model.loan.Loan;
-import com.sun.org.apache.xpath.internal.operations.Bool;
-import org.dozer.CustomConverter;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -17,12 +15,22 @@ public class CounterpartyConverter {
 
     public CounterpartyDTO convertTo(Counterparty counterparty) {
         CounterpartyDTO counterpartyDTO = new CounterpartyDTO();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(counterparty, counterpartyDTO);
+        counterpartyDTO.setId(counterparty.getId());
+        counterpartyDTO.setName(counterparty.getName());
+        counterpartyDTO.setEmail(counterparty.getEmail());
         counterpartyDTO.setTotal(computeTotalAmount(counterparty.getLoans()));
         return counterpartyDTO;
     }
 
+    public List<CounterpartyDTO> convertToList(List<Counterparty> counterparties) {
+
+        List<CounterpartyDTO> counterpartyDTOs = new ArrayList<>(counterparties.size());
+        for (Counterparty counterparty : counterparties) {
+            counterpartyDTOs.add(convertTo(counterparty));
+        }
+        return counterpartyDTOs;
+    }
+
     private double computeTotalAmount(Set<Loan> loans) {
         return loans.stream()
                 .filter(loan -> loan.getActive() == true)
@@ -48,8 +56,9 @@ public class CounterpartyConverter {
 
     public Counterparty convertFrom(CounterpartyDTO counterpartyDTO) {
         Counterparty counterparty = new Counterparty();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(counterpartyDTO, counterparty);
+        counterparty.setId(counterpartyDTO.getId());
+        counterparty.setName(counterpartyDTO.getName());
+        counterparty.setEmail(counterpartyDTO.getEmail());
         return counterparty;
     }
 }
@@ -2,29 +2,57 @@ package com.TheAccountant.converter;
 
 import com.TheAccountant.dto.expense.ExpenseDTO;
 import com.TheAccountant.model.expense.Expense;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Dozer converter between expense and expenseDTO
+ * Converter between expense and expenseDTO
  * 
  * @author Florin
  */
 public class ExpenseConverter {
+
+    private final CategoryConverter categoryConverter = new CategoryConverter();
     
     public ExpenseDTO convertTo(Expense expense) {
-    
+
         ExpenseDTO expenseDTO = new ExpenseDTO();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(expense, expenseDTO);
+        expenseDTO.setId(expense.getId());
+        expenseDTO.setCategory(categoryConverter.convertTo(expense.getCategory()));
+        expenseDTO.setName(expense.getName());
+        expenseDTO.setDescription(expense.getDescription());
+        expenseDTO.setFrequency(expense.getFrequency() == null ? null : expense.getFrequency().toString());
+        expenseDTO.setCurrency(expense.getCurrency());
+        expenseDTO.setAmount(expense.getAmount());
+        expenseDTO.setDefaultCurrency(expense.getDefaultCurrency());
+        expenseDTO.setDefaultCurrencyAmount(expense.getDefaultCurrencyAmount());
+        expenseDTO.setCreationDate(expense.getCreationDate());
         return expenseDTO;
     }
+
+    public List<ExpenseDTO> convertToList(List<Expense> expenses) {
+
+        List<ExpenseDTO> expenseDTOs = new ArrayList<>(expenses.size());
+        for (Expense expense : expenses) {
+            expenseDTOs.add(convertTo(expense));
+        }
+        return expenseDTOs;
+    }
     
     public Expense convertFrom(ExpenseDTO expenseDTO) {
-    
+
         Expense expense = new Expense();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(expenseDTO, expense);
+        expense.setId(expenseDTO.getId());
+        expense.setCategory(categoryConverter.convertFrom(expenseDTO.getCategory()));
+        expense.setName(expenseDTO.getName());
+        expense.setDescription(expenseDTO.getDescription());
+        expense.setFrequency(expenseDTO.getFrequency() == null ? null : Integer.valueOf(expenseDTO.getFrequency()));
+        expense.setCurrency(expenseDTO.getCurrency());
+        expense.setAmount(expenseDTO.getAmount());
+        expense.setDefaultCurrency(expenseDTO.getDefaultCurrency());
+        expense.setDefaultCurrencyAmount(expenseDTO.getDefaultCurrencyAmount());
+        expense.setCreationDate(expenseDTO.getCreationDate());
         return expense;
     }
 }
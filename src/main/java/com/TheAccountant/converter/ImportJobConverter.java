@@ -0,0 +1,32 @@
+package com.TheAccountant.converter;
+
+import com.TheAccountant.dto.batch.BatchRowResultDTO;
+import com.TheAccountant.dto.importjob.ImportJobDTO;
+import com.TheAccountant.model.importjob.ImportJob;
+import com.TheAccountant.model.importjob.ImportJobError;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ImportJobConverter {
+
+    public ImportJobDTO convertTo(ImportJob importJob, List<ImportJobError> errors) {
+        if (importJob == null) {
+            return null;
+        }
+        ImportJobDTO destObject = new ImportJobDTO();
+        destObject.setId(importJob.getId());
+        destObject.setFormat(importJob.getFormat());
+        destObject.setStatus(importJob.getStatus().name());
+        destObject.setProcessedRows(importJob.getProcessedRows());
+        destObject.setImportedRows(importJob.getImportedRows());
+        destObject.setRejectedRows(importJob.getRejectedRows());
+        destObject.setErrorMessage(importJob.getErrorMessage());
+        destObject.setCreationDate(importJob.getCreationDate());
+        destObject.setFinishDate(importJob.getFinishDate());
+        destObject.setRejectedRowList(errors.stream()
+                .map(error -> BatchRowResultDTO.rejected(error.getRowNumber(), error.getMessage()))
+                .collect(Collectors.toList()));
+        return destObject;
+    }
+}
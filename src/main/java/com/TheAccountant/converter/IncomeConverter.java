@@ -2,11 +2,12 @@ package com.TheAccountant.converter;
 
 import com.TheAccountant.dto.income.IncomeDTO;
 import com.TheAccountant.model.income.Income;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * Dozer converter between income and incomeDTO
+ * Converter between income and incomeDTO
  * @author Tudor
  */
 public class IncomeConverter {
@@ -14,16 +15,39 @@ public class IncomeConverter {
     public IncomeDTO convertTo(Income income) {
 
         IncomeDTO destObject = new IncomeDTO();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(income, destObject);
+        destObject.setId(income.getId());
+        destObject.setName(income.getName());
+        destObject.setDescription(income.getDescription());
+        destObject.setFrequency(income.getFrequency() == null ? null : income.getFrequency().toString());
+        destObject.setCurrency(income.getCurrency());
+        destObject.setAmount(income.getAmount());
+        destObject.setDefaultCurrency(income.getDefaultCurrency());
+        destObject.setDefaultCurrencyAmount(income.getDefaultCurrencyAmount());
+        destObject.setCreationDate(income.getCreationDate());
         return destObject;
     }
 
+    public List<IncomeDTO> convertToList(List<Income> incomes) {
+
+        List<IncomeDTO> incomeDTOs = new ArrayList<>(incomes.size());
+        for (Income income : incomes) {
+            incomeDTOs.add(convertTo(income));
+        }
+        return incomeDTOs;
+    }
+
     public Income convertFrom(IncomeDTO incomeDTO) {
 
         Income destObject = new Income();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(incomeDTO, destObject);
+        destObject.setId(incomeDTO.getId());
+        destObject.setName(incomeDTO.getName());
+        destObject.setDescription(incomeDTO.getDescription());
+        destObject.setFrequency(incomeDTO.getFrequency() == null ? null : Integer.valueOf(incomeDTO.getFrequency()));
+        destObject.setCurrency(incomeDTO.getCurrency());
+        destObject.setAmount(incomeDTO.getAmount());
+        destObject.setDefaultCurrency(incomeDTO.getDefaultCurrency());
+        destObject.setDefaultCurrencyAmount(incomeDTO.getDefaultCurrencyAmount());
+        destObject.setCreationDate(incomeDTO.getCreationDate());
         return destObject;
     }
 }
@@ -1,13 +1,12 @@
 package com.TheAccountant.converter;
 
+import com.TheAccountant.dto.counterparty.CounterpartyDTO;
 import com.TheAccountant.dto.loan.LoanDTO;
+import com.TheAccountant.model.counterparty.Counterparty;
 import com.TheAccountant.model.loan.Loan;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
-import org.springframework.util.MultiValueMap;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Created by tudor.grigoriu on 6/3/2017.
@@ -17,12 +16,41 @@ public class LoanConverter {
     public LoanDTO convertTo(Loan loan) {
 
         LoanDTO loanDTO = new LoanDTO();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(loan, loanDTO);
+        loanDTO.setId(loan.getId());
+        loanDTO.setCounterparty(convertCounterparty(loan.getCounterparty()));
+        loanDTO.setReceiving(loan.getReceiving());
+        loanDTO.setActive(loan.getActive());
+        loanDTO.setDescription(loan.getDescription());
+        loanDTO.setUntilDate(loan.getUntilDate());
+        loanDTO.setCurrency(loan.getCurrency());
+        loanDTO.setAmount(loan.getAmount());
+        loanDTO.setDefaultCurrency(loan.getDefaultCurrency());
+        loanDTO.setDefaultCurrencyAmount(loan.getDefaultCurrencyAmount());
+        loanDTO.setCreationDate(loan.getCreationDate());
         return loanDTO;
     }
 
     public List<LoanDTO> convertToList(List<Loan> loans) {
-        return loans.stream().map(loan -> convertTo(loan)).collect(Collectors.toList());
+
+        List<LoanDTO> loanDTOs = new ArrayList<>(loans.size());
+        for (Loan loan : loans) {
+            loanDTOs.add(convertTo(loan));
+        }
+        return loanDTOs;
+    }
+
+    /**
+     * The counterparty of a loan is sent without its total, which would need all its loans
+     */
+    private CounterpartyDTO convertCounterparty(Counterparty counterparty) {
+
+        if (counterparty == null) {
+            return null;
+        }
+        CounterpartyDTO counterpartyDTO = new CounterpartyDTO();
+        counterpartyDTO.setId(counterparty.getId());
+        counterpartyDTO.setName(counterparty.getName());
+        counterpartyDTO.setEmail(counterparty.getEmail());
+        return counterpartyDTO;
     }
 }
@@ -2,11 +2,9 @@ package com.TheAccountant.converter;
 
 import com.TheAccountant.dto.notification.NotificationDTO;
 import com.TheAccountant.model.notification.Notification;
-import org.dozer.DozerBeanMapperSingletonWrapper;
-import org.dozer.Mapper;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Created by tudor.grigoriu on 6/4/2017.
@@ -18,12 +16,21 @@ public class NotificationConverter {
             return null;
         }
         NotificationDTO destObject = new NotificationDTO();
-        Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
-        mapper.map(notification, destObject);
+        destObject.setId(notification.getId());
+        destObject.setMessage(notification.getMessage());
+        destObject.setSeen(notification.isSeen());
+        destObject.setCreationDate(notification.getCreationDate());
+        destObject.setCategory(notification.getCategory());
+        destObject.setPriority(notification.getPriority());
         return destObject;
     }
 
     public List<NotificationDTO> convertList(List<Notification> notifications) {
-        return notifications.stream().map(notification -> convertTo(notification)).collect(Collectors.toList());
+
+        List<NotificationDTO> notificationDTOs = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            notificationDTOs.add(convertTo(notification));
+        }
+        return notificationDTOs;
     }
 }
@@ -16,6 +16,10 @@ public interface AppUserDao extends JpaRepository<AppUser, Long> {
 
     AppUser findByEmail(String loginString);
 
+    /**
+     * Looked up on every authenticated request. Neither the users nor this query are cached: the second
+     * level cache is local to each node, which would keep accepting an old password after it was changed
+     */
     AppUser findByUsername(String loginString);
 
 }
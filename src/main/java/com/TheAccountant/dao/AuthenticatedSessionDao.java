@@ -1,10 +1,16 @@
 package com.TheAccountant.dao;
 
 import com.TheAccountant.model.session.AuthenticatedSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import javax.transaction.Transactional;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,6 +22,51 @@ import java.util.List;
 @Repository
 public interface AuthenticatedSessionDao extends JpaRepository<AuthenticatedSession, Long> {
     
+    /**
+     * Find the sessions of the authorization string and IP address that were not revoked. The sessions opened
+     * with a token, stored with the 'Bearer' placeholder, are never returned.
+     */
+    @Query("SELECT s FROM AuthenticatedSession s "
+            + "WHERE s.authorizationString = ?1 AND s.authorizationString <> 'Bearer' "
+            + "AND s.ipAddress = ?2 AND s.revocationTime IS NULL")
     List<AuthenticatedSession> findByAuthorizationStringAndIpAddress(String authorization, String ipAddress);
+
+    List<AuthenticatedSession> findByRevocationTimeIsNullAndExpirationTimeAfter(Timestamp time);
+
+    /**
+     * Find the sessions revoked after the given time (database clock) that did not expire yet
+     */
+    List<AuthenticatedSession> findByRevocationTimeAfterAndExpirationTimeAfter(Timestamp revocationTime, Timestamp time);
+
+    /**
+     * Mark sessions as revoked, at the time of the database so all the nodes compare the same clock
+     */
+    @Modifying
+    @Query("UPDATE AuthenticatedSession s SET s.revocationTime = CURRENT_TIMESTAMP WHERE s.id IN (?1) AND s.revocationTime IS NULL")
+    int revokeByIdIn(Collection<Long> ids);
+
+    /**
+     * Allocate a block of ids from the shared sequence, so the sessions can be registered before they are inserted
+     */
+    @Query(value = "SELECT nextval('hibernate_sequence') FROM generate_series(1, ?1)", nativeQuery = true)
+    List<BigInteger> allocateIds(int count);
+
+    /**
+     * Insert a session with an id allocated by {@link #allocateIds(int)}
+     */
+    @Modifying
+    @Query(value = "INSERT INTO authenticated_session (id, authorization_string, username, ipAddress, expirationTime) " +
+            "VALUES (?1, ?2, ?3, ?4, ?5)", nativeQuery = true)
+    int insert(long id, String authorization, String username, String ipAddress, Timestamp expirationTime);
+
+    @Query("SELECT s.id FROM AuthenticatedSession s WHERE s.expirationTime < ?1")
+    List<Long> findExpiredSessionIds(Timestamp time, Pageable pageable);
+
+    /**
+     * Bulk delete written in JPQL, so Hibernate does not invalidate the second level cache regions of the other tables
+     */
+    @Modifying
+    @Query("DELETE FROM AuthenticatedSession s WHERE s.id IN (?1)")
+    int deleteByIdIn(Collection<Long> ids);
     
 }
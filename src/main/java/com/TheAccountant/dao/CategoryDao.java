@@ -4,7 +4,9 @@ import com.TheAccountant.model.category.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
 import java.util.List;
 
@@ -15,14 +17,35 @@ import java.util.List;
 @Transactional
 public interface CategoryDao extends JpaRepository<Category, Long> {
 
-    @Query("SELECT c FROM Category c WHERE c.name = ?1 AND c.user.username = ?2")
-    Category findByNameAndUsername(String categoryName, String username);
+    /**
+     * Not read from the query cache: the result decides whether a category is created, and a category
+     * created on another node is only seen by the cache of that node
+     */
+    @Query("SELECT c FROM Category c WHERE c.name = ?1 AND c.user.userId = ?2")
+    Category findByNameAndUserId(String categoryName, long userId);
 
-    @Query("SELECT c FROM Category c WHERE c.user.username = ?1")
-    List<Category> findByUsername(String username);
+    @Query("SELECT c FROM Category c WHERE c.user.userId = ?1")
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
+    List<Category> findByUserId(long userId);
 
+    /**
+     * Same as {@link #findByUserId(long)} without the query cache, for the writes that create the missing
+     * categories by name
+     */
+    @Query("SELECT c FROM Category c WHERE c.user.userId = ?1")
+    List<Category> findUncachedByUserId(long userId);
+
+    /**
+     * Category with its user, as needed by the ownership checks
+     */
+    @Query("SELECT c FROM Category c JOIN FETCH c.user WHERE c.id = ?1")
+    Category fetchOne(long id);
+
+    /**
+     * Bulk delete written in JPQL, so Hibernate only invalidates the cached categories and not every cache region
+     */
     @Modifying
-    @Query(value = "delete from category WHERE userId IN (SELECT app_user.userId FROM app_user WHERE app_user.username= ?1)", nativeQuery = true)
-    void deleteAllByUsername(String username);
+    @Query("DELETE FROM Category c WHERE c.user.userId = ?1")
+    void deleteAllByUserId(long userId);
 
 }
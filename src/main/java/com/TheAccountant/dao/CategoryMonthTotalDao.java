@@ -0,0 +1,72 @@
+package com.TheAccountant.dao;
+
+import com.TheAccountant.model.category.CategoryMonthTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import javax.transaction.Transactional;
+import java.sql.Date;
+
+/**
+ * Data access object class for 'category_month_total'
+ */
+@Transactional
+public interface CategoryMonthTotalDao extends JpaRepository<CategoryMonthTotal, Long> {
+
+    /**
+     * Read as a scalar, so the value is not served from an entity updated by the native statements below
+     */
+    @Query("SELECT t.total FROM CategoryMonthTotal t WHERE t.categoryId = ?1 AND t.month = ?2")
+    Double findTotal(long categoryId, Date month);
+
+    String ADD_TO_TOTAL =
+            "INSERT INTO category_month_total (id, categoryid, userid, month, total, expensecount) " +
+            "VALUES (nextval('hibernate_sequence'), ?1, ?2, ?3, ?4, ?5) " +
+            "ON CONFLICT (categoryid, month) DO UPDATE SET " +
+            "   total = category_month_total.total + EXCLUDED.total, " +
+            "   expensecount = category_month_total.expensecount + EXCLUDED.expensecount";
+
+    /**
+     * Add an amount and a number of expenses to the total of a category in a month, creating the total
+     * if needed, in a single statement safe against concurrent writers.
+     * <p>
+     * Hibernate cannot tell which tables a native statement changes, so this one evicts all the second
+     * level cache regions; the writes done on every expense go through
+     * {@link com.TheAccountant.service.CategoryTotalService} instead, which declares the changed table.
+     */
+    @Modifying
+    @Query(value = ADD_TO_TOTAL, nativeQuery = true)
+    int addToTotal(long categoryId, long userId, Date month, double amount, long expenseCount);
+
+    @Modifying
+    @Query("DELETE FROM CategoryMonthTotal t WHERE t.categoryId = ?1 AND t.userId = ?2")
+    int deleteByCategoryIdAndUserId(long categoryId, long userId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryMonthTotal t WHERE t.userId = ?1")
+    int deleteByUserId(long userId);
+
+    /**
+     * Held by the rebuilds until they commit: the concurrent {@link #ADD_TO_TOTAL} statements wait for it, and
+     * the rebuild waits for the transactions that already changed a total, so their expenses are committed
+     * and read by the rebuild.
+     */
+    String LOCK_TOTALS = "LOCK TABLE category_month_total IN EXCLUSIVE MODE";
+
+    String SELECT_TOTALS_FROM_EXPENSES =
+            "SELECT nextval('hibernate_sequence'), totals.* FROM ( " +
+            "   SELECT expense.category_id, expense.userid, CAST(date_trunc('month', expense.creationdate) AS date), " +
+            "       SUM (" + ExpenseDao.DEFAULT_CURRENCY_AMOUNT + "), COUNT (*) " +
+            "   FROM expense ";
+
+    String GROUP_TOTALS_FROM_EXPENSES =
+            "   GROUP BY 1, 2, 3 " +
+            ") totals";
+
+    String INSERT_TOTALS_FROM_EXPENSES = "INSERT INTO category_month_total (id, categoryid, userid, month, total, expensecount) " +
+            SELECT_TOTALS_FROM_EXPENSES + GROUP_TOTALS_FROM_EXPENSES;
+
+    String INSERT_TOTALS_FROM_EXPENSES_OF_USER = "INSERT INTO category_month_total (id, categoryid, userid, month, total, expensecount) " +
+            SELECT_TOTALS_FROM_EXPENSES + "WHERE expense.userid = ?1 " + GROUP_TOTALS_FROM_EXPENSES;
+}
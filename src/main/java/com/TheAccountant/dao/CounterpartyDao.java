@@ -15,6 +15,15 @@ import java.util.List;
 @Repository
 public interface CounterpartyDao extends JpaRepository<Counterparty, Long> {
 
-    @Query("SELECT DISTINCT C FROM Counterparty C WHERE C.user.username = ?1 ORDER BY email DESC")
-    List<Counterparty> fetchAll(String username);
+    /**
+     * Counterparties of a user with their loans, needed for the totals of the DTOs
+     */
+    @Query("SELECT DISTINCT C FROM Counterparty C LEFT JOIN FETCH C.loans WHERE C.user.userId = ?1 ORDER BY C.email DESC")
+    List<Counterparty> fetchAll(long userId);
+
+    /**
+     * Counterparty with its user, as needed by the ownership checks
+     */
+    @Query("SELECT C FROM Counterparty C JOIN FETCH C.user WHERE C.id = ?1")
+    Counterparty fetchOne(long id);
 }
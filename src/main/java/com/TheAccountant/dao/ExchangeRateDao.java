@@ -0,0 +1,40 @@
+package com.TheAccountant.dao;
+
+import com.TheAccountant.model.currency.ExchangeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Data access object class for 'exchange_rate'
+ */
+@Transactional
+@Repository
+public interface ExchangeRateDao extends JpaRepository<ExchangeRate, Long> {
+
+    /**
+     * Find the rate between the specified currencies registered on the specified day, or the last known
+     * rate before it (weekends and bank holidays have no rates of their own).
+     */
+    ExchangeRate findFirstByBaseCurrencyAndTargetCurrencyAndRateDayLessThanEqualOrderByRateDayDesc(
+            String baseCurrency, String targetCurrency, Date day);
+
+    List<ExchangeRate> findByBaseCurrencyAndRateDay(String baseCurrency, Date day);
+
+    String SELECT_CURRENCIES_IN_USE =
+            "SELECT currency FROM expense " +
+            "UNION SELECT currency FROM income " +
+            "UNION SELECT currency FROM loan " +
+            "UNION SELECT defaultcurrency FROM app_user WHERE defaultcurrency IS NOT NULL";
+
+    /**
+     * @return the ISO codes of all currencies held by the users: their default currencies and
+     * the currencies of their expenses, incomes and loans
+     */
+    @Query(value = SELECT_CURRENCIES_IN_USE, nativeQuery = true)
+    List<String> findCurrenciesInUse();
+}
@@ -1,14 +1,21 @@
 package com.TheAccountant.dao;
 
 import com.TheAccountant.model.expense.Expense;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
+import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.List;
-import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
 
 /**
  * Data access object class for 'expense'
@@ -18,16 +25,30 @@ import java.util.Set;
 @Transactional
 public interface ExpenseDao extends JpaRepository<Expense, Long> {
     
-    @Query("SELECT DISTINCT e FROM Expense e WHERE e.user.username = ?1")
-    Set<Expense> findByUsername(String username);
+    /**
+     * Expense with its user and category, as needed by the ownership checks and the DTO conversion
+     */
+    @Query("SELECT e FROM Expense e JOIN FETCH e.user JOIN FETCH e.category WHERE e.id = ?1")
+    Expense fetchOne(long id);
+
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category WHERE e.user.userId = ?1 ORDER BY e.creationDate, e.id")
+    List<Expense> findByUserId(long userId);
+
+    /**
+     * The bulk deletes are written in JPQL, so Hibernate only invalidates the cached queries on the
+     * 'expense' table and not every cache region
+     */
+    @Modifying
+    @Query("DELETE FROM Expense e WHERE e.user.userId = ?1")
+    void deleteAllByUserId(long userId);
 
     @Modifying
-    @Query(value = "DELETE FROM expense WHERE userid IN (SELECT app_user.userId FROM app_user WHERE app_user.username= ?1)", nativeQuery = true)
-    void deleteAllByUsername(String username);
+    @Query("DELETE FROM Expense e WHERE e.category.id = ?1 AND e.user.userId = ?2")
+    void deleteAllByCategoryAndUserId(long categoryId, long userId);
 
     @Modifying
-    @Query(value = "DELETE FROM expense WHERE category_id IN (SELECT category.id FROM category WHERE category.id= ?1)"
-            + "AND userid IN (SELECT app_user.userId FROM app_user WHERE app_user.username= ?2)", nativeQuery = true)
+    @Query("DELETE FROM Expense e WHERE e.category.id = ?1" +
+            " AND e.user.userId IN (SELECT u.userId FROM AppUser u WHERE u.username = ?2)")
     void deleteAllByCategoryAndUsername(long categoryId, String username);
 
     @Query(value = "SELECT exp.* " +
@@ -41,26 +62,84 @@ public interface ExpenseDao extends JpaRepository<Expense, Long> {
             ")", nativeQuery = true)
     List<Expense> findRecurrentExpensesToAdd(int currentDay, int currentMonth);
 
-    @Query("SELECT DISTINCT e FROM Expense e " +
-            "WHERE e.user.username = ?1" +
-            " AND e.creationDate BETWEEN ?2 AND ?3")
-    Set<Expense> findByTimeInterval(String username, Timestamp startDate, Timestamp endDate);
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category " +
+            "WHERE e.user.userId = ?1" +
+            " AND e.creationDate BETWEEN ?2 AND ?3" +
+            " ORDER BY e.creationDate, e.id")
+    List<Expense> findByTimeInterval(long userId, Timestamp startDate, Timestamp endDate);
 
-    @Query("SELECT DISTINCT e FROM Expense e " +
-            "WHERE e.user.username = ?1 " +
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category " +
+            "WHERE e.user.userId = ?1 " +
             " AND e.category.id = ?2" +
-            " AND e.creationDate BETWEEN ?3 AND ?4")
-    Set<Expense> findByTimeIntervalAndCategory(String username, long categoryId,
-                                               Timestamp startDate, Timestamp endDate);
+            " AND e.creationDate BETWEEN ?3 AND ?4" +
+            " ORDER BY e.creationDate, e.id")
+    List<Expense> findByTimeIntervalAndCategory(long userId, long categoryId,
+                                                Timestamp startDate, Timestamp endDate);
 
+    /**
+     * Page of the expenses of an interval that come after the (creation date, id) of the last expense of
+     * the previous page. The redundant 'creationDate >= ?4' bounds the index range scan.
+     */
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category " +
+            "WHERE e.user.userId = ?1" +
+            " AND e.creationDate BETWEEN ?2 AND ?3" +
+            " AND e.creationDate >= ?4 AND (e.creationDate > ?4 OR e.id > ?5)" +
+            " ORDER BY e.creationDate, e.id")
+    List<Expense> findByTimeIntervalAfter(long userId, Timestamp startDate, Timestamp endDate,
+                                          Timestamp afterDate, long afterId, Pageable pageable);
 
-    String SELECT_TOTAL_AMOUNT_BY_CATEGORY_THIS_MONTH =
-            "SELECT " +
-            "   SUM ( " +
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category " +
+            "WHERE e.user.userId = ?1" +
+            " AND e.category.id = ?2" +
+            " AND e.creationDate BETWEEN ?3 AND ?4" +
+            " AND e.creationDate >= ?5 AND (e.creationDate > ?5 OR e.id > ?6)" +
+            " ORDER BY e.creationDate, e.id")
+    List<Expense> findByTimeIntervalAndCategoryAfter(long userId, long categoryId, Timestamp startDate,
+                                                     Timestamp endDate, Timestamp afterDate, long afterId,
+                                                     Pageable pageable);
+
+    /**
+     * Number of rows read from the database at once by the streaming queries
+     */
+    String STREAM_FETCH_SIZE = "500";
+
+    /**
+     * The expenses of a user read through a database cursor, as read-only entities. Must be consumed inside
+     * a transaction and closed.
+     */
+    @QueryHints({@QueryHint(name = FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = READ_ONLY, value = "true")})
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category WHERE e.user.userId = ?1 ORDER BY e.creationDate, e.id")
+    Stream<Expense> streamByUserId(long userId);
+
+    @QueryHints({@QueryHint(name = FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = READ_ONLY, value = "true")})
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category " +
+            "WHERE e.user.userId = ?1" +
+            " AND e.creationDate BETWEEN ?2 AND ?3" +
+            " ORDER BY e.creationDate, e.id")
+    Stream<Expense> streamByTimeInterval(long userId, Timestamp startDate, Timestamp endDate);
+
+    @QueryHints({@QueryHint(name = FETCH_SIZE, value = STREAM_FETCH_SIZE), @QueryHint(name = READ_ONLY, value = "true")})
+    @Query("SELECT e FROM Expense e JOIN FETCH e.category " +
+            "WHERE e.user.userId = ?1 " +
+            " AND e.category.id = ?2" +
+            " AND e.creationDate BETWEEN ?3 AND ?4" +
+            " ORDER BY e.creationDate, e.id")
+    Stream<Expense> streamByTimeIntervalAndCategory(long userId, long categoryId, Timestamp startDate, Timestamp endDate);
+
+
+    /**
+     * Amount of an expense in the default currency of its user
+     */
+    String DEFAULT_CURRENCY_AMOUNT =
             "       CASE " +
             "           WHEN expense.defaultcurrencyamount IS NULL THEN expense.amount " +
             "           ELSE expense.defaultcurrencyamount " +
-            "       END " +
+            "       END ";
+
+    String SELECT_TOTAL_AMOUNT_BY_CATEGORY_THIS_MONTH =
+            "SELECT " +
+            "   SUM ( " +
+            DEFAULT_CURRENCY_AMOUNT +
             "   ) " +
             "FROM expense " +
             "   INNER JOIN category ON category.id = expense.category_id " +
@@ -69,4 +148,42 @@ public interface ExpenseDao extends JpaRepository<Expense, Long> {
 
     @Query(value = SELECT_TOTAL_AMOUNT_BY_CATEGORY_THIS_MONTH, nativeQuery = true)
     Double getTotalAmountByCategoryForCurrentMonth(Long idCategory);
+
+    String SELECT_TOTALS_BY_CATEGORY =
+            "SELECT category.id, category.name, SUM (" + DEFAULT_CURRENCY_AMOUNT + "), COUNT (*) " +
+            "FROM expense " +
+            "   INNER JOIN category ON category.id = expense.category_id " +
+            "   WHERE expense.userid = ?1 AND expense.creationdate BETWEEN ?2 AND ?3 " +
+            "GROUP BY category.id, category.name " +
+            "ORDER BY category.name";
+
+    /**
+     * @return rows of (category id, category name, total amount in default currency, number of expenses)
+     */
+    @Query(value = SELECT_TOTALS_BY_CATEGORY, nativeQuery = true)
+    List<Object[]> getTotalsByCategory(long userId, Timestamp startDate, Timestamp endDate);
+
+    String SELECT_TOTALS_BY_PERIOD =
+            "SELECT date_trunc(?4, expense.creationdate), SUM (" + DEFAULT_CURRENCY_AMOUNT + "), COUNT (*) " +
+            "FROM expense " +
+            "   WHERE expense.userid = ?1 AND expense.creationdate BETWEEN ?2 AND ?3 " +
+            "GROUP BY 1 " +
+            "ORDER BY 1";
+
+    /**
+     * @param period
+     *      day, week or month, as accepted by the PostgreSQL date_trunc function
+     * @return rows of (start of the period, total amount in default currency, number of expenses)
+     */
+    @Query(value = SELECT_TOTALS_BY_PERIOD, nativeQuery = true)
+    List<Object[]> getTotalsByPeriod(long userId, Timestamp startDate, Timestamp endDate, String period);
+
+    @Query("SELECT e FROM Expense e WHERE e.user.userId = ?1 AND e.id > ?3" +
+            " AND ((e.defaultCurrency IS NULL AND e.currency <> ?2) OR e.defaultCurrency <> ?2) ORDER BY e.id")
+    List<Expense> findWithStaleDefaultCurrency(long userId, String defaultCurrency, long afterId, Pageable pageable);
+
+    @Query(value = "SELECT DISTINCT e.userid FROM expense e INNER JOIN app_user ON app_user.userid = e.userid" +
+            " WHERE (e.defaultcurrency IS NULL AND e.currency <> app_user.defaultcurrency)" +
+            " OR e.defaultcurrency <> app_user.defaultcurrency", nativeQuery = true)
+    List<BigInteger> findUserIdsWithStaleDefaultCurrency();
 }
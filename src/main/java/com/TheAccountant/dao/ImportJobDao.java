@@ -0,0 +1,17 @@
+package com.TheAccountant.dao;
+
+import com.TheAccountant.model.importjob.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+
+/**
+ * Data access object class for 'import_job' table
+ */
+@Transactional
+@Repository
+public interface ImportJobDao extends JpaRepository<ImportJob, Long> {
+
+    ImportJob findByIdAndUserId(long id, Long userId);
+}
@@ -0,0 +1,19 @@
+package com.TheAccountant.dao;
+
+import com.TheAccountant.model.importjob.ImportJobError;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.util.List;
+
+/**
+ * Data access object class for 'import_job_error' table
+ */
+@Transactional
+@Repository
+public interface ImportJobErrorDao extends JpaRepository<ImportJobError, Long> {
+
+    List<ImportJobError> findByJobIdOrderByRowNumberAsc(Long jobId, Pageable pageable);
+}
@@ -1,13 +1,21 @@
 package com.TheAccountant.dao;
 
 import com.TheAccountant.model.income.Income;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
+import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
 
 /**
  * Data access object class for 'income'
@@ -20,13 +28,19 @@ public interface IncomeDao extends JpaRepository<Income, Long> {
 
     @Query("SELECT i FROM Income i WHERE i.user.userId = ?1")
     List<Income> findByUserId(Long userId);
-    
-    @Query("SELECT i FROM Income i WHERE i.user.username = ?1")
-    List<Income> findByUsername(String username);
 
+    /**
+     * Income with its user, as needed by the ownership checks
+     */
+    @Query("SELECT i FROM Income i JOIN FETCH i.user WHERE i.id = ?1")
+    Income fetchOne(long id);
+
+    /**
+     * Bulk delete written in JPQL, so Hibernate only invalidates the cached queries on the 'income' table
+     */
     @Modifying
-    @Query(value = "DELETE FROM income WHERE user_id IN (SELECT app_user.userId FROM app_user WHERE app_user.username= ?1)", nativeQuery = true)
-    void deleteAllByUsername(String username);
+    @Query("DELETE FROM Income i WHERE i.user.userId = ?1")
+    void deleteAllByUserId(long userId);
 
     @Query(value = "SELECT inc.* " +
             "FROM income inc " +
@@ -42,9 +56,44 @@ public interface IncomeDao extends JpaRepository<Income, Long> {
     @Query(value = "SELECT inc " +
             "FROM Income inc " +
             "WHERE " +
-             "inc.creationDate BETWEEN ?1 AND ?2 " +
+            "inc.user.userId = ?3 " +
             "AND " +
-            "inc.user.username = ?3")
-    List<Income> findIncomesInTimeInterval(Timestamp fromDate, Timestamp untilDate, String username);
+            "inc.creationDate BETWEEN ?1 AND ?2")
+    List<Income> findIncomesInTimeInterval(Timestamp fromDate, Timestamp untilDate, long userId);
+
+    /**
+     * Page of the incomes of an interval that come after the (creation date, id) of the last income of
+     * the previous page. The redundant 'creationDate >= ?4' bounds the index range scan.
+     */
+    @Query("SELECT inc FROM Income inc " +
+            "WHERE inc.user.userId = ?3" +
+            " AND inc.creationDate BETWEEN ?1 AND ?2" +
+            " AND inc.creationDate >= ?4 AND (inc.creationDate > ?4 OR inc.id > ?5)" +
+            " ORDER BY inc.creationDate, inc.id")
+    List<Income> findIncomesInTimeIntervalAfter(Timestamp fromDate, Timestamp untilDate, long userId,
+                                                Timestamp afterDate, long afterId, Pageable pageable);
+
+    /**
+     * The incomes of a user read through a database cursor, as read-only entities. Must be consumed inside
+     * a transaction and closed.
+     */
+    @QueryHints({@QueryHint(name = FETCH_SIZE, value = ExpenseDao.STREAM_FETCH_SIZE), @QueryHint(name = READ_ONLY, value = "true")})
+    @Query("SELECT i FROM Income i WHERE i.user.userId = ?1 ORDER BY i.creationDate, i.id")
+    Stream<Income> streamByUserId(long userId);
+
+    @QueryHints({@QueryHint(name = FETCH_SIZE, value = ExpenseDao.STREAM_FETCH_SIZE), @QueryHint(name = READ_ONLY, value = "true")})
+    @Query("SELECT inc FROM Income inc " +
+            "WHERE inc.user.userId = ?3" +
+            " AND inc.creationDate BETWEEN ?1 AND ?2" +
+            " ORDER BY inc.creationDate, inc.id")
+    Stream<Income> streamIncomesInTimeInterval(Timestamp fromDate, Timestamp untilDate, long userId);
+
+    @Query("SELECT i FROM Income i WHERE i.user.userId = ?1 AND i.id > ?3" +
+            " AND ((i.defaultCurrency IS NULL AND i.currency <> ?2) OR i.defaultCurrency <> ?2) ORDER BY i.id")
+    List<Income> findWithStaleDefaultCurrency(long userId, String defaultCurrency, long afterId, Pageable pageable);
 
+    @Query(value = "SELECT DISTINCT i.user_id FROM income i INNER JOIN app_user ON app_user.userid = i.user_id" +
+            " WHERE (i.defaultcurrency IS NULL AND i.currency <> app_user.defaultcurrency)" +
+            " OR i.defaultcurrency <> app_user.defaultcurrency", nativeQuery = true)
+    List<BigInteger> findUserIdsWithStaleDefaultCurrency();
 }
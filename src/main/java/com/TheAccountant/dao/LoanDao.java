@@ -1,11 +1,13 @@
 package com.TheAccountant.dao;
 
 import com.TheAccountant.model.loan.Loan;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import javax.transaction.Transactional;
+import java.math.BigInteger;
 import java.sql.Timestamp;
 import java.util.List;
 
@@ -16,21 +18,48 @@ import java.util.List;
 @Repository
 public interface LoanDao extends JpaRepository<Loan, Long> {
 
-    @Query("SELECT DISTINCT L FROM Loan L WHERE L.user.username = ?1 ORDER BY L.creationDate DESC")
-    List<Loan> fetchAll(String username);
+    /**
+     * Loan with its user and counterparty, as needed by the ownership checks and the DTO conversion
+     */
+    @Query("SELECT L FROM Loan L JOIN FETCH L.user JOIN FETCH L.counterparty WHERE L.id = ?1")
+    Loan fetchOne(long id);
+
+    @Query("SELECT L FROM Loan L JOIN FETCH L.counterparty WHERE L.user.userId = ?1 ORDER BY L.creationDate DESC")
+    List<Loan> fetchAll(long userId);
 
     @Query(value = "SELECT DISTINCT l.* FROM loan l WHERE l.user_id = ?1 ORDER BY l.creationDate DESC LIMIT ?2 OFFSET ?3", nativeQuery = true)
     List<Loan> fetchAll(long userId, int limit, int offset);
 
-    @Query("SELECT DISTINCT L FROM Loan L WHERE L.user.username = ?1 and L.active = ?2 ORDER BY L.creationDate DESC")
-    List<Loan> findByActive(String username, boolean active);
+    @Query("SELECT L FROM Loan L JOIN FETCH L.counterparty WHERE L.user.userId = ?1 ORDER BY L.creationDate DESC, L.id DESC")
+    List<Loan> fetchFirstPage(long userId, Pageable pageable);
+
+    /**
+     * Page of the loans older than the (creation date, id) of the last loan of the previous page.
+     * The redundant 'creationDate <= ?2' bounds the index range scan.
+     */
+    @Query("SELECT L FROM Loan L JOIN FETCH L.counterparty WHERE L.user.userId = ?1" +
+            " AND L.creationDate <= ?2 AND (L.creationDate < ?2 OR L.id < ?3)" +
+            " ORDER BY L.creationDate DESC, L.id DESC")
+    List<Loan> fetchPageBefore(long userId, Timestamp beforeDate, long beforeId, Pageable pageable);
+
+    @Query("SELECT L FROM Loan L JOIN FETCH L.counterparty WHERE L.user.userId = ?1 and L.active = ?2 ORDER BY L.creationDate DESC")
+    List<Loan> findByActive(long userId, boolean active);
 
-    @Query("SELECT DISTINCT L FROM Loan L WHERE L.active = true AND L.untilDate <= ?1 ORDER BY L.untilDate DESC")
+    @Query("SELECT L FROM Loan L JOIN FETCH L.user JOIN FETCH L.counterparty WHERE L.active = true AND L.untilDate <= ?1 ORDER BY L.untilDate DESC")
     List<Loan> findAllActiveBeforeDate(Timestamp timestamp);
 
-    @Query("SELECT DISTINCT L FROM Loan L WHERE L.user.username = ?1 AND L.counterparty.id = ?2 ORDER BY L.creationDate DESC")
-    List<Loan> findByCounterparty(String username, long counterpartyId);
+    @Query("SELECT L FROM Loan L JOIN FETCH L.counterparty WHERE L.user.userId = ?1 AND L.counterparty.id = ?2 ORDER BY L.creationDate DESC")
+    List<Loan> findByCounterparty(long userId, long counterpartyId);
+
+    @Query("SELECT L FROM Loan L JOIN FETCH L.counterparty WHERE L.user.userId = ?1 AND L.counterparty.id = ?2 AND L.active = ?3 ORDER BY L.creationDate DESC")
+    List<Loan> findByCounterpartyAndActive(long userId, long counterpartyId, boolean active);
+
+    @Query("SELECT l FROM Loan l WHERE l.user.userId = ?1 AND l.id > ?3" +
+            " AND ((l.defaultCurrency IS NULL AND l.currency <> ?2) OR l.defaultCurrency <> ?2) ORDER BY l.id")
+    List<Loan> findWithStaleDefaultCurrency(long userId, String defaultCurrency, long afterId, Pageable pageable);
 
-    @Query("SELECT DISTINCT L FROM Loan L WHERE L.user.username = ?1 AND L.counterparty.id = ?2 AND L.active = ?3 ORDER BY L.creationDate DESC")
-    List<Loan> findByCounterpartyAndActive(String username, long counterpartyId, boolean active);
+    @Query(value = "SELECT DISTINCT l.user_id FROM loan l INNER JOIN app_user ON app_user.userid = l.user_id" +
+            " WHERE (l.defaultcurrency IS NULL AND l.currency <> app_user.defaultcurrency)" +
+            " OR l.defaultcurrency <> app_user.defaultcurrency", nativeQuery = true)
+    List<BigInteger> findUserIdsWithStaleDefaultCurrency();
 }
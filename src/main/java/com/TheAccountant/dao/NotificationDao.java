@@ -1,9 +1,11 @@
 package com.TheAccountant.dao;
 
 import com.TheAccountant.model.notification.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.sql.Timestamp;
 import java.util.List;
 
 /**
@@ -11,14 +13,32 @@ import java.util.List;
  */
 public interface NotificationDao extends JpaRepository<Notification, Long> {
 
-    @Query("SELECT DISTINCT n FROM Notification n WHERE n.user.username = ?1 ORDER BY creationDate DESC")
-    List<Notification> fetchAll(String username);
+    /**
+     * Notification with its user, as needed by the ownership checks
+     */
+    @Query("SELECT n FROM Notification n JOIN FETCH n.user WHERE n.id = ?1")
+    Notification fetchOne(long id);
+
+    @Query("SELECT DISTINCT n FROM Notification n WHERE n.user.userId = ?1 ORDER BY creationDate DESC")
+    List<Notification> fetchAll(long userId);
 
     @Query(value = "SELECT DISTINCT n.* FROM notification n WHERE n.user_id = ?1 ORDER BY n.creationDate DESC LIMIT ?2 OFFSET ?3", nativeQuery = true)
     List<Notification> fetchAll(long userId, int limit, int offset);
 
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = ?1 ORDER BY n.creationDate DESC, n.id DESC")
+    List<Notification> fetchFirstPage(long userId, Pageable pageable);
+
+    /**
+     * Page of the notifications older than the (creation date, id) of the last notification of the
+     * previous page. The redundant 'creationDate <= ?2' bounds the index range scan.
+     */
+    @Query("SELECT n FROM Notification n WHERE n.user.userId = ?1" +
+            " AND n.creationDate <= ?2 AND (n.creationDate < ?2 OR n.id < ?3)" +
+            " ORDER BY n.creationDate DESC, n.id DESC")
+    List<Notification> fetchPageBefore(long userId, Timestamp beforeDate, long beforeId, Pageable pageable);
+
     long countByUserUserIdAndSeen(long userId, boolean seen);
 
-    @Query("SELECT DISTINCT n FROM Notification n WHERE n.user.username = ?1 and n.seen = ?2 ORDER BY creationDate DESC")
-    List<Notification> findBySeen(String username, boolean seen);
+    @Query("SELECT DISTINCT n FROM Notification n WHERE n.user.userId = ?1 and n.seen = ?2 ORDER BY creationDate DESC")
+    List<Notification> findBySeen(long userId, boolean seen);
 }
@@ -0,0 +1,68 @@
+package com.TheAccountant.dao;
+
+import com.TheAccountant.model.email.OutboxEmail;
+import com.TheAccountant.model.email.OutboxEmailStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Data access object class for 'email_outbox' table
+ */
+@Transactional
+@Repository
+public interface OutboxEmailDao extends JpaRepository<OutboxEmail, Long> {
+
+    @Query("SELECT e FROM OutboxEmail e WHERE e.status = ?1 AND e.nextAttemptDate <= ?2 ORDER BY e.nextAttemptDate, e.id")
+    List<OutboxEmail> findDue(OutboxEmailStatus status, Timestamp now, Pageable pageable);
+
+    /**
+     * Claim a due email for a worker, by moving its next attempt date to the end of the lease. Only one
+     * of the workers reading the same next attempt date succeeds.
+     *
+     * @return 1 if the email was claimed
+     */
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.nextAttemptDate = ?3 " +
+            "WHERE e.id = ?1 AND e.nextAttemptDate = ?2 AND e.status = com.TheAccountant.model.email.OutboxEmailStatus.PENDING")
+    int claim(long id, Timestamp nextAttemptDate, Timestamp leaseEnd);
+
+    /**
+     * Mark an email as sent and clear its content, which may hold activation or password reset links
+     */
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = com.TheAccountant.model.email.OutboxEmailStatus.SENT, e.sentDate = ?2, " +
+            "e.content = '' WHERE e.id = ?1")
+    int markSent(long id, Timestamp sentDate);
+
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.attempts = ?2, e.nextAttemptDate = ?3, e.lastError = ?4 WHERE e.id = ?1")
+    int markAttemptFailed(long id, int attempts, Timestamp nextAttemptDate, String lastError);
+
+    /**
+     * Mark an email as dropped after its last attempt and clear its content
+     */
+    @Modifying
+    @Query("UPDATE OutboxEmail e SET e.status = com.TheAccountant.model.email.OutboxEmailStatus.FAILED, " +
+            "e.attempts = ?2, e.nextAttemptDate = ?3, e.lastError = ?4, e.content = '' WHERE e.id = ?1")
+    int markFailed(long id, int attempts, Timestamp failureDate, String lastError);
+
+    /**
+     * Delete the emails sent or dropped before the specified date
+     *
+     * @return the number of deleted emails
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEmail e " +
+            "WHERE (e.status = com.TheAccountant.model.email.OutboxEmailStatus.SENT AND e.sentDate < ?1) " +
+            "OR (e.status = com.TheAccountant.model.email.OutboxEmailStatus.FAILED AND e.nextAttemptDate < ?1)")
+    int deleteFinishedBefore(Timestamp date);
+
+    long countByStatus(OutboxEmailStatus status);
+}
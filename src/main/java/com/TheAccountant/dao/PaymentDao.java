@@ -17,6 +17,6 @@ import java.util.List;
 @Transactional
 public interface PaymentDao extends JpaRepository<Payment, Long> {
 
-    @Query("SELECT p FROM Payment p WHERE p.user.userId = :userId AND lower(p.paymentType) = lower(:paymentType) ORDER BY p.creationDate DESC ")
+    @Query("SELECT p FROM Payment p LEFT JOIN FETCH p.paymentStripe WHERE p.user.userId = :userId AND lower(p.paymentType) = lower(:paymentType) ORDER BY p.creationDate DESC ")
     List<Payment> findByUserAndPaymentType(@Param("userId") Long userId, @Param("paymentType") String paymentType);
 }
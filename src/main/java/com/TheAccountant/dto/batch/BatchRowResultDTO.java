@@ -0,0 +1,64 @@
+package com.TheAccountant.dto.batch;
+
+/**
+ * DTO - data transfer object containing the result of a single row of a bulk import
+ */
+public class BatchRowResultDTO {
+
+    public static final String STATUS_CREATED = "CREATED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    private long index;
+    private Long id;
+    private String status;
+    private String message;
+
+    public BatchRowResultDTO() {}
+
+    public BatchRowResultDTO(long index, Long id, String status, String message) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    public static BatchRowResultDTO created(long index, long id) {
+        return new BatchRowResultDTO(index, id, STATUS_CREATED, null);
+    }
+
+    public static BatchRowResultDTO rejected(long index, String message) {
+        return new BatchRowResultDTO(index, null, STATUS_REJECTED, message);
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public void setIndex(long index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
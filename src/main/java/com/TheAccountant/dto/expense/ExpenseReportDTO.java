@@ -0,0 +1,38 @@
+package com.TheAccountant.dto.expense;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO - data transfer object for the expense totals of an interval, grouped by category or by period
+ */
+public class ExpenseReportDTO {
+
+    private String groupBy;
+    private String currency;
+    private List<ExpenseTotalDTO> totals = new ArrayList<>();
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public List<ExpenseTotalDTO> getTotals() {
+        return totals;
+    }
+
+    public void setTotals(List<ExpenseTotalDTO> totals) {
+        this.totals = totals;
+    }
+}
@@ -0,0 +1,55 @@
+package com.TheAccountant.dto.expense;
+
+import java.sql.Timestamp;
+
+/**
+ * DTO - data transfer object for the total of the expenses of a category or of a period
+ */
+public class ExpenseTotalDTO {
+
+    private Long categoryId;
+    private String categoryName;
+    private Timestamp periodStart;
+    private double total;
+    private long count;
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public void setCategoryName(String categoryName) {
+        this.categoryName = categoryName;
+    }
+
+    public Timestamp getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(Timestamp periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,104 @@
+package com.TheAccountant.dto.importjob;
+
+import com.TheAccountant.dto.batch.BatchRowResultDTO;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO - data transfer object for the progress of a bank statement import
+ */
+public class ImportJobDTO {
+
+    private long id;
+    private String format;
+    private String status;
+    private long processedRows;
+    private long importedRows;
+    private long rejectedRows;
+    private String errorMessage;
+    private Timestamp creationDate;
+    private Timestamp finishDate;
+    private List<BatchRowResultDTO> rejectedRowList = new ArrayList<>();
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(long rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Timestamp getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(Timestamp creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public Timestamp getFinishDate() {
+        return finishDate;
+    }
+
+    public void setFinishDate(Timestamp finishDate) {
+        this.finishDate = finishDate;
+    }
+
+    public List<BatchRowResultDTO> getRejectedRowList() {
+        return rejectedRowList;
+    }
+
+    public void setRejectedRowList(List<BatchRowResultDTO> rejectedRowList) {
+        this.rejectedRowList = rejectedRowList;
+    }
+}
@@ -0,0 +1,78 @@
+package com.TheAccountant.dto.monitoring;
+
+/**
+ * DTO - data transfer object containing the usage statistics of an in-process cache
+ */
+public class CacheMetricsDTO {
+
+    private String name;
+    private long size;
+    private long maxSize;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public CacheMetricsDTO() {}
+
+    public CacheMetricsDTO(String name, long size, long maxSize, long hits, long misses, long evictions) {
+        this.name = name;
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0D : (double) hits / requests;
+    }
+}
@@ -0,0 +1,91 @@
+package com.TheAccountant.dto.monitoring;
+
+import java.util.Map;
+
+/**
+ * DTO - data transfer object containing the connection pool usage
+ */
+public class DataSourceMetricsDTO {
+
+    private int active;
+    private int idle;
+    private int waiting;
+    private int size;
+    private int maxActive;
+    private long acquireCount;
+    private double acquireTimeMeanMillis;
+    private double acquireTimeMaxMillis;
+    private Map<String, Long> acquireTimeBuckets;
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public void setWaiting(int waiting) {
+        this.waiting = waiting;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public int getMaxActive() {
+        return maxActive;
+    }
+
+    public void setMaxActive(int maxActive) {
+        this.maxActive = maxActive;
+    }
+
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    public void setAcquireCount(long acquireCount) {
+        this.acquireCount = acquireCount;
+    }
+
+    public double getAcquireTimeMeanMillis() {
+        return acquireTimeMeanMillis;
+    }
+
+    public void setAcquireTimeMeanMillis(double acquireTimeMeanMillis) {
+        this.acquireTimeMeanMillis = acquireTimeMeanMillis;
+    }
+
+    public double getAcquireTimeMaxMillis() {
+        return acquireTimeMaxMillis;
+    }
+
+    public void setAcquireTimeMaxMillis(double acquireTimeMaxMillis) {
+        this.acquireTimeMaxMillis = acquireTimeMaxMillis;
+    }
+
+    public Map<String, Long> getAcquireTimeBuckets() {
+        return acquireTimeBuckets;
+    }
+
+    public void setAcquireTimeBuckets(Map<String, Long> acquireTimeBuckets) {
+        this.acquireTimeBuckets = acquireTimeBuckets;
+    }
+}
@@ -0,0 +1,82 @@
+package com.TheAccountant.dto.monitoring;
+
+import java.util.Map;
+
+/**
+ * DTO - data transfer object containing the email delivery metrics
+ */
+public class EmailMetricsDTO {
+
+    private long sentCount;
+    private long failedCount;
+    private long openedConnections;
+    private int idleConnections;
+    private long pendingEmails;
+    private double deliveryTimeMeanMillis;
+    private double deliveryTimeMaxMillis;
+    private Map<String, Long> deliveryTimeBuckets;
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    public void setSentCount(long sentCount) {
+        this.sentCount = sentCount;
+    }
+
+    public long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public long getOpenedConnections() {
+        return openedConnections;
+    }
+
+    public void setOpenedConnections(long openedConnections) {
+        this.openedConnections = openedConnections;
+    }
+
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    public void setIdleConnections(int idleConnections) {
+        this.idleConnections = idleConnections;
+    }
+
+    public long getPendingEmails() {
+        return pendingEmails;
+    }
+
+    public void setPendingEmails(long pendingEmails) {
+        this.pendingEmails = pendingEmails;
+    }
+
+    public double getDeliveryTimeMeanMillis() {
+        return deliveryTimeMeanMillis;
+    }
+
+    public void setDeliveryTimeMeanMillis(double deliveryTimeMeanMillis) {
+        this.deliveryTimeMeanMillis = deliveryTimeMeanMillis;
+    }
+
+    public double getDeliveryTimeMaxMillis() {
+        return deliveryTimeMaxMillis;
+    }
+
+    public void setDeliveryTimeMaxMillis(double deliveryTimeMaxMillis) {
+        this.deliveryTimeMaxMillis = deliveryTimeMaxMillis;
+    }
+
+    public Map<String, Long> getDeliveryTimeBuckets() {
+        return deliveryTimeBuckets;
+    }
+
+    public void setDeliveryTimeBuckets(Map<String, Long> deliveryTimeBuckets) {
+        this.deliveryTimeBuckets = deliveryTimeBuckets;
+    }
+}
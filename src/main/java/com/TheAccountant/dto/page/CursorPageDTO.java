@@ -0,0 +1,36 @@
+package com.TheAccountant.dto.page;
+
+import java.util.List;
+
+/**
+ * Page of a list read with a cursor. The next page is requested with {@link #getNextCursor()},
+ * which is null on the last page.
+ */
+public class CursorPageDTO<E> {
+
+    private List<E> items;
+    private String nextCursor;
+
+    public CursorPageDTO() {}
+
+    public CursorPageDTO(List<E> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<E> getItems() {
+        return items;
+    }
+
+    public void setItems(List<E> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
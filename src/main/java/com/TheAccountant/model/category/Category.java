@@ -2,6 +2,8 @@ package com.TheAccountant.model.category;
 
 import com.TheAccountant.model.expense.Expense;
 import com.TheAccountant.model.user.AppUser;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.Length;
 
 import javax.persistence.*;
@@ -16,6 +18,8 @@ import java.util.Set;
 @Entity
 @Table(name = "category",
         uniqueConstraints = { @UniqueConstraint(columnNames = { "name", "userId"}) })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
 public class Category {
 
     private long id;
@@ -73,7 +77,7 @@ public class Category {
         this.name = name;
     }
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "userId")
     public AppUser getUser() {
 
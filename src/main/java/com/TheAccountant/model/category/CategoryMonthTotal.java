@@ -0,0 +1,91 @@
+package com.TheAccountant.model.category;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.sql.Date;
+
+/**
+ * Entity class for the 'category_month_total' table, holding the running total of the expenses of a
+ * category in a month, in the default currency of the user. The table is derived from 'expense' and
+ * can be rebuilt from it at any time.
+ */
+@Entity
+@Table(name = "category_month_total",
+        uniqueConstraints = { @UniqueConstraint(columnNames = { "categoryId", "month" }) },
+        indexes = { @Index(name = "category_month_total_user_index", columnList = "userId") })
+public class CategoryMonthTotal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private long id;
+
+    @NotNull
+    @Column(name = "categoryId")
+    private Long categoryId;
+
+    @NotNull
+    @Column(name = "userId")
+    private Long userId;
+
+    /**
+     * First day of the month
+     */
+    @NotNull
+    @Column(name = "month")
+    private Date month;
+
+    @NotNull
+    private Double total;
+
+    @NotNull
+    @Column(name = "expenseCount")
+    private Long expenseCount;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Date getMonth() {
+        return month;
+    }
+
+    public void setMonth(Date month) {
+        this.month = month;
+    }
+
+    public Double getTotal() {
+        return total;
+    }
+
+    public void setTotal(Double total) {
+        this.total = total;
+    }
+
+    public Long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(Long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+}
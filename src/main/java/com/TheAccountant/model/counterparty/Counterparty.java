@@ -2,6 +2,8 @@ package com.TheAccountant.model.counterparty;
 
 import com.TheAccountant.model.loan.Loan;
 import com.TheAccountant.model.user.AppUser;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -12,13 +14,15 @@ import java.util.Set;
  * Created by Florin on 3/7/2017.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "counterparty")
 public class Counterparty {
 
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private long id;
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_Id")
     private AppUser user;
 
@@ -0,0 +1,84 @@
+package com.TheAccountant.model.currency;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.sql.Date;
+
+/**
+ * Entity class for the 'exchange_rate' table, holding the exchange rate between two currencies
+ * on a specific day.
+ */
+@Entity
+@Table(name = "exchange_rate",
+        uniqueConstraints = { @UniqueConstraint(columnNames = { "baseCurrency", "targetCurrency", "rateDay" }) },
+        indexes = { @Index(name = "exchange_rate_day_index", columnList = "rateDay") })
+public class ExchangeRate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private long id;
+
+    @NotNull
+    @Column(name = "baseCurrency", length = 3)
+    private String baseCurrency;
+
+    @NotNull
+    @Column(name = "targetCurrency", length = 3)
+    private String targetCurrency;
+
+    @NotNull
+    @Column(name = "rateDay")
+    private Date rateDay;
+
+    @NotNull
+    private Double rate;
+
+    public ExchangeRate() {}
+
+    public ExchangeRate(String baseCurrency, String targetCurrency, Date rateDay, Double rate) {
+        this.baseCurrency = baseCurrency;
+        this.targetCurrency = targetCurrency;
+        this.rateDay = rateDay;
+        this.rate = rate;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    public void setBaseCurrency(String baseCurrency) {
+        this.baseCurrency = baseCurrency;
+    }
+
+    public String getTargetCurrency() {
+        return targetCurrency;
+    }
+
+    public void setTargetCurrency(String targetCurrency) {
+        this.targetCurrency = targetCurrency;
+    }
+
+    public Date getRateDay() {
+        return rateDay;
+    }
+
+    public void setRateDay(Date rateDay) {
+        this.rateDay = rateDay;
+    }
+
+    public Double getRate() {
+        return rate;
+    }
+
+    public void setRate(Double rate) {
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,140 @@
+package com.TheAccountant.model.email;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.sql.Timestamp;
+
+/**
+ * Entity class for the 'email_outbox' table, keeping the emails to be sent by the outbox workers.
+ * An email is due while it is {@link OutboxEmailStatus#PENDING} and its next attempt date is reached.
+ */
+@Entity
+@Table(name = "email_outbox",
+        indexes = {@Index(name = "email_outbox_due_index", columnList = "status,nextAttemptDate", unique = false)})
+public class OutboxEmail {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private long id;
+
+    @NotNull
+    private String recipient;
+
+    @NotNull
+    private String subject;
+
+    @NotNull
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private OutboxEmailStatus status;
+
+    /**
+     * Number of failed delivery attempts
+     */
+    private int attempts;
+
+    /**
+     * While an email is being sent, the time after which another worker may retry it
+     */
+    @NotNull
+    private Timestamp nextAttemptDate;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @NotNull
+    private Timestamp creationDate;
+
+    private Timestamp sentDate;
+
+    public OutboxEmail() {}
+
+    public OutboxEmail(String recipient, String subject, String content) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.content = content;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getRecipient() {
+        return recipient;
+    }
+
+    public void setRecipient(String recipient) {
+        this.recipient = recipient;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public OutboxEmailStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OutboxEmailStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Timestamp getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    public void setNextAttemptDate(Timestamp nextAttemptDate) {
+        this.nextAttemptDate = nextAttemptDate;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Timestamp getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(Timestamp creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public Timestamp getSentDate() {
+        return sentDate;
+    }
+
+    public void setSentDate(Timestamp sentDate) {
+        this.sentDate = sentDate;
+    }
+}
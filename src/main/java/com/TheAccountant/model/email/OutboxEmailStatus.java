@@ -0,0 +1,8 @@
+package com.TheAccountant.model.email;
+
+/**
+ * Status of an {@link OutboxEmail}
+ */
+public enum OutboxEmailStatus {
+    PENDING, SENT, FAILED
+}
@@ -3,6 +3,8 @@ package com.TheAccountant.model.expense;
 import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
 import com.TheAccountant.model.category.Category;
 import com.TheAccountant.model.user.AppUser;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.Min;
@@ -17,15 +19,22 @@ import java.sql.Timestamp;
 @Entity
 public class Expense extends CurrencyHolderEntity {
 
+    // ids are allocated in blocks of 50 from the shared sequence, so batched inserts do not need a
+    // sequence round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "expense_id_generator")
+    @GenericGenerator(name = "expense_id_generator", strategy = "enhanced-sequence", parameters = {
+            @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+            @Parameter(name = "optimizer", value = "hilo"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private long id;
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "userId")
     private AppUser user;
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "category_id")
     private Category category;
 
@@ -0,0 +1,119 @@
+package com.TheAccountant.model.importjob;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.sql.Timestamp;
+
+/**
+ * Entity class for the 'import_job' table, keeping the progress of a bank statement import.
+ */
+@Entity
+@Table(name = "import_job",
+        indexes = {@Index(name = "import_job_user_index", columnList = "userId", unique = false)})
+public class ImportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private long id;
+
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    private String format;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    private ImportJobStatus status;
+
+    private long processedRows;
+    private long importedRows;
+    private long rejectedRows;
+
+    private String errorMessage;
+
+    @NotNull
+    private Timestamp creationDate;
+
+    private Timestamp finishDate;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public ImportJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ImportJobStatus status) {
+        this.status = status;
+    }
+
+    public long getProcessedRows() {
+        return processedRows;
+    }
+
+    public void setProcessedRows(long processedRows) {
+        this.processedRows = processedRows;
+    }
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    public void setImportedRows(long importedRows) {
+        this.importedRows = importedRows;
+    }
+
+    public long getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(long rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Timestamp getCreationDate() {
+        return creationDate;
+    }
+
+    public void setCreationDate(Timestamp creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    public Timestamp getFinishDate() {
+        return finishDate;
+    }
+
+    public void setFinishDate(Timestamp finishDate) {
+        this.finishDate = finishDate;
+    }
+}
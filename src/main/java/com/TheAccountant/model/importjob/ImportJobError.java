@@ -0,0 +1,66 @@
+package com.TheAccountant.model.importjob;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Entity class for the 'import_job_error' table, keeping a row rejected by an {@link ImportJob}.
+ */
+@Entity
+@Table(name = "import_job_error",
+        indexes = {@Index(name = "import_job_error_job_index", columnList = "jobId", unique = false)})
+public class ImportJobError {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private long id;
+
+    @NotNull
+    private Long jobId;
+
+    private long rowNumber;
+
+    @NotNull
+    @Column(length = 1024)
+    private String message;
+
+    public ImportJobError() {}
+
+    public ImportJobError(long jobId, long rowNumber, String message) {
+        this.jobId = jobId;
+        this.rowNumber = rowNumber;
+        this.message = message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(long rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,8 @@
+package com.TheAccountant.model.importjob;
+
+/**
+ * Status of an {@link ImportJob}
+ */
+public enum ImportJobStatus {
+    RUNNING, COMPLETED, FAILED
+}
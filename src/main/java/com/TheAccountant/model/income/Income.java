@@ -2,6 +2,8 @@ package com.TheAccountant.model.income;
 
 import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
 import com.TheAccountant.model.user.AppUser;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -15,11 +17,17 @@ import java.sql.Timestamp;
 @Entity
 public class Income extends CurrencyHolderEntity {
 
+    // ids are allocated in blocks of 50 from the shared sequence, see Expense
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "income_id_generator")
+    @GenericGenerator(name = "income_id_generator", strategy = "enhanced-sequence", parameters = {
+            @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+            @Parameter(name = "optimizer", value = "hilo"),
+            @Parameter(name = "increment_size", value = "50")
+    })
     private long id;
 
-    @ManyToOne(fetch = FetchType.EAGER, optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(name = "user_id")
     private AppUser user;
 
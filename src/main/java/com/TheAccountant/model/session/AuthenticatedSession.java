@@ -17,7 +17,8 @@ import java.sql.Timestamp;
 //        @UniqueConstraint(columnNames = { "ipAddress" })},
 @Entity
 @Table(name = "authenticated_session",
-    indexes = {@Index(name = "authorization_string_index",  columnList="authorization_string", unique = false)
+    indexes = {@Index(name = "authorization_string_index",  columnList="authorization_string", unique = false),
+            @Index(name = "expiration_time_index",  columnList="expirationTime", unique = false)
 })
 public class AuthenticatedSession {
     
@@ -40,6 +41,11 @@ public class AuthenticatedSession {
     
     @NotNull
     private Timestamp expirationTime;
+
+    /**
+     * Set on logout; the row is kept until it expires, so the other nodes add it to their deny list of tokens
+     */
+    private Timestamp revocationTime;
     
     public AuthenticatedSession() {}
     
@@ -100,4 +106,14 @@ public class AuthenticatedSession {
     
         this.expirationTime = expirationTime;
     }
+
+    public Timestamp getRevocationTime() {
+
+        return revocationTime;
+    }
+
+    public void setRevocationTime(Timestamp revocationTime) {
+
+        this.revocationTime = revocationTime;
+    }
 }
@@ -0,0 +1,19 @@
+package com.TheAccountant.service;
+
+import java.util.List;
+
+/**
+ * Service interface used to insert large numbers of new entities, in JDBC batches.
+ */
+public interface BatchInsertService {
+
+    /**
+     * Insert the specified new entities, flushing the persistence context and detaching the inserted entities
+     * after each batch, so the number of managed entities does not grow with the number of inserted entities.
+     * Entities loaded before the call in the same transaction stay managed.
+     *
+     * @param entities
+     *      new entities, having their ids set after the call
+     */
+    void insertInBatches(List<?> entities);
+}
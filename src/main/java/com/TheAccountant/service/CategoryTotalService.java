@@ -0,0 +1,62 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.model.expense.Expense;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Service interface used to maintain the monthly totals of the expenses of each category, so reading
+ * the amount spent on a category in a month does not scan its expenses.
+ */
+public interface CategoryTotalService {
+
+    /**
+     * Add saved expenses to the totals of their categories.
+     */
+    void addExpenses(Collection<Expense> expenses);
+
+    /**
+     * Remove expenses from the totals of their categories, before or after they are deleted.
+     */
+    void removeExpenses(Collection<Expense> expenses);
+
+    /**
+     * Add an amount in the default currency of the user and a number of expenses to the total of a
+     * category, negative values being subtracted. Used when the expense was already changed.
+     *
+     * @param creationDate
+     *      the creation date of the expense, selecting the month
+     */
+    void adjustTotal(long categoryId, long userId, Timestamp creationDate, double amount, long expenseCount);
+
+    /**
+     * @return the total of the expenses of the category in the month of the specified day
+     */
+    double getMonthTotal(long categoryId, LocalDate day);
+
+    /**
+     * Forget the totals of a category of the user whose expenses were all deleted.
+     */
+    void deleteCategoryTotals(long categoryId, long userId);
+
+    /**
+     * Forget the totals of a user whose expenses were all deleted.
+     */
+    void deleteUserTotals(long userId);
+
+    /**
+     * Recompute the totals of a user from the 'expense' table. The totals are locked until the transaction
+     * ends, so the expenses saved meanwhile are counted once.
+     */
+    void rebuildUserTotals(long userId);
+
+    /**
+     * Recompute all the totals from the 'expense' table, recovering from any drift. The totals are locked
+     * until the transaction ends, the changes of expenses waiting for it.
+     *
+     * @return the number of totals registered
+     */
+    int rebuildTotals();
+}
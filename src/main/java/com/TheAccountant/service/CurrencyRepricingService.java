@@ -0,0 +1,41 @@
+package com.TheAccountant.service;
+
+/**
+ * Service interface used to convert the amounts of expenses, incomes and loans to the default currency
+ * of their owner, outside of the request threads. Reads never convert amounts themselves; they return
+ * the amounts registered by this service.
+ */
+public interface CurrencyRepricingService {
+
+    /**
+     * Register the user for re-pricing. When called inside a transaction, the user is registered only
+     * after the transaction commits, so the re-pricing sees the new default currency.
+     *
+     * @param userId
+     *      the id of the user whose default currency changed
+     */
+    void requestRepricing(long userId);
+
+    /**
+     * Re-price the amounts of the registered users. Users with amounts that could not be converted
+     * yet, because the exchange rate is not registered, are kept for a later run.
+     */
+    void repriceRequestedUsers();
+
+    /**
+     * Register the users that still have amounts not converted to their default currency, in case a
+     * request was lost on restart or ran out of attempts.
+     */
+    void requestStaleUsersRepricing();
+
+    /**
+     * Convert, in batches, every amount of the user that is not registered in the default currency
+     * of the user.
+     *
+     * @param userId
+     *      the id of the user
+     * @return
+     *      true if all the amounts are converted, false if some exchange rates are still missing
+     */
+    boolean repriceUser(long userId);
+}
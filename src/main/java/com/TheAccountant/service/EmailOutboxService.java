@@ -0,0 +1,34 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.model.email.OutboxEmail;
+
+/**
+ * Service interface used to send emails outside of the requests: the emails are saved in the
+ * 'email_outbox' table and sent by background workers, with retries.
+ */
+public interface EmailOutboxService {
+
+    /**
+     * Save the email in the outbox, in the current transaction if any. The workers are woken up after
+     * the transaction commits, so an email of a rolled back request is never sent.
+     *
+     * @param email
+     *      new email, having its recipient, subject and content set
+     */
+    void enqueue(OutboxEmail email);
+
+    /**
+     * Send the due emails from the calling thread, until none is left. Emails claimed meanwhile by
+     * other workers are not sent again.
+     *
+     * @return the number of emails sent
+     */
+    int deliverDueEmails();
+
+    /**
+     * Method that will be scheduled in order to delete the emails sent or dropped before the retention period.
+     *
+     * @return the number of deleted emails
+     */
+    int purgeFinishedEmails();
+}
@@ -0,0 +1,49 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.util.ExchangeRateCache;
+
+import java.util.Collection;
+import java.util.Currency;
+
+/**
+ * Service interface used to convert amounts between currencies, based on the exchange rates
+ * registered locally in the 'exchange_rate' table.
+ */
+public interface ExchangeRateService {
+
+    /**
+     * Get the exchange rate between the specified currencies on the specified day. If the rate of the day
+     * is not registered yet, the last rate known before it is used and the rate of the day is requested from
+     * the loader. If there is none, the rate is fetched from the rate source only when exchange.rate.fetchOnMiss
+     * is set.
+     *
+     * @param baseCurrency
+     *      ISO code of the currency to convert from
+     * @param targetCurrency
+     *      the currency to convert to
+     * @param day
+     *      the day formatted as yyyy-MM-dd
+     * @return
+     *      the exchange rate, or null if no rate is registered yet and it is not fetched or the rate source
+     *      cannot be reached
+     * @throws com.TheAccountant.controller.exception.BadRequestException
+     *      if the rate is fetched and the rate source does not know one of the currencies
+     */
+    Double getExchangeRateOnDay(String baseCurrency, Currency targetCurrency, String day);
+
+    /**
+     * Set the default currency and the amount in the default currency for a batch of entities whose
+     * currency is different than the default currency. The rate of each distinct (currency, day) pair
+     * is looked up once.
+     *
+     * @param entities
+     * @param defaultCurrency
+     */
+    void setDefaultCurrencyAmounts(Collection<? extends CurrencyHolderEntity> entities, Currency defaultCurrency);
+
+    /**
+     * @return the in-process cache in front of the 'exchange_rate' table
+     */
+    ExchangeRateCache getRateCache();
+}
@@ -0,0 +1,31 @@
+package com.TheAccountant.service;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Provider of daily exchange rates. The implementation used by the application is configured
+ * through the 'exchange.rate.source.class' property, so a remote service can be replaced by a
+ * local file or an in-memory stand-in.
+ */
+public interface ExchangeRateSource {
+
+    /**
+     * Fetch the exchange rates of the base currency against all the requested currencies on the
+     * specified day.
+     *
+     * @param baseCurrency
+     *      ISO code of the currency to convert from
+     * @param targetCurrencies
+     *      ISO codes of the currencies to convert to
+     * @param day
+     *      the day of the rates
+     * @return
+     *      the rates keyed by target currency code; currencies unknown to the source are missing
+     * @throws IOException
+     *      exception thrown if the source cannot be read
+     */
+    Map<String, Double> fetchRates(String baseCurrency, Set<String> targetCurrencies, LocalDate day) throws IOException;
+}
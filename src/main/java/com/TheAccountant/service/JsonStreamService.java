@@ -0,0 +1,32 @@
+package com.TheAccountant.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Service interface used to write large listings as JSON while they are read from the database, so
+ * the entities and DTOs of a listing are never held in memory at once.
+ */
+public interface JsonStreamService {
+
+    /**
+     * Write the entities returned by a streaming query as a JSON array, converting and writing each
+     * entity as it is read from the database cursor, then detaching it. The query runs in the transaction
+     * of this call, which lasts until the whole array is written.
+     * Nothing is written if too many listings are already being streamed.
+     *
+     * @param query
+     *      streaming DAO query, called inside the transaction
+     * @param converter
+     *      converter from an entity to the DTO written in the array
+     * @param outputStream
+     *      the response body, it is not closed by this call
+     * @throws com.TheAccountant.controller.exception.ServiceUnavailableException
+     *      if the maximum number of concurrent streams is reached
+     */
+    <E, D> void writeArray(Supplier<Stream<E>> query, Function<E, D> converter, OutputStream outputStream)
+            throws IOException;
+}
@@ -1,5 +1,6 @@
 package com.TheAccountant.service;
 
+import com.TheAccountant.app.authentication.SessionToken;
 import com.TheAccountant.model.session.AuthenticatedSession;
 
 import java.sql.Timestamp;
@@ -84,4 +85,87 @@ public interface SessionService {
      * Method that will be scheduled in order to clean up expired sessions from the database.
      */
     void scheduleAuthenticatedSessionsCleanUp();
+
+    /**
+     * Rebuild the in-memory index of the active sessions from the database.
+     * Called on startup; it should also be called after sessions are changed directly in the database.
+     */
+    void reloadAuthenticatedSessions();
+
+    /**
+     * Method that will be scheduled in order to insert in the database the sessions that have been added
+     * to the in-memory index.
+     */
+    void flushAddedAuthenticatedSessions();
+
+    /**
+     * Method that will be scheduled in order to mark as revoked in the database the sessions that have been
+     * removed from the in-memory index (logout or replaced session). The added sessions are inserted first.
+     */
+    void flushRemovedAuthenticatedSessions();
+
+    /**
+     * Registers the session of a successful login and creates its token. The credentials of the login are
+     * not stored: the session can only be used through the token, from the IP address of the login.
+     *
+     * @param username
+     *      username of the logged user
+     * @param userId
+     *      id of the logged user
+     * @param clientIpAddress
+     *      IP address used to login the user
+     * @return
+     *      the token, to be sent by the client as "Bearer token" in the Authorization header
+     */
+    String openTokenSession(String username, long userId, String clientIpAddress);
+
+    /**
+     * Creates the signed token of a session registered by {@link #addAuthenticatedSession(AuthenticatedSession)}.
+     *
+     * @param authenticatedSession
+     *      the saved session
+     * @param userId
+     *      id of the logged user
+     * @return
+     *      the token, to be sent by the client as "Bearer token" in the Authorization header
+     */
+    String createSessionToken(AuthenticatedSession authenticatedSession, long userId);
+
+    /**
+     * Checks a "Bearer" authorization string locally, using the signature, the IP address of the login, the
+     * expiration time and the deny list of the revoked sessions.
+     *
+     * @param authorizationString
+     *      user's authorization string
+     * @param clientIpAddress
+     *      request IP address
+     * @return
+     *      the content of the token, or null if the authorization string is not a valid session token
+     */
+    SessionToken validateSessionToken(String authorizationString, String clientIpAddress);
+
+    /**
+     * Revokes the session of a "Bearer" authorization string.
+     *
+     * @param authorizationString
+     *      user's authorization string
+     * @param clientIpAddress
+     *      request IP address
+     * @return
+     *      true if the token was valid and has been revoked, or false otherwise.
+     */
+    boolean revokeSessionToken(String authorizationString, String clientIpAddress);
+
+    /**
+     * @param authorizationString
+     *      user's authorization string
+     * @return
+     *      true if the authorization string holds a session token rather than Basic credentials
+     */
+    boolean isSessionToken(String authorizationString);
+
+    /**
+     * Method that will be scheduled in order to add to the deny list the sessions revoked by the other nodes.
+     */
+    void syncRevokedSessions();
 }
@@ -0,0 +1,46 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.model.importjob.ImportJob;
+import com.TheAccountant.model.importjob.ImportJobError;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.util.statement.StatementReader;
+import com.TheAccountant.util.statement.StatementRowMapper;
+
+import java.util.List;
+
+/**
+ * Service interface used to import bank statements as expenses and incomes.
+ */
+public interface StatementImportService {
+
+    /**
+     * Create an import job and import all the rows of a statement for the specified user in the background.
+     * The rows are read one at a time and saved in chunks, each chunk being committed on its own, so the
+     * progress of the returned {@link ImportJob} can be followed while the statement is imported.
+     * The statement reader is closed when the import ends.
+     *
+     * @param user
+     *      the owner of the imported expenses and incomes
+     * @param statementReader
+     *      reader of the statement rows
+     * @param rowMapper
+     *      mapper of the rows to expenses and incomes
+     * @param format
+     *      the format of the statement, registered on the import job
+     * @return
+     *      the created import job, still running
+     * @throws com.TheAccountant.controller.exception.ServiceUnavailableException
+     *      if too many imports are waiting to be run
+     */
+    ImportJob startImport(AppUser user, StatementReader statementReader, StatementRowMapper rowMapper, String format);
+
+    /**
+     * @return the import job with the specified id started by the specified user, or null if not found
+     */
+    ImportJob findImportJob(long id, AppUser user);
+
+    /**
+     * @return the first rejected rows of the specified import job
+     */
+    List<ImportJobError> findImportJobErrors(long jobId, int limit);
+}
@@ -0,0 +1,49 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.service.BatchInsertService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.util.List;
+
+/**
+ * {@link BatchInsertService} persisting the entities through the shared {@link EntityManager}, the batch size
+ * matching the JDBC batch size configured for Hibernate.
+ */
+@Service
+@Transactional
+public class BatchInsertServiceImpl implements BatchInsertService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    public void insertInBatches(List<?> entities) {
+
+        int batchStart = 0;
+        for (int index = 0; index < entities.size(); index++) {
+            entityManager.persist(entities.get(index));
+            if (index + 1 - batchStart == batchSize) {
+                flushAndDetach(entities.subList(batchStart, index + 1));
+                batchStart = index + 1;
+            }
+        }
+        flushAndDetach(entities.subList(batchStart, entities.size()));
+    }
+
+    /**
+     * Only the inserted entities are detached, the ones loaded before by the caller, such as the logged
+     * user, stay managed
+     */
+    private void flushAndDetach(List<?> batch) {
+
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+    }
+}
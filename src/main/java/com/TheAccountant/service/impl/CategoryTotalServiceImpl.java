@@ -0,0 +1,163 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.CategoryMonthTotalDao;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.category.CategoryMonthTotal;
+import com.TheAccountant.service.CategoryTotalService;
+import org.hibernate.SQLQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.transaction.Transactional;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Logger;
+
+/**
+ * {@link CategoryTotalService} keeping the totals in the 'category_month_total' table. A batch of
+ * expenses costs one statement for each distinct (category, month) pair.
+ */
+@Service
+@Transactional
+public class CategoryTotalServiceImpl implements CategoryTotalService {
+
+    private static final Logger LOGGER = Logger.getLogger(CategoryTotalServiceImpl.class.getName());
+
+    @Autowired
+    private CategoryMonthTotalDao categoryMonthTotalDao;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addExpenses(Collection<Expense> expenses) {
+        adjustTotals(expenses, 1);
+    }
+
+    @Override
+    public void removeExpenses(Collection<Expense> expenses) {
+        adjustTotals(expenses, -1);
+    }
+
+    @Override
+    public void adjustTotal(long categoryId, long userId, Timestamp creationDate, double amount, long expenseCount) {
+        addToTotal(categoryId, userId, toMonth(creationDate), amount, expenseCount);
+    }
+
+    @Override
+    public double getMonthTotal(long categoryId, LocalDate day) {
+
+        Double total = categoryMonthTotalDao.findTotal(categoryId, Date.valueOf(day.withDayOfMonth(1)));
+        return total == null ? 0 : total;
+    }
+
+    @Override
+    public void deleteCategoryTotals(long categoryId, long userId) {
+        categoryMonthTotalDao.deleteByCategoryIdAndUserId(categoryId, userId);
+    }
+
+    @Override
+    public void deleteUserTotals(long userId) {
+        categoryMonthTotalDao.deleteByUserId(userId);
+    }
+
+    @Override
+    public void rebuildUserTotals(long userId) {
+
+        executeOnTotals(CategoryMonthTotalDao.LOCK_TOTALS);
+        categoryMonthTotalDao.deleteByUserId(userId);
+        executeOnTotals(CategoryMonthTotalDao.INSERT_TOTALS_FROM_EXPENSES_OF_USER, userId);
+    }
+
+    @Override
+    public int rebuildTotals() {
+
+        long startTime = System.currentTimeMillis();
+        executeOnTotals(CategoryMonthTotalDao.LOCK_TOTALS);
+        categoryMonthTotalDao.deleteAllInBatch();
+        int totals = executeOnTotals(CategoryMonthTotalDao.INSERT_TOTALS_FROM_EXPENSES);
+        LOGGER.info("Rebuilt " + totals + " category month totals in " + (System.currentTimeMillis() - startTime) + " ms");
+        return totals;
+    }
+
+    /**
+     * @return the amount of the expense in the default currency of the user, as summed by the reports
+     */
+    private double getDefaultCurrencyAmount(Expense expense) {
+        return expense.getDefaultCurrencyAmount() == null ? expense.getAmount() : expense.getDefaultCurrencyAmount();
+    }
+
+    private void adjustTotals(Collection<Expense> expenses, int sign) {
+
+        Map<TotalKey, double[]> deltas = new HashMap<>();
+        for (Expense expense : expenses) {
+            TotalKey key = new TotalKey(expense.getCategory().getId(), expense.getUser().getUserId(),
+                    toMonth(expense.getCreationDate()));
+            double[] delta = deltas.computeIfAbsent(key, k -> new double[2]);
+            delta[0] += sign * getDefaultCurrencyAmount(expense);
+            delta[1] += sign;
+        }
+        deltas.forEach((key, delta) ->
+                addToTotal(key.categoryId, key.userId, key.month, delta[0], (long) delta[1]));
+    }
+
+    private void addToTotal(long categoryId, long userId, Date month, double amount, long expenseCount) {
+        executeOnTotals(CategoryMonthTotalDao.ADD_TO_TOTAL, categoryId, userId, month, amount, expenseCount);
+    }
+
+    /**
+     * Run a native statement declaring 'category_month_total' as the only changed table, so the statement does
+     * not evict the cached categories and counterparties.
+     */
+    private int executeOnTotals(String statement, Object... parameters) {
+
+        Query query = entityManager.createNativeQuery(statement);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        query.unwrap(SQLQuery.class).addSynchronizedEntityClass(CategoryMonthTotal.class);
+        return query.executeUpdate();
+    }
+
+    private Date toMonth(Timestamp creationDate) {
+        return Date.valueOf(creationDate.toLocalDateTime().toLocalDate().withDayOfMonth(1));
+    }
+
+    private static class TotalKey {
+
+        private final long categoryId;
+        private final long userId;
+        private final Date month;
+
+        private TotalKey(long categoryId, long userId, Date month) {
+            this.categoryId = categoryId;
+            this.userId = userId;
+            this.month = month;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TotalKey)) {
+                return false;
+            }
+            TotalKey that = (TotalKey) o;
+            return categoryId == that.categoryId && userId == that.userId && month.equals(that.month);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(categoryId, userId, month);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.AppUserDao;
+import com.TheAccountant.dao.ExpenseDao;
+import com.TheAccountant.dao.IncomeDao;
+import com.TheAccountant.dao.LoanDao;
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.income.Income;
+import com.TheAccountant.model.loan.Loan;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.CategoryTotalService;
+import com.TheAccountant.service.CurrencyRepricingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link CurrencyRepricingService} working through an in-memory queue of users, drained by a single
+ * scheduled worker. The amounts of a user are read and updated in batches, ordered by id.
+ */
+@Service
+public class CurrencyRepricingServiceImpl implements CurrencyRepricingService {
+
+    private static final Logger LOGGER = Logger.getLogger(CurrencyRepricingServiceImpl.class.getName());
+
+    private static final long FIVE_SECONDS_IN_MILLISECONDS = 5 * 1000;
+    private static final long FIVE_MINUTES_IN_MILLISECONDS = 5 * 60 * 1000;
+
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @Autowired
+    private ExpenseDao expenseDao;
+
+    @Autowired
+    private IncomeDao incomeDao;
+
+    @Autowired
+    private LoanDao loanDao;
+
+    @Autowired
+    private RepricingBatchWriter repricingBatchWriter;
+
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
+    @Value("${currency.repricing.batchSize:500}")
+    private int batchSize;
+
+    /**
+     * Runs of a user after which the amounts still missing an exchange rate are left to the daily check
+     */
+    @Value("${currency.repricing.maxAttempts:12}")
+    private int maxAttempts;
+
+    /**
+     * Users to re-price, with the number of runs already done and the time of the next run
+     */
+    private final Map<Long, RepricingRequest> requestedUsers = new ConcurrentHashMap<>();
+
+    @Override
+    public void requestRepricing(long userId) {
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    requestedUsers.put(userId, new RepricingRequest(0, 0));
+                }
+            });
+        } else {
+            requestedUsers.put(userId, new RepricingRequest(0, 0));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelay = FIVE_SECONDS_IN_MILLISECONDS)
+    public void repriceRequestedUsers() {
+
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, RepricingRequest> request : new ArrayList<>(requestedUsers.entrySet())) {
+            if (request.getValue().notBefore > now) {
+                continue;
+            }
+            Long userId = request.getKey();
+            boolean completed;
+            try {
+                completed = repriceUser(userId);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Re-pricing of user " + userId + " failed: " + e.getMessage());
+                completed = false;
+            }
+            int attempts = request.getValue().attempts + 1;
+            if (completed || attempts >= maxAttempts) {
+                // a newer request registered meanwhile is kept
+                requestedUsers.remove(userId, request.getValue());
+            } else {
+                // missing rates are loaded by the exchange rate loader in the meantime
+                requestedUsers.replace(userId, request.getValue(),
+                        new RepricingRequest(attempts, System.currentTimeMillis() + FIVE_MINUTES_IN_MILLISECONDS));
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "0 30 0 * * *") //everyday at 00:30
+    public void requestStaleUsersRepricing() {
+
+        List<BigInteger> userIds = new ArrayList<>(expenseDao.findUserIdsWithStaleDefaultCurrency());
+        userIds.addAll(incomeDao.findUserIdsWithStaleDefaultCurrency());
+        userIds.addAll(loanDao.findUserIdsWithStaleDefaultCurrency());
+        userIds.forEach(userId -> requestedUsers.putIfAbsent(userId.longValue(), new RepricingRequest(0, 0)));
+    }
+
+    @Override
+    public boolean repriceUser(long userId) {
+
+        AppUser user = appUserDao.findOne(userId);
+        if (user == null || user.getDefaultCurrency() == null) {
+            return true;
+        }
+        Currency defaultCurrency = user.getDefaultCurrency();
+        long startTime = System.currentTimeMillis();
+
+        long notConverted = repriceAll(afterId -> repricingBatchWriter.repriceExpenses(userId, defaultCurrency, afterId, batchSize),
+                Expense::getId, defaultCurrency);
+        notConverted += repriceAll(afterId -> repricingBatchWriter.repriceIncomes(userId, defaultCurrency, afterId, batchSize),
+                Income::getId, defaultCurrency);
+        notConverted += repriceAll(afterId -> repricingBatchWriter.repriceLoans(userId, defaultCurrency, afterId, batchSize),
+                Loan::getId, defaultCurrency);
+        categoryTotalService.rebuildUserTotals(userId);
+
+        LOGGER.info("Re-priced user " + userId + " to " + defaultCurrency.getCurrencyCode() + " in "
+                + (System.currentTimeMillis() - startTime) + " ms, " + notConverted + " amounts waiting for exchange rates");
+        return notConverted == 0;
+    }
+
+    /**
+     * @return the number of entities that could not be converted
+     */
+    private <T extends CurrencyHolderEntity> long repriceAll(BatchReprice<T> batchReprice, ToLongFunction<T> idFunction,
+                                                             Currency defaultCurrency) {
+
+        long notConverted = 0;
+        long afterId = 0;
+        List<T> batch;
+        do {
+            batch = batchReprice.reprice(afterId);
+            for (T entity : batch) {
+                if (isStale(entity, defaultCurrency)) {
+                    notConverted++;
+                }
+                afterId = idFunction.applyAsLong(entity);
+            }
+        } while (batch.size() == batchSize);
+        return notConverted;
+    }
+
+    private boolean isStale(CurrencyHolderEntity entity, Currency defaultCurrency) {
+
+        String defaultCurrencyCode = defaultCurrency.getCurrencyCode();
+        return entity.getDefaultCurrency() == null
+                ? !entity.getCurrency().equals(defaultCurrencyCode)
+                : !entity.getDefaultCurrency().equals(defaultCurrencyCode);
+    }
+
+    private interface BatchReprice<T> {
+        List<T> reprice(long afterId);
+    }
+
+    private static class RepricingRequest {
+
+        private final int attempts;
+        private final long notBefore;
+
+        private RepricingRequest(int attempts, long notBefore) {
+            this.attempts = attempts;
+            this.notBefore = notBefore;
+        }
+    }
+}
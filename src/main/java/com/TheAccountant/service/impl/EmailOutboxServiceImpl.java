@@ -0,0 +1,208 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.OutboxEmailDao;
+import com.TheAccountant.model.email.OutboxEmail;
+import com.TheAccountant.model.email.OutboxEmailStatus;
+import com.TheAccountant.service.EmailOutboxService;
+import com.TheAccountant.util.EmailSender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link EmailOutboxService} draining the 'email_outbox' table with a fixed number of worker threads.
+ * A worker claims a batch of due emails and sends them through the pooled SMTP connections of the
+ * {@link EmailSender}. A failed email is retried with an exponential backoff, until the maximum
+ * number of attempts is reached. The content of an email is cleared once it is sent or dropped, and the
+ * row itself is deleted after the retention period.
+ */
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+
+    private static final Logger LOGGER = Logger.getLogger(EmailOutboxServiceImpl.class.getName());
+
+    private static final long ONE_HOUR_IN_MILLISECONDS = 60 * 60 * 1000;
+    private static final long ONE_DAY_IN_MILLISECONDS = 24 * ONE_HOUR_IN_MILLISECONDS;
+
+    @Autowired
+    private OutboxEmailDao outboxEmailDao;
+
+    @Autowired
+    private EmailSender emailSender;
+
+    @Value("${email.outbox.workers:2}")
+    private int workerCount;
+
+    @Value("${email.outbox.batchSize:20}")
+    private int batchSize;
+
+    @Value("${email.outbox.maxAttempts:8}")
+    private int maxAttempts;
+
+    /**
+     * Delay before the first retry, doubled for each of the next ones up to one hour
+     */
+    @Value("${email.outbox.retryDelayMillis:60000}")
+    private long retryDelayMillis;
+
+    /**
+     * Time after which an email claimed by a worker that did not report the result can be sent again
+     */
+    @Value("${email.outbox.leaseMillis:300000}")
+    private long leaseMillis;
+
+    /**
+     * Days after which the sent and dropped emails are deleted from the outbox
+     */
+    @Value("${email.outbox.retentionDays:7}")
+    private int retentionDays;
+
+    private ThreadPoolExecutor workers;
+
+    /**
+     * Number of drains submitted to the workers and not finished yet
+     */
+    private final AtomicInteger activeDrains = new AtomicInteger();
+
+    @PostConstruct
+    public void startWorkers() {
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "email-outbox-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        workers.shutdown();
+    }
+
+    @Override
+    public void enqueue(OutboxEmail email) {
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        email.setStatus(OutboxEmailStatus.PENDING);
+        email.setAttempts(0);
+        email.setCreationDate(now);
+        email.setNextAttemptDate(now);
+        outboxEmailDao.save(email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    wakeUpWorker();
+                }
+            });
+        } else {
+            wakeUpWorker();
+        }
+    }
+
+    /**
+     * Start a drain on an idle worker, if any. Emails enqueued while all the workers are about to stop
+     * are sent by the drain started on the next run of this method.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.pollMillis:10000}")
+    public void wakeUpWorker() {
+
+        int drains;
+        do {
+            drains = activeDrains.get();
+            if (drains >= workerCount) {
+                return;
+            }
+        } while (!activeDrains.compareAndSet(drains, drains + 1));
+
+        workers.execute(() -> {
+            try {
+                deliverDueEmails();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Email outbox drain failed: " + e.getMessage(), e);
+            } finally {
+                activeDrains.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelay = ONE_HOUR_IN_MILLISECONDS)
+    public int purgeFinishedEmails() {
+
+        int deleted = outboxEmailDao.deleteFinishedBefore(
+                new Timestamp(System.currentTimeMillis() - retentionDays * ONE_DAY_IN_MILLISECONDS));
+        if (deleted > 0) {
+            LOGGER.info("Deleted " + deleted + " sent or dropped emails from the outbox");
+        }
+        return deleted;
+    }
+
+    @Override
+    public int deliverDueEmails() {
+
+        int sent = 0;
+        List<OutboxEmail> emails;
+        while (!(emails = claimDueEmails()).isEmpty()) {
+            for (OutboxEmail email : emails) {
+                try {
+                    emailSender.sendEmail(email.getRecipient(), email.getSubject(), email.getContent());
+                    outboxEmailDao.markSent(email.getId(), new Timestamp(System.currentTimeMillis()));
+                    sent++;
+                } catch (MessagingException e) {
+                    registerFailedAttempt(email, e);
+                }
+            }
+        }
+        return sent;
+    }
+
+    private List<OutboxEmail> claimDueEmails() {
+
+        long now = System.currentTimeMillis();
+        Timestamp leaseEnd = new Timestamp(now + leaseMillis);
+        List<OutboxEmail> claimedEmails = new ArrayList<>();
+        for (OutboxEmail email : outboxEmailDao.findDue(OutboxEmailStatus.PENDING, new Timestamp(now),
+                new PageRequest(0, batchSize))) {
+            if (outboxEmailDao.claim(email.getId(), email.getNextAttemptDate(), leaseEnd) == 1) {
+                claimedEmails.add(email);
+            }
+        }
+        return claimedEmails;
+    }
+
+    private void registerFailedAttempt(OutboxEmail email, MessagingException e) {
+
+        int attempts = email.getAttempts() + 1;
+        long now = System.currentTimeMillis();
+        if (attempts >= maxAttempts) {
+            LOGGER.log(Level.WARNING, "Email " + email.getId() + " to " + email.getRecipient() + " dropped after "
+                    + attempts + " attempts: " + e.getMessage());
+            outboxEmailDao.markFailed(email.getId(), attempts, new Timestamp(now), e.toString());
+        } else {
+            long retryDelay = Math.min(retryDelayMillis << Math.min(attempts - 1, 30), ONE_HOUR_IN_MILLISECONDS);
+            LOGGER.info("Email " + email.getId() + " not sent, retrying in " + retryDelay + " ms: " + e.getMessage());
+            outboxEmailDao.markAttemptFailed(email.getId(), attempts, new Timestamp(now + retryDelay), e.toString());
+        }
+    }
+}
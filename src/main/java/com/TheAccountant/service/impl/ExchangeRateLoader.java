@@ -0,0 +1,252 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.controller.exception.BadRequestException;
+import com.TheAccountant.dao.ExchangeRateDao;
+import com.TheAccountant.model.currency.ExchangeRate;
+import com.TheAccountant.service.ExchangeRateSource;
+import com.TheAccountant.util.CurrencyUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Scheduled loader that keeps the 'exchange_rate' table filled, so the conversions done while
+ * serving requests never have to call the remote rate source.
+ */
+@Service
+public class ExchangeRateLoader {
+
+    private static final Logger LOGGER = Logger.getLogger(ExchangeRateLoader.class.getName());
+
+    private static final long FIVE_MINUTES_IN_MILLISECONDS = 5 * 60 * 1000;
+    private static final long ONE_HOUR_IN_MILLISECONDS = 60 * 60 * 1000;
+
+    @Autowired
+    private ExchangeRateDao exchangeRateDao;
+
+    @Autowired
+    private ExchangeRateWriter exchangeRateWriter;
+
+    @Autowired
+    private ExchangeRateSource exchangeRateSource;
+
+    @Value("${exchange.rate.backfill.days:30}")
+    private int backfillDays;
+
+    @Value("${exchange.rate.maxRequestsPerRun:1000}")
+    private int maxRequestsPerRun;
+
+    /**
+     * (base currency, day) pairs that were requested while serving requests but are not registered yet
+     */
+    private final Set<RateRequest> requestedRates = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Fetch the full rate matrix of the currencies held by the users, for the current day and for each
+     * missing day of the backfill period.
+     */
+    @Scheduled(cron = "0 5 0 * * *") //everyday at 00:05
+    public void prefetchRates() {
+
+        Set<String> currencies = findCurrenciesInUse();
+        LocalDate today = LocalDate.now();
+        int requests = 0;
+        for (int dayOffset = 0; dayOffset <= backfillDays; dayOffset++) {
+            LocalDate day = today.minusDays(dayOffset);
+            for (String baseCurrency : currencies) {
+                if (requests >= maxRequestsPerRun) {
+                    LOGGER.info("Exchange rate prefetch stopped after " + requests + " requests, it will continue on next run");
+                    return;
+                }
+                if (loadRates(baseCurrency, day, currencies)) {
+                    requests++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fetch again the rates of the current day, which the rate source may publish or correct during the day.
+     * The rates cached in process for the current day expire after the same delay.
+     */
+    @Scheduled(fixedDelay = ONE_HOUR_IN_MILLISECONDS, initialDelay = ONE_HOUR_IN_MILLISECONDS)
+    public void refreshTodayRates() {
+
+        Set<String> currencies = findCurrenciesInUse();
+        LocalDate today = LocalDate.now();
+        Date rateDay = Date.valueOf(today);
+        for (String baseCurrency : currencies) {
+            Set<String> targetCurrencies = new HashSet<>(currencies);
+            targetCurrencies.remove(baseCurrency);
+            if (targetCurrencies.isEmpty()) {
+                continue;
+            }
+            try {
+                Map<String, Double> rates = exchangeRateSource.fetchRates(baseCurrency, targetCurrencies, today);
+                Map<String, ExchangeRate> registeredRates = exchangeRateDao.findByBaseCurrencyAndRateDay(baseCurrency, rateDay)
+                        .stream().collect(Collectors.toMap(ExchangeRate::getTargetCurrency, exchangeRate -> exchangeRate));
+                List<ExchangeRate> exchangeRates = new ArrayList<>();
+                rates.forEach((targetCurrency, rate) -> {
+                    ExchangeRate exchangeRate = registeredRates.get(targetCurrency);
+                    if (exchangeRate == null) {
+                        exchangeRates.add(new ExchangeRate(baseCurrency, targetCurrency, rateDay, rate));
+                    } else if (!exchangeRate.getRate().equals(rate)) {
+                        exchangeRate.setRate(rate);
+                        exchangeRates.add(exchangeRate);
+                    }
+                });
+                saveRates(exchangeRates, baseCurrency, today);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Cannot refresh exchange rates for " + baseCurrency + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Load the rates requested while serving requests that were not found in the 'exchange_rate' table.
+     */
+    @Scheduled(fixedDelay = FIVE_MINUTES_IN_MILLISECONDS)
+    public void loadRequestedRates() {
+
+        if (requestedRates.isEmpty()) {
+            return;
+        }
+        Set<String> currencies = findCurrenciesInUse();
+        for (RateRequest rateRequest : new ArrayList<>(requestedRates)) {
+            currencies.add(rateRequest.baseCurrency);
+            loadRates(rateRequest.baseCurrency, rateRequest.day, currencies);
+            requestedRates.remove(rateRequest);
+        }
+    }
+
+    /**
+     * Register a (base currency, day) pair whose rates should be loaded by the next run of
+     * {@link #loadRequestedRates()}.
+     */
+    public void requestRates(String baseCurrency, LocalDate day) {
+
+        requestedRates.add(new RateRequest(baseCurrency, day));
+    }
+
+    /**
+     * Fetch from the rate source and register the rates of the base currency against all the specified
+     * currencies, unless they are already registered for that day.
+     *
+     * @return true if the rate source was called, false if the rates were already registered
+     */
+    public boolean loadRates(String baseCurrency, LocalDate day, Set<String> currencies) {
+
+        Set<String> targetCurrencies = new HashSet<>(currencies);
+        targetCurrencies.remove(baseCurrency);
+        Date rateDay = Date.valueOf(day);
+        exchangeRateDao.findByBaseCurrencyAndRateDay(baseCurrency, rateDay)
+                .forEach(exchangeRate -> targetCurrencies.remove(exchangeRate.getTargetCurrency()));
+        if (targetCurrencies.isEmpty()) {
+            return false;
+        }
+        try {
+            Map<String, Double> rates = exchangeRateSource.fetchRates(baseCurrency, targetCurrencies, day);
+            saveRates(toExchangeRates(baseCurrency, rateDay, rates), baseCurrency, day);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Cannot load exchange rates for " + baseCurrency + " on " + day + ": " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Fetch from the rate source, in the calling thread, the rate of a currency pair that has no rate
+     * registered yet. The rate is registered in its own transaction. If the rate source cannot be reached,
+     * the rates are requested for the next run of {@link #loadRequestedRates()}.
+     *
+     * @throws BadRequestException if the rate source does not know one of the currencies
+     */
+    public void loadMissingRate(String baseCurrency, LocalDate day, String targetCurrency) {
+
+        Map<String, Double> rates;
+        try {
+            rates = exchangeRateSource.fetchRates(baseCurrency, Collections.singleton(targetCurrency), day);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot load exchange rates for " + baseCurrency + " on " + day + ": " + e.getMessage());
+            requestRates(baseCurrency, day);
+            return;
+        }
+        if (!rates.containsKey(targetCurrency)) {
+            throw new BadRequestException("Unknown exchange rate between " + baseCurrency + " and " + targetCurrency);
+        }
+        saveRates(toExchangeRates(baseCurrency, Date.valueOf(day), rates), baseCurrency, day);
+    }
+
+    public void setExchangeRateSource(ExchangeRateSource exchangeRateSource) {
+        this.exchangeRateSource = exchangeRateSource;
+    }
+
+    public ExchangeRateSource getExchangeRateSource() {
+        return exchangeRateSource;
+    }
+
+    private List<ExchangeRate> toExchangeRates(String baseCurrency, Date rateDay, Map<String, Double> rates) {
+
+        return rates.entrySet().stream()
+                .map(rate -> new ExchangeRate(baseCurrency, rate.getKey(), rateDay, rate.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    private void saveRates(List<ExchangeRate> exchangeRates, String baseCurrency, LocalDate day) {
+
+        if (exchangeRates.isEmpty()) {
+            return;
+        }
+        try {
+            exchangeRateWriter.saveRates(exchangeRates);
+        } catch (DataIntegrityViolationException e) {
+            // another node registered the same rates in the meantime
+            LOGGER.info("Exchange rates for " + baseCurrency + " on " + day + " already registered");
+        }
+    }
+
+    private Set<String> findCurrenciesInUse() {
+
+        return exchangeRateDao.findCurrenciesInUse().stream()
+                .filter(currency -> CurrencyUtil.getCurrency(currency) != null)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static class RateRequest {
+
+        private final String baseCurrency;
+        private final LocalDate day;
+
+        private RateRequest(String baseCurrency, LocalDate day) {
+            this.baseCurrency = baseCurrency;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RateRequest)) {
+                return false;
+            }
+            RateRequest that = (RateRequest) o;
+            return baseCurrency.equals(that.baseCurrency) && day.equals(that.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseCurrency, day);
+        }
+    }
+}
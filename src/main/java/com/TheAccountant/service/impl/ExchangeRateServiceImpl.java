@@ -0,0 +1,128 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.ExchangeRateDao;
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.model.currency.ExchangeRate;
+import com.TheAccountant.service.ExchangeRateService;
+import com.TheAccountant.util.ExchangeRateCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ExchangeRateService} reading the rates from the 'exchange_rate' table, through an in-process cache.
+ * A missing rate of a day is requested from the {@link ExchangeRateLoader}, which fetches it outside of the
+ * request threads; meanwhile the last rate of the previous days is used. When no rate can be used at all and
+ * exchange.rate.fetchOnMiss is set, the rate is fetched in the request thread instead.
+ */
+@Service
+public class ExchangeRateServiceImpl implements ExchangeRateService {
+
+    private static final int RATE_CACHE_MAX_ENTRIES = 20000;
+    private static final long TODAY_RATE_TIME_TO_LIVE = 60 * 60 * 1000;
+
+    /**
+     * A rate older than this is not used in place of the rate of a day (weekends or bank holidays)
+     */
+    private static final int MAX_FALLBACK_DAYS = 7;
+
+    @Autowired
+    private ExchangeRateDao exchangeRateDao;
+
+    @Autowired
+    private ExchangeRateLoader exchangeRateLoader;
+
+    /**
+     * If true, a currency pair without any usable rate is fetched from the rate source in the request thread
+     * instead of being left for the next run of the loader.
+     */
+    private volatile boolean fetchOnMiss;
+
+    private final ExchangeRateCache rateCache = new ExchangeRateCache(RATE_CACHE_MAX_ENTRIES, TODAY_RATE_TIME_TO_LIVE);
+
+    @Override
+    public Double getExchangeRateOnDay(String baseCurrency, Currency targetCurrency, String day) {
+
+        String targetCurrencyCode = targetCurrency.getCurrencyCode();
+        if (baseCurrency.equals(targetCurrencyCode)) {
+            return 1D;
+        }
+        Double cachedRate = rateCache.get(baseCurrency, targetCurrencyCode, day);
+        if (cachedRate != null) {
+            return cachedRate;
+        }
+
+        LocalDate rateDay = LocalDate.parse(day);
+        ExchangeRate exchangeRate = findLocalRate(baseCurrency, targetCurrencyCode, rateDay);
+        if (exchangeRate == null && fetchOnMiss) {
+            // nothing to fall back on, the amount cannot be converted without asking the rate source
+            exchangeRateLoader.loadMissingRate(baseCurrency, rateDay, targetCurrencyCode);
+            exchangeRate = findLocalRate(baseCurrency, targetCurrencyCode, rateDay);
+        } else if (exchangeRate == null || !exchangeRate.getRateDay().toLocalDate().equals(rateDay)) {
+            exchangeRateLoader.requestRates(baseCurrency, rateDay);
+        }
+        if (exchangeRate == null) {
+            return null;
+        }
+
+        // a rate of an earlier day is only kept for days that are settled, otherwise the rate of the day
+        // could still be registered by the loader
+        boolean exactDay = exchangeRate.getRateDay().toLocalDate().equals(rateDay);
+        if (exactDay || rateDay.isBefore(LocalDate.now().minusDays(MAX_FALLBACK_DAYS))) {
+            rateCache.put(baseCurrency, targetCurrencyCode, day, exchangeRate.getRate());
+        }
+        return exchangeRate.getRate();
+    }
+
+    @Override
+    public void setDefaultCurrencyAmounts(Collection<? extends CurrencyHolderEntity> entities, Currency defaultCurrency) {
+
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+        Map<String, Double> exchangeRates = new HashMap<>();
+        for (CurrencyHolderEntity entity : entities) {
+            String entityCurrency = entity.getCurrency();
+            if (entityCurrency.equals(defaultCurrency.getCurrencyCode())) {
+                continue;
+            }
+            String day = dateFormat.format(entity.getCreationDate().getTime());
+            String rateKey = entityCurrency + "_" + day;
+            if (!exchangeRates.containsKey(rateKey)) {
+                exchangeRates.put(rateKey, getExchangeRateOnDay(entityCurrency, defaultCurrency, day));
+            }
+            Double exchangeRateOnDay = exchangeRates.get(rateKey);
+            if (exchangeRateOnDay != null) {
+                entity.setDefaultCurrency(defaultCurrency.getCurrencyCode());
+                entity.setDefaultCurrencyAmount(entity.getAmount() * exchangeRateOnDay);
+            }
+        }
+    }
+
+    @Override
+    public ExchangeRateCache getRateCache() {
+        return rateCache;
+    }
+
+    @Value("${exchange.rate.fetchOnMiss:false}")
+    public void setFetchOnMiss(boolean fetchOnMiss) {
+        this.fetchOnMiss = fetchOnMiss;
+    }
+
+    private ExchangeRate findLocalRate(String baseCurrency, String targetCurrency, LocalDate day) {
+
+        ExchangeRate exchangeRate = exchangeRateDao
+                .findFirstByBaseCurrencyAndTargetCurrencyAndRateDayLessThanEqualOrderByRateDayDesc(
+                        baseCurrency, targetCurrency, Date.valueOf(day));
+        if (exchangeRate != null && exchangeRate.getRateDay().toLocalDate().isBefore(day.minusDays(MAX_FALLBACK_DAYS))) {
+            return null;
+        }
+        return exchangeRate;
+    }
+}
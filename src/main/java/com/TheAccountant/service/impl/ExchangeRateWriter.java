@@ -0,0 +1,31 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.ExchangeRateDao;
+import com.TheAccountant.model.currency.ExchangeRate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.List;
+
+/**
+ * Writes the rates registered by the {@link ExchangeRateLoader}, each call running in its own transaction.
+ * A rate fetched while serving a request is then committed apart from the request transaction, which is
+ * not rolled back when another node registers the same rate first.
+ */
+@Service
+public class ExchangeRateWriter {
+
+    @Autowired
+    private ExchangeRateDao exchangeRateDao;
+
+    /**
+     * @throws org.springframework.dao.DataIntegrityViolationException if one of the rates is already registered
+     */
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    public void saveRates(List<ExchangeRate> exchangeRates) {
+
+        exchangeRateDao.save(exchangeRates);
+        exchangeRateDao.flush();
+    }
+}
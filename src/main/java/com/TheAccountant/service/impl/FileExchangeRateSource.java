@@ -0,0 +1,60 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.service.ExchangeRateSource;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ExchangeRateSource} reading the rates from a local JSON file, useful for tests and for nodes
+ * without access to the remote rate service. The file has the following structure:
+ * <pre>
+ * { "2017-05-20": { "EUR": { "USD": 1.12, "RON": 4.55 } } }
+ * </pre>
+ */
+public class FileExchangeRateSource implements ExchangeRateSource {
+
+    @Value("${exchange.rate.source.file:exchange-rates.json}")
+    private String filePath;
+
+    private JSONObject ratesByDay;
+
+    @Override
+    public Map<String, Double> fetchRates(String baseCurrency, Set<String> targetCurrencies, LocalDate day)
+            throws IOException {
+
+        Map<String, Double> rates = new HashMap<>();
+        JSONObject ratesOfDay = loadRates().optJSONObject(day.toString());
+        JSONObject ratesOfBase = ratesOfDay == null ? null : ratesOfDay.optJSONObject(baseCurrency);
+        if (ratesOfBase != null) {
+            for (String targetCurrency : targetCurrencies) {
+                if (ratesOfBase.has(targetCurrency)) {
+                    rates.put(targetCurrency, ratesOfBase.getDouble(targetCurrency));
+                }
+            }
+        }
+        return rates;
+    }
+
+    private synchronized JSONObject loadRates() throws IOException {
+
+        if (ratesByDay == null) {
+            String content = new String(Files.readAllBytes(Paths.get(filePath)), StandardCharsets.UTF_8);
+            ratesByDay = new JSONObject(content);
+        }
+        return ratesByDay;
+    }
+
+    public synchronized void setFilePath(String filePath) {
+        this.filePath = filePath;
+        this.ratesByDay = null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.service.ExchangeRateSource;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.BasicResponseHandler;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.params.HttpConnectionParams;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link ExchangeRateSource} reading the rates from the fixer HTTP service. The whole row of rates
+ * of a base currency is fetched with a single request.
+ */
+public class FixerExchangeRateSource implements ExchangeRateSource {
+
+    private final HttpClient httpClient = new DefaultHttpClient();
+
+    @Value("${exchange.rate.source.url:http://api.fixer.io/}")
+    private String baseUrl;
+
+    @Override
+    public synchronized Map<String, Double> fetchRates(String baseCurrency, Set<String> targetCurrencies, LocalDate day)
+            throws IOException {
+
+        Map<String, Double> rates = new HashMap<>();
+        if (targetCurrencies.isEmpty()) {
+            return rates;
+        }
+        String requestString = baseUrl + day + "?base=" + baseCurrency + "&symbols=" + String.join(",", targetCurrencies);
+        HttpGet httpGet = new HttpGet(requestString);
+        ResponseHandler<String> responseHandler = new BasicResponseHandler();
+        String responseBody;
+        try {
+            responseBody = httpClient.execute(httpGet, responseHandler);
+        } catch (HttpResponseException e) {
+            if (e.getStatusCode() >= 400 && e.getStatusCode() < 500) {
+                // the service rejects malformed or unknown currency codes
+                return rates;
+            }
+            throw e;
+        }
+        JSONObject ratesObject = new JSONObject(responseBody).optJSONObject("rates");
+        if (ratesObject != null) {
+            for (String targetCurrency : targetCurrencies) {
+                if (ratesObject.has(targetCurrency)) {
+                    rates.put(targetCurrency, ratesObject.getDouble(targetCurrency));
+                }
+            }
+        }
+        return rates;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Bound the time spent connecting to the service and waiting for its answer, the fetch of a missing rate
+     * may run in a request thread.
+     */
+    @Value("${exchange.rate.source.timeoutMillis:5000}")
+    public void setTimeoutMillis(int timeoutMillis) {
+        HttpConnectionParams.setConnectionTimeout(httpClient.getParams(), timeoutMillis);
+        HttpConnectionParams.setSoTimeout(httpClient.getParams(), timeoutMillis);
+    }
+}
@@ -0,0 +1,128 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.CategoryDao;
+import com.TheAccountant.dao.ImportJobDao;
+import com.TheAccountant.dao.ImportJobErrorDao;
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.model.category.Category;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.importjob.ImportJob;
+import com.TheAccountant.model.importjob.ImportJobError;
+import com.TheAccountant.model.importjob.ImportJobStatus;
+import com.TheAccountant.model.income.Income;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.BatchInsertService;
+import com.TheAccountant.service.CategoryTotalService;
+import com.TheAccountant.service.ExchangeRateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the chunks of a statement import, each call running in its own transaction.
+ */
+@Service
+public class ImportJobWriter {
+
+    @Autowired
+    private ImportJobDao importJobDao;
+
+    @Autowired
+    private ImportJobErrorDao importJobErrorDao;
+
+    @Autowired
+    private CategoryDao categoryDao;
+
+    @Autowired
+    private BatchInsertService batchInsertService;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
+    /**
+     * Rejected rows stored for a job, the following ones are only counted
+     */
+    @Value("${import.maxStoredErrors:1000}")
+    private int maxStoredErrors;
+
+    @Transactional
+    public ImportJob createJob(AppUser user, String format) {
+
+        ImportJob importJob = new ImportJob();
+        importJob.setUserId(user.getUserId());
+        importJob.setFormat(format);
+        importJob.setStatus(ImportJobStatus.RUNNING);
+        importJob.setCreationDate(new Timestamp(System.currentTimeMillis()));
+        return importJobDao.saveAndFlush(importJob);
+    }
+
+    /**
+     * Save a chunk of imported entities and rejected rows, and update the progress of the job.
+     *
+     * @param categories
+     *      the categories of the user by name, completed with the categories created by this chunk
+     */
+    @Transactional
+    public ImportJob writeChunk(ImportJob importJob, AppUser user, List<CurrencyHolderEntity> entities,
+                                List<ImportJobError> errors, Map<String, Category> categories, long processedRows) {
+
+        List<Expense> expenses = new ArrayList<>();
+        for (CurrencyHolderEntity entity : entities) {
+            if (entity instanceof Expense) {
+                Expense expense = (Expense) entity;
+                expense.setCategory(resolveCategory(expense.getCategory().getName(), user, categories));
+                expense.setUser(user);
+                expenses.add(expense);
+            } else {
+                ((Income) entity).setUser(user);
+            }
+        }
+        exchangeRateService.setDefaultCurrencyAmounts(entities, user.getDefaultCurrency());
+        batchInsertService.insertInBatches(entities);
+        categoryTotalService.addExpenses(expenses);
+
+        long storedErrors = Math.min(importJob.getRejectedRows(), maxStoredErrors);
+        if (storedErrors < maxStoredErrors && !errors.isEmpty()) {
+            importJobErrorDao.save(errors.subList(0, (int) Math.min(errors.size(), maxStoredErrors - storedErrors)));
+        }
+        importJob.setProcessedRows(processedRows);
+        importJob.setImportedRows(importJob.getImportedRows() + entities.size());
+        importJob.setRejectedRows(importJob.getRejectedRows() + errors.size());
+        return importJobDao.saveAndFlush(importJob);
+    }
+
+    @Transactional
+    public ImportJob finishJob(ImportJob importJob, ImportJobStatus status, String errorMessage) {
+
+        importJob.setStatus(status);
+        importJob.setErrorMessage(errorMessage);
+        importJob.setFinishDate(new Timestamp(System.currentTimeMillis()));
+        return importJobDao.saveAndFlush(importJob);
+    }
+
+    private Category resolveCategory(String categoryName, AppUser user, Map<String, Category> categories) {
+
+        Category category = categories.get(categoryName);
+        if (category == null) {
+            // the category may have been created since the import started
+            category = categoryDao.findByNameAndUserId(categoryName, user.getUserId());
+        }
+        if (category == null) {
+            category = new Category();
+            category.setName(categoryName);
+            category.setUser(user);
+            category = categoryDao.save(category);
+        }
+        categories.put(categoryName, category);
+        return category;
+    }
+}
@@ -0,0 +1,62 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.ExpenseDao;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a streamed listing through a Jackson {@link JsonGenerator}, each call running in its own
+ * transaction. The generator is flushed every time a batch of rows is fetched from the cursor, so the
+ * client receives the first elements while the next ones are still being read.
+ */
+@Service
+public class JsonArrayWriter {
+
+    private static final int FLUSH_INTERVAL = Integer.parseInt(ExpenseDao.STREAM_FETCH_SIZE);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * The mapper configured for the responses of the application, if any
+     */
+    @Autowired(required = false)
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Transactional
+    public <E, D> void writeArray(Supplier<Stream<E>> query, Function<E, D> converter, OutputStream outputStream)
+            throws IOException {
+
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        // the servlet container closes the response stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.writeStartArray();
+        try (Stream<E> entities = query.get()) {
+            int written = 0;
+            Iterator<E> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                E entity = iterator.next();
+                generator.writeObject(converter.apply(entity));
+                entityManager.detach(entity);
+                // after the first element, then once per fetched batch
+                if (++written % FLUSH_INTERVAL == 1) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.writeEndArray();
+        generator.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.controller.exception.ServiceUnavailableException;
+import com.TheAccountant.service.JsonStreamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * {@link JsonStreamService} limiting the number of listings streamed at the same time. Each stream holds
+ * a database connection until the client has read the whole listing, so the limit must stay below the
+ * size of the connection pool; the streams above it are rejected before the transaction is opened.
+ */
+@Service
+public class JsonStreamServiceImpl implements JsonStreamService {
+
+    @Autowired
+    private JsonArrayWriter jsonArrayWriter;
+
+    @Value("${stream.maxConcurrent:8}")
+    private int maxConcurrentStreams;
+
+    private Semaphore streamPermits;
+
+    @PostConstruct
+    public void initStreamPermits() {
+        streamPermits = new Semaphore(maxConcurrentStreams);
+    }
+
+    @Override
+    public <E, D> void writeArray(Supplier<Stream<E>> query, Function<E, D> converter, OutputStream outputStream)
+            throws IOException {
+
+        if (!streamPermits.tryAcquire()) {
+            throw new ServiceUnavailableException("Too many listings are being streamed, please retry later");
+        }
+        try {
+            jsonArrayWriter.writeArray(query, converter, outputStream);
+        } finally {
+            streamPermits.release();
+        }
+    }
+}
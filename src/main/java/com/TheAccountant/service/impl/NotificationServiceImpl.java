@@ -1,7 +1,6 @@
 package com.TheAccountant.service.impl;
 
 import com.TheAccountant.controller.exception.BadRequestException;
-import com.TheAccountant.dao.ExpenseDao;
 import com.TheAccountant.dao.NotificationDao;
 import com.TheAccountant.dto.charge.ChargeDTO;
 import com.TheAccountant.model.category.Category;
@@ -9,6 +8,8 @@ import com.TheAccountant.model.notification.Notification;
 import com.TheAccountant.model.notification.NotificationCategory;
 import com.TheAccountant.model.notification.NotificationPriority;
 import com.TheAccountant.model.payment.PaymentType;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.CategoryTotalService;
 import com.TheAccountant.service.NotificationService;
 import com.TheAccountant.service.PaymentService;
 import com.TheAccountant.service.exception.ServiceException;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,7 +35,7 @@ public class NotificationServiceImpl implements NotificationService {
     private Double thresholdMediumNotificationPercent;
 
     @Autowired
-    private ExpenseDao expenseDao;
+    private CategoryTotalService categoryTotalService;
 
     @Autowired
     private NotificationDao notificationDao;
@@ -62,19 +64,20 @@ public class NotificationServiceImpl implements NotificationService {
 
         Notification notification = null;
         if (category.getThreshold() > 0) {
-            Double totalAmountSpent = expenseDao.getTotalAmountByCategoryForCurrentMonth(category.getId());
+            AppUser user = userUtil.extractLoggedAppUserFromDatabase();
+            Double totalAmountSpent = categoryTotalService.getMonthTotal(category.getId(), LocalDate.now());
             if (totalAmountSpent != null && totalAmountSpent > 0) {
                 //HIGH PRIORITY ALERT
                 if (totalAmountSpent >= category.getThreshold()) {
-                    String thresholdExceededMessage = this.createThresholdExceededMessage(category, totalAmountSpent);
-                    notification = this.createNotification(category, NotificationPriority.HIGH, thresholdExceededMessage);
+                    String thresholdExceededMessage = this.createThresholdExceededMessage(category, user, totalAmountSpent);
+                    notification = this.createNotification(category, user, NotificationPriority.HIGH, thresholdExceededMessage);
                     notification = notificationDao.save(notification);
                 } else {
                     // MEDIUM PRIORITY ALERT
                     try {
                         if (shouldCreateMediumPriorityNotification(category.getThreshold(), totalAmountSpent, thresholdMediumNotificationPercent)) {
-                            String thresholdWarningMessage = this.createThresholdPercentCloseToLimitMessage(category, totalAmountSpent);
-                            notification = this.createNotification(category, NotificationPriority.MEDIUM, thresholdWarningMessage);
+                            String thresholdWarningMessage = this.createThresholdPercentCloseToLimitMessage(category, user, totalAmountSpent);
+                            notification = this.createNotification(category, user, NotificationPriority.MEDIUM, thresholdWarningMessage);
                             notification = notificationDao.save(notification);
                         }
                     } catch (ServiceException e) {
@@ -100,12 +103,12 @@ public class NotificationServiceImpl implements NotificationService {
         return shouldCreate;
     }
 
-    private Notification createNotification(Category category,
+    private Notification createNotification(Category category, AppUser user,
                                             NotificationPriority notificationPriority, String message) {
         Notification notification = new Notification();
         notification.setCategory(NotificationCategory.THRESHOLD.name());
         notification.setCreationDate(new Timestamp(System.currentTimeMillis()));
-        notification.setUser(userUtil.extractLoggedAppUserFromDatabase());
+        notification.setUser(user);
         notification.setMessage(message);
         notification.setPriority(notificationPriority.name());
         return notification;
@@ -115,12 +118,13 @@ public class NotificationServiceImpl implements NotificationService {
      * Create message that should be sent to the user when a threshold for a category is exceeded
      *
      * @param category
+     * @param user
      * @param totalAmountSpent
      * @return
      */
-    private String createThresholdExceededMessage(Category category, Double totalAmountSpent) {
+    private String createThresholdExceededMessage(Category category, AppUser user, Double totalAmountSpent) {
 
-        String defaultCurrency = userUtil.extractLoggedAppUserFromDatabase().getDefaultCurrency().getCurrencyCode();
+        String defaultCurrency = user.getDefaultCurrency().getCurrencyCode();
         String thresholdAmount = category.getThreshold() + " " + defaultCurrency;
         String message = "Threshold of value " + thresholdAmount +  " for category " + category.getName() + " has been exceeded! " +
                 "Current amount spent: " + totalAmountSpent + " " + defaultCurrency + ".";
@@ -133,11 +137,12 @@ public class NotificationServiceImpl implements NotificationService {
      * exceeded, using a percent to calculate if the total amount spent is close to that category threshold
      *
      * @param category
+     * @param user
      * @param totalAmountSpent
      * @return
      */
-    private String createThresholdPercentCloseToLimitMessage(Category category, Double totalAmountSpent) {
-        String defaultCurrency = userUtil.extractLoggedAppUserFromDatabase().getDefaultCurrency().getCurrencyCode();
+    private String createThresholdPercentCloseToLimitMessage(Category category, AppUser user, Double totalAmountSpent) {
+        String defaultCurrency = user.getDefaultCurrency().getCurrencyCode();
         String thresholdAmount = category.getThreshold() + " " + defaultCurrency;
         String message = "You are close to reaching threshold of " + thresholdAmount + " on category " + category.getName() + "!" +
                 " Current amount spent: " + totalAmountSpent + " " + defaultCurrency + "!" +
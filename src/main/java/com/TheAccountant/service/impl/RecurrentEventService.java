@@ -1,18 +1,19 @@
 package com.TheAccountant.service.impl;
 
-import com.TheAccountant.controller.exception.BadRequestException;
 import com.TheAccountant.dao.ExpenseDao;
 import com.TheAccountant.dao.IncomeDao;
 import com.TheAccountant.model.expense.Expense;
 import com.TheAccountant.model.income.Income;
-import com.TheAccountant.util.CurrencyConverter;
+import com.TheAccountant.service.CategoryTotalService;
+import com.TheAccountant.service.ExchangeRateService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 
-import java.io.IOException;
+import javax.transaction.Transactional;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Currency;
 import java.util.Date;
 import java.util.List;
@@ -28,7 +29,14 @@ public class RecurrentEventService {
     @Autowired
     private ExpenseDao expenseDao;
 
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
     @Scheduled(cron = "0 0 0 * * *") //everyday at midnight
+    @Transactional
     public void addRecurrentIncomeEvents(){
         int day = Calendar.getInstance().get(Calendar.DAY_OF_MONTH);
         int month = Calendar.getInstance().get(Calendar.MONTH) + 1; //January is 0
@@ -44,6 +52,7 @@ public class RecurrentEventService {
     }
 
     @Scheduled(cron = "0 0 0 * * *") //everyday at midnight
+    @Transactional
     public void addRecurrentExpenseEvents(){
         int day = Calendar.getInstance().get(Calendar.DAY_OF_MONTH);
         int month = Calendar.getInstance().get(Calendar.MONTH) + 1; //January is 0
@@ -54,7 +63,8 @@ public class RecurrentEventService {
             if(!clone.getCurrency().equals(clone.getUser().getDefaultCurrency().getCurrencyCode())){
                 setDefaultCurrencyAmount(clone, clone.getUser().getDefaultCurrency());
             }
-            expenseDao.saveAndFlush(clone);
+            clone = expenseDao.saveAndFlush(clone);
+            categoryTotalService.addExpenses(Collections.singletonList(clone));
         });
     }
 
@@ -62,15 +72,10 @@ public class RecurrentEventService {
         String expenseCurrency = expense.getCurrency();
         Double amount = expense.getAmount();
         String formatDate = new SimpleDateFormat("yyyy-MM-dd").format(expense.getCreationDate().getTime());
-        Double exchangeRateOnDay = null;
-        try {
-            exchangeRateOnDay = CurrencyConverter.getExchangeRateOnDay(expenseCurrency, defaultCurrency, formatDate);
-            if(exchangeRateOnDay != null) {
-                expense.setDefaultCurrency(defaultCurrency.getCurrencyCode());
-                expense.setDefaultCurrencyAmount(amount * exchangeRateOnDay);
-            }
-        } catch (IOException e) {
-            throw new BadRequestException(e);
+        Double exchangeRateOnDay = exchangeRateService.getExchangeRateOnDay(expenseCurrency, defaultCurrency, formatDate);
+        if(exchangeRateOnDay != null) {
+            expense.setDefaultCurrency(defaultCurrency.getCurrencyCode());
+            expense.setDefaultCurrencyAmount(amount * exchangeRateOnDay);
         }
     }
 
@@ -78,15 +83,10 @@ public class RecurrentEventService {
         String incomeCurrency = income.getCurrency();
         Double amount = income.getAmount();
         String formatDate = new SimpleDateFormat("yyyy-MM-dd").format(income.getCreationDate().getTime());
-        Double exchangeRateOnDay = null;
-        try {
-            exchangeRateOnDay = CurrencyConverter.getExchangeRateOnDay(incomeCurrency, defaultCurrency, formatDate);
-            if(exchangeRateOnDay != null) {
-                income.setDefaultCurrency(defaultCurrency.getCurrencyCode());
-                income.setDefaultCurrencyAmount(amount * exchangeRateOnDay);
-            }
-        } catch (IOException e) {
-            throw new BadRequestException(e);
+        Double exchangeRateOnDay = exchangeRateService.getExchangeRateOnDay(incomeCurrency, defaultCurrency, formatDate);
+        if(exchangeRateOnDay != null) {
+            income.setDefaultCurrency(defaultCurrency.getCurrencyCode());
+            income.setDefaultCurrencyAmount(amount * exchangeRateOnDay);
         }
     }
 }
@@ -0,0 +1,80 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.dao.ExpenseDao;
+import com.TheAccountant.dao.IncomeDao;
+import com.TheAccountant.dao.LoanDao;
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.income.Income;
+import com.TheAccountant.model.loan.Loan;
+import com.TheAccountant.service.ExchangeRateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Re-prices one batch of entities per call, each call running in its own transaction so the updates
+ * of the batch are flushed together on commit.
+ */
+@Service
+public class RepricingBatchWriter {
+
+    @Autowired
+    private ExpenseDao expenseDao;
+
+    @Autowired
+    private IncomeDao incomeDao;
+
+    @Autowired
+    private LoanDao loanDao;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Transactional
+    public List<Expense> repriceExpenses(long userId, Currency defaultCurrency, long afterId, int batchSize) {
+
+        List<Expense> expenses = expenseDao.findWithStaleDefaultCurrency(userId, defaultCurrency.getCurrencyCode(),
+                afterId, new PageRequest(0, batchSize));
+        reprice(expenses, defaultCurrency);
+        return expenses;
+    }
+
+    @Transactional
+    public List<Income> repriceIncomes(long userId, Currency defaultCurrency, long afterId, int batchSize) {
+
+        List<Income> incomes = incomeDao.findWithStaleDefaultCurrency(userId, defaultCurrency.getCurrencyCode(),
+                afterId, new PageRequest(0, batchSize));
+        reprice(incomes, defaultCurrency);
+        return incomes;
+    }
+
+    @Transactional
+    public List<Loan> repriceLoans(long userId, Currency defaultCurrency, long afterId, int batchSize) {
+
+        List<Loan> loans = loanDao.findWithStaleDefaultCurrency(userId, defaultCurrency.getCurrencyCode(),
+                afterId, new PageRequest(0, batchSize));
+        reprice(loans, defaultCurrency);
+        return loans;
+    }
+
+    private void reprice(List<? extends CurrencyHolderEntity> entities, Currency defaultCurrency) {
+
+        List<CurrencyHolderEntity> toConvert = new ArrayList<>();
+        for (CurrencyHolderEntity entity : entities) {
+            if (entity.getCurrency().equals(defaultCurrency.getCurrencyCode())) {
+                // amounts in the default currency are not duplicated
+                entity.setDefaultCurrency(null);
+                entity.setDefaultCurrencyAmount(null);
+            } else {
+                toConvert.add(entity);
+            }
+        }
+        exchangeRateService.setDefaultCurrencyAmounts(toConvert, defaultCurrency);
+    }
+}
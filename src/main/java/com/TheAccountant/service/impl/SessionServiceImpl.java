@@ -1,9 +1,13 @@
 package com.TheAccountant.service.impl;
 
+import com.TheAccountant.app.authentication.SessionToken;
+import com.TheAccountant.app.authentication.SessionTokenCodec;
 import com.TheAccountant.dao.AuthenticatedSessionDao;
 import com.TheAccountant.model.session.AuthenticatedSession;
 import com.TheAccountant.service.SessionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -11,10 +15,25 @@ import org.springframework.security.crypto.codec.Base64;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.TransactionSystemException;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.transaction.Transactional;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @EnableAsync
 @EnableScheduling
@@ -24,42 +43,165 @@ public class SessionServiceImpl implements SessionService {
     
     private static final long FIVE_DAYS_IN_MILLISECONDS = 5 * 24 * 60 * 60 * 1000;
     private static final long TWELVE_HOURS_IN_MILLISECONDS = 12 * 60 * 60 * 1000;
+    private static final long TEN_SECONDS_IN_MILLISECONDS = 10 * 1000;
+    private static final long ONE_SECOND_IN_MILLISECONDS = 1000;
+    private static final long ONE_MINUTE_IN_MILLISECONDS = 60 * 1000;
+
+    private static final String TOKEN_PREFIX = "Bearer ";
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    /**
+     * Authorization string stored for the sessions opened with a token, in place of the credentials of the login.
+     * It has no Basic prefix, so no Authorization header can be matched to these sessions.
+     */
+    private static final String TOKEN_SESSION_AUTHORIZATION = TOKEN_PREFIX.trim();
+
+    /**
+     * Minimum length of the key signing the session tokens, the size of the HMAC-SHA256 output
+     */
+    private static final int MIN_TOKEN_SECRET_BYTES = 32;
+
+    /**
+     * Number of session ids allocated from the sequence at once
+     */
+    private static final int SESSION_ID_BLOCK_SIZE = 50;
+
+    /**
+     * Maximum number of lookups without a session that are remembered, all of them being dropped past it
+     */
+    private static final int MAX_MISSED_SESSIONS = 10000;
+
+    private static final Logger LOGGER = Logger.getLogger(SessionServiceImpl.class.getName());
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
     
     @Autowired
     private AuthenticatedSessionDao authenticatedSessionDao;
+
+    @Value("${session.cleanup.chunkSize:1000}")
+    private int cleanUpChunkSize;
+
+    /**
+     * How long an authorization string not found in the table is rejected without querying the table again
+     */
+    @Value("${session.missTimeToLiveMillis:5000}")
+    private long missTimeToLiveMillis;
+
+    /**
+     * Key signing the session tokens, required and the same on all the nodes
+     */
+    @Value("${session.token.secret:}")
+    private String tokenSecret;
+
+    private SessionTokenCodec tokenCodec;
+
+    /**
+     * In-memory index of the active sessions, the 'authenticated_session' table being the durable copy of it
+     */
+    private final ConcurrentMap<SessionKey, AuthenticatedSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Sessions already in the in-memory index that are still to be inserted in the 'authenticated_session' table
+     */
+    private final Queue<AuthenticatedSession> addedSessions = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Ids allocated from the sequence and not given to a session yet
+     */
+    private final Queue<Long> availableSessionIds = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Time of the last lookup in the table that found no session, by authorization string and IP address
+     */
+    private final ConcurrentMap<SessionKey, Long> missedSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Ids of the removed sessions that are still to be deleted from the 'authenticated_session' table
+     */
+    private final Queue<Long> removedSessionIds = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Deny list of the session tokens: expiration time of the revoked sessions, by session id
+     */
+    private final ConcurrentMap<Long, Long> revokedSessions = new ConcurrentHashMap<>();
+
+    /**
+     * Latest revocation time read from the table, the next synchronization reading the sessions revoked after it
+     */
+    private Timestamp revocationWatermark = new Timestamp(0);
+
+    @PostConstruct
+    public void initSessionTokens() {
+
+        if (tokenSecret == null || tokenSecret.getBytes(StandardCharsets.UTF_8).length < MIN_TOKEN_SECRET_BYTES) {
+            throw new IllegalStateException("The 'session.token.secret' property must be set to a secret of at least "
+                    + MIN_TOKEN_SECRET_BYTES + " bytes, the same on all the nodes");
+        }
+        tokenCodec = new SessionTokenCodec(tokenSecret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @PostConstruct
+    public void reloadAuthenticatedSessions() {
+
+        flushAddedAuthenticatedSessions();
+        sessions.clear();
+        missedSessions.clear();
+        List<AuthenticatedSession> activeSessions =
+                authenticatedSessionDao.findByRevocationTimeIsNullAndExpirationTimeAfter(new Timestamp(System.currentTimeMillis()));
+        activeSessions.stream()
+                .filter(activeSession -> !TOKEN_SESSION_AUTHORIZATION.equals(activeSession.getAuthorization()))
+                .forEach(this::indexSession);
+        LOGGER.info("Loaded " + sessions.size() + " active authenticated sessions");
+        synchronized (this) {
+            revocationWatermark = new Timestamp(0);
+        }
+        syncRevokedSessions();
+    }
     
+    /**
+     * Register a session in the in-memory index. Its id is taken from a block allocated from the sequence, and
+     * the session is inserted in the table by {@link #flushAddedAuthenticatedSessions()}, off the request.
+     */
     public boolean addAuthenticatedSession(AuthenticatedSession authenticatedSession) throws TransactionSystemException {
-    
+
+        Set<ConstraintViolation<AuthenticatedSession>> violations = VALIDATOR.validate(authenticatedSession);
+        if (!violations.isEmpty()) {
+            throw new TransactionSystemException("Invalid authenticated session: " + violations);
+        }
         try {
-            authenticatedSession = authenticatedSessionDao.saveAndFlush(authenticatedSession);
+            authenticatedSession.setId(nextSessionId());
         } catch (Exception e) {
             throw new TransactionSystemException(e.getMessage());
         }
-        boolean inserted = authenticatedSession.getId() > 0;
-        return inserted;
+        addedSessions.add(authenticatedSession);
+        // the sessions opened with a token are only checked through their token
+        if (!TOKEN_SESSION_AUTHORIZATION.equals(authenticatedSession.getAuthorization())) {
+            SessionKey sessionKey = new SessionKey(authenticatedSession);
+            missedSessions.remove(sessionKey);
+            AuthenticatedSession replacedSession = sessions.put(sessionKey, authenticatedSession);
+            if (replacedSession != null) {
+                revokeSession(replacedSession);
+            }
+        }
+        return true;
     }
     
     public boolean removeAuthenticatedSession(String authorizationString, String clientIpAddress) {
     
-        AuthenticatedSession authenticatedSession = null;
-        List<AuthenticatedSession> sessions = authenticatedSessionDao.findByAuthorizationStringAndIpAddress(authorizationString, clientIpAddress);
-        if (sessions != null && !sessions.isEmpty()) {
-            authenticatedSession = sessions.get(0);
-        }
+        AuthenticatedSession authenticatedSession = findSession(authorizationString, clientIpAddress);
         boolean found = authenticatedSession != null;
         if (found) {
-            authenticatedSessionDao.delete(authenticatedSession.getId());
+            sessions.remove(new SessionKey(authorizationString, clientIpAddress), authenticatedSession);
+            revokeSession(authenticatedSession);
         }
         return found;
     }
     
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public boolean isAValidAuthenticationString(String authorizationString, String clientIpAddress) {
     
-        AuthenticatedSession authenticatedSession = null;
-        List<AuthenticatedSession> sessions = authenticatedSessionDao.findByAuthorizationStringAndIpAddress(authorizationString, clientIpAddress);
-        if (sessions != null && !sessions.isEmpty()) {
-            authenticatedSession = sessions.get(0);
-        }
+        AuthenticatedSession authenticatedSession = findSession(authorizationString, clientIpAddress);
         boolean found = authenticatedSession != null;
         if (found) {
             boolean isExpired = isSessionExpired(authenticatedSession);
@@ -70,6 +212,122 @@ public class SessionServiceImpl implements SessionService {
         }
         return found;
     }
+
+    /**
+     * Insert the added sessions, each in its own transaction so a failed insert does not lose the others
+     */
+    @Scheduled(fixedDelay = ONE_SECOND_IN_MILLISECONDS)
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void flushAddedAuthenticatedSessions() {
+
+        AuthenticatedSession authenticatedSession;
+        while ((authenticatedSession = addedSessions.poll()) != null) {
+            try {
+                authenticatedSessionDao.insert(authenticatedSession.getId(), authenticatedSession.getAuthorization(),
+                        authenticatedSession.getUsername(), authenticatedSession.getIpAddress(),
+                        authenticatedSession.getExpirationTime());
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Cannot insert the authenticated session " + authenticatedSession.getId(), e);
+            }
+        }
+    }
+
+    /**
+     * Mark the removed sessions as revoked, after inserting the added ones so the sessions removed before
+     * being inserted are revoked too
+     */
+    @Scheduled(fixedDelay = TEN_SECONDS_IN_MILLISECONDS)
+    @PreDestroy
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public void flushRemovedAuthenticatedSessions() {
+
+        flushAddedAuthenticatedSessions();
+        List<Long> ids = new ArrayList<>();
+        Long id;
+        while ((id = removedSessionIds.poll()) != null) {
+            ids.add(id);
+        }
+        if (!ids.isEmpty()) {
+            authenticatedSessionDao.revokeByIdIn(ids);
+        }
+    }
+
+    public String openTokenSession(String username, long userId, String clientIpAddress) {
+
+        AuthenticatedSession authenticatedSession = new AuthenticatedSession(TOKEN_SESSION_AUTHORIZATION, username,
+                clientIpAddress, calculateExpirationTimeStartingFromNow());
+        addAuthenticatedSession(authenticatedSession);
+        return createSessionToken(authenticatedSession, userId);
+    }
+
+    public String createSessionToken(AuthenticatedSession authenticatedSession, long userId) {
+
+        return tokenCodec.encode(new SessionToken(authenticatedSession.getId(), userId,
+                authenticatedSession.getUsername(), authenticatedSession.getIpAddress(),
+                authenticatedSession.getExpirationTime().getTime()));
+    }
+
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public SessionToken validateSessionToken(String authorizationString, String clientIpAddress) {
+
+        if (!isSessionToken(authorizationString)) {
+            return null;
+        }
+        SessionToken sessionToken = tokenCodec.decode(authorizationString.substring(TOKEN_SESSION_AUTHORIZATION.length()).trim());
+        if (sessionToken == null
+                || !sessionToken.getIpAddress().equals(clientIpAddress)
+                || sessionToken.getExpirationTime() < System.currentTimeMillis()
+                || revokedSessions.containsKey(sessionToken.getSessionId())) {
+            return null;
+        }
+        return sessionToken;
+    }
+
+    public boolean revokeSessionToken(String authorizationString, String clientIpAddress) {
+
+        SessionToken sessionToken = validateSessionToken(authorizationString, clientIpAddress);
+        if (sessionToken == null) {
+            return false;
+        }
+        revokedSessions.put(sessionToken.getSessionId(), sessionToken.getExpirationTime());
+        removedSessionIds.add(sessionToken.getSessionId());
+        return true;
+    }
+
+    /**
+     * @return true for any Bearer authorization, even without a token, so it is never checked as Basic credentials
+     */
+    public boolean isSessionToken(String authorizationString) {
+
+        return authorizationString != null && authorizationString.regionMatches(true, 0, TOKEN_SESSION_AUTHORIZATION,
+                0, TOKEN_SESSION_AUTHORIZATION.length());
+    }
+
+    /**
+     * Read the sessions revoked since the previous run. The revocation times come from the database clock, and
+     * the rows revoked up to one minute before the watermark are read again, in case their transaction committed
+     * late. The entries of the expired sessions are dropped, their tokens being expired too, and so are the
+     * expired lookups without a session.
+     */
+    @Scheduled(fixedDelay = TEN_SECONDS_IN_MILLISECONDS)
+    public synchronized void syncRevokedSessions() {
+
+        long now = System.currentTimeMillis();
+        Timestamp revokedSince = new Timestamp(revocationWatermark.getTime() - ONE_MINUTE_IN_MILLISECONDS);
+        List<AuthenticatedSession> revokedStoredSessions =
+                authenticatedSessionDao.findByRevocationTimeAfterAndExpirationTimeAfter(revokedSince, new Timestamp(now));
+        for (AuthenticatedSession revokedSession : revokedStoredSessions) {
+            revokedSessions.put(revokedSession.getId(), revokedSession.getExpirationTime().getTime());
+            // a session revoked by another node may still be indexed under its Basic authorization string
+            sessions.computeIfPresent(new SessionKey(revokedSession),
+                    (key, indexed) -> indexed.getId() == revokedSession.getId() ? null : indexed);
+            if (revokedSession.getRevocationTime().after(revocationWatermark)) {
+                revocationWatermark = revokedSession.getRevocationTime();
+            }
+        }
+        revokedSessions.values().removeIf(expirationTime -> expirationTime < now);
+        missedSessions.values().removeIf(missTime -> missTime < now - missTimeToLiveMillis);
+    }
     
     public String[] extractUsernameAndPassword(final String authorizationString) {
     
@@ -97,20 +355,137 @@ public class SessionServiceImpl implements SessionService {
         return new Timestamp(System.currentTimeMillis() + FIVE_DAYS_IN_MILLISECONDS);
     }
     
+    /**
+     * Delete the expired sessions in chunks, the ids of each chunk being read and deleted in short transactions,
+     * so the job never holds a long transaction or loads the sessions in memory.
+     */
     @Scheduled(fixedDelay = TWELVE_HOURS_IN_MILLISECONDS)
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
     public void scheduleAuthenticatedSessionsCleanUp() {
-        List<AuthenticatedSession> authenticatedSessions = authenticatedSessionDao.findAll();
-        authenticatedSessions.stream().forEach(authenticatedSession -> {
+        sessions.values().removeIf(this::isSessionExpired);
+        revokedSessions.values().removeIf(expirationTime -> expirationTime < System.currentTimeMillis());
 
-            if (isSessionExpired(authenticatedSession)) {
-                authenticatedSessionDao.delete(authenticatedSession.getId());
-                authenticatedSessionDao.flush();
+        long startTime = System.currentTimeMillis();
+        Timestamp now = new Timestamp(startTime);
+        int removedSessions = 0;
+        List<Long> expiredSessionIds;
+        do {
+            expiredSessionIds = authenticatedSessionDao.findExpiredSessionIds(now, new PageRequest(0, cleanUpChunkSize));
+            if (!expiredSessionIds.isEmpty()) {
+                removedSessions += authenticatedSessionDao.deleteByIdIn(expiredSessionIds);
             }
-        });
+        } while (expiredSessionIds.size() >= cleanUpChunkSize);
+        LOGGER.info("Removed " + removedSessions + " expired authenticated sessions in "
+                + (System.currentTimeMillis() - startTime) + " ms");
     }
     
+    /**
+     * Add a session to the deny list of the tokens, and mark it as revoked in the table on the next flush
+     */
+    private void revokeSession(AuthenticatedSession authenticatedSession) {
+
+        revokedSessions.put(authenticatedSession.getId(), authenticatedSession.getExpirationTime().getTime());
+        removedSessionIds.add(authenticatedSession.getId());
+    }
+
     private boolean isSessionExpired(AuthenticatedSession authenticatedSession) {
     
         return authenticatedSession.getExpirationTime().before(new Timestamp(System.currentTimeMillis()));
     }
+
+    /**
+     * Take an id from the allocated block, allocating a new block from the sequence when it is used up
+     */
+    private long nextSessionId() {
+
+        Long id = availableSessionIds.poll();
+        while (id == null) {
+            synchronized (availableSessionIds) {
+                if (availableSessionIds.isEmpty()) {
+                    authenticatedSessionDao.allocateIds(SESSION_ID_BLOCK_SIZE)
+                            .forEach(allocatedId -> availableSessionIds.add(allocatedId.longValue()));
+                }
+            }
+            id = availableSessionIds.poll();
+        }
+        return id;
+    }
+
+    /**
+     * Find a session in the in-memory index. The table is only queried for sessions that are not indexed,
+     * for example sessions registered by another node, and not again for the same authorization string and
+     * IP address while the previous lookup without a session is recent. Only Basic authorization strings are
+     * looked up.
+     */
+    private AuthenticatedSession findSession(String authorizationString, String clientIpAddress) {
+
+        if (authorizationString == null || !authorizationString.startsWith(BASIC_PREFIX)) {
+            return null;
+        }
+        SessionKey sessionKey = new SessionKey(authorizationString, clientIpAddress);
+        AuthenticatedSession authenticatedSession = sessions.get(sessionKey);
+        if (authenticatedSession == null && !isRecentMiss(sessionKey)) {
+            List<AuthenticatedSession> storedSessions =
+                    authenticatedSessionDao.findByAuthorizationStringAndIpAddress(authorizationString, clientIpAddress);
+            storedSessions.stream()
+                    .filter(storedSession -> !removedSessionIds.contains(storedSession.getId()))
+                    .forEach(this::indexSession);
+            authenticatedSession = sessions.get(sessionKey);
+            if (authenticatedSession == null) {
+                if (missedSessions.size() >= MAX_MISSED_SESSIONS) {
+                    missedSessions.clear();
+                }
+                missedSessions.put(sessionKey, System.currentTimeMillis());
+            }
+        }
+        return authenticatedSession;
+    }
+
+    private boolean isRecentMiss(SessionKey sessionKey) {
+
+        Long missTime = missedSessions.get(sessionKey);
+        return missTime != null && missTime >= System.currentTimeMillis() - missTimeToLiveMillis;
+    }
+
+    /**
+     * Index a session, keeping the one that expires last when several sessions have the same key.
+     */
+    private void indexSession(AuthenticatedSession authenticatedSession) {
+
+        sessions.merge(new SessionKey(authenticatedSession), authenticatedSession,
+                (indexed, stored) -> indexed.getExpirationTime().before(stored.getExpirationTime()) ? stored : indexed);
+    }
+
+    private static final class SessionKey {
+
+        private final String authorizationString;
+        private final String ipAddress;
+
+        private SessionKey(AuthenticatedSession authenticatedSession) {
+            this(authenticatedSession.getAuthorization(), authenticatedSession.getIpAddress());
+        }
+
+        private SessionKey(String authorizationString, String ipAddress) {
+            this.authorizationString = authorizationString;
+            this.ipAddress = ipAddress;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SessionKey)) {
+                return false;
+            }
+            SessionKey that = (SessionKey) o;
+            return Objects.equals(authorizationString, that.authorizationString)
+                    && Objects.equals(ipAddress, that.ipAddress);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(authorizationString, ipAddress);
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package com.TheAccountant.service.impl;
+
+import com.TheAccountant.controller.exception.ServiceUnavailableException;
+import com.TheAccountant.dao.CategoryDao;
+import com.TheAccountant.dao.ImportJobDao;
+import com.TheAccountant.dao.ImportJobErrorDao;
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.model.category.Category;
+import com.TheAccountant.model.importjob.ImportJob;
+import com.TheAccountant.model.importjob.ImportJobError;
+import com.TheAccountant.model.importjob.ImportJobStatus;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.StatementImportService;
+import com.TheAccountant.util.statement.StatementReader;
+import com.TheAccountant.util.statement.StatementRowMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link StatementImportService} keeping at most one chunk of rows in memory, whatever the size of
+ * the statement. The imports run on a bounded pool of threads, outside of the request threads.
+ */
+@Service
+public class StatementImportServiceImpl implements StatementImportService {
+
+    private static final Logger LOGGER = Logger.getLogger(StatementImportServiceImpl.class.getName());
+
+    @Autowired
+    private ImportJobWriter importJobWriter;
+
+    @Autowired
+    private ImportJobDao importJobDao;
+
+    @Autowired
+    private ImportJobErrorDao importJobErrorDao;
+
+    @Autowired
+    private CategoryDao categoryDao;
+
+    @Value("${import.chunkSize:500}")
+    private int chunkSize;
+
+    @Value("${import.workers:2}")
+    private int workerCount;
+
+    /**
+     * Number of imports waiting for a worker, after which the new ones are rejected
+     */
+    @Value("${import.queueSize:20}")
+    private int queueSize;
+
+    private ThreadPoolExecutor workers;
+
+    @PostConstruct
+    public void startWorkers() {
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "statement-import-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stopWorkers() {
+        workers.shutdown();
+    }
+
+    @Override
+    public ImportJob startImport(AppUser user, StatementReader statementReader, StatementRowMapper rowMapper,
+                                 String format) {
+
+        ImportJob importJob = importJobWriter.createJob(user, format);
+        try {
+            workers.execute(() -> {
+                try {
+                    runImport(importJob, user, statementReader, rowMapper);
+                } finally {
+                    closeReader(statementReader);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            closeReader(statementReader);
+            importJobWriter.finishJob(importJob, ImportJobStatus.FAILED, "Too many imports in progress");
+            throw new ServiceUnavailableException("Too many imports in progress, please retry later");
+        }
+        return importJob;
+    }
+
+    private void runImport(ImportJob importJob, AppUser user, StatementReader statementReader,
+                           StatementRowMapper rowMapper) {
+
+        Map<String, Category> categories = new HashMap<>();
+        List<CurrencyHolderEntity> entities = new ArrayList<>();
+        List<ImportJobError> errors = new ArrayList<>();
+        try {
+            categoryDao.findUncachedByUserId(user.getUserId()).forEach(category -> categories.put(category.getName(), category));
+            while (true) {
+                try {
+                    Map<String, String> row = statementReader.readRow();
+                    if (row == null) {
+                        break;
+                    }
+                    entities.add(rowMapper.map(row));
+                } catch (IllegalArgumentException e) {
+                    errors.add(new ImportJobError(importJob.getId(), statementReader.getRowNumber(), e.getMessage()));
+                }
+                if (entities.size() + errors.size() >= chunkSize) {
+                    importJob = importJobWriter.writeChunk(importJob, user, entities, errors, categories,
+                            statementReader.getRowNumber());
+                    entities.clear();
+                    errors.clear();
+                }
+            }
+            importJob = importJobWriter.writeChunk(importJob, user, entities, errors, categories,
+                    statementReader.getRowNumber());
+            importJobWriter.finishJob(importJob, ImportJobStatus.COMPLETED, null);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Import job " + importJob.getId() + " failed at row "
+                    + statementReader.getRowNumber() + ": " + e.getMessage());
+            importJobWriter.finishJob(importJob, ImportJobStatus.FAILED,
+                    "Failed at row " + statementReader.getRowNumber() + ": " + e.getMessage());
+        }
+    }
+
+    private void closeReader(StatementReader statementReader) {
+
+        try {
+            statementReader.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Cannot close the statement reader: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public ImportJob findImportJob(long id, AppUser user) {
+        return importJobDao.findByIdAndUserId(id, user.getUserId());
+    }
+
+    @Override
+    public List<ImportJobError> findImportJobErrors(long jobId, int limit) {
+        return importJobErrorDao.findByJobIdOrderByRowNumberAsc(jobId, new PageRequest(0, limit));
+    }
+}
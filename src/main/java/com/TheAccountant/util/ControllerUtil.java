@@ -1,9 +1,13 @@
 package com.TheAccountant.util;
 
 import com.TheAccountant.app.authentication.SessionAuthentication;
+import com.TheAccountant.controller.exception.BadRequestException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Collection;
 
@@ -13,6 +17,11 @@ import java.util.Collection;
  * @author Florin, on 25.12.2015
  */
 public class ControllerUtil {
+
+    /**
+     * Maximum number of rows of a page read with a cursor
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
     
     /**
      * Get the name of the user that is currently logged into the application.
@@ -86,4 +95,46 @@ public class ControllerUtil {
         };
         SecurityContextHolder.getContext().setAuthentication(authentication);
     }
+
+    /**
+     * Validate the number of rows requested for a page read with a cursor.
+     *
+     * @param limit
+     */
+    public static void validatePageLimit(int limit) {
+
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    /**
+     * Read the cursor sent by a client for the next page of a list.
+     *
+     * @param cursor
+     *      the token received with the previous page, or null for the first page
+     * @return the position of the last row of the previous page, or null for the first page
+     */
+    public static PageCursor readPageCursor(String cursor) {
+
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
+    /**
+     * Response whose JSON body is written by the specified callback after the handler returns, outside of
+     * the request thread. An empty listing is sent as an empty array.
+     *
+     * @param body
+     * @return
+     */
+    public static ResponseEntity<StreamingResponseBody> jsonStream(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
 }
@@ -1,12 +1,17 @@
 package com.TheAccountant.util;
 
+import com.TheAccountant.model.email.OutboxEmail;
 import com.TheAccountant.model.user.AppUser;
 
+import com.TheAccountant.util.SmtpTransportPool.PooledTransport;
+
+import javax.annotation.PreDestroy;
 import javax.mail.*;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
 import java.util.Date;
 import java.util.Properties;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Class that can be used to send automatic mails.
@@ -15,10 +20,40 @@ import java.util.Properties;
  */
 public class EmailSender {
 
+    private static final int SMTP_TIMEOUT_MILLIS = 30 * 1000;
+
+    private static final String REGISTRATION_SUBJECT = "[The Accountant] Account activation";
+    private static final String FORGOT_PASSWORD_SUBJECT = "[The Accountant] Forgot password";
+
+    /**
+     * Templates of the emails, parsed when the sender is created
+     */
+    private final EmailTemplate registrationTemplate =
+            EmailTemplate.load("email/account_activation.html", "username", "activationUrl");
+    private final EmailTemplate forgotPasswordTemplate =
+            EmailTemplate.load("email/forgot_password.html", "username", "renewPasswordUrl");
+
     private String senderEmail;
     private String senderPassword;
     private String baseActivationUrl;
     private String baseForgotPasswordUrl;
+    private String smtpHost = "smtp.gmail.com";
+    private int smtpPort = 465;
+    private boolean smtpSsl = true;
+    private boolean smtpAuth = true;
+
+    /**
+     * Mail session built from the SMTP settings on first use
+     */
+    private volatile Session session;
+
+    private final SmtpTransportPool transportPool = new SmtpTransportPool();
+
+    /**
+     * Time taken by the successful deliveries, including the wait for a connection
+     */
+    private final LatencyHistogram deliveryTimeHistogram = new LatencyHistogram();
+    private final LongAdder failedDeliveries = new LongAdder();
     
     /**
      * Send an email to the specified user to require the account registration using an URL containing 
@@ -30,12 +65,20 @@ public class EmailSender {
      */
     public void sendUserRegistrationEmail(AppUser user, String code) throws MessagingException {
     
-        String subject = "[The Accountant] Account activation";
-        StringBuilder messageBuilder = new StringBuilder();
-        messageBuilder.append("<h2 style='color:red;'>Hello, " + user.getUsername() + "!</h2>");
-        messageBuilder.append("<br><br><pre style='font-size: 160%;'>Please confirm your registration by following the link: " + "<a href='" + baseActivationUrl + code + "'>ACTIVATION LINK</a></pre>");
-        messageBuilder.append("<br><br><pre style='font-size: 130%;'>Kind regards,<br>The Accountant Team</pre>");
-        sendEmail(user.getEmail(), subject, messageBuilder.toString());
+        sendEmail(createUserRegistrationEmail(user, code));
+    }
+
+    /**
+     * Create the email requiring the account registration of the specified user, to be sent later.
+     *
+     * @param user : the user that will receive the registration mail
+     * @param code : generated code to be sent by mail
+     * @return the email, not saved
+     */
+    public OutboxEmail createUserRegistrationEmail(AppUser user, String code) {
+
+        String content = registrationTemplate.render(user.getUsername(), baseActivationUrl + code);
+        return new OutboxEmail(user.getEmail(), REGISTRATION_SUBJECT, content);
     }
 
     /**
@@ -48,17 +91,24 @@ public class EmailSender {
      */
     public void sendForgotPasswordEmail(AppUser user, String code) throws MessagingException {
 
-        String subject = "[The Accountant] Forgot password";
-        StringBuilder messageBuilder = new StringBuilder();
-        messageBuilder.append("<h2 style='color:red;'>Hello, " + user.getUsername() + "!</h2>");
-        messageBuilder.append("<br><br><pre style='font-size: 160%;'>You've requested the renewal of your password. If you didn't initialize this action, please ignore this email.</pre>");
-        messageBuilder.append("<br><pre style='font-size: 160%;'>Please renew your password by following the " + "link: " + "<a href='" + baseForgotPasswordUrl + code + "'>RENEW YOUR PASSWORD</a></pre>");
-        messageBuilder.append("<br><br><pre style='font-size: 130%;'>Kind regards,<br>The Accountant Team</pre>");
-        sendEmail(user.getEmail(), subject, messageBuilder.toString());
+        sendEmail(createForgotPasswordEmail(user, code));
+    }
+
+    /**
+     * Create the email requiring the renewal of the forgotten password of the specified user, to be sent later.
+     *
+     * @param user
+     * @param code
+     * @return the email, not saved
+     */
+    public OutboxEmail createForgotPasswordEmail(AppUser user, String code) {
+
+        String content = forgotPasswordTemplate.render(user.getUsername(), baseForgotPasswordUrl + code);
+        return new OutboxEmail(user.getEmail(), FORGOT_PASSWORD_SUBJECT, content);
     }
 
     /**
-     * Method used to send an email to the specified receiver.
+     * Method used to send an email to the specified receiver, through a pooled SMTP connection.
      *
      * @param receiverEmail: email address of the receiver
      * @param subject: subject of the message
@@ -69,16 +119,34 @@ public class EmailSender {
     public void sendEmail(String receiverEmail, String subject, String message)
             throws MessagingException {
 
-        Properties props = buildProperties();
-        Session session = Session.getDefaultInstance(props, new Authenticator() {
-            protected PasswordAuthentication getPasswordAuthentication() {
-
-                return new PasswordAuthentication(senderEmail, senderPassword);
+        long start = System.nanoTime();
+        try {
+            Session currentSession = getSession();
+            MimeMessage msg = createMessage(currentSession, receiverEmail, subject, message);
+            PooledTransport pooledTransport = transportPool.borrow(currentSession);
+            try {
+                pooledTransport.getTransport().sendMessage(msg, msg.getAllRecipients());
+            } catch (SendFailedException e) {
+                // the server refused the recipients, the connection can still be used
+                transportPool.release(pooledTransport);
+                throw e;
+            } catch (MessagingException | RuntimeException e) {
+                transportPool.invalidate(pooledTransport);
+                throw e;
             }
-        });
+            transportPool.release(pooledTransport);
+            deliveryTimeHistogram.record(System.nanoTime() - start);
+        } catch (MessagingException | RuntimeException e) {
+            failedDeliveries.increment();
+            throw e;
+        }
+    }
+
+    private MimeMessage createMessage(Session currentSession, String receiverEmail, String subject, String message)
+            throws MessagingException {
 
         // -- Create a new message --
-        Message msg = new MimeMessage(session);
+        MimeMessage msg = new MimeMessage(currentSession);
 
         // -- Set the FROM and TO fields --
         msg.setFrom(new InternetAddress(senderEmail));
@@ -86,7 +154,12 @@ public class EmailSender {
         msg.setSubject(subject);
         msg.setContent(message, "text/html; charset=utf-8");
         msg.setSentDate(new Date());
-        Transport.send(msg);
+        msg.saveChanges();
+        return msg;
+    }
+
+    private void sendEmail(OutboxEmail email) throws MessagingException {
+        sendEmail(email.getRecipient(), email.getSubject(), email.getContent());
     }
 
     public void setSenderEmail(String senderEmail) {
@@ -117,15 +190,92 @@ public class EmailSender {
         this.baseActivationUrl = baseActivationUrl;
     }
 
+    public void setSmtpHost(String smtpHost) {
+        this.smtpHost = smtpHost;
+        resetSession();
+    }
+
+    public void setSmtpPort(int smtpPort) {
+        this.smtpPort = smtpPort;
+        resetSession();
+    }
+
+    public void setSmtpSsl(boolean smtpSsl) {
+        this.smtpSsl = smtpSsl;
+        resetSession();
+    }
+
+    public void setSmtpAuth(boolean smtpAuth) {
+        this.smtpAuth = smtpAuth;
+        resetSession();
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        transportPool.setMaxIdleConnections(maxIdleConnections);
+    }
+
+    public void setMaxMessagesPerConnection(int maxMessagesPerConnection) {
+        transportPool.setMaxMessagesPerConnection(maxMessagesPerConnection);
+    }
+
+    public void setMaxIdleMillis(long maxIdleMillis) {
+        transportPool.setMaxIdleMillis(maxIdleMillis);
+    }
+
+    public SmtpTransportPool getTransportPool() {
+        return transportPool;
+    }
+
+    public LatencyHistogram getDeliveryTimeHistogram() {
+        return deliveryTimeHistogram;
+    }
+
+    public long getFailedDeliveries() {
+        return failedDeliveries.sum();
+    }
+
+    @PreDestroy
+    public void closeConnections() {
+        transportPool.clear();
+    }
+
+    /**
+     * Drop the mail session and the connections opened with the previous SMTP settings
+     */
+    private void resetSession() {
+
+        session = null;
+        transportPool.clear();
+    }
+
+    private Session getSession() {
+
+        Session currentSession = session;
+        if (currentSession == null) {
+            currentSession = Session.getInstance(buildProperties(), new Authenticator() {
+                protected PasswordAuthentication getPasswordAuthentication() {
+
+                    return new PasswordAuthentication(senderEmail, senderPassword);
+                }
+            });
+            session = currentSession;
+        }
+        return currentSession;
+    }
+
     private Properties buildProperties() {
 
-        Properties props = System.getProperties();
-        props.setProperty("mail.smtp.host", "smtp.gmail.com");
-        props.setProperty("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
-        props.setProperty("mail.smtp.socketFactory.fallback", "false");
-        props.setProperty("mail.smtp.port", "465");
-        props.setProperty("mail.smtp.socketFactory.port", "465");
-        props.put("mail.smtp.auth", "true");
+        Properties props = new Properties();
+        props.setProperty("mail.smtp.host", smtpHost);
+        props.setProperty("mail.smtp.port", String.valueOf(smtpPort));
+        if (smtpSsl) {
+            props.setProperty("mail.smtp.socketFactory.class", "javax.net.ssl.SSLSocketFactory");
+            props.setProperty("mail.smtp.socketFactory.fallback", "false");
+            props.setProperty("mail.smtp.socketFactory.port", String.valueOf(smtpPort));
+        }
+        props.put("mail.smtp.auth", String.valueOf(smtpAuth));
+        props.setProperty("mail.smtp.connectiontimeout", String.valueOf(SMTP_TIMEOUT_MILLIS));
+        props.setProperty("mail.smtp.timeout", String.valueOf(SMTP_TIMEOUT_MILLIS));
         props.put("mail.store.protocol", "pop3");
         props.put("mail.transport.protocol", "smtp");
         return props;
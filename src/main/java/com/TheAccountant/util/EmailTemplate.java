@@ -0,0 +1,173 @@
+package com.TheAccountant.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HTML email template, parsed once into literal parts and variable references. The variables are written
+ * as {{name}} in the template, and their values are HTML escaped when the template is rendered.
+ */
+public class EmailTemplate {
+
+    private static final String VARIABLE_START = "{{";
+    private static final String VARIABLE_END = "}}";
+
+    private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Buffer reused by the renderings done on the same thread
+     */
+    private static final ThreadLocal<StringBuilder> RENDER_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    private final String name;
+
+    /**
+     * Literal text before each variable, followed by the text after the last variable
+     */
+    private final String[] literals;
+
+    /**
+     * Position of the value of each variable in the arguments of {@link #render(String...)}
+     */
+    private final int[] variableIndexes;
+
+    private final int variableCount;
+
+    private final int literalLength;
+
+    private EmailTemplate(String name, String[] literals, int[] variableIndexes, int variableCount) {
+
+        this.name = name;
+        this.literals = literals;
+        this.variableIndexes = variableIndexes;
+        this.variableCount = variableCount;
+        this.literalLength = Arrays.stream(literals).mapToInt(String::length).sum();
+    }
+
+    /**
+     * Parse a template.
+     *
+     * @param name : name of the template, used in the error messages
+     * @param source : the template text
+     * @param variableNames : names of the variables, in the order of the values given to {@link #render(String...)}
+     * @return the compiled template
+     * @throws IllegalArgumentException if the template uses an unknown variable or is not well formed
+     */
+    public static EmailTemplate compile(String name, String source, String... variableNames) {
+
+        List<String> variables = Arrays.asList(variableNames);
+        List<String> literals = new ArrayList<>();
+        List<Integer> variableIndexes = new ArrayList<>();
+        int position = 0;
+        int start;
+        while ((start = source.indexOf(VARIABLE_START, position)) >= 0) {
+            int end = source.indexOf(VARIABLE_END, start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed variable at position " + start + " of template " + name);
+            }
+            String variable = source.substring(start + VARIABLE_START.length(), end).trim();
+            int variableIndex = variables.indexOf(variable);
+            if (variableIndex < 0) {
+                throw new IllegalArgumentException("Unknown variable '" + variable + "' in template " + name);
+            }
+            literals.add(source.substring(position, start));
+            variableIndexes.add(variableIndex);
+            position = end + VARIABLE_END.length();
+        }
+        literals.add(source.substring(position));
+
+        return new EmailTemplate(name, literals.toArray(new String[literals.size()]),
+                variableIndexes.stream().mapToInt(Integer::intValue).toArray(), variableNames.length);
+    }
+
+    /**
+     * Read and parse a template from the classpath.
+     *
+     * @param resource : path of the UTF-8 template file in the classpath
+     * @param variableNames : names of the variables, in the order of the values given to {@link #render(String...)}
+     * @return the compiled template
+     */
+    public static EmailTemplate load(String resource, String... variableNames) {
+
+        try (InputStream inputStream = EmailTemplate.class.getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("Email template not found: " + resource);
+            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = inputStream.read(buffer)) > 0) {
+                content.write(buffer, 0, read);
+            }
+            return compile(resource, new String(content.toByteArray(), StandardCharsets.UTF_8), variableNames);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the email template " + resource, e);
+        }
+    }
+
+    /**
+     * Render the template with the given values.
+     *
+     * @param values : values of the variables, in the order of the names given when the template was compiled
+     * @return the HTML content
+     */
+    public String render(String... values) {
+
+        if (values.length != variableCount) {
+            throw new IllegalArgumentException("Template " + name + " expects " + variableCount + " values, got "
+                    + values.length);
+        }
+        StringBuilder buffer = RENDER_BUFFER.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(literalLength + 64 * variableIndexes.length);
+        for (int i = 0; i < variableIndexes.length; i++) {
+            buffer.append(literals[i]);
+            appendEscaped(buffer, values[variableIndexes[i]]);
+        }
+        buffer.append(literals[literals.length - 1]);
+        String content = buffer.toString();
+        if (buffer.capacity() > MAX_REUSED_BUFFER_SIZE) {
+            RENDER_BUFFER.remove();
+        }
+        return content;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static void appendEscaped(StringBuilder buffer, String value) {
+
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char character = value.charAt(i);
+            switch (character) {
+                case '&':
+                    buffer.append("&amp;");
+                    break;
+                case '<':
+                    buffer.append("&lt;");
+                    break;
+                case '>':
+                    buffer.append("&gt;");
+                    break;
+                case '"':
+                    buffer.append("&quot;");
+                    break;
+                case '\'':
+                    buffer.append("&#39;");
+                    break;
+                default:
+                    buffer.append(character);
+            }
+        }
+    }
+}
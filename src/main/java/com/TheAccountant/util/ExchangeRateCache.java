@@ -0,0 +1,143 @@
+package com.TheAccountant.util;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache for daily exchange rates, keyed by (base currency, target currency, day).
+ * Rates of past days never change, so they stay cached until evicted; rates of the current day
+ * (or later) are still moving and expire after a short time to live.
+ */
+public class ExchangeRateCache {
+
+    private final int maxEntries;
+    private final long todayTimeToLiveMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final LinkedHashMap<String, CachedRate> rates;
+
+    public ExchangeRateCache(int maxEntries, long todayTimeToLiveMillis) {
+
+        this.maxEntries = maxEntries;
+        this.todayTimeToLiveMillis = todayTimeToLiveMillis;
+        this.rates = new LinkedHashMap<String, CachedRate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedRate> eldest) {
+                boolean evict = size() > ExchangeRateCache.this.maxEntries;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Get the cached exchange rate between the specified currencies on the specified day.
+     *
+     * @param baseCurrency : ISO code of the currency to convert from
+     * @param targetCurrency : ISO code of the currency to convert to
+     * @param day : the day formatted as yyyy-MM-dd
+     * @return the cached rate, or null if the rate is not cached or has expired
+     */
+    public Double get(String baseCurrency, String targetCurrency, String day) {
+
+        String key = buildKey(baseCurrency, targetCurrency, day);
+        CachedRate cachedRate;
+        synchronized (rates) {
+            cachedRate = rates.get(key);
+            if (cachedRate != null && cachedRate.isExpired()) {
+                rates.remove(key);
+                cachedRate = null;
+            }
+        }
+        if (cachedRate == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cachedRate.rate;
+    }
+
+    /**
+     * Register the exchange rate between the specified currencies on the specified day.
+     */
+    public void put(String baseCurrency, String targetCurrency, String day, Double rate) {
+
+        if (rate == null) {
+            return;
+        }
+        long expirationTime = isSettledDay(day) ? Long.MAX_VALUE : System.currentTimeMillis() + todayTimeToLiveMillis;
+        synchronized (rates) {
+            rates.put(buildKey(baseCurrency, targetCurrency, day), new CachedRate(rate, expirationTime));
+        }
+    }
+
+    public void clear() {
+
+        synchronized (rates) {
+            rates.clear();
+        }
+    }
+
+    public int getSize() {
+
+        synchronized (rates) {
+            return rates.size();
+        }
+    }
+
+    public int getMaxEntries() {
+
+        return maxEntries;
+    }
+
+    public long getHits() {
+
+        return hits.sum();
+    }
+
+    public long getMisses() {
+
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+
+        return evictions.sum();
+    }
+
+    private boolean isSettledDay(String day) {
+
+        try {
+            return LocalDate.parse(day).isBefore(LocalDate.now());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private String buildKey(String baseCurrency, String targetCurrency, String day) {
+
+        return baseCurrency + '/' + targetCurrency + '@' + day;
+    }
+
+    private static class CachedRate {
+
+        private final Double rate;
+        private final long expirationTime;
+
+        private CachedRate(Double rate, long expirationTime) {
+            this.rate = rate;
+            this.expirationTime = expirationTime;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expirationTime;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.TheAccountant.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread safe histogram with fixed millisecond buckets, used to record how long
+ * an operation took (connection acquire time, mail delivery time, etc.).
+ */
+public class LatencyHistogram {
+
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.length + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Register a new measurement.
+     *
+     * @param elapsedNanos : the measured duration in nanoseconds
+     */
+    public void record(long elapsedNanos) {
+
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        int bucket = 0;
+        while (bucket < BUCKET_UPPER_BOUNDS_MILLIS.length && elapsedMillis > BUCKET_UPPER_BOUNDS_MILLIS[bucket]) {
+            bucket++;
+        }
+        bucketCounts.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(elapsedNanos);
+        long currentMax;
+        do {
+            currentMax = maxNanos.get();
+        } while (elapsedNanos > currentMax && !maxNanos.compareAndSet(currentMax, elapsedNanos));
+    }
+
+    public long getCount() {
+
+        return count.sum();
+    }
+
+    public double getMeanMillis() {
+
+        long samples = count.sum();
+        return samples == 0 ? 0D : totalNanos.sum() / (samples * 1_000_000D);
+    }
+
+    public double getMaxMillis() {
+
+        return maxNanos.get() / 1_000_000D;
+    }
+
+    /**
+     * @return the number of measurements per bucket, keyed by the bucket label ("<=5ms", ">5000ms", ...)
+     */
+    public Map<String, Long> getBuckets() {
+
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.length; i++) {
+            buckets.put("<=" + BUCKET_UPPER_BOUNDS_MILLIS[i] + "ms", bucketCounts.get(i));
+        }
+        buckets.put(">" + BUCKET_UPPER_BOUNDS_MILLIS[BUCKET_UPPER_BOUNDS_MILLIS.length - 1] + "ms",
+                bucketCounts.get(BUCKET_UPPER_BOUNDS_MILLIS.length));
+        return buckets;
+    }
+}
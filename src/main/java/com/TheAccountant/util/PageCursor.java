@@ -0,0 +1,79 @@
+package com.TheAccountant.util;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Position of a row in a list ordered by (creation date, id), sent to the clients as an opaque token.
+ * The next page of the list is read from the position of the last row of the current page, so the
+ * cost of a page does not depend on how many rows come before it.
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private final Timestamp creationDate;
+    private final long id;
+
+    public PageCursor(Timestamp creationDate, long id) {
+        this.creationDate = creationDate;
+        this.id = id;
+    }
+
+    public Timestamp getCreationDate() {
+        return creationDate;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the token of this position, URL safe
+     */
+    public String encode() {
+
+        String value = creationDate.getTime() + SEPARATOR + creationDate.getNanos() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token
+     *      a token created by {@link #encode()}
+     * @throws IllegalArgumentException
+     *      if the token was not created by {@link #encode()}
+     */
+    public static PageCursor decode(String token) {
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split(SEPARATOR);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            Timestamp creationDate = new Timestamp(Long.parseLong(parts[0]));
+            creationDate.setNanos(Integer.parseInt(parts[1]));
+            return new PageCursor(creationDate, Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and the invalid base64 errors included
+            throw new IllegalArgumentException("Invalid page cursor", e);
+        }
+    }
+
+    /**
+     * @return the token of the position of the last row of a page, or null if the page is not full,
+     *      meaning there are no more rows
+     */
+    public static <T> String nextToken(List<T> page, int limit, Function<T, Timestamp> creationDate, ToLongFunction<T> id) {
+
+        if (page.size() < limit) {
+            return null;
+        }
+        T lastRow = page.get(page.size() - 1);
+        return new PageCursor(creationDate.apply(lastRow), id.applyAsLong(lastRow)).encode();
+    }
+}
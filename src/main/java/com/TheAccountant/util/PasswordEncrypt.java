@@ -1,39 +1,188 @@
 package com.TheAccountant.util;
 
+import com.TheAccountant.controller.exception.ServiceUnavailableException;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author Tudor
- * This class is used to encrypt the app_user password
+ * This class is used to encrypt the app_user password.
+ *
+ * The passwords are hashed with PBKDF2 and a random salt, and stored as
+ * "$pbkdf2-sha256$iterations$salt$hash", so the work factor can be raised later. The unsalted digests
+ * stored before are still accepted, and are replaced on the next successful login (see {@link #needsRehash(String)}).
+ * The hashes are computed by a bounded pool of threads, so a burst of logins cannot take all the processors,
+ * and a request waits a bounded time for its hash.
  */
 public class PasswordEncrypt {
 
+    private static final String HASH_ID = "pbkdf2-sha256";
+    private static final String SEPARATOR = "$";
+    private static final String HASH_PREFIX = SEPARATOR + HASH_ID + SEPARATOR;
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    /**
+     * Digest algorithm of the legacy unsalted hashes
+     */
     private String algorithm;
 
+    private int iterations = 120000;
+
+    /**
+     * Highest number of iterations accepted from a stored hash, so a corrupted hash cannot hold a hashing
+     * thread for minutes
+     */
+    private int maxIterations = 1000000;
+
+    /**
+     * Time a request waits for its hash, queued and computed, before it is rejected
+     */
+    private long hashingTimeoutMillis = 5000;
+
+    private int hashingThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * Number of hashes waiting for a thread, after which the new ones are rejected
+     */
+    private int hashingQueueSize = 100;
+
+    private final ThreadLocal<SecretKeyFactory> keyFactory = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(PBKDF2_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final ThreadLocal<MessageDigest> legacyDigest = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private ThreadPoolExecutor hashingExecutor;
+
+    @PostConstruct
+    public void startHashingExecutor() {
+
+        if (iterations <= 0 || iterations > maxIterations) {
+            throw new IllegalStateException("The password hash iterations must be between 1 and " + maxIterations
+                    + ", got " + iterations);
+        }
+        AtomicInteger threadCounter = new AtomicInteger();
+        hashingExecutor = new ThreadPoolExecutor(hashingThreads, hashingThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(hashingQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stopHashingExecutor() {
+        hashingExecutor.shutdown();
+    }
+
+    /**
+     * Hash a password with a new salt and the configured number of iterations.
+     *
+     * @param password : the password in clear
+     * @return the versioned hash, to be stored
+     * @throws ServiceUnavailableException if too many hashes are waiting to be computed, or the hash is not
+     * computed in time
+     */
     public String encryptPassword(String password) {
         if (password == null || password.length() == 0) {
             throw new IllegalArgumentException("Invalid password");
         }
-        MessageDigest md = null;
+        byte[] salt = new byte[SALT_BYTES];
+        SECURE_RANDOM.nextBytes(salt);
+        int hashIterations = iterations;
+        byte[] hash = runHashing(() -> pbkdf2(password, salt, hashIterations, HASH_BITS));
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        return HASH_PREFIX + hashIterations + SEPARATOR + encoder.encodeToString(salt) + SEPARATOR
+                + encoder.encodeToString(hash);
+    }
+
+    /**
+     * Check a password against a stored hash, in the current or in the legacy format.
+     *
+     * @param password : the password in clear
+     * @param storedHash : the hash stored for the user
+     * @return true if the password matches the hash, false if the hash is malformed or has too many iterations
+     * @throws ServiceUnavailableException if too many hashes are waiting to be computed, or the hash is not
+     * computed in time
+     */
+    public boolean matches(String password, String storedHash) {
+        if (password == null || password.length() == 0 || storedHash == null) {
+            return false;
+        }
+        if (!storedHash.startsWith(HASH_PREFIX)) {
+            byte[] legacyHash = legacyHash(password).getBytes(StandardCharsets.UTF_8);
+            return MessageDigest.isEqual(legacyHash, storedHash.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = storedHash.substring(HASH_PREFIX.length()).split("\\" + SEPARATOR);
+        if (parts.length != 3) {
+            return false;
+        }
+        int hashIterations;
+        byte[] salt;
+        byte[] expectedHash;
         try {
-            md = MessageDigest.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException noSuchAlgorithmException) {
-            Logger.getLogger(PasswordEncrypt.class.getName()).log(Level.SEVERE, noSuchAlgorithmException.getMessage());
-        }
-        md.update(password.getBytes());
-        byte[] hash = md.digest();
-        StringBuffer hexString = new StringBuffer();
-        for (int i = 0; i < hash.length; i++) {
-            if ((0xff & hash[i]) < 0x10) {
-                hexString.append("0" + Integer.toHexString((0xFF & hash[i])));
-            } else {
-                hexString.append(Integer.toHexString(0xFF & hash[i]));
-            }
+            hashIterations = Integer.parseInt(parts[0]);
+            salt = Base64.getDecoder().decode(parts[1]);
+            expectedHash = Base64.getDecoder().decode(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (hashIterations <= 0 || hashIterations > maxIterations) {
+            return false;
+        }
+        byte[] hash = runHashing(() -> pbkdf2(password, salt, hashIterations, expectedHash.length * 8));
+        return MessageDigest.isEqual(expectedHash, hash);
+    }
+
+    /**
+     * @param storedHash : the hash stored for the user
+     * @return true if the hash uses the legacy format or fewer iterations than configured, and should be
+     * replaced after the next successful login
+     */
+    public boolean needsRehash(String storedHash) {
+        if (storedHash == null || !storedHash.startsWith(HASH_PREFIX)) {
+            return true;
+        }
+        int end = storedHash.indexOf(SEPARATOR, HASH_PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(storedHash.substring(HASH_PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
         }
-        return hexString.toString();
     }
 
     public String getAlgorithm() {
@@ -45,4 +194,76 @@ public class PasswordEncrypt {
 
         this.algorithm = algorithm;
     }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public void setIterations(int iterations) {
+        this.iterations = iterations;
+    }
+
+    public void setHashingThreads(int hashingThreads) {
+        this.hashingThreads = hashingThreads;
+    }
+
+    public void setHashingQueueSize(int hashingQueueSize) {
+        this.hashingQueueSize = hashingQueueSize;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    public void setHashingTimeoutMillis(long hashingTimeoutMillis) {
+        this.hashingTimeoutMillis = hashingTimeoutMillis;
+    }
+
+    private <T> T runHashing(Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = hashingExecutor.submit(hashing);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Too many password checks in progress, please retry later");
+        }
+        try {
+            return result.get(hashingTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // a queued hash is dropped, a running one cannot be interrupted and completes in the background
+            result.cancel(true);
+            throw new ServiceUnavailableException("The password check timed out, please retry later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing the password", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Cannot hash the password", e.getCause());
+        }
+    }
+
+    private byte[] pbkdf2(String password, byte[] salt, int hashIterations, int hashBits) throws GeneralSecurityException {
+        PBEKeySpec keySpec = new PBEKeySpec(password.toCharArray(), salt, hashIterations, hashBits);
+        try {
+            return keyFactory.get().generateSecret(keySpec).getEncoded();
+        } finally {
+            keySpec.clearPassword();
+        }
+    }
+
+    /**
+     * Unsalted hex digest, as stored before the PBKDF2 hashes
+     */
+    private String legacyHash(String password) {
+        MessageDigest md = legacyDigest.get();
+        md.reset();
+        // the legacy hashes were computed from the bytes in the platform charset
+        byte[] hash = md.digest(password.getBytes());
+        StringBuilder hexString = new StringBuilder(hash.length * 2);
+        for (byte hashByte : hash) {
+            if ((0xff & hashByte) < 0x10) {
+                hexString.append('0');
+            }
+            hexString.append(Integer.toHexString(0xFF & hashByte));
+        }
+        return hexString.toString();
+    }
 }
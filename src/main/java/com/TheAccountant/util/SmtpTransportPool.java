@@ -0,0 +1,159 @@
+package com.TheAccountant.util;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Pool of connected and authenticated SMTP transports. A transport is released to the pool after each
+ * message, so the following messages are sent through the same connection, until it sent the maximum
+ * number of messages or stayed idle for too long.
+ */
+public class SmtpTransportPool {
+
+    private static final Logger LOGGER = Logger.getLogger(SmtpTransportPool.class.getName());
+
+    /**
+     * Idle time after which a connection is checked with a NOOP command before being reused
+     */
+    private static final long VALIDATION_INTERVAL_MILLIS = 5 * 1000;
+
+    private final BlockingDeque<PooledTransport> idleTransports = new LinkedBlockingDeque<>();
+    private final LongAdder openedConnections = new LongAdder();
+
+    /**
+     * Incremented when the pool is cleared, so the transports borrowed before are closed on release
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private int maxIdleConnections = 4;
+    private int maxMessagesPerConnection = 100;
+    private long maxIdleMillis = 60 * 1000;
+
+    /**
+     * Take an idle transport from the pool, or connect a new one.
+     *
+     * @param session : the mail session used to connect a new transport
+     * @return the connected transport, to be released or invalidated by the caller
+     * @throws MessagingException: exception thrown if the server cannot be reached or the login fails
+     */
+    public PooledTransport borrow(Session session) throws MessagingException {
+
+        PooledTransport pooledTransport;
+        while ((pooledTransport = idleTransports.pollFirst()) != null) {
+            if (isReusable(pooledTransport)) {
+                return pooledTransport;
+            }
+            close(pooledTransport);
+        }
+
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        openedConnections.increment();
+        return new PooledTransport(transport, generation.get());
+    }
+
+    /**
+     * Give back a transport that sent a message, to be reused by the next one.
+     */
+    public void release(PooledTransport pooledTransport) {
+
+        pooledTransport.messageCount++;
+        pooledTransport.lastUsed = System.currentTimeMillis();
+        if (pooledTransport.generation != generation.get()
+                || pooledTransport.messageCount >= maxMessagesPerConnection
+                || idleTransports.size() >= maxIdleConnections) {
+            close(pooledTransport);
+            return;
+        }
+        // the most recently used transport is reused first, so the extra ones expire
+        idleTransports.offerFirst(pooledTransport);
+    }
+
+    /**
+     * Close a transport whose connection may be broken.
+     */
+    public void invalidate(PooledTransport pooledTransport) {
+        close(pooledTransport);
+    }
+
+    /**
+     * Close the idle transports, and the borrowed ones when they are released. Used when the SMTP
+     * settings change.
+     */
+    public void clear() {
+
+        generation.incrementAndGet();
+        PooledTransport pooledTransport;
+        while ((pooledTransport = idleTransports.pollFirst()) != null) {
+            close(pooledTransport);
+        }
+    }
+
+    public int getIdleCount() {
+        return idleTransports.size();
+    }
+
+    /**
+     * @return the number of SMTP connections opened since the start of the application
+     */
+    public long getOpenedConnections() {
+        return openedConnections.sum();
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public void setMaxMessagesPerConnection(int maxMessagesPerConnection) {
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+    }
+
+    public void setMaxIdleMillis(long maxIdleMillis) {
+        this.maxIdleMillis = maxIdleMillis;
+    }
+
+    private boolean isReusable(PooledTransport pooledTransport) {
+
+        long idleMillis = System.currentTimeMillis() - pooledTransport.lastUsed;
+        if (pooledTransport.generation != generation.get() || idleMillis > maxIdleMillis) {
+            return false;
+        }
+        // the server may have dropped a connection left idle for a while
+        return idleMillis < VALIDATION_INTERVAL_MILLIS || pooledTransport.transport.isConnected();
+    }
+
+    private void close(PooledTransport pooledTransport) {
+
+        try {
+            pooledTransport.transport.close();
+        } catch (MessagingException e) {
+            LOGGER.fine("Cannot close the SMTP connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Connected transport, with the number of messages it sent
+     */
+    public static class PooledTransport {
+
+        private final Transport transport;
+        private final int generation;
+        private int messageCount;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport, int generation) {
+            this.transport = transport;
+            this.generation = generation;
+        }
+
+        public Transport getTransport() {
+            return transport;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.TheAccountant.util;
 
+import com.TheAccountant.app.authentication.SessionAuthentication;
 import com.TheAccountant.controller.exception.BadRequestException;
 import com.TheAccountant.controller.exception.UnauthorizedException;
 import com.TheAccountant.dao.AppUserDao;
@@ -10,13 +11,14 @@ import com.TheAccountant.model.category.Category;
 import com.TheAccountant.model.user.AppUser;
 import com.TheAccountant.model.user.ForgotPassword;
 import com.TheAccountant.model.user.UserRegistration;
+import com.TheAccountant.service.EmailOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-
-import javax.mail.MessagingException;
 import java.util.UUID;
 
 /**
@@ -34,6 +36,9 @@ public class UserUtil {
     
     @Autowired
     private EmailSender emailSender;
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
     
     @Autowired
     private AppUserDao appUserDao;
@@ -48,34 +53,28 @@ public class UserUtil {
 
     
     /**
-     * Method that will generate and send a registration code to the specified user email.
+     * Method that will generate a registration code and queue its email to the specified user. The email
+     * is sent after the current transaction commits.
      * 
      * @param user : currently registered user.
-     * 
-     * @throws MessagingException:
- *              exception that is thrown in case of any issues sending the email
-     *          to the user's address
      */
-    public void generateAccountRegistration(AppUser user) throws MessagingException {
+    public void generateAccountRegistration(AppUser user) {
     
         String code = UUID.randomUUID().toString();
         UserRegistration userRegistration = new UserRegistration();
         userRegistration.setCode(code);
         userRegistration.setUser(user);
         userRegistrationDao.saveAndFlush(userRegistration);
-        emailSender.sendUserRegistrationEmail(user, code);
+        emailOutboxService.enqueue(emailSender.createUserRegistrationEmail(user, code));
     }
 
     /**
-     * Method that will generate and send a code to the specified user email for
-     * renewing the forgotten password.
+     * Method that will generate a code for renewing the forgotten password and queue its email to the
+     * specified user. The email is sent after the current transaction commits.
      *
      * @param user : the user that requests the renewal of the password
-     * @throws MessagingException:
-     *          exception that is thrown in case of any issues sending the email
-     *          to the user's address
      */
-    public void generateForgotPassword(AppUser user) throws MessagingException {
+    public void generateForgotPassword(AppUser user) {
 
         String code = UUID.randomUUID().toString();
 
@@ -89,25 +88,43 @@ public class UserUtil {
         forgotPasswordEntity.setCode(code);
         forgotPasswordEntity.setUser(user);
         forgotPasswordDao.saveAndFlush(forgotPasswordEntity);
-        emailSender.sendForgotPasswordEmail(user, code);
+        emailOutboxService.enqueue(emailSender.createForgotPasswordEmail(user, code));
     }
 
     /**
      * Extracts an appUser from the database based on the authentication string registered
      * on session.
-     * The authentication string can be the username or the email of the user. 
+     * The authentication string can be the username or the email of the user.
+     * The user is loaded at most once per request: it is kept as principal of the
+     * {@link SessionAuthentication} registered by the authentication filter for the current request.
      * 
      * @return
      *      the user from the database or throws {@link UnauthorizedException} if the user
      *      cannot be found.
      */
     public AppUser extractLoggedAppUserFromDatabase() {
-        String loginString = ControllerUtil.getCurrentLoggedUsername();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String loginString = authentication == null ? null : authentication.getName();
+        if (!(authentication instanceof SessionAuthentication)) {
+            return findAppUser(loginString);
+        }
+        SessionAuthentication sessionAuthentication = (SessionAuthentication) authentication;
+        AppUser appUser = sessionAuthentication.getPrincipal();
+        if (appUser == null || !isLoggedWith(appUser, loginString)) {
+            appUser = findAppUser(loginString);
+            sessionAuthentication.setPrincipal(appUser);
+        }
+        return appUser;
+    }
+
+    private AppUser findAppUser(String loginString) {
         AppUser appUser = null;
-        if (emailValidator.validate(loginString)) {
-            appUser = appUserDao.findByEmail(loginString);
-        } else {
-            appUser = appUserDao.findByUsername(loginString);
+        if (loginString != null) {
+            if (emailValidator.validate(loginString)) {
+                appUser = appUserDao.findByEmail(loginString);
+            } else {
+                appUser = appUserDao.findByUsername(loginString);
+            }
         }
         if (appUser == null) {
             throw new UnauthorizedException("Unauthorized attempt!");
@@ -115,6 +132,10 @@ public class UserUtil {
         return appUser;
     }
 
+    private boolean isLoggedWith(AppUser appUser, String loginString) {
+        return loginString != null
+                && (loginString.equals(appUser.getUsername()) || loginString.equals(appUser.getEmail()));
+    }
 
     public void generateDefaultCategoriesForUser(AppUser appUser){
         CategoryUtil.DEFAULT_CATEGORIES.forEach(category -> {
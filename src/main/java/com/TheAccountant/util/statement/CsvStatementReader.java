@@ -0,0 +1,169 @@
+package com.TheAccountant.util.statement;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link StatementReader} for CSV statements. Fields may be quoted with double quotes, a quoted field
+ * can contain delimiters, line breaks and escaped quotes ("").
+ * The columns are mapped by position to the field names received in the constructor; an empty name
+ * marks a column that is ignored.
+ * A record longer than the maximum length, for example because of an unterminated quote, is rejected and
+ * the reading continues from the next line.
+ */
+public class CsvStatementReader implements StatementReader {
+
+    private static final int END = -1;
+
+    /**
+     * Default maximum number of characters of a record, quoted line breaks included
+     */
+    public static final int DEFAULT_MAX_RECORD_LENGTH = 64 * 1024;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final List<String> columns;
+    private final int maxRecordLength;
+    private boolean skipHeader;
+    private long rowNumber;
+    private int nextChar = -2;
+    private boolean recordTooLong;
+
+    public CsvStatementReader(Reader reader, char delimiter, List<String> columns, boolean skipHeader) {
+        this(reader, delimiter, columns, skipHeader, DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    public CsvStatementReader(Reader reader, char delimiter, List<String> columns, boolean skipHeader,
+                              int maxRecordLength) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.columns = columns;
+        this.skipHeader = skipHeader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    @Override
+    public Map<String, String> readRow() throws IOException {
+
+        if (skipHeader) {
+            skipHeader = false;
+            readFields();
+        }
+        List<String> fields;
+        do {
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (!recordTooLong && fields.size() == 1 && fields.get(0).trim().isEmpty());
+
+        rowNumber++;
+        if (recordTooLong) {
+            throw new IllegalArgumentException("Record longer than " + maxRecordLength + " characters");
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int index = 0; index < columns.size() && index < fields.size(); index++) {
+            String column = columns.get(index);
+            if (!column.isEmpty()) {
+                row.put(column, fields.get(index).trim());
+            }
+        }
+        return row;
+    }
+
+    @Override
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * @return the fields of the next line, or null at the end of the input. If the record is too long, the
+     * rest of its line is skipped and {@link #recordTooLong} is set.
+     */
+    List<String> readFields() throws IOException {
+
+        recordTooLong = false;
+        int c = read();
+        if (c == END) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int recordLength = 0;
+        while (true) {
+            boolean lineEnd = !quoted && (c == END || c == '\n' || c == '\r');
+            if (!lineEnd && ++recordLength > maxRecordLength) {
+                recordTooLong = true;
+                skipLine(c);
+                break;
+            }
+            if (quoted) {
+                if (c == END) {
+                    break;
+                } else if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (lineEnd) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                break;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Skip the characters up to the end of the current line, ignoring the quotes
+     */
+    private void skipLine(int c) throws IOException {
+        while (c != END && c != '\n' && c != '\r') {
+            c = read();
+        }
+        if (c == '\r' && peek() == '\n') {
+            read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (nextChar != -2) {
+            int c = nextChar;
+            nextChar = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (nextChar == -2) {
+            nextChar = reader.read();
+        }
+        return nextChar;
+    }
+}
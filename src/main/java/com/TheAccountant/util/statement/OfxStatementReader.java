@@ -0,0 +1,157 @@
+package com.TheAccountant.util.statement;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link StatementReader} for OFX statements, both the SGML (1.x) and the XML (2.x) flavours.
+ * The statement is scanned tag by tag and every STMTTRN aggregate is returned as a row:
+ * DTPOSTED, TRNAMT, NAME, MEMO and the currency (CURRENCY/CURSYM or the statement CURDEF).
+ * A transaction longer than the maximum length is rejected; tags and values are never buffered beyond
+ * that length, even outside of the transactions.
+ */
+public class OfxStatementReader implements StatementReader {
+
+    private static final int END = -1;
+    private static final String TRANSACTION_TAG = "STMTTRN";
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private long rowNumber;
+    private String statementCurrency;
+    private int nextChar = -2;
+    private long transactionLength;
+
+    public OfxStatementReader(Reader reader) {
+        this(reader, CsvStatementReader.DEFAULT_MAX_RECORD_LENGTH);
+    }
+
+    public OfxStatementReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    @Override
+    public Map<String, String> readRow() throws IOException {
+
+        Map<String, String> transaction = null;
+        String tag;
+        while ((tag = readTag()) != null) {
+            if (tag.equals(TRANSACTION_TAG)) {
+                transaction = new HashMap<>();
+                transactionLength = 0;
+            } else if (tag.equals("/" + TRANSACTION_TAG)) {
+                if (transaction != null) {
+                    rowNumber++;
+                    if (transactionLength > maxRecordLength) {
+                        throw new IllegalArgumentException("Transaction longer than " + maxRecordLength + " characters");
+                    }
+                    return toRow(transaction);
+                }
+            } else if (!tag.startsWith("/")) {
+                String value = readValue();
+                if (!value.isEmpty()) {
+                    if (tag.equals("CURDEF")) {
+                        statementCurrency = value;
+                    } else if (transaction != null && transactionLength <= maxRecordLength) {
+                        transaction.put(tag, value);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long getRowNumber() {
+        return rowNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<String, String> toRow(Map<String, String> transaction) {
+
+        Map<String, String> row = new HashMap<>();
+        String postedDate = transaction.get("DTPOSTED");
+        if (postedDate != null && postedDate.length() >= 8) {
+            // yyyyMMdd[HHmmss[.XXX]][[gmt offset[:tz name]]]
+            row.put(StatementRowMapper.DATE, postedDate.substring(0, 8));
+        }
+        row.put(StatementRowMapper.AMOUNT, transaction.get("TRNAMT"));
+        String name = transaction.containsKey("NAME") ? transaction.get("NAME") : transaction.get("MEMO");
+        row.put(StatementRowMapper.NAME, name);
+        row.put(StatementRowMapper.DESCRIPTION, transaction.get("MEMO"));
+        String currency = transaction.containsKey("CURSYM") ? transaction.get("CURSYM") : statementCurrency;
+        if (currency != null) {
+            row.put(StatementRowMapper.CURRENCY, currency);
+        }
+        return row;
+    }
+
+    /**
+     * @return the name of the next tag, with a leading '/' for closing tags, or null at the end of the input
+     */
+    private String readTag() throws IOException {
+
+        int c;
+        do {
+            c = read();
+        } while (c != END && c != '<');
+        if (c == END) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder();
+        while ((c = read()) != END && c != '>') {
+            if (tag.length() < maxRecordLength) {
+                tag.append((char) c);
+            }
+        }
+        return tag.toString().trim().toUpperCase();
+    }
+
+    /**
+     * @return the text that follows the last tag, up to the next tag
+     */
+    private String readValue() throws IOException {
+
+        StringBuilder value = new StringBuilder();
+        int c;
+        while ((c = peek()) != END && c != '<') {
+            read();
+            if (value.length() < maxRecordLength) {
+                value.append((char) c);
+            }
+        }
+        return unescape(value.toString().trim());
+    }
+
+    private String unescape(String value) {
+        return value.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    /**
+     * Read the next character, counting it in the length of the current transaction
+     */
+    private int read() throws IOException {
+        transactionLength++;
+        if (nextChar != -2) {
+            int c = nextChar;
+            nextChar = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private int peek() throws IOException {
+        if (nextChar == -2) {
+            nextChar = reader.read();
+        }
+        return nextChar;
+    }
+}
@@ -0,0 +1,28 @@
+package com.TheAccountant.util.statement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reader of the transactions of a bank statement, one transaction at a time, without loading the
+ * whole statement in memory. Each transaction is returned as a map between the field names defined
+ * in {@link StatementRowMapper} and the raw values of the statement.
+ */
+public interface StatementReader extends Closeable {
+
+    /**
+     * @return the fields of the next transaction, or null at the end of the statement
+     * @throws IllegalArgumentException
+     *      if the next transaction is malformed; it counts as a row and the following call reads the
+     *      transaction after it
+     * @throws IOException
+     *      if the statement cannot be read
+     */
+    Map<String, String> readRow() throws IOException;
+
+    /**
+     * @return the number of the last row returned by {@link #readRow()}, starting from 1
+     */
+    long getRowNumber();
+}
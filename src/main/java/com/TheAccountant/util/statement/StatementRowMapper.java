@@ -0,0 +1,191 @@
+package com.TheAccountant.util.statement;
+
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.model.category.Category;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.income.Income;
+import com.TheAccountant.util.CurrencyUtil;
+
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the rows read by a {@link StatementReader} to {@link Expense} or {@link Income} entities.
+ * The user and the category entities are resolved by the caller; the category of an expense only
+ * carries the category name.
+ * Amounts may use '.' or ',' as decimal separator, the other one being the grouping separator. When the
+ * decimal separator is not specified, it is inferred from each amount and an amount whose separator could
+ * be either one (1,234 or 1.234) is rejected.
+ */
+public class StatementRowMapper {
+
+    public static final String DATE = "date";
+    public static final String NAME = "name";
+    public static final String DESCRIPTION = "description";
+    public static final String AMOUNT = "amount";
+    public static final String CURRENCY = "currency";
+    public static final String CATEGORY = "category";
+
+    /**
+     * Kind of entities created from the rows of a statement
+     */
+    public enum Type {
+        /** every row is an expense */
+        EXPENSE,
+        /** every row is an income */
+        INCOME,
+        /** negative amounts are expenses, positive amounts are incomes */
+        AUTO
+    }
+
+    private static final Pattern AMOUNT_PATTERN = Pattern.compile("[-+]?(\\d+(\\.\\d*)?|\\.\\d+)");
+
+    private final Type type;
+    private final SimpleDateFormat dateFormat;
+    private final String defaultCurrency;
+    private final String defaultCategory;
+    private final Character decimalSeparator;
+
+    public StatementRowMapper(Type type, String dateFormat, String defaultCurrency, String defaultCategory) {
+        this(type, dateFormat, defaultCurrency, defaultCategory, null);
+    }
+
+    /**
+     * @param decimalSeparator
+     *      '.' or ',', or null to infer it from each amount
+     */
+    public StatementRowMapper(Type type, String dateFormat, String defaultCurrency, String defaultCategory,
+                              Character decimalSeparator) {
+        if (decimalSeparator != null && decimalSeparator != '.' && decimalSeparator != ',') {
+            throw new IllegalArgumentException("Wrong decimal separator [" + decimalSeparator + "]");
+        }
+        this.type = type;
+        this.decimalSeparator = decimalSeparator;
+        this.dateFormat = new SimpleDateFormat(dateFormat);
+        this.dateFormat.setLenient(false);
+        this.defaultCurrency = defaultCurrency;
+        this.defaultCategory = defaultCategory;
+    }
+
+    /**
+     * @param row
+     *      the fields of a statement row
+     * @return a new {@link Expense} or {@link Income}
+     * @throws IllegalArgumentException
+     *      if the row is not valid, with the reason as message
+     */
+    public CurrencyHolderEntity map(Map<String, String> row) {
+
+        double amount = parseAmount(row.get(AMOUNT));
+        Timestamp creationDate = parseDate(row.get(DATE));
+        String currency = isEmpty(row.get(CURRENCY)) ? defaultCurrency : row.get(CURRENCY).toUpperCase();
+        if (CurrencyUtil.getCurrency(currency) == null) {
+            throw new IllegalArgumentException("Wrong currency code [" + currency + "]");
+        }
+        String description = row.get(DESCRIPTION);
+        String name = isEmpty(row.get(NAME)) ? description : row.get(NAME);
+        if (isEmpty(name)) {
+            throw new IllegalArgumentException("Missing name");
+        }
+
+        CurrencyHolderEntity entity;
+        if (type == Type.EXPENSE || (type == Type.AUTO && amount < 0)) {
+            Expense expense = new Expense();
+            expense.setName(name);
+            expense.setDescription(description);
+            String categoryName = isEmpty(row.get(CATEGORY)) ? defaultCategory : row.get(CATEGORY);
+            Category category = new Category();
+            category.setName(categoryName);
+            expense.setCategory(category);
+            entity = expense;
+        } else {
+            Income income = new Income();
+            income.setName(name);
+            income.setDescription(description);
+            entity = income;
+        }
+        entity.setAmount(Math.abs(amount));
+        entity.setCurrency(currency);
+        entity.setCreationDate(creationDate);
+        return entity;
+    }
+
+    private double parseAmount(String value) {
+
+        if (isEmpty(value)) {
+            throw new IllegalArgumentException("Missing amount");
+        }
+        String amount = value.replace(" ", "").replace("\u00a0", "");
+        char separator = decimalSeparator != null ? decimalSeparator : inferDecimalSeparator(amount, value);
+        char groupingSeparator = separator == '.' ? ',' : '.';
+
+        int separatorIndex = amount.indexOf(separator);
+        String integerPart = amount;
+        String fractionPart = "";
+        if (separatorIndex >= 0) {
+            integerPart = amount.substring(0, separatorIndex);
+            fractionPart = amount.substring(separatorIndex);
+            if (fractionPart.indexOf(separator, 1) >= 0 || fractionPart.indexOf(groupingSeparator) >= 0) {
+                throw new IllegalArgumentException("Invalid amount [" + value + "]");
+            }
+        }
+        String[] groups = integerPart.split(Pattern.quote(String.valueOf(groupingSeparator)), -1);
+        for (int index = 1; index < groups.length; index++) {
+            // every group after a grouping separator has three digits
+            if (groups[index].length() != 3 || groups[0].replaceAll("[-+]", "").isEmpty()) {
+                throw new IllegalArgumentException("Invalid amount [" + value + "]");
+            }
+        }
+        String normalizedAmount = String.join("", groups) + fractionPart.replace(separator, '.');
+        if (!AMOUNT_PATTERN.matcher(normalizedAmount).matches()) {
+            throw new IllegalArgumentException("Invalid amount [" + value + "]");
+        }
+        return Double.parseDouble(normalizedAmount);
+    }
+
+    /**
+     * The last separator of an amount is the decimal separator, unless it is repeated. A single separator
+     * followed by three digits is ambiguous, except after a zero integer part.
+     */
+    private char inferDecimalSeparator(String amount, String value) {
+
+        int lastDot = amount.lastIndexOf('.');
+        int lastComma = amount.lastIndexOf(',');
+        if (lastDot >= 0 && lastComma >= 0) {
+            return lastDot > lastComma ? '.' : ',';
+        }
+        int lastSeparator = Math.max(lastDot, lastComma);
+        if (lastSeparator < 0) {
+            return '.';
+        }
+        char separator = amount.charAt(lastSeparator);
+        if (amount.indexOf(separator) != lastSeparator) {
+            return separator == '.' ? ',' : '.';
+        }
+        String integerPart = amount.substring(0, lastSeparator).replaceAll("[-+]", "");
+        boolean zeroIntegerPart = integerPart.isEmpty() || integerPart.equals("0");
+        if (amount.length() - lastSeparator - 1 == 3 && !zeroIntegerPart) {
+            throw new IllegalArgumentException("Ambiguous amount [" + value + "], the decimal separator must be specified");
+        }
+        return separator;
+    }
+
+    private Timestamp parseDate(String value) {
+
+        if (isEmpty(value)) {
+            throw new IllegalArgumentException("Missing date");
+        }
+        try {
+            return new Timestamp(dateFormat.parse(value).getTime());
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid date [" + value + "]");
+        }
+    }
+
+    private boolean isEmpty(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
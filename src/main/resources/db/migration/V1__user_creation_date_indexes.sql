@@ -0,0 +1,11 @@
+-- Composite indexes for the queries reading the rows of a user in a time interval or ordered by creation date
+
+CREATE INDEX IF NOT EXISTS expense_user_creation_date_index ON expense (userid, creationdate);
+
+CREATE INDEX IF NOT EXISTS expense_user_category_creation_date_index ON expense (userid, category_id, creationdate);
+
+CREATE INDEX IF NOT EXISTS income_user_creation_date_index ON income (user_id, creationdate);
+
+CREATE INDEX IF NOT EXISTS loan_user_creation_date_index ON loan (user_id, creationdate);
+
+CREATE INDEX IF NOT EXISTS notification_user_creation_date_index ON notification (user_id, creationdate);
@@ -0,0 +1,5 @@
+-- Indexes on the owner foreign keys of the tables only read by user, not covered by the composite indexes of V1
+
+CREATE INDEX IF NOT EXISTS category_user_index ON category (userid);
+
+CREATE INDEX IF NOT EXISTS counterparty_user_index ON counterparty (user_id);
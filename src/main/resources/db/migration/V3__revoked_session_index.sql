@@ -0,0 +1,5 @@
+-- Sessions revoked since the last synchronization, read by each node every few seconds to refresh its deny list
+-- of session tokens
+
+CREATE INDEX IF NOT EXISTS authenticated_session_revocation_time_index ON authenticated_session (revocationtime)
+    WHERE revocationtime IS NOT NULL;
@@ -0,0 +1,104 @@
+package com.TheAccountant.benchmark;
+
+import com.TheAccountant.converter.ExpenseConverter;
+import com.TheAccountant.dto.expense.ExpenseDTO;
+import com.TheAccountant.model.category.Category;
+import com.TheAccountant.model.expense.Expense;
+import org.dozer.DozerBeanMapperSingletonWrapper;
+import org.dozer.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the conversion of an expense listing through Dozer, as done by the converters before, with
+ * the handwritten {@link ExpenseConverter}. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.TheAccountant.benchmark.ExpenseConverterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class ExpenseConverterBenchmark {
+
+    private static final int CATEGORY_COUNT = 20;
+
+    @Param("10000")
+    private int expenseCount;
+
+    private List<Expense> expenses;
+
+    private final ExpenseConverter expenseConverter = new ExpenseConverter();
+
+    @Setup
+    public void createExpenses() {
+
+        List<Category> categories = new ArrayList<>(CATEGORY_COUNT);
+        for (int i = 0; i < CATEGORY_COUNT; i++) {
+            Category category = new Category("Category" + i, "stable");
+            category.setId(i);
+            categories.add(category);
+        }
+        long now = System.currentTimeMillis();
+        expenses = new ArrayList<>(expenseCount);
+        for (int i = 0; i < expenseCount; i++) {
+            Expense expense = new Expense();
+            expense.setId(i);
+            expense.setName("Expense" + i);
+            expense.setDescription("Description" + i);
+            expense.setCategory(categories.get(i % CATEGORY_COUNT));
+            expense.setAmount(10D + i);
+            expense.setCurrency("RON");
+            expense.setDefaultCurrency("EUR");
+            expense.setDefaultCurrencyAmount(2.2D + i);
+            expense.setFrequency(i % 2 == 0 ? null : 30);
+            expense.setCreationDate(new Timestamp(now - i * 1000L));
+            expenses.add(expense);
+        }
+    }
+
+    @Benchmark
+    public List<ExpenseDTO> dozer() {
+
+        List<ExpenseDTO> expenseDTOs = new ArrayList<>();
+        for (Expense expense : expenses) {
+            ExpenseDTO expenseDTO = new ExpenseDTO();
+            Mapper mapper = DozerBeanMapperSingletonWrapper.getInstance();
+            mapper.map(expense, expenseDTO);
+            expenseDTOs.add(expenseDTO);
+        }
+        return expenseDTOs;
+    }
+
+    @Benchmark
+    public List<ExpenseDTO> handwritten() {
+        return expenseConverter.convertToList(expenses);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder()
+                .include(ExpenseConverterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package com.TheAccountant.benchmark;
+
+import com.TheAccountant.util.PasswordEncrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the password check done by '/user/login' for several PBKDF2 iteration counts, with logins
+ * arriving on more threads than the hashing pool has, so the percentiles include the wait for a hashing
+ * thread. The 'passwordEncrypt.iterations' setting should be the highest count whose p99 stays within
+ * the login budget on the production hardware. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.TheAccountant.benchmark.PasswordHashBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class PasswordHashBenchmark {
+
+    private static final String PASSWORD = "Password1234";
+
+    @Param({"60000", "120000", "210000", "310000"})
+    private int iterations;
+
+    @Param("2")
+    private int hashingThreads;
+
+    private PasswordEncrypt passwordEncrypt;
+
+    private String storedHash;
+
+    @Setup
+    public void createPasswordEncrypt() {
+
+        passwordEncrypt = new PasswordEncrypt();
+        passwordEncrypt.setIterations(iterations);
+        passwordEncrypt.setHashingThreads(hashingThreads);
+        passwordEncrypt.startHashingExecutor();
+        storedHash = passwordEncrypt.encryptPassword(PASSWORD);
+    }
+
+    @TearDown
+    public void stopPasswordEncrypt() {
+        passwordEncrypt.stopHashingExecutor();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return passwordEncrypt.matches(PASSWORD, storedHash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+
+        new Runner(new OptionsBuilder()
+                .include(PasswordHashBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,5 +1,7 @@
 package com.TheAccountant.controller;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Currency;
 import java.util.Date;
 import java.util.List;
@@ -106,7 +108,7 @@ public class AppUserControllerTest {
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertTrue(((AppUserDTO) responseEntity.getBody()).getUserId() > 0);
 
-        List<Category> defaultCategories = categoryDao.findByUsername (appUser.getUsername());
+        List<Category> defaultCategories = categoryDao.findByUserId(appUser.getUserId());
         assertNotNull(defaultCategories);
         appUserDao.delete(appUser.getUserId());
         appUserDao.flush();
@@ -310,6 +312,36 @@ public class AppUserControllerTest {
         String authorizationString = sessionService.encodeUsernameAndPassword(email, uncryptedPassword);
         ResponseEntity<?> loginResponseEntity = appUserController.login(authorizationString);
         assertEquals(HttpStatus.OK, loginResponseEntity.getStatusCode());
+        String sessionToken = loginResponseEntity.getHeaders().getFirst(AppUserController.SESSION_TOKEN_HEADER);
+        assertEquals(appUser.getUsername(), sessionService.validateSessionToken("Bearer " + sessionToken,
+                "1.1.1.1").getUsername());
+        appUserDao.delete(appUser.getUserId());
+        appUserDao.flush();
+    }
+
+    @Test
+    public void shouldRehashLegacyPasswordOnLogin() throws NoSuchAlgorithmException {
+
+        AppUser appUser = createAppUser(FIRST_NAME);
+        String uncryptedPassword = appUser.getPassword();
+        StringBuilder legacyHash = new StringBuilder();
+        for (byte hashByte : MessageDigest.getInstance(passwordEncrypt.getAlgorithm()).digest(uncryptedPassword.getBytes())) {
+            legacyHash.append(String.format("%02x", hashByte));
+        }
+        String legacyPassword = legacyHash.toString();
+        appUser.setPassword(legacyPassword);
+        appUser.setActivated(true);
+        appUserDao.save(appUser);
+
+        String authorizationString = sessionService.encodeUsernameAndPassword(appUser.getUsername(), uncryptedPassword);
+        ResponseEntity<?> loginResponseEntity = appUserController.login(authorizationString);
+        assertEquals(HttpStatus.OK, loginResponseEntity.getStatusCode());
+
+        String rehashedPassword = appUserDao.findOne(appUser.getUserId()).getPassword();
+        assertNotEquals(legacyPassword, rehashedPassword);
+        assertFalse(passwordEncrypt.needsRehash(rehashedPassword));
+        assertTrue(passwordEncrypt.matches(uncryptedPassword, rehashedPassword));
+
         appUserDao.delete(appUser.getUserId());
         appUserDao.flush();
     }
@@ -391,9 +423,8 @@ public class AppUserControllerTest {
         appUserController.changePassword(changePasswordDTO);
 
         appUser = appUserDao.findOne(appUser.getUserId());
-        assertEquals("The password for the user should be changed!",
-                passwordEncrypt.encryptPassword(newPassword),
-                appUser.getPassword());
+        assertTrue("The password for the user should be changed!",
+                passwordEncrypt.matches(newPassword, appUser.getPassword()));
 
         appUserDao.delete(appUser.getUserId());
         appUserDao.flush();
@@ -627,9 +658,8 @@ public class AppUserControllerTest {
         }
 
         appUser = appUserDao.findOne(appUser.getUserId());
-        assertEquals("The new password was NOT set for the User",
-                passwordEncrypt.encryptPassword(newPassword),
-                appUser.getPassword());
+        assertTrue("The new password was NOT set for the User",
+                passwordEncrypt.matches(newPassword, appUser.getPassword()));
 
         List<ForgotPassword> forgotPasswordList = forgotPasswordDao.findByUserId(appUser.getUserId());
         assertTrue("Should delete used ForgotPassword entity", forgotPasswordList == null || forgotPasswordList.isEmpty());
@@ -653,7 +683,11 @@ public class AppUserControllerTest {
         ResponseEntity<?> loginResponseEntity = appUserController.login(authorizationString);
         assertEquals(HttpStatus.OK, loginResponseEntity.getStatusCode());
 
+        // the Basic credentials of the login do not open a session of their own
         ResponseEntity<?> logoutResponse = appUserController.logout(authorizationString);
+        assertEquals(HttpStatus.BAD_REQUEST, logoutResponse.getStatusCode());
+        String sessionToken = loginResponseEntity.getHeaders().getFirst(AppUserController.SESSION_TOKEN_HEADER);
+        logoutResponse = appUserController.logout("Bearer " + sessionToken);
         assertEquals(HttpStatus.OK, logoutResponse.getStatusCode());
         appUserDao.delete(appUser.getUserId());
         appUserDao.flush();
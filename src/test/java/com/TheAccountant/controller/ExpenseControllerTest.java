@@ -3,6 +3,8 @@ package com.TheAccountant.controller;
 import static com.TheAccountant.controller.PaymentControllerTest.TEST_TOKEN;
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.util.Currency;
 import java.util.Date;
@@ -13,17 +15,21 @@ import com.TheAccountant.dto.charge.ChargeDTO;
 import com.TheAccountant.dto.notification.NotificationEntityWrapperDTO;
 import com.TheAccountant.model.notification.NotificationPriority;
 import com.TheAccountant.service.NotificationService;
+import com.TheAccountant.service.impl.ExchangeRateServiceImpl;
 import com.TheAccountant.testUtil.TestMockUtil;
+import org.json.JSONArray;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.TheAccountant.controller.exception.BadRequestException;
 import com.TheAccountant.controller.exception.NotFoundException;
@@ -31,6 +37,9 @@ import com.TheAccountant.dao.AppUserDao;
 import com.TheAccountant.dao.CategoryDao;
 import com.TheAccountant.dao.ExpenseDao;
 import com.TheAccountant.dto.expense.ExpenseDTO;
+import com.TheAccountant.dto.expense.ExpenseReportDTO;
+import com.TheAccountant.dto.expense.ExpenseTotalDTO;
+import com.TheAccountant.dto.page.CursorPageDTO;
 import com.TheAccountant.model.category.Category;
 import com.TheAccountant.model.expense.Expense;
 import com.TheAccountant.model.user.AppUser;
@@ -73,12 +82,23 @@ public class ExpenseControllerTest {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ExchangeRateServiceImpl exchangeRateService;
+
     @Before
     public void setup() {
 
         applicationUser = createAndSaveAppUser(LOGGED_USERNAME, "florin.iacob.expense@gmail.com");
         ControllerUtil.setCurrentLoggedUser(LOGGED_USERNAME);
         category = createAndSaveCategory(applicationUser);
+        // the converted amounts are expected on a database without registered rates
+        exchangeRateService.setFetchOnMiss(true);
+    }
+
+    @After
+    public void restoreFetchOnMiss() {
+
+        exchangeRateService.setFetchOnMiss(false);
     }
 
     @Test
@@ -96,6 +116,42 @@ public class ExpenseControllerTest {
         assertTrue(responseBody.getEntityList().size() == 2);
     }
 
+    @Test
+    public void shouldCreateExpenseBatchWithOneCategoryPerName() {
+
+        Category newCategory = new Category();
+        newCategory.setName("batch_created_category");
+        Expense[] expenses = new Expense[100];
+        for (int i = 0; i < expenses.length; i++) {
+            expenses[i] = createExpense(i % 2 == 0 ? category : newCategory, applicationUser);
+        }
+
+        ResponseEntity<?> responseEntity = expenseController.createExpenses(expenses);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        NotificationEntityWrapperDTO responseBody = (NotificationEntityWrapperDTO) responseEntity.getBody();
+        assertEquals(100, responseBody.getEntityList().size());
+        assertEquals(100, expenseDao.findByUserId(applicationUser.getUserId()).size());
+        assertEquals(2, categoryDao.findByUserId(applicationUser.getUserId()).size());
+    }
+
+    @Test
+    public void shouldNotCreateAnyExpenseOfAnInvalidBatch() {
+
+        Expense[] expenses = new Expense[3];
+        expenses[0] = createExpense(category, applicationUser);
+        expenses[1] = createExpense(category, applicationUser);
+        expenses[2] = createExpense(category, applicationUser);
+        expenses[2].setCurrency("Pikachu");
+
+        try {
+            expenseController.createExpenses(expenses);
+            fail("Should not create an invalid batch of expenses!");
+        } catch (BadRequestException e) {
+            assertTrue(e.getMessage().contains("[2]"));
+        }
+        assertTrue(expenseDao.findByUserId(applicationUser.getUserId()).isEmpty());
+    }
+
     @Test
     public void shouldCreateExpenseWithDefaultCurrencyAndAmount() {
 
@@ -179,6 +235,41 @@ public class ExpenseControllerTest {
         assertEquals(expense.getName(), result.getName());
     }
 
+    @Test
+    public void shouldStreamAllExpenses() throws Exception {
+
+        Expense firstExpense = expenseDao.save(createExpense(category, applicationUser));
+        Expense secondExpense = createExpense(category, applicationUser);
+        secondExpense.setCreationDate(new Timestamp(firstExpense.getCreationDate().getTime() + 1000));
+        secondExpense = expenseDao.save(secondExpense);
+
+        ResponseEntity<StreamingResponseBody> responseEntity = expenseController.streamAllExpenses();
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+        JSONArray result = readStream(responseEntity);
+        assertEquals(2, result.length());
+        assertEquals(firstExpense.getId(), result.getJSONObject(0).getLong("id"));
+        assertEquals(secondExpense.getId(), result.getJSONObject(1).getLong("id"));
+        assertEquals(category.getName(), result.getJSONObject(0).getJSONObject("category").getString("name"));
+    }
+
+    @Test
+    public void shouldStreamExpensesOfCategoryAndTimeInterval() throws Exception {
+
+        Expense expense = expenseDao.save(createExpense(category, applicationUser));
+        long queryStartTime = expense.getCreationDate().getTime() - 1000;
+        long queryEndTime = expense.getCreationDate().getTime() + 1000;
+
+        JSONArray result = readStream(expenseController.streamExpensesByCategoryAndTimeInterval(
+                String.valueOf(category.getId()), queryStartTime, queryEndTime));
+        assertEquals(1, result.length());
+        assertEquals(expense.getName(), result.getJSONObject(0).getString("name"));
+
+        result = readStream(expenseController.streamExpensesByCategoryAndTimeInterval(
+                "*", queryEndTime, queryEndTime + 1000));
+        assertEquals(0, result.length());
+    }
+
     @Test
     public void shouldListAllExpenseByCategoryNameAndTimeInterval() {
 
@@ -541,6 +632,103 @@ public class ExpenseControllerTest {
         assertNull(responseBody.getNotification());
     }
 
+    @Test
+    public void shouldComputeExpenseTotalsByCategory() {
+
+        Category otherCategory = createAndSaveCategory(applicationUser, 0.0, "a_category_test_name");
+        saveExpense(category, "2017-05-19 10:00:00", 10D, null);
+        saveExpense(category, "2017-05-20 10:00:00", 10D, 45.5);
+        saveExpense(otherCategory, "2017-06-02 10:00:00", 7D, null);
+
+        ResponseEntity<ExpenseReportDTO> responseEntity = expenseController.getExpenseTotals("category",
+                Timestamp.valueOf("2017-05-01 00:00:00").getTime(), Timestamp.valueOf("2017-06-30 00:00:00").getTime());
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        ExpenseReportDTO report = responseEntity.getBody();
+        assertEquals("RON", report.getCurrency());
+        assertEquals(2, report.getTotals().size());
+        assertEquals(otherCategory.getId(), report.getTotals().get(0).getCategoryId().longValue());
+        assertEquals(7D, report.getTotals().get(0).getTotal(), 0.0001);
+        assertEquals(55.5, report.getTotals().get(1).getTotal(), 0.0001);
+        assertEquals(2, report.getTotals().get(1).getCount());
+    }
+
+    @Test
+    public void shouldComputeExpenseTotalsByMonth() {
+
+        saveExpense(category, "2017-05-19 10:00:00", 10D, null);
+        saveExpense(category, "2017-05-20 10:00:00", 10D, null);
+        saveExpense(category, "2017-06-02 10:00:00", 7D, null);
+        saveExpense(category, "2017-08-02 10:00:00", 7D, null);
+
+        ResponseEntity<ExpenseReportDTO> responseEntity = expenseController.getExpenseTotals("month",
+                Timestamp.valueOf("2017-05-01 00:00:00").getTime(), Timestamp.valueOf("2017-06-30 00:00:00").getTime());
+        List<ExpenseTotalDTO> totals = responseEntity.getBody().getTotals();
+        assertEquals(2, totals.size());
+        assertEquals(Timestamp.valueOf("2017-05-01 00:00:00"), totals.get(0).getPeriodStart());
+        assertEquals(20D, totals.get(0).getTotal(), 0.0001);
+        assertEquals(7D, totals.get(1).getTotal(), 0.0001);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void shouldNotComputeExpenseTotalsByUnknownGroup() {
+
+        expenseController.getExpenseTotals("year", 0, System.currentTimeMillis());
+    }
+
+    @Test
+    public void shouldListExpensePagesInCreationDateOrder() {
+
+        Expense firstExpense = saveExpense(category, "2017-05-01 10:00:00", 10D, null);
+        Expense secondExpense = saveExpense(category, "2017-05-02 10:00:00", 10D, null);
+        Expense thirdExpense = saveExpense(category, "2017-05-03 10:00:00", 10D, null);
+        long startTime = Timestamp.valueOf("2017-05-01 00:00:00").getTime();
+        long endTime = Timestamp.valueOf("2017-05-31 00:00:00").getTime();
+
+        ResponseEntity<CursorPageDTO<ExpenseDTO>> responseEntity =
+                expenseController.listExpensesPageByCategoryAndTimeInterval("*", startTime, endTime, 2, null);
+        List<ExpenseDTO> page = responseEntity.getBody().getItems();
+        assertEquals(2, page.size());
+        assertEquals(firstExpense.getId(), page.get(0).getId());
+        assertEquals(secondExpense.getId(), page.get(1).getId());
+
+        String nextCursor = responseEntity.getBody().getNextCursor();
+        assertNotNull(nextCursor);
+        responseEntity = expenseController.listExpensesPageByCategoryAndTimeInterval(String.valueOf(category.getId()),
+                startTime, endTime, 2, nextCursor);
+        page = responseEntity.getBody().getItems();
+        assertEquals(1, page.size());
+        assertEquals(thirdExpense.getId(), page.get(0).getId());
+        assertNull(responseEntity.getBody().getNextCursor());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void shouldNotListExpensePageWithInvalidLimit() {
+
+        expenseController.listExpensesPageByCategoryAndTimeInterval("*", 0, System.currentTimeMillis(), 0, null);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void shouldNotListExpensePageWithInvalidCursor() {
+
+        expenseController.listExpensesPageByCategoryAndTimeInterval("*", 0, System.currentTimeMillis(), 10, "invalid");
+    }
+
+    private Expense saveExpense(Category category, String creationDate, Double amount, Double defaultCurrencyAmount) {
+
+        Expense expense = createExpense(category, applicationUser);
+        expense.setCreationDate(Timestamp.valueOf(creationDate));
+        expense.setAmount(amount);
+        expense.setDefaultCurrencyAmount(defaultCurrencyAmount);
+        return expenseDao.saveAndFlush(expense);
+    }
+
+    private JSONArray readStream(ResponseEntity<StreamingResponseBody> responseEntity) throws Exception {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(outputStream);
+        return new JSONArray(new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     private Expense createExpense(Category category, AppUser user) {
 
         Expense expense = new Expense();
@@ -0,0 +1,207 @@
+package com.TheAccountant.controller;
+
+import com.TheAccountant.controller.exception.BadRequestException;
+import com.TheAccountant.controller.exception.NotFoundException;
+import com.TheAccountant.dao.AppUserDao;
+import com.TheAccountant.dao.ExpenseDao;
+import com.TheAccountant.dao.ImportJobDao;
+import com.TheAccountant.dao.ImportJobErrorDao;
+import com.TheAccountant.dao.IncomeDao;
+import com.TheAccountant.dto.importjob.ImportJobDTO;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.importjob.ImportJobStatus;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.util.ControllerUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test class for the import controller
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+public class ImportControllerTest {
+
+    private static final String LOGGED_USERNAME = "florin.e.iacob";
+
+    private AppUser applicationUser;
+    private List<Long> importJobIds = new ArrayList<>();
+
+    @Autowired
+    private ImportController importController;
+
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @Autowired
+    private ExpenseDao expenseDao;
+
+    @Autowired
+    private IncomeDao incomeDao;
+
+    @Autowired
+    private ImportJobDao importJobDao;
+
+    @Autowired
+    private ImportJobErrorDao importJobErrorDao;
+
+    @Before
+    public void setup() {
+
+        applicationUser = createAndSaveAppUser(LOGGED_USERNAME, "florin.iacob.import@gmail.com");
+        ControllerUtil.setCurrentLoggedUser(LOGGED_USERNAME);
+    }
+
+    @After
+    public void cleanUp() {
+
+        for (Long importJobId : importJobIds) {
+            importJobErrorDao.delete(importJobErrorDao.findByJobIdOrderByRowNumberAsc(importJobId, new PageRequest(0, 10000)));
+            importJobDao.delete(importJobId);
+        }
+        appUserDao.delete(applicationUser.getUserId());
+        appUserDao.flush();
+    }
+
+    @Test
+    public void shouldImportCsvStatement() throws InterruptedException {
+
+        StringBuilder csv = new StringBuilder("Date,Name,Category,Amount\n");
+        for (int i = 1; i <= 1200; i++) {
+            csv.append("2017-05-20,Row ").append(i).append(",").append(i % 2 == 0 ? "Food" : "").append(",").append(i % 3 == 0 ? "250" : "-12.5").append("\n");
+        }
+        csv.append("2017-13-45,Bad date,,-1\n");
+        csv.append("2017-05-20,Bad amount,,abc\n");
+
+        ResponseEntity<ImportJobDTO> responseEntity = importController.importStatement("csv", "AUTO", "date,name,category,amount",
+                ",", true, "yyyy-MM-dd", null, null, "Imported", toStream(csv.toString()));
+        importJobIds.add(responseEntity.getBody().getId());
+        assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+
+        ImportJobDTO importJob = waitForImportJob(responseEntity.getBody().getId());
+        assertEquals(ImportJobStatus.COMPLETED.name(), importJob.getStatus());
+        assertEquals(1202, importJob.getProcessedRows());
+        assertEquals(1200, importJob.getImportedRows());
+        assertEquals(2, importJob.getRejectedRows());
+        assertEquals(2, importJob.getRejectedRowList().size());
+        assertEquals(1201, importJob.getRejectedRowList().get(0).getIndex());
+
+        List<Expense> expenses = expenseDao.findByUserId(applicationUser.getUserId());
+        assertEquals(800, expenses.size());
+        assertEquals(400, incomeDao.findByUserId(applicationUser.getUserId()).size());
+        assertEquals(2, expenses.stream().map(expense -> expense.getCategory().getId()).distinct().count());
+        assertTrue(expenses.stream().allMatch(expense -> expense.getAmount() == 12.5));
+    }
+
+    @Test
+    public void shouldImportOfxStatement() throws InterruptedException {
+
+        String ofx = "<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><CURDEF>RON<BANKTRANLIST>"
+                + "<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20170520120000<TRNAMT>-12.30<NAME>Grocery</STMTTRN>"
+                + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20170521<TRNAMT>100.00<MEMO>Refund</STMTTRN>"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+
+        ResponseEntity<ImportJobDTO> responseEntity = importController.importStatement("ofx", "AUTO", "date,name,amount",
+                ",", true, "yyyy-MM-dd", null, null, "Imported", toStream(ofx));
+        importJobIds.add(responseEntity.getBody().getId());
+
+        assertEquals(2, waitForImportJob(responseEntity.getBody().getId()).getImportedRows());
+        assertEquals(1, expenseDao.findByUserId(applicationUser.getUserId()).size());
+        assertEquals(1, incomeDao.findByUserId(applicationUser.getUserId()).size());
+    }
+
+    @Test
+    public void shouldFindImportJob() throws InterruptedException {
+
+        ResponseEntity<ImportJobDTO> responseEntity = importController.importStatement("csv", "EXPENSE", "date,name,amount",
+                ",", false, "yyyy-MM-dd", null, "RON", "Imported", toStream("2017-05-20,Coffee,3.5\n"));
+        long importJobId = responseEntity.getBody().getId();
+        importJobIds.add(importJobId);
+        waitForImportJob(importJobId);
+
+        responseEntity = importController.getImportJob(importJobId, 100);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(1, responseEntity.getBody().getImportedRows());
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void shouldNotFindImportJob() {
+
+        importController.getImportJob(-1, 100);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void shouldNotImportUnknownFormat() {
+
+        importController.importStatement("xls", "AUTO", "date,name,amount", ",", true, "yyyy-MM-dd", null, null, "Imported",
+                toStream(""));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void shouldNotImportWithUnknownDecimalSeparator() {
+
+        importController.importStatement("csv", "AUTO", "date,name,amount", ";", true, "yyyy-MM-dd", "'", null, "Imported",
+                toStream(""));
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void shouldNotImportStatementLargerThanMaximum() {
+
+        importController.setMaxUploadBytes(10);
+        try {
+            importController.importStatement("csv", "EXPENSE", "date,name,amount", ",", false, "yyyy-MM-dd", null, "RON",
+                    "Imported", toStream("2017-05-20,Coffee,3.5\n"));
+        } finally {
+            importController.setMaxUploadBytes(50 * 1024 * 1024);
+        }
+    }
+
+    private ImportJobDTO waitForImportJob(long importJobId) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 30 * 1000;
+        ImportJobDTO importJob = importController.getImportJob(importJobId, 100).getBody();
+        while (ImportJobStatus.RUNNING.name().equals(importJob.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            importJob = importController.getImportJob(importJobId, 100).getBody();
+        }
+        return importJob;
+    }
+
+    private InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private AppUser createAndSaveAppUser(String username, String email) {
+
+        AppUser appUser = new AppUser();
+        appUser.setFirstName("Florin");
+        appUser.setSurname("Iacob");
+        appUser.setPassword("TEST_PASS");
+        appUser.setBirthdate(new Date());
+        appUser.setUsername(username);
+        appUser.setEmail(email);
+        appUser.setDefaultCurrency(Currency.getInstance("RON"));
+        appUser = appUserDao.saveAndFlush(appUser);
+        return appUser;
+    }
+}
@@ -20,9 +20,11 @@ import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import com.TheAccountant.dao.IncomeDao;
+import com.TheAccountant.dto.batch.BatchRowResultDTO;
 import com.TheAccountant.dto.income.IncomeDTO;
 import com.TheAccountant.model.income.Income;
 import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.impl.ExchangeRateServiceImpl;
 import com.TheAccountant.util.ControllerUtil;
 
 import static org.junit.Assert.*;
@@ -49,11 +51,16 @@ public class IncomeControllerTest {
     @Autowired
     private AppUserDao appUserDao;
 
+    @Autowired
+    private ExchangeRateServiceImpl exchangeRateService;
+
     @Before
     public void setup() {
 
         applicationUser = createAndSaveAppUser(LOGGED_USERNAME, "florin.iacob.expense@gmail.com");
         ControllerUtil.setCurrentLoggedUser(LOGGED_USERNAME);
+        // the converted amounts are expected on a database without registered rates
+        exchangeRateService.setFetchOnMiss(true);
     }
 
     @After
@@ -61,7 +68,7 @@ public class IncomeControllerTest {
 
         appUserDao.delete(applicationUser.getUserId());
         appUserDao.flush();
-
+        exchangeRateService.setFetchOnMiss(false);
     }
 
     @Test
@@ -81,6 +88,27 @@ public class IncomeControllerTest {
         assertTrue(((List<IncomeDTO>) responseEntity.getBody()).size() == 2);
     }
 
+    @Test
+    public void shouldImportIncomesWithResultPerRow() {
+
+        Income[] incomes = new Income[120];
+        for (int i = 0; i < incomes.length; i++) {
+            incomes[i] = createIncome();
+        }
+        incomes[7].setCurrency("IAC");
+        incomes[99].setName(null);
+
+        ResponseEntity<?> responseEntity = incomeController.importIncomes(incomes);
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        List<BatchRowResultDTO> results = (List<BatchRowResultDTO>) responseEntity.getBody();
+        assertEquals(120, results.size());
+        assertEquals(BatchRowResultDTO.STATUS_REJECTED, results.get(7).getStatus());
+        assertEquals(BatchRowResultDTO.STATUS_REJECTED, results.get(99).getStatus());
+        assertEquals(BatchRowResultDTO.STATUS_CREATED, results.get(8).getStatus());
+        assertTrue(results.get(8).getId() > 0);
+        assertEquals(118, incomeDao.findByUserId(applicationUser.getUserId()).size());
+    }
+
     @Test
     public void shouldNotCreateIncomeWithWrongCurrency() {
 
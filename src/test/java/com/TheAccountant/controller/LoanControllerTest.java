@@ -8,6 +8,7 @@ import com.TheAccountant.dto.loan.LoanDTO;
 import com.TheAccountant.model.counterparty.Counterparty;
 import com.TheAccountant.model.loan.Loan;
 import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.impl.ExchangeRateServiceImpl;
 import com.TheAccountant.testUtil.TestMockUtil;
 import com.TheAccountant.util.ControllerUtil;
 import org.junit.After;
@@ -63,6 +64,9 @@ public class LoanControllerTest {
     @Autowired
     private PaymentController paymentController;
 
+    @Autowired
+    private ExchangeRateServiceImpl exchangeRateService;
+
     @Before
     public void initialize() {
 
@@ -75,6 +79,14 @@ public class LoanControllerTest {
         ChargeDTO chargeDTO = TestMockUtil.createMockChargeDTO();
         chargeDTO.setStripeToken(TEST_TOKEN);
         paymentController.charge(chargeDTO);
+        // the converted amounts are expected on a database without registered rates
+        exchangeRateService.setFetchOnMiss(true);
+    }
+
+    @After
+    public void restoreFetchOnMiss() {
+
+        exchangeRateService.setFetchOnMiss(false);
     }
 
     @Test
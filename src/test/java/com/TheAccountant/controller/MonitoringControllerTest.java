@@ -0,0 +1,74 @@
+package com.TheAccountant.controller;
+
+import com.TheAccountant.controller.exception.ForbiddenException;
+import com.TheAccountant.controller.monitoring.MonitoringController;
+import com.TheAccountant.dao.AppUserDao;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.util.ControllerUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.transaction.Transactional;
+import java.util.Currency;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for the access checks of the {@link MonitoringController}
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
+public class MonitoringControllerTest {
+
+    private static final String LOGGED_USERNAME = "monitoring.admin";
+
+    @Autowired
+    private MonitoringController monitoringController;
+
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @Before
+    public void setup() {
+
+        AppUser appUser = new AppUser();
+        appUser.setFirstName("Florin");
+        appUser.setSurname("Iacob");
+        appUser.setPassword("TEST_PASS");
+        appUser.setBirthdate(new Date());
+        appUser.setUsername(LOGGED_USERNAME);
+        appUser.setEmail("monitoring.admin@gmail.com");
+        appUser.setDefaultCurrency(Currency.getInstance("RON"));
+        appUserDao.saveAndFlush(appUser);
+        ControllerUtil.setCurrentLoggedUser(LOGGED_USERNAME);
+    }
+
+    @After
+    public void cleanUp() {
+        monitoringController.setAdministrators("");
+    }
+
+    @Test(expected = ForbiddenException.class)
+    public void shouldRefuseUserNotAdministrator() {
+        monitoringController.getDataSourceMetrics();
+    }
+
+    @Test
+    public void shouldServeAdministrator() {
+
+        monitoringController.setAdministrators("someone, " + LOGGED_USERNAME);
+
+        assertEquals(HttpStatus.OK, monitoringController.getDataSourceMetrics().getStatusCode());
+        assertEquals(HttpStatus.OK, monitoringController.getEmailMetrics().getStatusCode());
+    }
+}
@@ -0,0 +1,337 @@
+package com.TheAccountant.controller;
+
+import com.TheAccountant.dao.AppUserDao;
+import com.TheAccountant.dao.CategoryDao;
+import com.TheAccountant.dao.CounterpartyDao;
+import com.TheAccountant.dao.ExpenseDao;
+import com.TheAccountant.dao.IncomeDao;
+import com.TheAccountant.dao.LoanDao;
+import com.TheAccountant.dao.NotificationDao;
+import com.TheAccountant.dto.charge.ChargeDTO;
+import com.TheAccountant.model.category.Category;
+import com.TheAccountant.model.counterparty.Counterparty;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.income.Income;
+import com.TheAccountant.model.loan.Loan;
+import com.TheAccountant.model.notification.Notification;
+import com.TheAccountant.model.notification.NotificationCategory;
+import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.testUtil.TestMockUtil;
+import com.TheAccountant.util.ControllerUtil;
+import com.TheAccountant.util.UserUtil;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import static com.TheAccountant.controller.PaymentControllerTest.TEST_TOKEN;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Regression test for N+1 selects: a listing endpoint, its statements counted with the Hibernate statistics,
+ * must issue exactly one statement besides the lookups of the logged user, whatever the number of rows listed.
+ * The persistence context and the second level cache are cleared before each count, so every row is read
+ * from the database.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
+public class StatementCountTest {
+
+    private static final String LOGGED_USERNAME = "statement_count_user";
+    private static final int ADDED_ROWS = 5;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ExpenseController expenseController;
+
+    @Autowired
+    private LoanController loanController;
+
+    @Autowired
+    private CounterpartyController counterpartyController;
+
+    @Autowired
+    private IncomeController incomeController;
+
+    @Autowired
+    private CategoryController categoryController;
+
+    @Autowired
+    private NotificationController notificationController;
+
+    @Autowired
+    private PaymentController paymentController;
+
+    @Autowired
+    private UserUtil userUtil;
+
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @Autowired
+    private CategoryDao categoryDao;
+
+    @Autowired
+    private ExpenseDao expenseDao;
+
+    @Autowired
+    private CounterpartyDao counterpartyDao;
+
+    @Autowired
+    private LoanDao loanDao;
+
+    @Autowired
+    private IncomeDao incomeDao;
+
+    @Autowired
+    private NotificationDao notificationDao;
+
+    private AppUser applicationUser;
+
+    private SessionFactory sessionFactory;
+
+    private Statistics statistics;
+
+    private int rowCounter = 0;
+
+    @Before
+    public void setup() {
+
+        applicationUser = createAppUser();
+        ControllerUtil.setCurrentLoggedUser(LOGGED_USERNAME);
+        sessionFactory = entityManager.unwrap(Session.class).getSessionFactory();
+        statistics = sessionFactory.getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @After
+    public void disableStatistics() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    public void shouldListExpensesWithOneStatement() {
+
+        saveExpense();
+        assertListingStatements(() -> expenseController.listAllExpenses());
+        saveRows(this::saveExpense);
+        assertListingStatements(() -> expenseController.listAllExpenses());
+    }
+
+    @Test
+    public void shouldListExpensePagesWithOneStatement() {
+
+        long endTime = System.currentTimeMillis() + 1000;
+        saveExpense();
+        assertListingStatements(() ->
+                expenseController.listExpensesPageByCategoryAndTimeInterval("*", 0, endTime, 100, null));
+        saveRows(this::saveExpense);
+        assertListingStatements(() ->
+                expenseController.listExpensesPageByCategoryAndTimeInterval("*", 0, endTime, 100, null));
+    }
+
+    @Test
+    public void shouldListIncomesWithOneStatement() {
+
+        saveIncome();
+        assertListingStatements(() -> incomeController.listAllIncomes());
+        saveRows(this::saveIncome);
+        assertListingStatements(() -> incomeController.listAllIncomes());
+    }
+
+    @Test
+    public void shouldListCategoriesWithOneStatement() {
+
+        saveCategory();
+        assertListingStatements(() -> categoryController.getAllCategories());
+        saveRows(this::saveCategory);
+        assertListingStatements(() -> categoryController.getAllCategories());
+    }
+
+    @Test
+    public void shouldListLoansWithOneStatement() {
+
+        saveLoan();
+        assertListingStatements(() -> loanController.findAll());
+        saveRows(this::saveLoan);
+        assertListingStatements(() -> loanController.findAll());
+    }
+
+    @Test
+    public void shouldListCounterpartiesWithOneStatement() {
+
+        saveLoan();
+        assertListingStatements(() -> counterpartyController.findAll());
+        saveRows(this::saveLoan);
+        assertListingStatements(() -> counterpartyController.findAll());
+    }
+
+    @Test
+    public void shouldListNotificationsWithOneStatement() {
+
+        chargeUserLicense();
+        saveNotification();
+        assertStatements(this::findPaidLoggedUser, 1, () -> notificationController.findNotifications(100, 0));
+        saveRows(this::saveNotification);
+        assertStatements(this::findPaidLoggedUser, 1, () -> notificationController.findNotifications(100, 0));
+    }
+
+    @Test
+    public void shouldFindPaymentStatusWithOneStatement() {
+
+        chargeUserLicense();
+        assertListingStatements(() -> paymentController.getPaymentStatusForUser());
+    }
+
+    /**
+     * The endpoint must issue exactly one statement more than the lookup of the logged user
+     */
+    private void assertListingStatements(Runnable endpoint) {
+
+        assertStatements(userUtil::extractLoggedAppUserFromDatabase, 1, endpoint);
+    }
+
+    /**
+     * The endpoint must issue exactly the statements of its prerequisites (the lookups of the user, which
+     * also load its one-to-one associations) plus the given number of statements
+     */
+    private void assertStatements(Runnable prerequisites, int statements, Runnable endpoint) {
+
+        assertEquals(countStatements(prerequisites) + statements, countStatements(endpoint));
+    }
+
+    /**
+     * The lookups of the endpoints allowed only for paid accounts: the payment status, then the logged user
+     */
+    private void findPaidLoggedUser() {
+
+        paymentController.getPaymentStatusForUser();
+        userUtil.extractLoggedAppUserFromDatabase();
+    }
+
+    private long countStatements(Runnable endpoint) {
+
+        entityManager.flush();
+        entityManager.clear();
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+        endpoint.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void saveRows(Runnable saveRow) {
+
+        for (int i = 0; i < ADDED_ROWS; i++) {
+            saveRow.run();
+        }
+    }
+
+    private void chargeUserLicense() {
+
+        ChargeDTO chargeDTO = TestMockUtil.createMockChargeDTO();
+        chargeDTO.setStripeToken(TEST_TOKEN);
+        paymentController.charge(chargeDTO);
+    }
+
+    private Category saveCategory() {
+
+        Category category = new Category();
+        category.setName("Category" + rowCounter++);
+        category.setUser(applicationUser);
+        return categoryDao.save(category);
+    }
+
+    /**
+     * Save an expense in a new category, so each expense of a listing has a different category
+     */
+    private void saveExpense() {
+
+        Category category = saveCategory();
+
+        Expense expense = new Expense();
+        expense.setName("name1");
+        expense.setDescription("description1");
+        expense.setCurrency("RON");
+        expense.setAmount(10D);
+        expense.setCreationDate(new Timestamp(System.currentTimeMillis()));
+        expense.setCategory(category);
+        expense.setUser(applicationUser);
+        expenseDao.save(expense);
+    }
+
+    /**
+     * Save a loan of a new counterparty, so each loan of a listing has a different counterparty
+     */
+    private void saveLoan() {
+
+        Counterparty counterparty = new Counterparty();
+        counterparty.setName("Counterparty" + rowCounter);
+        counterparty.setEmail("counterparty" + rowCounter++ + "@my-money-tracker.ro");
+        counterparty.setUser(applicationUser);
+        counterparty = counterpartyDao.save(counterparty);
+
+        Loan loan = new Loan();
+        loan.setUser(applicationUser);
+        loan.setCounterparty(counterparty);
+        loan.setActive(true);
+        loan.setReceiving(true);
+        loan.setAmount(300D);
+        loan.setCurrency("USD");
+        loan.setDescription("Test Loan");
+        loan.setCreationDate(new Timestamp(System.currentTimeMillis()));
+        loan.setUntilDate(new Timestamp(System.currentTimeMillis()));
+        loanDao.save(loan);
+    }
+
+    private void saveIncome() {
+
+        Income income = new Income();
+        income.setName("name1");
+        income.setDescription("description1");
+        income.setCurrency("RON");
+        income.setAmount(10D);
+        income.setCreationDate(new Timestamp(System.currentTimeMillis()));
+        income.setUser(applicationUser);
+        incomeDao.save(income);
+    }
+
+    private void saveNotification() {
+
+        Notification notification = new Notification();
+        notification.setMessage("Notification" + rowCounter++);
+        notification.setCategory(NotificationCategory.LOAN.name());
+        notification.setCreationDate(new Timestamp(System.currentTimeMillis()));
+        notification.setSeen(false);
+        notification.setUser(applicationUser);
+        notificationDao.save(notification);
+    }
+
+    private AppUser createAppUser() {
+
+        AppUser appUser = new AppUser();
+        appUser.setFirstName("Florin");
+        appUser.setSurname("Iacob");
+        appUser.setPassword("TEST_PASS");
+        appUser.setUsername(LOGGED_USERNAME);
+        appUser.setBirthdate(new Date());
+        appUser.setEmail(LOGGED_USERNAME + "@my-money-tracker.ro");
+        return appUserDao.save(appUser);
+    }
+}
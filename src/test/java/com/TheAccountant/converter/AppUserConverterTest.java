@@ -16,7 +16,7 @@ import com.TheAccountant.dto.user.AppUserDTO;
 import com.TheAccountant.model.user.AppUser;
 
 /**
- * Test class for dozer converter between AppUser and AppUserDTO
+ * Test class for the converter between AppUser and AppUserDTO
  * @author Tudor
  */
 @RunWith(SpringJUnit4ClassRunner.class)
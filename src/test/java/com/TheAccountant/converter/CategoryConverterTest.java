@@ -14,7 +14,7 @@ import com.TheAccountant.model.category.Category;
 import com.TheAccountant.model.user.AppUser;
 
 /**
- * Test class for categoryConverter dozer mapping class
+ * Test class for the CategoryConverter
  * @author Florin
  */
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -1,9 +1,12 @@
 package com.TheAccountant.converter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.sql.Timestamp;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -19,7 +22,7 @@ import com.TheAccountant.model.expense.Expense;
 import com.TheAccountant.model.user.AppUser;
 
 /**
- * Test class for categoryConverter dozer mapping class
+ * Test class for the expense converter
  * 
  * @author Florin
  */
@@ -45,6 +48,25 @@ public class ExpenseConverterTest {
         assertEquals(expense.getDescription(), expenseDTO.getDescription());
     }
     
+    @Test
+    public void shouldConvertExpenseListInOrder() {
+
+        AppUser appUser = createAppUser("my-money-tracker@gmail.com", "florin");
+        Expense firstExpense = createExpense(appUser);
+        firstExpense.setId(1);
+        Expense secondExpense = createExpense(appUser);
+        secondExpense.setId(2);
+        secondExpense.setFrequency(30);
+        List<ExpenseDTO> expenseDTOs = expenseConverter.convertToList(Arrays.asList(firstExpense, secondExpense));
+        assertEquals(2, expenseDTOs.size());
+        assertEquals(1, expenseDTOs.get(0).getId());
+        assertNull(expenseDTOs.get(0).getFrequency());
+        assertEquals(2, expenseDTOs.get(1).getId());
+        assertEquals("30", expenseDTOs.get(1).getFrequency());
+        assertEquals(firstExpense.getCategory().getId(), expenseDTOs.get(1).getCategory().getId());
+        assertEquals(firstExpense.getCategory().getName(), expenseDTOs.get(1).getCategory().getName());
+    }
+    
     @Test
     public void shouldConvertExpenseDTOToExpense() {
     
@@ -17,7 +17,7 @@ import com.TheAccountant.model.income.Income;
 import com.TheAccountant.model.user.AppUser;
 
 /**
- * Test class for IncomeConverter dozer mapping class
+ * Test class for the IncomeConverter
  * @author Tudor
  */
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -77,27 +77,27 @@ public class CategoryDaoTest {
     }
 
     @Test
-    public void shouldFindCategoryByNameAndUsername() {
+    public void shouldFindCategoryByNameAndUserId() {
 
         String categoryName = CATEGORY_NAME + categoryCounter++;
         Category category = createCategory(categoryName);
         appUserDao.save(category.getUser());
         categoryDao.save(category);
-        category = categoryDao.findByNameAndUsername(categoryName, USERNAME);
+        category = categoryDao.findByNameAndUserId(categoryName, category.getUser().getUserId());
         assertTrue(category != null);
     }
 
     @Test
-    public void shouldFindCategoriesByUsername() {
+    public void shouldFindCategoriesByUserId() {
 
+        AppUser appUser = appUserDao.save(applicationUser);
         Category category1 = createCategory(CATEGORY_NAME + categoryCounter++);
-        appUserDao.save(category1.getUser());
         Category category2 = createCategory(CATEGORY_NAME + categoryCounter++);
-        appUserDao.save(category2.getUser());
         categoryDao.save(category1);
         categoryDao.save(category2);
-        List<Category> categoryList = categoryDao.findByUsername(USERNAME);
+        List<Category> categoryList = categoryDao.findByUserId(appUser.getUserId());
         assertEquals(2, categoryList.size());
+        assertTrue(categoryDao.findByNameAndUserId(category2.getName(), appUser.getUserId()) != null);
     }
 
     @Test
@@ -170,9 +170,9 @@ public class CategoryDaoTest {
         category1.setUser(appUser);
         category1 = categoryDao.saveAndFlush(category1);
 
-        //delete all categories for the first username
-        categoryDao.deleteAllByUsername(category.getUser().getUsername());
-        List<Category> categories = categoryDao.findByUsername(category.getUser().getUsername());
+        //delete all categories for the first user
+        categoryDao.deleteAllByUserId(category.getUser().getUserId());
+        List<Category> categories = categoryDao.findByUserId(category.getUser().getUserId());
         assertEquals(0, categories.size());
 
         //check that the second category still exists
@@ -63,7 +63,7 @@ public class CounterpartyDaoTest {
     }
 
     @Test
-    public void shouldFetchAllByUsername() {
+    public void shouldFetchAllByUserId() {
 
         Counterparty counterparty1 = createCounterparty(loggedUser, COUNTERPARTY_EMAIL, "John Jones");
         Counterparty dbCounterparty1 = counterpartyDao.save(counterparty1);
@@ -72,8 +72,8 @@ public class CounterpartyDaoTest {
         Counterparty counterparty3 = createCounterparty(loggedUser, COUNTERPARTY_EMAIL + "3", "Donald Trump");
         Counterparty dbCounterparty3 = counterpartyDao.save(counterparty3);
 
-        List<Counterparty> dbQueryResult = counterpartyDao.fetchAll(loggedUser.getUsername());
-        assertNotNull("Counterparty List should NOT be NULL when fetching by username", dbQueryResult);
+        List<Counterparty> dbQueryResult = counterpartyDao.fetchAll(loggedUser.getUserId());
+        assertNotNull("Counterparty List should NOT be NULL when fetching by user id", dbQueryResult);
         assertEquals(3, dbQueryResult.size());
 
         counterpartyDao.delete(dbCounterparty1.getId());
@@ -82,12 +82,12 @@ public class CounterpartyDaoTest {
     }
 
     @Test
-    public void shouldNotFetchByUsername() {
+    public void shouldNotFetchByOtherUserId() {
 
         Counterparty counterparty = createCounterparty(loggedUser, COUNTERPARTY_EMAIL, "John Jones");
         Counterparty dbCounterparty = counterpartyDao.save(counterparty);
 
-        List<Counterparty> dbQueryResult = counterpartyDao.fetchAll("INVALID_USERNAME");
+        List<Counterparty> dbQueryResult = counterpartyDao.fetchAll(loggedUser.getUserId() + 1);
         assertTrue(dbQueryResult == null || dbQueryResult.size() == 0);
 
         counterpartyDao.delete(dbCounterparty.getId());
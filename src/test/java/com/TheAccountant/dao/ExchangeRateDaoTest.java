@@ -0,0 +1,71 @@
+package com.TheAccountant.dao;
+
+import com.TheAccountant.model.currency.ExchangeRate;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
+public class ExchangeRateDaoTest {
+
+    @Autowired
+    private ExchangeRateDao exchangeRateDao;
+
+    @Test
+    public void shouldSaveExchangeRate() {
+        ExchangeRate exchangeRate = exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+        assertTrue(exchangeRate.getId() > 0);
+    }
+
+    @Test(expected = org.springframework.dao.DataIntegrityViolationException.class)
+    public void shouldNotSaveTheSameRateTwice() {
+        exchangeRateDao.saveAndFlush(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+        exchangeRateDao.saveAndFlush(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.56));
+    }
+
+    @Test
+    public void shouldFindLastRateUntilDay() {
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-18"), 4.54));
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-22"), 4.57));
+
+        ExchangeRate exchangeRate = exchangeRateDao
+                .findFirstByBaseCurrencyAndTargetCurrencyAndRateDayLessThanEqualOrderByRateDayDesc("EUR", "RON", Date.valueOf("2017-05-21"));
+        assertEquals(Date.valueOf("2017-05-19"), exchangeRate.getRateDay());
+        assertEquals(4.55, exchangeRate.getRate(), 0);
+    }
+
+    @Test
+    public void shouldNotFindRateBeforeFirstDay() {
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+
+        ExchangeRate exchangeRate = exchangeRateDao
+                .findFirstByBaseCurrencyAndTargetCurrencyAndRateDayLessThanEqualOrderByRateDayDesc("EUR", "RON", Date.valueOf("2017-05-18"));
+        assertNull(exchangeRate);
+    }
+
+    @Test
+    public void shouldFindRatesOfBaseCurrencyOnDay() {
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+        exchangeRateDao.save(new ExchangeRate("EUR", "USD", Date.valueOf("2017-05-19"), 1.11));
+        exchangeRateDao.save(new ExchangeRate("EUR", "USD", Date.valueOf("2017-05-20"), 1.12));
+        exchangeRateDao.save(new ExchangeRate("USD", "EUR", Date.valueOf("2017-05-19"), 0.9));
+
+        List<ExchangeRate> exchangeRates = exchangeRateDao.findByBaseCurrencyAndRateDay("EUR", Date.valueOf("2017-05-19"));
+        assertEquals(2, exchangeRates.size());
+    }
+}
@@ -5,13 +5,14 @@ import static org.junit.Assert.assertTrue;
 
 import java.sql.Timestamp;
 import java.util.Date;
+import java.util.List;
 import java.util.Random;
-import java.util.Set;
 import java.util.logging.Logger;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
@@ -99,17 +100,39 @@ public class ExpenseDaoTest {
     }
     
     @Test
-    public void shouldFindAll() {
-        Expense expense1 = createExpense();
-        Expense expense2 = createExpense();
-        //2 different expenses will be saved into the database
-        // because the id for both is null
-        expenseDao.save(expense1);
-        expenseDao.save(expense2);
-        Set<Expense> expenseList = expenseDao.findByUsername(applicationUser.getUsername());
+    public void shouldFindByUserId() {
+        expenseDao.save(createExpense());
+        expenseDao.save(createExpense());
+        List<Expense> expenseList = expenseDao.findByUserId(applicationUser.getUserId());
         assertEquals(2, expenseList.size());
     }
-    
+
+    @Test
+    public void shouldDeleteAllByCategoryAndUserId() {
+        Category otherCategory = createCategory(applicationUser);
+        expenseDao.save(createExpense());
+        expenseDao.save(createExpense(new Timestamp(System.currentTimeMillis()), otherCategory));
+        expenseDao.flush();
+
+        expenseDao.deleteAllByCategoryAndUserId(category.getId(), applicationUser.getUserId());
+        List<Expense> expenseList = expenseDao.findByUserId(applicationUser.getUserId());
+        assertEquals(1, expenseList.size());
+        assertEquals(otherCategory.getId(), expenseList.get(0).getCategory().getId());
+    }
+
+    @Test
+    public void shouldDeleteAllByCategoryAndUsername() {
+        Category otherCategory = createCategory(applicationUser);
+        expenseDao.save(createExpense());
+        expenseDao.save(createExpense(new Timestamp(System.currentTimeMillis()), otherCategory));
+        expenseDao.flush();
+
+        expenseDao.deleteAllByCategoryAndUsername(category.getId(), applicationUser.getUsername());
+        List<Expense> expenseList = expenseDao.findByUserId(applicationUser.getUserId());
+        assertEquals(1, expenseList.size());
+        assertEquals(otherCategory.getId(), expenseList.get(0).getCategory().getId());
+    }
+
     @Test
     public void shouldHaveCategoryNotNull() {
     
@@ -137,7 +160,7 @@ public class ExpenseDaoTest {
         expense = expenseDao.save(expense);
         assertTrue("Problems on creating the Expense", expense.getUser() != null);
 
-        Set<Expense> expenses = expenseDao.findByTimeInterval(applicationUser.getUsername(),
+        List<Expense> expenses = expenseDao.findByTimeInterval(applicationUser.getUserId(),
                 queryStartDate, queryEndDate);
         assertTrue("The expense list should have 1 element!", (expenses != null && expenses.size() == 1));
     }
@@ -153,11 +176,48 @@ public class ExpenseDaoTest {
         expense = expenseDao.save(expense);
         assertTrue("Problems on creating the Expense", expense.getUser() != null);
 
-        Set<Expense> expenses = expenseDao.findByTimeInterval(applicationUser.getUsername(),
+        List<Expense> expenses = expenseDao.findByTimeInterval(applicationUser.getUserId(),
                 queryStartDate, queryEndDate);
         assertTrue("The expense list should be empty!", (expenses == null || expenses.size() == 0));
     }
 
+    @Test
+    public void shouldFindByTimeIntervalForUserId() {
+
+        long creationTimeMillis = System.currentTimeMillis();
+        expenseDao.save(createExpense(new Timestamp(creationTimeMillis)));
+
+        List<Expense> expenses = expenseDao.findByTimeInterval(applicationUser.getUserId(),
+                new Timestamp(creationTimeMillis - 1000), new Timestamp(creationTimeMillis + 1000));
+        assertEquals(1, expenses.size());
+        expenses = expenseDao.findByTimeIntervalAndCategory(applicationUser.getUserId(), category.getId(),
+                new Timestamp(creationTimeMillis + 1000), new Timestamp(creationTimeMillis + 2000));
+        assertEquals(0, expenses.size());
+    }
+
+    @Test
+    public void shouldFindPagesByTimeIntervalInCreationDateOrder() {
+
+        long creationTimeMillis = System.currentTimeMillis();
+        Timestamp startDate = new Timestamp(creationTimeMillis - 1000);
+        Timestamp endDate = new Timestamp(creationTimeMillis + 1000);
+        Expense lastExpense = expenseDao.save(createExpense(new Timestamp(creationTimeMillis + 10)));
+        Expense firstExpense = expenseDao.save(createExpense(new Timestamp(creationTimeMillis)));
+        Expense secondExpense = expenseDao.save(createExpense(new Timestamp(creationTimeMillis)));
+
+        List<Expense> firstPage = expenseDao.findByTimeIntervalAfter(applicationUser.getUserId(), startDate, endDate,
+                startDate, 0, new PageRequest(0, 2));
+        assertEquals(2, firstPage.size());
+        assertEquals(firstExpense.getId(), firstPage.get(0).getId());
+        assertEquals(secondExpense.getId(), firstPage.get(1).getId());
+
+        Expense pageEnd = firstPage.get(1);
+        List<Expense> secondPage = expenseDao.findByTimeIntervalAndCategoryAfter(applicationUser.getUserId(),
+                category.getId(), startDate, endDate, pageEnd.getCreationDate(), pageEnd.getId(), new PageRequest(0, 2));
+        assertEquals(1, secondPage.size());
+        assertEquals(lastExpense.getId(), secondPage.get(0).getId());
+    }
+
     @Test
     public void shouldFindByTimeIntervalAndCategory() {
 
@@ -169,7 +229,7 @@ public class ExpenseDaoTest {
         expense = expenseDao.save(expense);
         assertTrue("Problems on creating the Expense", expense.getUser() != null);
 
-        Set<Expense> expenses = expenseDao.findByTimeIntervalAndCategory(applicationUser.getUsername(),
+        List<Expense> expenses = expenseDao.findByTimeIntervalAndCategory(applicationUser.getUserId(),
                 category.getId(), queryStartDate, queryEndDate);
         assertTrue("The expense list should have 1 element!", (expenses != null && expenses.size() == 1));
     }
@@ -185,7 +245,7 @@ public class ExpenseDaoTest {
         expense = expenseDao.save(expense);
         assertTrue("Problems on creating the Expense", expense.getUser() != null);
 
-        Set<Expense> expenses = expenseDao.findByTimeIntervalAndCategory(applicationUser.getUsername(),
+        List<Expense> expenses = expenseDao.findByTimeIntervalAndCategory(applicationUser.getUserId(),
                 category.getId(), queryStartDate, queryEndDate);
         assertTrue("The expense list should be empty!", (expenses == null || expenses.size() == 0));
     }
@@ -201,7 +261,7 @@ public class ExpenseDaoTest {
         expense = expenseDao.save(expense);
         assertTrue("Problems on creating the Expense", expense.getUser() != null);
 
-        Set<Expense> expenses = expenseDao.findByTimeIntervalAndCategory(applicationUser.getUsername(),
+        List<Expense> expenses = expenseDao.findByTimeIntervalAndCategory(applicationUser.getUserId(),
                 6L, queryStartDate, queryEndDate);
         assertTrue("The expense list should be empty!", (expenses == null || expenses.size() == 0));
     }
@@ -114,7 +114,7 @@ public class IncomeDaoTest {
         Income income2 = createIncome(appUser2);
         incomeDao.save(income1);
         incomeDao.save(income2);
-        List<Income> incomeList = incomeDao.findByUsername(appUser.getUsername());
+        List<Income> incomeList = incomeDao.findByUserId(appUser.getUserId());
         assertEquals(1, incomeList.size());
     }
     
@@ -134,7 +134,7 @@ public class IncomeDaoTest {
         Income income = createIncome(appUser);
         income = incomeDao.save(income);
         Timestamp untilTimeStamp = new Timestamp(System.currentTimeMillis());
-        List<Income> incomes = incomeDao.findIncomesInTimeInterval(nowTimeStamp, untilTimeStamp, appUser.getUsername());
+        List<Income> incomes = incomeDao.findIncomesInTimeInterval(nowTimeStamp, untilTimeStamp, appUser.getUserId());
         assertEquals(1, incomes.size());
         assertEquals(income, incomes.get(0));
     }
@@ -147,7 +147,7 @@ public class IncomeDaoTest {
         AppUser appUser = createAppUser(EMAIL, USERNAME);
         Income income = createIncome(appUser);
         income = incomeDao.save(income);
-        List<Income> incomes = incomeDao.findIncomesInTimeInterval(timestamp, timestamp, appUser.getUsername());
+        List<Income> incomes = incomeDao.findIncomesInTimeInterval(timestamp, timestamp, appUser.getUserId());
         assertEquals(0, incomes.size());
     }
 
@@ -75,18 +75,18 @@ public class LoanDaoTest {
     }
 
     @Test
-    public void shouldFetchAllByUsername() {
+    public void shouldFetchAllByUserId() {
         Loan loan1 = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan1 = loanDao.save(loan1);
         Loan loan2 = createLoan(loggedUser, defaultCounterparty, false);
         Loan dbLoan2 = loanDao.save(loan2);
 
-        List<Loan> dbQueryResult = loanDao.fetchAll(loggedUser.getUsername());
-        assertNotNull("Loans List should NOT be NULL when fetching by username", dbQueryResult);
+        List<Loan> dbQueryResult = loanDao.fetchAll(loggedUser.getUserId());
+        assertNotNull("Loans List should NOT be NULL when fetching by user id", dbQueryResult);
         assertEquals(2, dbQueryResult.size());
 
         List<Loan> dbQueryResultWithOffset = loanDao.fetchAll(loggedUser.getUserId(), 1, 0);
-        assertNotNull("Loans List should NOT be NULL when fetching by username with OFFSET", dbQueryResultWithOffset);
+        assertNotNull("Loans List should NOT be NULL when fetching by user id with OFFSET", dbQueryResultWithOffset);
         assertEquals(1, dbQueryResultWithOffset.size());
 
         loanDao.delete(dbLoan1.getId());
@@ -94,11 +94,11 @@ public class LoanDaoTest {
     }
 
     @Test
-    public void shouldNotFetchAllByUsername() {
+    public void shouldNotFetchAllByOtherUserId() {
         Loan loan = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan = loanDao.save(loan);
 
-        List<Loan> dbQueryResult = loanDao.fetchAll("INVALID_USERNAME");
+        List<Loan> dbQueryResult = loanDao.fetchAll(loggedUser.getUserId() + 1);
         assertTrue(dbQueryResult == null || dbQueryResult.size() == 0);
 
         List<Loan> dbQueryResultWithOffset = loanDao.fetchAll(loggedUser.getUserId() + 1, 1, 0);
@@ -112,7 +112,7 @@ public class LoanDaoTest {
         Loan loan = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan = loanDao.save(loan);
 
-        List<Loan> dbQueryResult = loanDao.findByActive(loggedUser.getUsername(), true);
+        List<Loan> dbQueryResult = loanDao.findByActive(loggedUser.getUserId(), true);
         assertNotNull("Loans List should NOT be NULL when fetching by active", dbQueryResult);
         assertEquals(1, dbQueryResult.size());
     }
@@ -122,7 +122,7 @@ public class LoanDaoTest {
         Loan loan = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan = loanDao.save(loan);
 
-        List<Loan> dbQueryResult = loanDao.findByActive(loggedUser.getUsername(), false);
+        List<Loan> dbQueryResult = loanDao.findByActive(loggedUser.getUserId(), false);
         assertTrue(dbQueryResult == null || dbQueryResult.size() == 0);
     }
 
@@ -131,7 +131,7 @@ public class LoanDaoTest {
         Loan loan = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan = loanDao.save(loan);
 
-        List<Loan> dbQueryResult = loanDao.findByCounterparty(loggedUser.getUsername(), defaultCounterparty.getId());
+        List<Loan> dbQueryResult = loanDao.findByCounterparty(loggedUser.getUserId(), defaultCounterparty.getId());
         assertNotNull("Loans List should NOT be NULL when fetching by counterparty", dbQueryResult);
         assertEquals(1, dbQueryResult.size());
     }
@@ -141,7 +141,7 @@ public class LoanDaoTest {
         Loan loan = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan = loanDao.save(loan);
 
-        List<Loan> dbQueryResult = loanDao.findByCounterparty(loggedUser.getUsername(), defaultCounterparty.getId() + 1);
+        List<Loan> dbQueryResult = loanDao.findByCounterparty(loggedUser.getUserId(), defaultCounterparty.getId() + 1);
         assertTrue(dbQueryResult == null || dbQueryResult.size() == 0);
     }
 
@@ -150,7 +150,7 @@ public class LoanDaoTest {
         Loan loan = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan = loanDao.save(loan);
 
-        List<Loan> dbQueryResult = loanDao.findByCounterpartyAndActive(loggedUser.getUsername(),
+        List<Loan> dbQueryResult = loanDao.findByCounterpartyAndActive(loggedUser.getUserId(),
                 defaultCounterparty.getId(), true);
         assertNotNull("Loans List should NOT be NULL when fetching by counterparty amd active", dbQueryResult);
         assertEquals(1, dbQueryResult.size());
@@ -161,7 +161,7 @@ public class LoanDaoTest {
         Loan loan = createLoan(loggedUser, defaultCounterparty, true);
         Loan dbLoan = loanDao.save(loan);
 
-        List<Loan> dbQueryResult = loanDao.findByCounterpartyAndActive(loggedUser.getUsername(),
+        List<Loan> dbQueryResult = loanDao.findByCounterpartyAndActive(loggedUser.getUserId(),
                 defaultCounterparty.getId(), false);
         assertTrue(dbQueryResult == null || dbQueryResult.size() == 0);
     }
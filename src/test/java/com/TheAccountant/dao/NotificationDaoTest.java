@@ -6,6 +6,7 @@ import com.TheAccountant.model.user.AppUser;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -53,18 +54,18 @@ public class NotificationDaoTest {
     }
 
     @Test
-    public void shouldFindByUsername() {
+    public void shouldFindByUserId() {
 
         AppUser appUser = createAppUser(EMAIL, USERNAME);
         Notification notification = createNotification(appUser);
         notification = notificationDao.save(notification);
         assertTrue(notification.getId() != 0);
-        List<Notification> notificationList = notificationDao.fetchAll(USERNAME);
+        List<Notification> notificationList = notificationDao.fetchAll(appUser.getUserId());
         assertEquals(notification.getMessage(), notificationList.get(0).getMessage());
     }
 
     @Test
-    public void shouldFindByUsernameWithPagination() {
+    public void shouldFindByUserIdWithPagination() {
 
         AppUser appUser = createAppUser(EMAIL, USERNAME);
         Notification notification = createNotification(appUser);
@@ -75,13 +76,39 @@ public class NotificationDaoTest {
     }
 
     @Test
-    public void shouldNotFindByUsername() {
+    public void shouldFetchPagesNewestFirst() {
+
+        AppUser appUser = createAppUser(EMAIL, USERNAME);
+        Timestamp creationDate = new Timestamp(System.currentTimeMillis());
+        Notification oldestNotification = createNotification(appUser);
+        oldestNotification.setCreationDate(new Timestamp(creationDate.getTime() - 1000));
+        oldestNotification = notificationDao.save(oldestNotification);
+        Notification firstNotification = createNotification(appUser);
+        firstNotification.setCreationDate(creationDate);
+        firstNotification = notificationDao.save(firstNotification);
+        Notification secondNotification = createNotification(appUser);
+        secondNotification.setCreationDate(creationDate);
+        secondNotification = notificationDao.save(secondNotification);
+
+        List<Notification> firstPage = notificationDao.fetchFirstPage(appUser.getUserId(), new PageRequest(0, 2));
+        assertEquals(2, firstPage.size());
+        assertEquals(secondNotification.getId(), firstPage.get(0).getId());
+        assertEquals(firstNotification.getId(), firstPage.get(1).getId());
+
+        List<Notification> secondPage = notificationDao.fetchPageBefore(appUser.getUserId(),
+                firstPage.get(1).getCreationDate(), firstPage.get(1).getId(), new PageRequest(0, 2));
+        assertEquals(1, secondPage.size());
+        assertEquals(oldestNotification.getId(), secondPage.get(0).getId());
+    }
+
+    @Test
+    public void shouldNotFindByOtherUserId() {
 
         AppUser appUser = createAppUser(EMAIL, USERNAME);
         Notification notification = createNotification(appUser);
         notification = notificationDao.save(notification);
         assertTrue(notification.getId() != 0);
-        List<Notification> notificationList = notificationDao.fetchAll("wrong_username");
+        List<Notification> notificationList = notificationDao.fetchAll(appUser.getUserId() + 1, 10, 0);
         assertTrue(notificationList.isEmpty());
     }
 
@@ -92,7 +119,7 @@ public class NotificationDaoTest {
         Notification notification = createNotification(appUser);
         notification = notificationDao.save(notification);
         assertTrue(notification.getId() != 0);
-        List<Notification> notificationList = notificationDao.findBySeen(USERNAME, SEEN);
+        List<Notification> notificationList = notificationDao.findBySeen(appUser.getUserId(), SEEN);
         assertEquals(notification.getMessage(), notificationList.get(0).getMessage());
     }
 
@@ -103,10 +130,30 @@ public class NotificationDaoTest {
         Notification notification = createNotification(appUser);
         notification = notificationDao.save(notification);
         assertTrue(notification.getId() != 0);
-        List<Notification> notificationList = notificationDao.findBySeen(USERNAME, false);
+        List<Notification> notificationList = notificationDao.findBySeen(appUser.getUserId(), false);
         assertTrue(notificationList.isEmpty());
     }
 
+    @Test
+    public void shouldCountBySeen() {
+
+        AppUser appUser = createAppUser(EMAIL, USERNAME);
+        Notification notification = createNotification(appUser);
+        notification = notificationDao.save(notification);
+        assertTrue(notification.getId() != 0);
+        assertEquals(1, notificationDao.countByUserUserIdAndSeen(appUser.getUserId(), SEEN));
+    }
+
+    @Test
+    public void shouldNotCountOtherSeenState() {
+
+        AppUser appUser = createAppUser(EMAIL, USERNAME);
+        Notification notification = createNotification(appUser);
+        notification = notificationDao.save(notification);
+        assertTrue(notification.getId() != 0);
+        assertEquals(0, notificationDao.countByUserUserIdAndSeen(appUser.getUserId(), false));
+    }
+
     @Test
     public void shouldUpdate() {
 
@@ -116,7 +163,7 @@ public class NotificationDaoTest {
         assertTrue(notification.getId() != 0);
         notification.setMessage("UPDATED");
         notificationDao.save(notification);
-        List<Notification> notificationList = notificationDao.fetchAll(USERNAME);
+        List<Notification> notificationList = notificationDao.fetchAll(appUser.getUserId(), 10, 0);
         assertEquals("UPDATED", notificationList.get(0).getMessage());
     }
 
@@ -128,7 +175,7 @@ public class NotificationDaoTest {
         notification = notificationDao.save(notification);
         assertTrue(notification.getId() != 0);
         notificationDao.delete(notification);
-        List<Notification> notificationList = notificationDao.fetchAll(USERNAME);
+        List<Notification> notificationList = notificationDao.fetchAll(appUser.getUserId(), 10, 0);
         assertTrue(notificationList.isEmpty());
     }
 
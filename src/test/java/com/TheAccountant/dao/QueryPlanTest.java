@@ -0,0 +1,164 @@
+package com.TheAccountant.dao;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.spi.ParameterTranslations;
+import org.hibernate.hql.spi.QueryTranslator;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Regression test checking, through EXPLAIN, that the queries reading the rows of a user use the indexes
+ * of the db/migration scripts. The explained SQL is the one Hibernate generates from the @Query of the DAO
+ * method, so a change of the query shape is checked as well. Sequential scans are disabled for the test
+ * transaction, so the plan does not depend on the size of the test tables.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
+public class QueryPlanTest {
+
+    private static final Timestamp START_DATE = Timestamp.valueOf("2017-05-01 00:00:00");
+    private static final Timestamp END_DATE = Timestamp.valueOf("2017-05-31 23:59:59");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Before
+    public void disableSequentialScans() {
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+    }
+
+    @Test
+    public void shouldFindExpensesByTimeIntervalWithIndex() {
+        assertUsesIndex("expense_user_creation_date_index",
+                ExpenseDao.class, "findByTimeInterval", 1L, START_DATE, END_DATE);
+    }
+
+    @Test
+    public void shouldFindExpensesByTimeIntervalAndCategoryWithIndex() {
+        assertUsesIndex("expense_user_category_creation_date_index",
+                ExpenseDao.class, "findByTimeIntervalAndCategory", 1L, 2L, START_DATE, END_DATE);
+    }
+
+    @Test
+    public void shouldFindIncomesInTimeIntervalWithIndex() {
+        assertUsesIndex("income_user_creation_date_index",
+                IncomeDao.class, "findIncomesInTimeInterval", START_DATE, END_DATE, 1L);
+    }
+
+    @Test
+    public void shouldFetchLoansWithIndex() {
+        assertUsesIndex("loan_user_creation_date_index", LoanDao.class, "fetchAll", 1L);
+    }
+
+    @Test
+    public void shouldFetchLoanPageWithIndex() {
+        assertUsesIndex("loan_user_creation_date_index", LoanDao.class, "fetchAll", 1L, 10, 0);
+    }
+
+    @Test
+    public void shouldFetchNotificationsWithIndex() {
+        assertUsesIndex("notification_user_creation_date_index", NotificationDao.class, "fetchAll", 1L, 10, 0);
+    }
+
+    @Test
+    public void shouldFindCategoriesWithIndex() {
+        assertUsesIndex("category_user_index", CategoryDao.class, "findByUserId", 1L);
+    }
+
+    @Test
+    public void shouldFetchCounterpartiesWithIndex() {
+        assertUsesIndex("counterparty_user_index", CounterpartyDao.class, "fetchAll", 1L);
+    }
+
+    /**
+     * Explain the query of a DAO method with the specified arguments, bound as the arguments of the method
+     */
+    @SuppressWarnings("unchecked")
+    private void assertUsesIndex(String indexName, Class<?> daoClass, String methodName, Object... arguments) {
+
+        Query query = findQuery(daoClass, methodName, arguments.length);
+        javax.persistence.Query explain;
+        if (query.nativeQuery()) {
+            explain = entityManager.createNativeQuery("EXPLAIN " + query.value());
+            for (int index = 0; index < arguments.length; index++) {
+                explain.setParameter(index + 1, arguments[index]);
+            }
+        } else {
+            QueryTranslator translator = translate(query.value());
+            String sql = numberParameters(translator.getSQLString());
+            explain = entityManager.createNativeQuery("EXPLAIN " + sql);
+            // the ?N parameters of the JPQL query become positional JDBC parameters, in the order of the SQL
+            ParameterTranslations parameterTranslations = translator.getParameterTranslations();
+            for (int index = 0; index < arguments.length; index++) {
+                for (int location : parameterTranslations.getNamedParameterSqlLocations(String.valueOf(index + 1))) {
+                    explain.setParameter(location + 1, arguments[index]);
+                }
+            }
+        }
+
+        List<String> planLines = explain.getResultList();
+        String plan = String.join("\n", planLines);
+        assertTrue("Expected " + indexName + " in plan of " + daoClass.getSimpleName() + "." + methodName + ":\n" + plan,
+                plan.contains(indexName));
+    }
+
+    private Query findQuery(Class<?> daoClass, String methodName, int parameterCount) {
+
+        for (Method method : daoClass.getMethods()) {
+            if (method.getName().equals(methodName) && method.getParameterCount() == parameterCount) {
+                Query query = method.getAnnotation(Query.class);
+                assertNotNull(daoClass.getSimpleName() + "." + methodName + " has no @Query", query);
+                return query;
+            }
+        }
+        throw new AssertionError("No method " + daoClass.getSimpleName() + "." + methodName + " with " + parameterCount + " parameters");
+    }
+
+    /**
+     * Translate a JPQL query to the SQL that Hibernate runs for it
+     */
+    private QueryTranslator translate(String jpql) {
+
+        SessionFactoryImplementor sessionFactory = (SessionFactoryImplementor) entityManager.unwrap(Session.class).getSessionFactory();
+        QueryTranslator translator = new ASTQueryTranslatorFactory()
+                .createQueryTranslator(jpql, jpql, Collections.emptyMap(), sessionFactory, null);
+        translator.compile(Collections.emptyMap(), false);
+        return translator;
+    }
+
+    /**
+     * Replace the JDBC '?' placeholders of the generated SQL with numbered ones, ?1 being the first
+     */
+    private String numberParameters(String sql) {
+
+        StringBuilder numberedSql = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            numberedSql.append(c);
+            if (c == '?') {
+                numberedSql.append(++parameter);
+            }
+        }
+        return numberedSql.toString();
+    }
+}
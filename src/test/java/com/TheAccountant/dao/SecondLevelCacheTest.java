@@ -0,0 +1,175 @@
+package com.TheAccountant.dao;
+
+import com.TheAccountant.model.category.Category;
+import com.TheAccountant.model.user.AppUser;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the second level cache of the categories. The test is not transactional:
+ * each DAO call runs in its own transaction, as the cached entries are only read by sessions opened
+ * after they were stored.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+public class SecondLevelCacheTest {
+
+    private static final String USERNAME = "second_level_cache_user";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @Autowired
+    private CategoryDao categoryDao;
+
+    @Autowired
+    private ExpenseDao expenseDao;
+
+    private AppUser applicationUser;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+
+        applicationUser = createAppUser();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @After
+    public void cleanUp() {
+
+        statistics.setStatisticsEnabled(false);
+        appUserDao.delete(applicationUser.getUserId());
+        appUserDao.flush();
+    }
+
+    @Test
+    public void shouldReadCategoryFromCache() {
+
+        long categoryId = createCategory("Cached").getId();
+        categoryDao.findOne(categoryId);
+
+        statistics.clear();
+        Category category = categoryDao.findOne(categoryId);
+        assertEquals("Cached", category.getName());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void shouldReadUpdatedCategory() {
+
+        Category category = createCategory("BeforeUpdate");
+        categoryDao.findOne(category.getId());
+
+        category.setName("AfterUpdate");
+        categoryDao.save(category);
+        assertEquals("AfterUpdate", categoryDao.findOne(category.getId()).getName());
+    }
+
+    @Test
+    public void shouldNotFindDeletedCategory() {
+
+        long categoryId = createCategory("Deleted").getId();
+        categoryDao.findOne(categoryId);
+
+        categoryDao.delete(categoryId);
+        assertNull(categoryDao.findOne(categoryId));
+    }
+
+    @Test
+    public void shouldReadCategoriesOfUserFromQueryCache() {
+
+        createCategory("First");
+        assertEquals(1, categoryDao.findByUserId(applicationUser.getUserId()).size());
+
+        statistics.clear();
+        assertEquals(1, categoryDao.findByUserId(applicationUser.getUserId()).size());
+        assertTrue(statistics.getQueryCacheHitCount() > 0);
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // the cached result is invalidated by the change of the 'category' table
+        createCategory("Second");
+        assertEquals(2, categoryDao.findByUserId(applicationUser.getUserId()).size());
+    }
+
+    @Test
+    public void shouldNotReadCategoriesOfWritesFromQueryCache() {
+
+        createCategory("ReadForWrite");
+        categoryDao.findUncachedByUserId(applicationUser.getUserId());
+        categoryDao.findByNameAndUserId("ReadForWrite", applicationUser.getUserId());
+
+        statistics.clear();
+        assertEquals(1, categoryDao.findUncachedByUserId(applicationUser.getUserId()).size());
+        assertEquals("ReadForWrite", categoryDao.findByNameAndUserId("ReadForWrite", applicationUser.getUserId()).getName());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    public void shouldNotCacheUsers() {
+
+        appUserDao.findByUsername(USERNAME);
+
+        statistics.clear();
+        assertEquals(applicationUser.getUserId(), appUserDao.findByUsername(USERNAME).getUserId());
+        assertEquals(0, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getSecondLevelCacheHitCount());
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+    }
+
+    @Test
+    public void shouldKeepCachedCategoriesOnBulkDeleteOfExpenses() {
+
+        long categoryId = createCategory("KeptOnDelete").getId();
+        categoryDao.findOne(categoryId);
+
+        expenseDao.deleteAllByUserId(applicationUser.getUserId());
+
+        statistics.clear();
+        categoryDao.findOne(categoryId);
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    }
+
+    private Category createCategory(String name) {
+
+        Category category = new Category();
+        category.setName(name);
+        category.setUser(applicationUser);
+        return categoryDao.save(category);
+    }
+
+    private AppUser createAppUser() {
+
+        AppUser appUser = new AppUser();
+        appUser.setFirstName("Florin");
+        appUser.setSurname("Iacob");
+        appUser.setPassword("TEST_PASS");
+        appUser.setUsername(USERNAME);
+        appUser.setBirthdate(new Date());
+        appUser.setEmail(USERNAME + "@my-money-tracker.ro");
+        return appUserDao.save(appUser);
+    }
+}
@@ -147,4 +147,50 @@ public class AuthenticationFilterTest {
         
         Assert.assertEquals(requestUrl + " should be authorized!", 200, response.getStatus());
     }
+
+    @Test
+    public void shouldPassSessionTokenAttempt() throws IOException, ServletException {
+
+        MockFilterChain filterChain = new MockFilterChain(false);
+
+        String authorizationString = sessionService.encodeUsernameAndPassword(username, password);
+        AuthenticatedSession authenticatedSession = new AuthenticatedSession(authorizationString, username, "1.1.1.1",
+                sessionService.calculateExpirationTimeStartingFromNow());
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        String sessionToken = sessionService.createSessionToken(authenticatedSession, 1L);
+
+        String requestUrl = BASE_URL + "/expense/find_all";
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUrl, "1.1.1.1");
+        request.putHeader("Authorization", "Bearer " + sessionToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        authenticationFilter.doFilter(request, response, filterChain);
+        Assert.assertEquals(requestUrl + " should be authorized!", 200, response.getStatus());
+
+        MockHttpServletRequest otherAddressRequest = new MockHttpServletRequest("GET", requestUrl, "2.2.2.2");
+        otherAddressRequest.putHeader("Authorization", "Bearer " + sessionToken);
+        MockHttpServletResponse otherAddressResponse = new MockHttpServletResponse();
+        authenticationFilter.doFilter(otherAddressRequest, otherAddressResponse, filterChain);
+        Assert.assertEquals(requestUrl + " should not be allowed from another address!", 401, otherAddressResponse.getStatus());
+
+        sessionService.revokeSessionToken("Bearer " + sessionToken, "1.1.1.1");
+        MockHttpServletResponse revokedResponse = new MockHttpServletResponse();
+        authenticationFilter.doFilter(request, revokedResponse, filterChain);
+        Assert.assertEquals(requestUrl + " should not be allowed after logout!", 401, revokedResponse.getStatus());
+    }
+
+    @Test
+    public void shouldNotPassPlaceholderOfTokenSession() throws IOException, ServletException {
+
+        MockFilterChain filterChain = new MockFilterChain(false);
+        sessionService.openTokenSession(username, 1L, "1.1.1.1");
+
+        String requestUrl = BASE_URL + "/monitoring/datasource";
+        for (String authorization : new String[] { "Bearer", "Bearer ", "bearer" }) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", requestUrl, "1.1.1.1");
+            request.putHeader("Authorization", authorization);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            authenticationFilter.doFilter(request, response, filterChain);
+            Assert.assertEquals("'" + authorization + "' should not be authorized!", 401, response.getStatus());
+        }
+    }
 }
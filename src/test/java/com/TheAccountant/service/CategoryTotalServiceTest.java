@@ -0,0 +1,113 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.dao.AppUserDao;
+import com.TheAccountant.dao.CategoryDao;
+import com.TheAccountant.dao.ExpenseDao;
+import com.TheAccountant.model.category.Category;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.user.AppUser;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.transaction.Transactional;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test class for the {@link CategoryTotalService}
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
+public class CategoryTotalServiceTest {
+
+    private static final LocalDate MAY = LocalDate.of(2017, 5, 10);
+    private static final LocalDate JUNE = LocalDate.of(2017, 6, 10);
+
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @Autowired
+    private CategoryDao categoryDao;
+
+    @Autowired
+    private ExpenseDao expenseDao;
+
+    private AppUser appUser;
+    private Category category;
+
+    @Before
+    public void initialize() {
+
+        appUser = new AppUser();
+        appUser.setFirstName("Florin");
+        appUser.setSurname("Iacob");
+        appUser.setPassword("TEST_PASS");
+        appUser.setBirthdate(new Date());
+        appUser.setUsername("florin.totals");
+        appUser.setEmail("florin.totals@gmail.com");
+        appUser.setDefaultCurrency(Currency.getInstance("RON"));
+        appUser = appUserDao.saveAndFlush(appUser);
+
+        category = new Category();
+        category.setName("totals_category");
+        category.setUser(appUser);
+        category = categoryDao.saveAndFlush(category);
+    }
+
+    @Test
+    public void shouldMaintainMonthTotalsIncrementally() {
+
+        List<Expense> expenses = Arrays.asList(saveExpense("2017-05-19 10:00:00", 10D, null),
+                saveExpense("2017-05-20 10:00:00", 10D, 45.5), saveExpense("2017-06-02 10:00:00", 7D, null));
+        categoryTotalService.addExpenses(expenses);
+
+        assertEquals(55.5, categoryTotalService.getMonthTotal(category.getId(), MAY), 0.0001);
+        assertEquals(7D, categoryTotalService.getMonthTotal(category.getId(), JUNE), 0.0001);
+
+        categoryTotalService.removeExpenses(Collections.singletonList(expenses.get(1)));
+        assertEquals(10D, categoryTotalService.getMonthTotal(category.getId(), MAY), 0.0001);
+    }
+
+    @Test
+    public void shouldRebuildTotalsFromExpenses() {
+
+        saveExpense("2017-05-19 10:00:00", 10D, null);
+        saveExpense("2017-05-20 10:00:00", 10D, 45.5);
+        categoryTotalService.adjustTotal(category.getId(), appUser.getUserId(), Timestamp.valueOf("2017-05-01 00:00:00"), 99D, 1);
+
+        categoryTotalService.rebuildUserTotals(appUser.getUserId());
+        assertEquals(55.5, categoryTotalService.getMonthTotal(category.getId(), MAY), 0.0001);
+        assertEquals(0D, categoryTotalService.getMonthTotal(category.getId(), JUNE), 0.0001);
+    }
+
+    private Expense saveExpense(String creationDate, Double amount, Double defaultCurrencyAmount) {
+
+        Expense expense = new Expense();
+        expense.setName("name1");
+        expense.setDescription("description1");
+        expense.setCategory(category);
+        expense.setUser(appUser);
+        expense.setCurrency("RON");
+        expense.setAmount(amount);
+        expense.setDefaultCurrencyAmount(defaultCurrencyAmount);
+        expense.setCreationDate(Timestamp.valueOf(creationDate));
+        return expenseDao.saveAndFlush(expense);
+    }
+}
@@ -0,0 +1,115 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.dao.AppUserDao;
+import com.TheAccountant.dao.ExchangeRateDao;
+import com.TheAccountant.dao.IncomeDao;
+import com.TheAccountant.model.currency.ExchangeRate;
+import com.TheAccountant.model.income.Income;
+import com.TheAccountant.model.user.AppUser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import javax.transaction.Transactional;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Currency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the {@link CurrencyRepricingService}
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
+public class CurrencyRepricingServiceTest {
+
+    private static final String DAY = "2017-05-19";
+
+    @Autowired
+    private CurrencyRepricingService currencyRepricingService;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private ExchangeRateDao exchangeRateDao;
+
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @Autowired
+    private IncomeDao incomeDao;
+
+    private AppUser appUser;
+
+    @Before
+    public void initialize() {
+
+        exchangeRateService.getRateCache().clear();
+        appUser = new AppUser();
+        appUser.setFirstName("Florin");
+        appUser.setSurname("Iacob");
+        appUser.setPassword("TEST_PASS");
+        appUser.setBirthdate(new java.util.Date());
+        appUser.setUsername("florin.repricing");
+        appUser.setEmail("florin.repricing@gmail.com");
+        appUser.setDefaultCurrency(Currency.getInstance("USD"));
+        appUser = appUserDao.saveAndFlush(appUser);
+    }
+
+    @After
+    public void clearCache() {
+        exchangeRateService.getRateCache().clear();
+    }
+
+    @Test
+    public void shouldConvertAmountsToNewDefaultCurrency() {
+
+        exchangeRateDao.save(new ExchangeRate("EUR", "USD", Date.valueOf(DAY), 1.1));
+        Income eurIncome = saveIncome("EUR", "RON", 450D);
+        Income usdIncome = saveIncome("USD", "RON", 900D);
+
+        assertTrue(currencyRepricingService.repriceUser(appUser.getUserId()));
+
+        eurIncome = incomeDao.findOne(eurIncome.getId());
+        assertEquals("USD", eurIncome.getDefaultCurrency());
+        assertEquals(110D, eurIncome.getDefaultCurrencyAmount(), 0.0001);
+        usdIncome = incomeDao.findOne(usdIncome.getId());
+        assertNull(usdIncome.getDefaultCurrency());
+        assertNull(usdIncome.getDefaultCurrencyAmount());
+    }
+
+    @Test
+    public void shouldReportAmountsWithoutExchangeRate() {
+
+        Income gbpIncome = saveIncome("GBP", "RON", 450D);
+
+        assertFalse(currencyRepricingService.repriceUser(appUser.getUserId()));
+        assertEquals("RON", incomeDao.findOne(gbpIncome.getId()).getDefaultCurrency());
+    }
+
+    private Income saveIncome(String currency, String oldDefaultCurrency, Double oldDefaultCurrencyAmount) {
+
+        Income income = new Income();
+        income.setName("name1");
+        income.setDescription("description1");
+        income.setCurrency(currency);
+        income.setAmount(100D);
+        income.setDefaultCurrency(oldDefaultCurrency);
+        income.setDefaultCurrencyAmount(oldDefaultCurrencyAmount);
+        income.setCreationDate(Timestamp.valueOf(DAY + " 10:00:00"));
+        income.setUser(appUser);
+        return incomeDao.saveAndFlush(income);
+    }
+}
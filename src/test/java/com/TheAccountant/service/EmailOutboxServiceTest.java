@@ -0,0 +1,193 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.dao.OutboxEmailDao;
+import com.TheAccountant.model.email.OutboxEmail;
+import com.TheAccountant.model.email.OutboxEmailStatus;
+import com.TheAccountant.testUtil.FakeSmtpServer;
+import com.TheAccountant.util.EmailSender;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.sql.Timestamp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link EmailOutboxService}, sending the emails to a local SMTP server. The test is not
+ * transactional, as the outbox workers only see committed emails.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+public class EmailOutboxServiceTest {
+
+    private static final String RECIPIENT = "outbox_user@my-money-tracker.ro";
+
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
+    @Autowired
+    private OutboxEmailDao outboxEmailDao;
+
+    @Autowired
+    private EmailSender emailSender;
+
+    private FakeSmtpServer smtpServer;
+
+    @Before
+    public void setup() {
+
+        outboxEmailDao.deleteAll();
+        smtpServer = FakeSmtpServer.start();
+        emailSender.setSmtpHost("localhost");
+        emailSender.setSmtpPort(smtpServer.getPort());
+        emailSender.setSmtpSsl(false);
+        emailSender.setSmtpAuth(false);
+    }
+
+    @After
+    public void cleanUp() {
+
+        smtpServer.stop();
+        outboxEmailDao.deleteAll();
+        emailSender.setSmtpHost("smtp.gmail.com");
+        emailSender.setSmtpPort(465);
+        emailSender.setSmtpSsl(true);
+        emailSender.setSmtpAuth(true);
+    }
+
+    @Test
+    public void shouldSendEnqueuedEmail() throws InterruptedException {
+
+        OutboxEmail email = new OutboxEmail(RECIPIENT, "Enqueued", "Sent by a worker");
+        emailOutboxService.enqueue(email);
+
+        OutboxEmail sentEmail = waitForStatus(email.getId(), OutboxEmailStatus.SENT);
+        assertNotNull(sentEmail.getSentDate());
+        assertTrue(sentEmail.getContent().isEmpty());
+        assertEquals(1, smtpServer.getMessages().size());
+        assertEquals(RECIPIENT, smtpServer.getMessages().get(0).getRecipient());
+        assertTrue(smtpServer.getMessages().get(0).getData().contains("Subject: Enqueued"));
+    }
+
+    @Test
+    public void shouldSendDueEmailsThroughOneConnection() {
+
+        for (int i = 0; i < 3; i++) {
+            outboxEmailDao.save(createDueEmail("Email" + i, 0));
+        }
+
+        assertEquals(3, emailOutboxService.deliverDueEmails());
+        assertEquals(3, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals(3, outboxEmailDao.countByStatus(OutboxEmailStatus.SENT));
+        assertEquals(0, emailOutboxService.deliverDueEmails());
+    }
+
+    @Test
+    public void shouldReuseConnectionAcrossDrains() {
+
+        long sentBefore = emailSender.getDeliveryTimeHistogram().getCount();
+        outboxEmailDao.save(createDueEmail("FirstDrain", 0));
+        assertEquals(1, emailOutboxService.deliverDueEmails());
+        assertEquals(1, emailSender.getTransportPool().getIdleCount());
+
+        outboxEmailDao.save(createDueEmail("SecondDrain", 0));
+        assertEquals(1, emailOutboxService.deliverDueEmails());
+        assertEquals(2, smtpServer.getMessages().size());
+        assertEquals(1, smtpServer.getConnectionCount());
+        assertEquals(sentBefore + 2, emailSender.getDeliveryTimeHistogram().getCount());
+    }
+
+    @Test
+    public void shouldRetryEmailWhenServerIsDown() {
+
+        long emailId = outboxEmailDao.save(createDueEmail("Retried", 0)).getId();
+        smtpServer.stop();
+        long failedBefore = emailSender.getFailedDeliveries();
+
+        assertEquals(0, emailOutboxService.deliverDueEmails());
+        assertEquals(failedBefore + 1, emailSender.getFailedDeliveries());
+        OutboxEmail failedEmail = outboxEmailDao.findOne(emailId);
+        assertEquals(OutboxEmailStatus.PENDING, failedEmail.getStatus());
+        assertEquals(1, failedEmail.getAttempts());
+        assertTrue(failedEmail.getNextAttemptDate().getTime() > System.currentTimeMillis());
+        assertNotNull(failedEmail.getLastError());
+
+        // the email is not due before the end of the backoff
+        assertEquals(0, emailOutboxService.deliverDueEmails());
+
+        smtpServer = FakeSmtpServer.start();
+        emailSender.setSmtpPort(smtpServer.getPort());
+        failedEmail.setNextAttemptDate(new Timestamp(System.currentTimeMillis()));
+        outboxEmailDao.save(failedEmail);
+
+        assertEquals(1, emailOutboxService.deliverDueEmails());
+        assertEquals(OutboxEmailStatus.SENT, outboxEmailDao.findOne(emailId).getStatus());
+        assertEquals(1, smtpServer.getMessages().size());
+    }
+
+    @Test
+    public void shouldDropEmailAfterMaximumAttempts() {
+
+        long emailId = outboxEmailDao.save(createDueEmail("Dropped", 7)).getId();
+        smtpServer.stop();
+
+        assertEquals(0, emailOutboxService.deliverDueEmails());
+        OutboxEmail droppedEmail = outboxEmailDao.findOne(emailId);
+        assertEquals(OutboxEmailStatus.FAILED, droppedEmail.getStatus());
+        assertEquals(8, droppedEmail.getAttempts());
+        assertTrue(droppedEmail.getContent().isEmpty());
+    }
+
+    @Test
+    public void shouldPurgeFinishedEmails() {
+
+        OutboxEmail oldEmail = createDueEmail("Old", 0);
+        oldEmail.setStatus(OutboxEmailStatus.SENT);
+        oldEmail.setSentDate(new Timestamp(System.currentTimeMillis() - 30L * 24 * 60 * 60 * 1000));
+        long oldEmailId = outboxEmailDao.save(oldEmail).getId();
+        OutboxEmail recentEmail = createDueEmail("Recent", 0);
+        recentEmail.setStatus(OutboxEmailStatus.SENT);
+        recentEmail.setSentDate(new Timestamp(System.currentTimeMillis()));
+        long recentEmailId = outboxEmailDao.save(recentEmail).getId();
+        long pendingEmailId = outboxEmailDao.save(createDueEmail("Pending", 0)).getId();
+
+        assertEquals(1, emailOutboxService.purgeFinishedEmails());
+        assertNull(outboxEmailDao.findOne(oldEmailId));
+        assertNotNull(outboxEmailDao.findOne(recentEmailId));
+        assertNotNull(outboxEmailDao.findOne(pendingEmailId));
+    }
+
+    private OutboxEmail createDueEmail(String subject, int attempts) {
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        OutboxEmail email = new OutboxEmail(RECIPIENT, subject, "Content of " + subject);
+        email.setStatus(OutboxEmailStatus.PENDING);
+        email.setAttempts(attempts);
+        email.setCreationDate(now);
+        email.setNextAttemptDate(now);
+        return email;
+    }
+
+    private OutboxEmail waitForStatus(long emailId, OutboxEmailStatus status) throws InterruptedException {
+
+        long deadline = System.currentTimeMillis() + 10000;
+        OutboxEmail email = outboxEmailDao.findOne(emailId);
+        while (email.getStatus() != status && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            email = outboxEmailDao.findOne(emailId);
+        }
+        assertEquals(status, email.getStatus());
+        return email;
+    }
+}
@@ -0,0 +1,167 @@
+package com.TheAccountant.service;
+
+import com.TheAccountant.controller.exception.BadRequestException;
+import com.TheAccountant.dao.ExchangeRateDao;
+import com.TheAccountant.model.currency.ExchangeRate;
+import com.TheAccountant.service.impl.ExchangeRateLoader;
+import com.TheAccountant.service.impl.ExchangeRateServiceImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.context.transaction.AfterTransaction;
+
+import javax.transaction.Transactional;
+import java.io.IOException;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { "/spring-config.xml" })
+@TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
+public class ExchangeRateServiceTest {
+
+    private static final Currency RON = Currency.getInstance("RON");
+
+    @Autowired
+    private ExchangeRateServiceImpl exchangeRateService;
+
+    @Autowired
+    private ExchangeRateLoader exchangeRateLoader;
+
+    @Autowired
+    private ExchangeRateDao exchangeRateDao;
+
+    private ExchangeRateSource originalSource;
+
+    private final List<String> fetchedDays = new ArrayList<>();
+
+    private final List<ExchangeRate> fetchedRates = new ArrayList<>();
+
+    @Before
+    public void initialize() {
+
+        originalSource = exchangeRateLoader.getExchangeRateSource();
+        exchangeRateLoader.setExchangeRateSource((baseCurrency, targetCurrencies, day) -> {
+            fetchedDays.add(day.toString());
+            Map<String, Double> rates = new HashMap<>();
+            targetCurrencies.forEach(targetCurrency -> {
+                rates.put(targetCurrency, 4.5);
+                fetchedRates.add(new ExchangeRate(baseCurrency, targetCurrency, Date.valueOf(day), 4.5));
+            });
+            return rates;
+        });
+        exchangeRateService.getRateCache().clear();
+    }
+
+    @After
+    public void restoreSource() {
+
+        exchangeRateLoader.setExchangeRateSource(originalSource);
+        exchangeRateService.setFetchOnMiss(false);
+        exchangeRateService.getRateCache().clear();
+    }
+
+    /**
+     * The fetched rates are registered in their own transaction, they are not rolled back with the test.
+     */
+    @AfterTransaction
+    public void deleteFetchedRates() {
+
+        for (ExchangeRate fetchedRate : fetchedRates) {
+            exchangeRateDao.findByBaseCurrencyAndRateDay(fetchedRate.getBaseCurrency(), fetchedRate.getRateDay()).stream()
+                    .filter(exchangeRate -> exchangeRate.getTargetCurrency().equals(fetchedRate.getTargetCurrency()))
+                    .forEach(exchangeRateDao::delete);
+        }
+    }
+
+    @Test
+    public void shouldReturnOneForSameCurrency() {
+        assertEquals(1D, exchangeRateService.getExchangeRateOnDay("RON", RON, "2017-05-19"), 0);
+    }
+
+    @Test
+    public void shouldReadRegisteredRateWithoutCallingSource() {
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+
+        assertEquals(4.55, exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19"), 0);
+        assertTrue(fetchedDays.isEmpty());
+    }
+
+    @Test
+    public void shouldServeSecondLookupFromCache() {
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+
+        exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19");
+        exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19");
+        assertEquals(1, exchangeRateService.getRateCache().getHits());
+    }
+
+    @Test
+    public void shouldUseLastRateBeforeDay() {
+        exchangeRateDao.save(new ExchangeRate("EUR", "RON", Date.valueOf("2017-05-19"), 4.55));
+
+        assertEquals(4.55, exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-21"), 0);
+        assertTrue(fetchedDays.isEmpty());
+    }
+
+    @Test
+    public void shouldNotFetchMissingRateByDefault() {
+        assertNull(exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19"));
+        assertTrue(fetchedDays.isEmpty());
+    }
+
+    @Test
+    public void shouldFetchRateWithoutEarlierRate() {
+        exchangeRateService.setFetchOnMiss(true);
+
+        assertEquals(4.5, exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19"), 0);
+        assertEquals(Collections.singletonList("2017-05-19"), fetchedDays);
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void shouldRejectCurrencyUnknownToSource() {
+        exchangeRateService.setFetchOnMiss(true);
+        exchangeRateLoader.setExchangeRateSource((baseCurrency, targetCurrencies, day) -> new HashMap<>());
+
+        exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19");
+    }
+
+    @Test
+    public void shouldReturnNullWhenSourceIsUnreachable() {
+        exchangeRateService.setFetchOnMiss(true);
+        exchangeRateLoader.setExchangeRateSource((baseCurrency, targetCurrencies, day) -> {
+            throw new IOException("unreachable");
+        });
+
+        assertNull(exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19"));
+    }
+
+    @Test
+    public void shouldLoadRequestedRates() {
+        exchangeRateLoader.requestRates("EUR", LocalDate.parse("2017-05-19"));
+        exchangeRateLoader.loadRequestedRates();
+
+        assertTrue(fetchedDays.contains("2017-05-19"));
+    }
+
+    @Test
+    public void shouldNotFetchRegisteredRatesAgain() {
+        Set<String> currencies = new HashSet<>(Arrays.asList("EUR", "RON"));
+        exchangeRateLoader.loadRates("EUR", LocalDate.parse("2017-05-19"), currencies);
+        exchangeRateLoader.loadRates("EUR", LocalDate.parse("2017-05-19"), currencies);
+
+        assertEquals(1, fetchedDays.size());
+        assertEquals(4.5, exchangeRateService.getExchangeRateOnDay("EUR", RON, "2017-05-19"), 0);
+    }
+}
@@ -64,7 +64,7 @@ public class LoanNotificationServiceTest {
         Loan loan = createLoan();
         loanDao.save(loan);
         loanNotificationService.addLoanNotifications();
-        List<Notification> notifications = notificationDao.fetchAll(appUser.getUsername());
+        List<Notification> notifications = notificationDao.fetchAll(appUser.getUserId(), 10, 0);
         assertTrue(!notifications.isEmpty());
      }
 
@@ -26,6 +26,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
 import javax.transaction.Transactional;
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.Currency;
 import java.util.Date;
 
@@ -56,6 +57,9 @@ public class NotificationServiceTest {
     @Autowired
     private ExpenseDao expenseDao;
 
+    @Autowired
+    private CategoryTotalService categoryTotalService;
+
     @Autowired
     private PaymentController paymentController;
 
@@ -122,6 +126,7 @@ public class NotificationServiceTest {
         expense.setAmount(amount);
         expense.setCategory(category);
         expense = expenseDao.save(expense);
+        categoryTotalService.addExpenses(Collections.singletonList(expense));
         return expense;
     }
 
@@ -5,7 +5,9 @@ import com.TheAccountant.model.category.Category;
 import com.TheAccountant.model.expense.Expense;
 import com.TheAccountant.model.income.Income;
 import com.TheAccountant.model.user.AppUser;
+import com.TheAccountant.service.impl.ExchangeRateServiceImpl;
 import com.TheAccountant.service.impl.RecurrentEventService;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -52,6 +54,9 @@ public class RecurrentEventServiceTest {
     @Autowired
     private CategoryDao categoryDao;
 
+    @Autowired
+    private ExchangeRateServiceImpl exchangeRateService;
+
     private AppUser applicationUser = null;
 
     private Category category = null;
@@ -61,6 +66,14 @@ public class RecurrentEventServiceTest {
 
         applicationUser = createAppUser("test@my-money-tracker.ro", "user1");
         category = createCategory(applicationUser);
+        // the converted amounts are expected on a database without registered rates
+        exchangeRateService.setFetchOnMiss(true);
+    }
+
+    @After
+    public void restoreFetchOnMiss() {
+
+        exchangeRateService.setFetchOnMiss(false);
     }
 
     @Test
@@ -68,7 +81,7 @@ public class RecurrentEventServiceTest {
         Expense expense = createExpenseWithMonthlyFrequency();
         assertTrue(expense.getId() > 0);
         recurrentEventService.addRecurrentExpenseEvents();
-        Set<Expense> expenses = expenseDao.findByUsername(expense.getUser().getUsername());
+        List<Expense> expenses = expenseDao.findByUserId(expense.getUser().getUserId());
         assertEquals(2, expenses.size());
     }
 
@@ -79,7 +92,7 @@ public class RecurrentEventServiceTest {
         expenseDao.save(expense);
         assertTrue(expense.getId() > 0);
         recurrentEventService.addRecurrentExpenseEvents();
-        Set<Expense> expenses = expenseDao.findByUsername(expense.getUser().getUsername());
+        List<Expense> expenses = expenseDao.findByUserId(expense.getUser().getUserId());
         assertEquals(2, expenses.size());
     }
 
@@ -112,7 +125,7 @@ public class RecurrentEventServiceTest {
         expenseDao.save(expense);
         assertTrue(expense.getId() > 0);
         recurrentEventService.addRecurrentExpenseEvents();
-        Set<Expense> expenses = expenseDao.findByUsername(expense.getUser().getUsername());
+        List<Expense> expenses = expenseDao.findByUserId(expense.getUser().getUserId());
         assertEquals(2, expenses.size());
     }
 
@@ -121,7 +134,7 @@ public class RecurrentEventServiceTest {
         Income income = createIncomeWithMonthlyFrequency();
         assertTrue(income.getId() > 0);
         recurrentEventService.addRecurrentIncomeEvents();
-        List<Income> incomes = incomeDao.findByUsername(income.getUser().getUsername());
+        List<Income> incomes = incomeDao.findByUserId(income.getUser().getUserId());
         assertEquals(2, incomes.size());
     }
 
@@ -131,7 +144,7 @@ public class RecurrentEventServiceTest {
         income.setCurrency("RON");
         assertTrue(income.getId() > 0);
         recurrentEventService.addRecurrentIncomeEvents();
-        List<Income> incomes = incomeDao.findByUsername(income.getUser().getUsername());
+        List<Income> incomes = incomeDao.findByUserId(income.getUser().getUserId());
         assertEquals(2, incomes.size());
         assertNotNull(incomes.get(1).getDefaultCurrency());
         assertNotNull(incomes.get(1).getDefaultCurrencyAmount());
@@ -142,7 +155,7 @@ public class RecurrentEventServiceTest {
         Expense expense = createExpenseWith2MonthFrequency();
         assertTrue(expense.getId() > 0);
         recurrentEventService.addRecurrentExpenseEvents();
-        Set<Expense> expenses = expenseDao.findByUsername(expense.getUser().getUsername());
+        List<Expense> expenses = expenseDao.findByUserId(expense.getUser().getUserId());
         assertEquals(2, expenses.size());
     }
 
@@ -151,7 +164,7 @@ public class RecurrentEventServiceTest {
         Income income = createIncomeWith2MonthFrequency();
         assertTrue(income.getId() > 0);
         recurrentEventService.addRecurrentIncomeEvents();
-        List<Income> incomes = incomeDao.findByUsername(income.getUser().getUsername());
+        List<Income> incomes = incomeDao.findByUserId(income.getUser().getUserId());
         assertEquals(2, incomes.size());
     }
 
@@ -160,7 +173,7 @@ public class RecurrentEventServiceTest {
         Expense expense = createExpenseWithQuarterlyFrequency();
         assertTrue(expense.getId() > 0);
         recurrentEventService.addRecurrentExpenseEvents();
-        Set<Expense> expenses = expenseDao.findByUsername(expense.getUser().getUsername());
+        List<Expense> expenses = expenseDao.findByUserId(expense.getUser().getUserId());
         assertEquals(2, expenses.size());
     }
 
@@ -196,7 +209,7 @@ public class RecurrentEventServiceTest {
         expenseDao.save(expense);
 
         recurrentEventService.addRecurrentExpenseEvents();
-        Set<Expense> expenses = expenseDao.findByUsername(expense.getUser().getUsername());
+        List<Expense> expenses = expenseDao.findByUserId(expense.getUser().getUserId());
         assertEquals(1, expenses.size());
     }
 
@@ -231,7 +244,7 @@ public class RecurrentEventServiceTest {
         incomeDao.save(income);
 
         recurrentEventService.addRecurrentIncomeEvents();
-        List<Income> incomes = incomeDao.findByUsername(income.getUser().getUsername());
+        List<Income> incomes = incomeDao.findByUserId(income.getUser().getUserId());
         assertEquals(1, incomes.size());
     }
 
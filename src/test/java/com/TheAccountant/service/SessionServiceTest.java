@@ -1,6 +1,7 @@
 package com.TheAccountant.service;
 
 import java.sql.Timestamp;
+import java.util.Collections;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -12,6 +13,7 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import com.TheAccountant.app.authentication.SessionToken;
 import com.TheAccountant.dao.AuthenticatedSessionDao;
 import com.TheAccountant.model.session.AuthenticatedSession;
 
@@ -49,8 +51,10 @@ public class SessionServiceTest {
     @After
     public void cleanUp() {
         
+        sessionService.flushRemovedAuthenticatedSessions();
         authenticatedSessionDao.deleteAll();
         authenticatedSessionDao.flush();
+        sessionService.reloadAuthenticatedSessions();
     }
     
     @Test
@@ -67,6 +71,19 @@ public class SessionServiceTest {
         Assert.assertFalse(added);
     }
     
+    @Test
+    public void shouldInsertAddedSessionOnFlush() {
+
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        Assert.assertTrue(authenticatedSession.getId() > 0);
+
+        sessionService.flushAddedAuthenticatedSessions();
+        AuthenticatedSession storedSession = authenticatedSessionDao.findOne(authenticatedSession.getId());
+        Assert.assertNotNull(storedSession);
+        Assert.assertEquals(authorizationString, storedSession.getAuthorization());
+        Assert.assertEquals(clientIpAddress, storedSession.getIpAddress());
+    }
+
     @Test
     public void shouldRemoveAuthenticationSession() {
     
@@ -109,6 +126,151 @@ public class SessionServiceTest {
         Assert.assertFalse("Should be an expired Authenticated Session!", isValid);
     }
     
+    @Test
+    public void shouldValidateIndexedSessionWithoutDatabase() {
+
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        authenticatedSessionDao.deleteAll();
+        authenticatedSessionDao.flush();
+
+        Assert.assertTrue(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+    }
+
+    @Test
+    public void shouldDeleteRemovedSessionFromDatabase() {
+
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        sessionService.flushAddedAuthenticatedSessions();
+        sessionService.removeAuthenticatedSession(authorizationString, clientIpAddress);
+        Assert.assertEquals(1, authenticatedSessionDao.findByAuthorizationStringAndIpAddress(authorizationString, clientIpAddress).size());
+
+        sessionService.flushRemovedAuthenticatedSessions();
+        Assert.assertTrue(authenticatedSessionDao.findByAuthorizationStringAndIpAddress(authorizationString, clientIpAddress).isEmpty());
+        Assert.assertFalse(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+    }
+
+    @Test
+    public void shouldNotQueryUnknownSessionAgainWhileMissIsRecent() {
+
+        Assert.assertFalse(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+        authenticatedSessionDao.saveAndFlush(authenticatedSession);
+
+        Assert.assertFalse(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+
+        sessionService.addAuthenticatedSession(new AuthenticatedSession(authorizationString, username, clientIpAddress,
+                expirationTime));
+        Assert.assertTrue(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+    }
+
+    @Test
+    public void shouldReloadSessionsFromDatabase() {
+
+        authenticatedSessionDao.saveAndFlush(authenticatedSession);
+        AuthenticatedSession expiredSession = new AuthenticatedSession(authorizationString, username, "2.2.2.2",
+                new Timestamp(System.currentTimeMillis() - 1000));
+        authenticatedSessionDao.saveAndFlush(expiredSession);
+        sessionService.reloadAuthenticatedSessions();
+
+        Assert.assertTrue(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+        Assert.assertFalse(sessionService.isAValidAuthenticationString(authorizationString, "2.2.2.2"));
+    }
+
+    @Test
+    public void shouldCleanUpExpiredSessions() {
+
+        authenticatedSessionDao.saveAndFlush(authenticatedSession);
+        for (int i = 0; i < 5; i++) {
+            authenticatedSessionDao.saveAndFlush(new AuthenticatedSession(authorizationString, username, "2.2.2." + i,
+                    new Timestamp(System.currentTimeMillis() - 1000)));
+        }
+        sessionService.scheduleAuthenticatedSessionsCleanUp();
+
+        Assert.assertEquals(1, authenticatedSessionDao.count());
+        Assert.assertTrue(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+    }
+
+    @Test
+    public void shouldValidateSessionToken() {
+
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        String sessionToken = sessionService.createSessionToken(authenticatedSession, 42L);
+
+        SessionToken validatedToken = sessionService.validateSessionToken("Bearer " + sessionToken, clientIpAddress);
+        Assert.assertNotNull(validatedToken);
+        Assert.assertEquals(authenticatedSession.getId(), validatedToken.getSessionId());
+        Assert.assertEquals(42L, validatedToken.getUserId());
+        Assert.assertEquals(username, validatedToken.getUsername());
+        Assert.assertNull(sessionService.validateSessionToken("Bearer " + sessionToken, "2.2.2.2"));
+    }
+
+    @Test
+    public void shouldOpenTokenSessionWithoutCredentials() {
+
+        String authorization = "Bearer " + sessionService.openTokenSession(username, 42L, clientIpAddress);
+        sessionService.flushAddedAuthenticatedSessions();
+
+        SessionToken validatedToken = sessionService.validateSessionToken(authorization, clientIpAddress);
+        Assert.assertNotNull(validatedToken);
+        AuthenticatedSession storedSession = authenticatedSessionDao.findOne(validatedToken.getSessionId());
+        Assert.assertNotEquals(authorizationString, storedSession.getAuthorization());
+        Assert.assertFalse(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+    }
+
+    @Test
+    public void shouldNotValidateTamperedSessionToken() {
+
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        String sessionToken = sessionService.createSessionToken(authenticatedSession, 42L);
+        String otherToken = sessionService.createSessionToken(
+                new AuthenticatedSession(authorizationString, "other_user", clientIpAddress, expirationTime), 43L);
+        String tamperedToken = otherToken.substring(0, otherToken.indexOf('.')) + sessionToken.substring(sessionToken.indexOf('.'));
+
+        Assert.assertNull(sessionService.validateSessionToken("Bearer " + tamperedToken, clientIpAddress));
+        Assert.assertNull(sessionService.validateSessionToken("Bearer invalid_token", clientIpAddress));
+        Assert.assertNull(sessionService.validateSessionToken(sessionToken, clientIpAddress));
+        Assert.assertNull(sessionService.validateSessionToken(null, clientIpAddress));
+    }
+
+    @Test
+    public void shouldNotValidateExpiredSessionToken() {
+
+        authenticatedSession.setExpirationTime(new Timestamp(System.currentTimeMillis() - 1000));
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        String sessionToken = sessionService.createSessionToken(authenticatedSession, 42L);
+
+        Assert.assertNull(sessionService.validateSessionToken("Bearer " + sessionToken, clientIpAddress));
+    }
+
+    @Test
+    public void shouldRevokeSessionToken() {
+
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        String authorization = "Bearer " + sessionService.createSessionToken(authenticatedSession, 42L);
+
+        Assert.assertTrue(sessionService.revokeSessionToken(authorization, clientIpAddress));
+        Assert.assertNull(sessionService.validateSessionToken(authorization, clientIpAddress));
+        Assert.assertFalse(sessionService.revokeSessionToken(authorization, clientIpAddress));
+        Assert.assertFalse(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+
+        sessionService.flushRemovedAuthenticatedSessions();
+        Assert.assertNotNull(authenticatedSessionDao.findOne(authenticatedSession.getId()).getRevocationTime());
+    }
+
+    @Test
+    public void shouldDenySessionTokenRevokedByAnotherNode() {
+
+        sessionService.addAuthenticatedSession(authenticatedSession);
+        String authorization = "Bearer " + sessionService.createSessionToken(authenticatedSession, 42L);
+        Assert.assertNotNull(sessionService.validateSessionToken(authorization, clientIpAddress));
+
+        sessionService.flushAddedAuthenticatedSessions();
+        authenticatedSessionDao.revokeByIdIn(Collections.singletonList(authenticatedSession.getId()));
+        sessionService.syncRevokedSessions();
+
+        Assert.assertNull(sessionService.validateSessionToken(authorization, clientIpAddress));
+        Assert.assertFalse(sessionService.isAValidAuthenticationString(authorizationString, clientIpAddress));
+    }
+
     @Test
     public void shouldEncodeDecodeAuthorizationString() {
         
@@ -0,0 +1,149 @@
+package com.TheAccountant.testUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in of an SMTP server, accepting every message without authentication and keeping the
+ * received messages in memory.
+ */
+public class FakeSmtpServer {
+
+    private final ServerSocket serverSocket;
+    private final List<ReceivedMessage> messages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private FakeSmtpServer() throws IOException {
+
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(this::acceptConnections, "fake-smtp-server");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    /**
+     * Start a server on a free local port
+     */
+    public static FakeSmtpServer start() {
+        try {
+            return new FakeSmtpServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void stop() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public List<ReceivedMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * @return the number of SMTP connections opened to the server
+     */
+    public int getConnectionCount() {
+        return connectionCount.get();
+    }
+
+    private void acceptConnections() {
+
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connectionCount.incrementAndGet();
+                Thread sessionThread = new Thread(() -> handleSession(socket), "fake-smtp-session");
+                sessionThread.setDaemon(true);
+                sessionThread.start();
+            } catch (IOException e) {
+                // the server was stopped
+            }
+        }
+    }
+
+    private void handleSession(Socket socket) {
+
+        try (Socket session = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(session.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream output = session.getOutputStream();
+            reply(output, "220 localhost fake SMTP server");
+            String recipient = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(output, "250 localhost");
+                } else if (command.startsWith("MAIL FROM")) {
+                    reply(output, "250 OK");
+                } else if (command.startsWith("RCPT TO")) {
+                    recipient = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+                    reply(output, "250 OK");
+                } else if (command.equals("DATA")) {
+                    reply(output, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while ((line = reader.readLine()) != null && !line.equals(".")) {
+                        data.append(line).append('\n');
+                    }
+                    messages.add(new ReceivedMessage(recipient, data.toString()));
+                    reply(output, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(output, "221 Bye");
+                    return;
+                } else if (command.equals("RSET") || command.equals("NOOP")) {
+                    reply(output, "250 OK");
+                } else {
+                    reply(output, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // the client or the server closed the connection
+        }
+    }
+
+    private void reply(OutputStream output, String line) throws IOException {
+
+        output.write((line + "\r\n").getBytes(StandardCharsets.UTF_8));
+        output.flush();
+    }
+
+    public static class ReceivedMessage {
+
+        private final String recipient;
+        private final String data;
+
+        private ReceivedMessage(String recipient, String data) {
+            this.recipient = recipient;
+            this.data = data;
+        }
+
+        public String getRecipient() {
+            return recipient;
+        }
+
+        /**
+         * @return the headers and the body of the message
+         */
+        public String getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.TheAccountant.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link EmailTemplate}
+ */
+public class EmailTemplateTest {
+
+    @Test
+    public void shouldRenderVariablesInAnyOrder() {
+        EmailTemplate template = EmailTemplate.compile("test", "<a href='{{url}}'>{{name}}</a>, {{ name }}!",
+                "name", "url");
+
+        assertEquals("<a href='http://test/1'>Florin</a>, Florin!", template.render("Florin", "http://test/1"));
+        assertEquals("<a href='http://test/2'>Ana</a>, Ana!", template.render("Ana", "http://test/2"));
+    }
+
+    @Test
+    public void shouldEscapeValues() {
+        EmailTemplate template = EmailTemplate.compile("test", "<h2>{{name}}</h2>", "name");
+
+        assertEquals("<h2>&lt;script&gt;&amp;&quot;&#39;</h2>", template.render("<script>&\"'"));
+    }
+
+    @Test
+    public void shouldRenderTemplateWithoutVariables() {
+        EmailTemplate template = EmailTemplate.compile("test", "<p>Static</p>");
+
+        assertEquals("<p>Static</p>", template.render());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCompileUnknownVariable() {
+        EmailTemplate.compile("test", "Hello, {{username}}!", "name");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCompileUnclosedVariable() {
+        EmailTemplate.compile("test", "Hello, {{name!", "name");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotRenderWithMissingValues() {
+        EmailTemplate.compile("test", "{{first}} {{second}}", "first", "second").render("only");
+    }
+
+    @Test
+    public void shouldLoadTemplateFromClasspath() {
+        EmailTemplate template = EmailTemplate.load("email/account_activation.html", "username", "activationUrl");
+
+        String content = template.render("Florin", "http://localhost/activate/code");
+        assertTrue(content.contains("Hello, Florin!"));
+        assertTrue(content.contains("<a href='http://localhost/activate/code'>ACTIVATION LINK</a>"));
+    }
+}
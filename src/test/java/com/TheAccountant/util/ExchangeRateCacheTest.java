@@ -0,0 +1,51 @@
+package com.TheAccountant.util;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link ExchangeRateCache}
+ */
+public class ExchangeRateCacheTest {
+
+    private static final String PAST_DAY = "2017-05-20";
+
+    @Test
+    public void shouldReturnCachedRate() {
+        ExchangeRateCache cache = new ExchangeRateCache(10, 1000);
+        assertNull(cache.get("EUR", "USD", PAST_DAY));
+        cache.put("EUR", "USD", PAST_DAY, 1.12);
+        assertEquals(1.12, cache.get("EUR", "USD", PAST_DAY), 0.0001);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedRate() {
+        ExchangeRateCache cache = new ExchangeRateCache(2, 1000);
+        cache.put("EUR", "USD", PAST_DAY, 1.12);
+        cache.put("EUR", "RON", PAST_DAY, 4.55);
+        cache.get("EUR", "USD", PAST_DAY);
+        cache.put("EUR", "GBP", PAST_DAY, 0.86);
+
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("EUR", "RON", PAST_DAY));
+    }
+
+    @Test
+    public void shouldExpireTodayRate() throws InterruptedException {
+        String today = LocalDate.now().toString();
+        ExchangeRateCache cache = new ExchangeRateCache(10, 1);
+        cache.put("EUR", "USD", today, 1.12);
+        cache.put("EUR", "USD", PAST_DAY, 1.12);
+        Thread.sleep(5);
+
+        assertNull(cache.get("EUR", "USD", today));
+        assertEquals(1.12, cache.get("EUR", "USD", PAST_DAY), 0.0001);
+    }
+}
@@ -0,0 +1,36 @@
+package com.TheAccountant.util;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link LatencyHistogram}
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldRecordMeasurementsInBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(500_000L);
+        histogram.record(3_000_000L);
+        histogram.record(10_000_000_000L);
+
+        Map<String, Long> buckets = histogram.getBuckets();
+        assertEquals(3, histogram.getCount());
+        assertEquals(Long.valueOf(1), buckets.get("<=1ms"));
+        assertEquals(Long.valueOf(1), buckets.get("<=5ms"));
+        assertEquals(Long.valueOf(1), buckets.get(">5000ms"));
+        assertEquals(10_000D, histogram.getMaxMillis(), 0.001);
+    }
+
+    @Test
+    public void shouldHaveZeroMeanWhenEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertTrue(histogram.getMeanMillis() == 0D);
+    }
+}
@@ -0,0 +1,48 @@
+package com.TheAccountant.util;
+
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test class for {@link PageCursor}
+ */
+public class PageCursorTest {
+
+    @Test
+    public void shouldDecodeEncodedCursor() {
+        Timestamp creationDate = Timestamp.valueOf("2017-05-20 10:15:30.123456");
+        PageCursor cursor = PageCursor.decode(new PageCursor(creationDate, 42).encode());
+        assertEquals(creationDate, cursor.getCreationDate());
+        assertEquals(42, cursor.getId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotDecodeInvalidCursor() {
+        PageCursor.decode("not a cursor");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotDecodeCursorWithMissingParts() {
+        PageCursor.decode(Base64.getUrlEncoder().encodeToString("1495275330123:42".getBytes()));
+    }
+
+    @Test
+    public void shouldCreateNextTokenOnlyForFullPages() {
+        Timestamp creationDate = Timestamp.valueOf("2017-05-20 10:15:30");
+        List<Timestamp> page = Arrays.asList(creationDate, creationDate);
+
+        assertNull(PageCursor.nextToken(page, 3, row -> row, row -> 1L));
+        assertNull(PageCursor.nextToken(Collections.<Timestamp>emptyList(), 3, row -> row, row -> 1L));
+        PageCursor cursor = PageCursor.decode(PageCursor.nextToken(page, 2, row -> row, row -> 7L));
+        assertEquals(creationDate, cursor.getCreationDate());
+        assertEquals(7, cursor.getId());
+    }
+}
@@ -0,0 +1,104 @@
+package com.TheAccountant.util;
+
+import com.TheAccountant.controller.exception.ServiceUnavailableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for {@link PasswordEncrypt}
+ */
+public class PasswordEncryptTest {
+
+    private static final String PASSWORD = "Password1234";
+
+    private PasswordEncrypt passwordEncrypt;
+
+    @Before
+    public void setup() {
+        passwordEncrypt = new PasswordEncrypt();
+        passwordEncrypt.setAlgorithm("SHA-256");
+        passwordEncrypt.setIterations(1000);
+        passwordEncrypt.setHashingThreads(1);
+        passwordEncrypt.startHashingExecutor();
+    }
+
+    @After
+    public void cleanUp() {
+        passwordEncrypt.stopHashingExecutor();
+    }
+
+    @Test
+    public void shouldMatchHashedPassword() {
+        String hash = passwordEncrypt.encryptPassword(PASSWORD);
+
+        assertTrue(hash.startsWith("$pbkdf2-sha256$1000$"));
+        assertTrue(passwordEncrypt.matches(PASSWORD, hash));
+        assertFalse(passwordEncrypt.matches("Password12345", hash));
+        assertFalse(passwordEncrypt.needsRehash(hash));
+    }
+
+    @Test
+    public void shouldSaltEachHash() {
+        assertNotEquals(passwordEncrypt.encryptPassword(PASSWORD), passwordEncrypt.encryptPassword(PASSWORD));
+    }
+
+    @Test
+    public void shouldMatchLegacyHash() throws NoSuchAlgorithmException {
+        StringBuilder legacyHash = new StringBuilder();
+        for (byte hashByte : MessageDigest.getInstance("SHA-256").digest(PASSWORD.getBytes())) {
+            legacyHash.append(String.format("%02x", hashByte));
+        }
+
+        assertTrue(passwordEncrypt.matches(PASSWORD, legacyHash.toString()));
+        assertFalse(passwordEncrypt.matches("Password12345", legacyHash.toString()));
+        assertTrue(passwordEncrypt.needsRehash(legacyHash.toString()));
+    }
+
+    @Test
+    public void shouldRehashWhenIterationsAreRaised() {
+        String hash = passwordEncrypt.encryptPassword(PASSWORD);
+        passwordEncrypt.setIterations(2000);
+
+        assertTrue(passwordEncrypt.needsRehash(hash));
+        assertTrue(passwordEncrypt.matches(PASSWORD, hash));
+    }
+
+    @Test
+    public void shouldNotMatchMalformedHash() {
+        assertFalse(passwordEncrypt.matches(PASSWORD, "$pbkdf2-sha256$1000$notBase64!"));
+        assertFalse(passwordEncrypt.matches(PASSWORD, "$pbkdf2-sha256$many$c2FsdA==$aGFzaA=="));
+        assertFalse(passwordEncrypt.matches(PASSWORD, null));
+    }
+
+    @Test
+    public void shouldNotMatchHashWithTooManyIterations() {
+        assertFalse(passwordEncrypt.matches(PASSWORD, "$pbkdf2-sha256$2000000000$c2FsdA==$aGFzaA=="));
+        assertFalse(passwordEncrypt.matches(PASSWORD, "$pbkdf2-sha256$0$c2FsdA==$aGFzaA=="));
+        assertFalse(passwordEncrypt.matches(PASSWORD, "$pbkdf2-sha256$-1$c2FsdA==$aGFzaA=="));
+    }
+
+    @Test(expected = ServiceUnavailableException.class)
+    public void shouldRejectHashNotComputedInTime() {
+        passwordEncrypt.setIterations(500000);
+        passwordEncrypt.setHashingTimeoutMillis(1);
+
+        passwordEncrypt.encryptPassword(PASSWORD);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotStartWithMoreIterationsThanAccepted() {
+        PasswordEncrypt misconfigured = new PasswordEncrypt();
+        misconfigured.setIterations(2000);
+        misconfigured.setMaxIterations(1000);
+
+        misconfigured.startHashingExecutor();
+    }
+}
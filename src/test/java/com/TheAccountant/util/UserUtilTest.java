@@ -1,12 +1,24 @@
 package com.TheAccountant.util;
 
+import com.TheAccountant.app.authentication.SessionAuthentication;
 import com.TheAccountant.controller.exception.BadRequestException;
+import com.TheAccountant.controller.exception.UnauthorizedException;
+import com.TheAccountant.dao.AppUserDao;
+import com.TheAccountant.model.user.AppUser;
+import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 /**
  * Created by tudor.grigoriu on 10/26/2016.
@@ -14,15 +26,63 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(locations = { "/spring-config.xml" })
 @TestPropertySource(locations="classpath:application-test.properties")
+@Transactional
 public class UserUtilTest {
 
     @Autowired
     private UserUtil userUtil;
 
+    @Autowired
+    private AppUserDao appUserDao;
+
+    @After
+    public void clearSession() {
+        SecurityContextHolder.getContext().setAuthentication(null);
+    }
+
     @Test(expected = BadRequestException.class)
     public void shouldThrowExceptionOnValidateUsername(){
         String username = "tudor/grigoriu";
         userUtil.validateUsername(username);
     }
 
+    @Test
+    public void shouldKeepLoggedUserOnSessionAuthentication() {
+        AppUser appUser = appUserDao.save(createAppUser());
+        SessionAuthentication sessionAuthentication = new SessionAuthentication(appUser.getUsername(), "1.1.1.1");
+        SecurityContextHolder.getContext().setAuthentication(sessionAuthentication);
+
+        AppUser loggedUser = userUtil.extractLoggedAppUserFromDatabase();
+        assertEquals(appUser.getUserId(), loggedUser.getUserId());
+        assertSame(loggedUser, sessionAuthentication.getPrincipal());
+        assertSame(loggedUser, userUtil.extractLoggedAppUserFromDatabase());
+    }
+
+    @Test
+    public void shouldReloadLoggedUserWhenLoginChanges() {
+        AppUser appUser = appUserDao.save(createAppUser());
+        SessionAuthentication sessionAuthentication = new SessionAuthentication(appUser.getUsername(), "1.1.1.1");
+        sessionAuthentication.setPrincipal(new AppUser());
+        SecurityContextHolder.getContext().setAuthentication(sessionAuthentication);
+
+        assertEquals(appUser.getUserId(), userUtil.extractLoggedAppUserFromDatabase().getUserId());
+    }
+
+    @Test(expected = UnauthorizedException.class)
+    public void shouldNotKeepUnknownUser() {
+        SecurityContextHolder.getContext().setAuthentication(new SessionAuthentication("unknownUser", "1.1.1.1"));
+        userUtil.extractLoggedAppUserFromDatabase();
+    }
+
+    private AppUser createAppUser() {
+
+        AppUser appUser = new AppUser();
+        appUser.setFirstName("Florin");
+        appUser.setSurname("Iacob");
+        appUser.setPassword("TEST_PASS");
+        appUser.setUsername("florin1234");
+        appUser.setBirthdate(new Date());
+        appUser.setEmail("user-util-test@my-money-tracker.ro");
+        return appUser;
+    }
 }
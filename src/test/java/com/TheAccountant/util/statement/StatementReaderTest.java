@@ -0,0 +1,122 @@
+package com.TheAccountant.util.statement;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for the {@link CsvStatementReader} and {@link OfxStatementReader}
+ */
+public class StatementReaderTest {
+
+    @Test
+    public void shouldReadQuotedCsvFields() throws IOException {
+
+        String csv = "Date;Name;Ignored;Amount\n"
+                + "2017-05-20;\"Coffee; to go\";x;-3.5\n"
+                + "\n"
+                + "2017-05-21;\"Salary \"\"May\"\"\nbonus\";y;1500\n";
+        CsvStatementReader reader = new CsvStatementReader(new StringReader(csv), ';',
+                Arrays.asList("date", "name", "", "amount"), true);
+
+        Map<String, String> row = reader.readRow();
+        assertEquals("2017-05-20", row.get(StatementRowMapper.DATE));
+        assertEquals("Coffee; to go", row.get(StatementRowMapper.NAME));
+        assertEquals("-3.5", row.get(StatementRowMapper.AMOUNT));
+        assertEquals(3, row.size());
+
+        row = reader.readRow();
+        assertEquals("Salary \"May\"\nbonus", row.get(StatementRowMapper.NAME));
+        assertEquals("1500", row.get(StatementRowMapper.AMOUNT));
+        assertNull(reader.readRow());
+        reader.close();
+    }
+
+    @Test
+    public void shouldRejectTooLongCsvRecord() throws IOException {
+
+        String csv = "2017-05-20,\"Unterminated,-3.5\n"
+                + "2017-05-21,Coffee,-2\n";
+        CsvStatementReader reader = new CsvStatementReader(new StringReader(csv), ',',
+                Arrays.asList("date", "name", "amount"), false, 20);
+
+        try {
+            reader.readRow();
+            fail("A record longer than the maximum length should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, reader.getRowNumber());
+        }
+        Map<String, String> row = reader.readRow();
+        assertEquals(2, reader.getRowNumber());
+        assertEquals("Coffee", row.get(StatementRowMapper.NAME));
+        assertNull(reader.readRow());
+        reader.close();
+    }
+
+    @Test
+    public void shouldReadOfxTransactions() throws IOException {
+
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><CURDEF>EUR\n"
+                + "<BANKTRANLIST>\n"
+                + "<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20170520120000<TRNAMT>-12.30<NAME>Grocery<MEMO>Weekly</STMTTRN>\n"
+                + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20170521<TRNAMT>100.00<MEMO>Refund"
+                + "<CURRENCY><CURSYM>USD<CURRATE>1.1</CURRENCY></STMTTRN>\n"
+                + "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+        OfxStatementReader reader = new OfxStatementReader(new StringReader(ofx));
+
+        Map<String, String> row = reader.readRow();
+        assertEquals("20170520", row.get(StatementRowMapper.DATE));
+        assertEquals("-12.30", row.get(StatementRowMapper.AMOUNT));
+        assertEquals("Grocery", row.get(StatementRowMapper.NAME));
+        assertEquals("EUR", row.get(StatementRowMapper.CURRENCY));
+
+        row = reader.readRow();
+        assertEquals("Refund", row.get(StatementRowMapper.NAME));
+        assertEquals("USD", row.get(StatementRowMapper.CURRENCY));
+        assertEquals(2, reader.getRowNumber());
+        assertNull(reader.readRow());
+        reader.close();
+    }
+
+    @Test
+    public void shouldRejectTooLongOfxTransaction() throws IOException {
+
+        String ofx = "<OFX><CURDEF>EUR<BANKTRANLIST>\n"
+                + "<STMTTRN><DTPOSTED>20170520<TRNAMT>-12.30<NAME>Grocery<MEMO>" + String.join("", Collections.nCopies(100, "x"))
+                + "</STMTTRN>\n"
+                + "<STMTTRN><DTPOSTED>20170521<TRNAMT>-2<NAME>Coffee</STMTTRN>\n"
+                + "</BANKTRANLIST></OFX>";
+        OfxStatementReader reader = new OfxStatementReader(new StringReader(ofx), 80);
+
+        try {
+            reader.readRow();
+            fail("A transaction longer than the maximum length should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(1, reader.getRowNumber());
+        }
+        Map<String, String> row = reader.readRow();
+        assertEquals(2, reader.getRowNumber());
+        assertEquals("Coffee", row.get(StatementRowMapper.NAME));
+        assertNull(reader.readRow());
+        reader.close();
+    }
+
+    @Test
+    public void shouldReadUnterminatedOfxTagToTheEnd() throws IOException {
+
+        String ofx = "<STMTTRN><NAME" + String.join("", Collections.nCopies(1000, "x"));
+        OfxStatementReader reader = new OfxStatementReader(new StringReader(ofx), 80);
+
+        assertNull(reader.readRow());
+        assertEquals(0, reader.getRowNumber());
+        reader.close();
+    }
+}
@@ -0,0 +1,88 @@
+package com.TheAccountant.util.statement;
+
+import com.TheAccountant.model.abstracts.CurrencyHolderEntity;
+import com.TheAccountant.model.expense.Expense;
+import com.TheAccountant.model.income.Income;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the {@link StatementRowMapper}
+ */
+public class StatementRowMapperTest {
+
+    @Test
+    public void shouldMapExpenseAndIncome() {
+
+        StatementRowMapper rowMapper = new StatementRowMapper(StatementRowMapper.Type.AUTO, "yyyy-MM-dd", "RON", "Imported");
+
+        CurrencyHolderEntity entity = rowMapper.map(row("-12.30"));
+        assertTrue(entity instanceof Expense);
+        assertEquals(12.3, entity.getAmount(), 0);
+        assertEquals("RON", entity.getCurrency());
+        assertEquals("Imported", ((Expense) entity).getCategory().getName());
+
+        assertTrue(rowMapper.map(row("100")) instanceof Income);
+    }
+
+    @Test
+    public void shouldInferDecimalSeparator() {
+
+        StatementRowMapper rowMapper = new StatementRowMapper(StatementRowMapper.Type.EXPENSE, "yyyy-MM-dd", "RON", "Imported");
+
+        assertEquals(1234.56, rowMapper.map(row("1.234,56")).getAmount(), 0);
+        assertEquals(1234.56, rowMapper.map(row("1,234.56")).getAmount(), 0);
+        assertEquals(1.5, rowMapper.map(row("1,5")).getAmount(), 0);
+        assertEquals(1234567, rowMapper.map(row("1,234,567")).getAmount(), 0);
+        assertEquals(0.125, rowMapper.map(row("0,125")).getAmount(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectAmbiguousAmount() {
+
+        new StatementRowMapper(StatementRowMapper.Type.EXPENSE, "yyyy-MM-dd", "RON", "Imported").map(row("1,234"));
+    }
+
+    @Test
+    public void shouldUseSpecifiedDecimalSeparator() {
+
+        StatementRowMapper commaMapper = new StatementRowMapper(StatementRowMapper.Type.EXPENSE, "yyyy-MM-dd", "RON", "Imported", ',');
+        assertEquals(1.234, commaMapper.map(row("1,234")).getAmount(), 0);
+        assertEquals(1234.56, commaMapper.map(row("1.234,56")).getAmount(), 0);
+
+        StatementRowMapper dotMapper = new StatementRowMapper(StatementRowMapper.Type.EXPENSE, "yyyy-MM-dd", "RON", "Imported", '.');
+        assertEquals(1234, dotMapper.map(row("1,234")).getAmount(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectDecimalSeparatorBeforeGroupingSeparator() {
+
+        new StatementRowMapper(StatementRowMapper.Type.EXPENSE, "yyyy-MM-dd", "RON", "Imported", '.').map(row("1.234,56"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMisplacedGroupingSeparator() {
+
+        new StatementRowMapper(StatementRowMapper.Type.EXPENSE, "yyyy-MM-dd", "RON", "Imported", '.').map(row("12,34.5"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNotNumericAmount() {
+
+        new StatementRowMapper(StatementRowMapper.Type.EXPENSE, "yyyy-MM-dd", "RON", "Imported").map(row("12d"));
+    }
+
+    private Map<String, String> row(String amount) {
+
+        Map<String, String> row = new HashMap<>();
+        row.put(StatementRowMapper.DATE, "2017-05-20");
+        row.put(StatementRowMapper.NAME, "Coffee");
+        row.put(StatementRowMapper.AMOUNT, amount);
+        return row;
+    }
+}